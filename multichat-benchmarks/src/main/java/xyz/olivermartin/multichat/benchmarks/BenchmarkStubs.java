@@ -0,0 +1,120 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
+import xyz.olivermartin.multichat.bungee.ConfigManager;
+
+/**
+ * Stubbed proxy, players and servers for the benchmarks
+ *
+ * <p>The stubs do not record their invocations, so they add as little as possible to the time measured.</p>
+ */
+public final class BenchmarkStubs {
+
+	private static ProxyServer proxy;
+	private static File configDirectory;
+
+	private BenchmarkStubs() { /* EMPTY */ }
+
+	/**
+	 * Install a stubbed proxy as the proxy instance, if it has not been already
+	 * @return The stubbed proxy
+	 */
+	public static synchronized ProxyServer getProxy() {
+
+		if (proxy == null) {
+			proxy = mock(ProxyServer.class, withSettings().stubOnly());
+			when(proxy.getLogger()).thenReturn(Logger.getLogger("MultiChat-Benchmark"));
+			ProxyServer.setInstance(proxy);
+		}
+
+		return proxy;
+
+	}
+
+	/**
+	 * Register the proxy config files, using the benchmark version of chatcontrol.yml
+	 * and the default version of every other file
+	 */
+	public static synchronized void setupConfig() throws IOException {
+
+		if (configDirectory != null) return;
+
+		getProxy();
+
+		configDirectory = Files.createTempDirectory("multichat-benchmark").toFile();
+		configDirectory.deleteOnExit();
+
+		try (InputStream in = BenchmarkStubs.class.getResourceAsStream("/benchmark-chatcontrol.yml")) {
+			Files.copy(in, new File(configDirectory, "chatcontrol.yml").toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		ConfigManager.getInstance().registerHandler("config.yml", configDirectory);
+		ConfigManager.getInstance().registerHandler("chatcontrol.yml", configDirectory);
+		ConfigManager.getInstance().registerHandler("messages.yml", configDirectory);
+
+		for (File file : configDirectory.listFiles()) {
+			file.deleteOnExit();
+		}
+
+	}
+
+	public static ServerInfo server(String name) {
+		ServerInfo info = mock(ServerInfo.class, withSettings().stubOnly());
+		when(info.getName()).thenReturn(name);
+		return info;
+	}
+
+	/**
+	 * Create a player, who can be found by name from the stubbed proxy
+	 * @param name
+	 * @param server The server the player is connected to
+	 * @param permissions The permissions the player has
+	 * @return The player
+	 */
+	public static ProxiedPlayer player(String name, ServerInfo server, String... permissions) {
+
+		final Set<String> permissionSet = new HashSet<String>(Arrays.asList(permissions));
+
+		Server connection = mock(Server.class, withSettings().stubOnly());
+		when(connection.getInfo()).thenReturn(server);
+
+		ProxiedPlayer player = mock(ProxiedPlayer.class, withSettings().stubOnly());
+		when(player.getName()).thenReturn(name);
+		when(player.getDisplayName()).thenReturn(name);
+		when(player.getUniqueId()).thenReturn(UUID.nameUUIDFromBytes(name.getBytes()));
+		when(player.getServer()).thenReturn(connection);
+		when(player.hasPermission(anyString())).thenAnswer(new Answer<Boolean>() {
+			public Boolean answer(InvocationOnMock invocation) {
+				return permissionSet.contains(invocation.getArgument(0));
+			}
+		});
+
+		when(getProxy().getPlayer(name)).thenReturn(player);
+
+		return player;
+
+	}
+
+}
@@ -0,0 +1,75 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import xyz.olivermartin.multichat.bungee.Channel;
+import xyz.olivermartin.multichat.bungee.MultiChat;
+
+/**
+ * Building the global chat message sent to each receiver, which is done once per online player for every message
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChannelBenchmark {
+
+	private static final String FORMAT = "&8[&aG&8] &7[&bhub&7] &f&x&f&f&a&a&0&0[Admin] &aRevilo410&f: ";
+	private static final String MESSAGE = "Hello everyone! &6Welcome &x&f&f&0&0&0&0to the &lserver&r, the event starts at 8pm :)";
+
+	/**
+	 * Is the receiver on a legacy (pre-1.16) server, so hex codes must be approximated?
+	 */
+	@Param({"false", "true"})
+	public boolean legacy;
+
+	private Channel channel;
+	private ProxiedPlayer colourSender;
+	private ProxiedPlayer plainSender;
+	private ProxiedPlayer receiver;
+
+	@Setup
+	public void setup() {
+
+		ServerInfo hub = BenchmarkStubs.server("hub");
+		ServerInfo survival = BenchmarkStubs.server("survival");
+
+		MultiChat.legacyServers = legacy ? new ArrayList<String>(Arrays.asList("survival")) : new ArrayList<String>();
+
+		channel = Channel.getGlobalChannel();
+		colourSender = BenchmarkStubs.player("Revilo410", hub, "multichat.chat.colour");
+		plainSender = BenchmarkStubs.player("Steve", hub);
+		receiver = BenchmarkStubs.player("Alex", survival);
+
+	}
+
+	@Benchmark
+	public BaseComponent[] buildFormatColour() {
+		return channel.buildFormat(colourSender, receiver, FORMAT, MESSAGE);
+	}
+
+	@Benchmark
+	public BaseComponent[] buildFormatPlain() {
+		return channel.buildFormat(plainSender, receiver, FORMAT, MESSAGE);
+	}
+
+}
@@ -0,0 +1,106 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import xyz.olivermartin.multichat.bungee.ChatControl;
+
+/**
+ * Applying the chat rules and the spam check, which run for every message in the chats they are enabled for
+ *
+ * <p>The rule set is in benchmark-chatcontrol.yml.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatControlBenchmark {
+
+	private static final String[] MESSAGES = {
+			"hello everyone, how is it going?",
+			"anyone want to trade diamonds for some emeralds at spawn",
+			"[bold]Welcome[bold] to the server! darn that was a fast join :)",
+			"lol ez noob, join play.otherserver.net for better pvp",
+			"does anyone know when the event starts? heeeeeeeeeeeeelp",
+			"gg wp everyone, see you all tomorrow"
+	};
+
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+
+		BenchmarkStubs.setupConfig();
+
+		BenchmarkStubs.player("Revilo410", BenchmarkStubs.server("hub"), "multichat.regexrules.bold");
+		BenchmarkStubs.player("Steve", BenchmarkStubs.server("hub"), "multichat.chat.advertise", "multichat.chat.bypassfilter");
+
+	}
+
+	private String nextMessage() {
+		next = (next + 1) % MESSAGES.length;
+		return MESSAGES[next];
+	}
+
+	@Benchmark
+	public Optional<String> applyChatRules() {
+		return ChatControl.applyChatRules(nextMessage(), "global_chat", "Revilo410");
+	}
+
+	@Benchmark
+	public Optional<String> applyChatRulesWithBypass() {
+		return ChatControl.applyChatRules(nextMessage(), "global_chat", "Steve");
+	}
+
+	/**
+	 * Rules which are turned off for the chat, so only the config is checked
+	 */
+	@Benchmark
+	public Optional<String> applyChatRulesDisabled() {
+		return ChatControl.applyChatRules(nextMessage(), "staff_chats", "Revilo410");
+	}
+
+	@State(Scope.Thread)
+	public static class SpamState {
+
+		ChatControl.PlayerSpamInfo spamInfo;
+		int next;
+
+		@Setup(Level.Iteration)
+		public void setup() throws IOException {
+			BenchmarkStubs.setupConfig();
+			spamInfo = new ChatControl.PlayerSpamInfo();
+		}
+
+	}
+
+	@Benchmark
+	public boolean checkSpam(SpamState state) {
+		state.next = (state.next + 1) % MESSAGES.length;
+		return state.spamInfo.checkSpam(MESSAGES[state.next]);
+	}
+
+	/**
+	 * The same message every time, so the repeated message check is always triggered
+	 */
+	@Benchmark
+	public boolean checkSpamRepeated(SpamState state) {
+		return state.spamInfo.checkSpam(MESSAGES[0]);
+	}
+
+}
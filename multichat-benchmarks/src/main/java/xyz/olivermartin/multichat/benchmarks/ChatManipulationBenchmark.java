@@ -0,0 +1,69 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import xyz.olivermartin.multichat.bungee.ChatManipulation;
+import xyz.olivermartin.multichat.bungee.PlayerMetaManager;
+
+/**
+ * Replacing the placeholders of a private message, which is done three times per message (pmout, pmin and pmspy)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatManipulationBenchmark {
+
+	// The default formats from config.yml
+	private static final String PM_OUT = "&6[&cYou &6-> &c%DISPLAYNAMET%&6] &f%MESSAGE%";
+	private static final String PM_SPY = "&8&l<< &f%NAME% &7-> &f%NAMET%&8: &7%MESSAGE% &8&l>>";
+	private static final String PM_FULL = "&8[%SERVER%:%WORLD%] %PREFIX%%NICK%%SUFFIX% &6-> &8[%SERVERT%:%WORLDT%] %PREFIXT%%NICKT%%SUFFIXT%&f: %MESSAGE%";
+
+	private static final String MESSAGE = "hey, are you coming to the build competition later? meet at spawn";
+
+	private ChatManipulation chatfix;
+	private ProxiedPlayer sender;
+	private ProxiedPlayer target;
+
+	@Setup
+	public void setup() {
+
+		chatfix = new ChatManipulation();
+		sender = BenchmarkStubs.player("Revilo410", BenchmarkStubs.server("hub"));
+		target = BenchmarkStubs.player("Alex", BenchmarkStubs.server("survival"));
+
+		PlayerMetaManager.getInstance().registerPlayer(sender.getUniqueId(), sender.getName());
+		PlayerMetaManager.getInstance().registerPlayer(target.getUniqueId(), target.getName());
+
+	}
+
+	@Benchmark
+	public String replaceMsgVarsOut() {
+		return chatfix.replaceMsgVars(PM_OUT, MESSAGE, sender, target);
+	}
+
+	@Benchmark
+	public String replaceMsgVarsSpy() {
+		return chatfix.replaceMsgVars(PM_SPY, MESSAGE, sender, target);
+	}
+
+	@Benchmark
+	public String replaceMsgVarsAllPlaceholders() {
+		return chatfix.replaceMsgVars(PM_FULL, MESSAGE, sender, target);
+	}
+
+}
@@ -0,0 +1,82 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import xyz.olivermartin.multichat.bungee.MultiChatUtil;
+import xyz.olivermartin.multichat.local.common.LocalChatManager;
+import xyz.olivermartin.multichat.local.common.MultiChatLocalPlayer;
+
+/**
+ * Rewriting RGB colour codes, which is done for every message on both the proxy and the local servers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColourCodeBenchmark {
+
+	@Param({"plain", "legacy", "hex"})
+	public String codes;
+
+	private String message;
+	private LocalChatManager localChatManager;
+
+	@Setup
+	public void setup() {
+
+		switch (codes) {
+		case "plain":
+			message = "anyone want to trade diamonds for some emeralds at spawn? I have a full stack of them";
+			break;
+		case "legacy":
+			message = "&6anyone &awant &bto &ltrade&r &cdiamonds &efor &dsome &2emeralds &fat spawn? &7I have a &Afull &Bstack";
+			break;
+		default:
+			message = "&#FF0000anyone &x&0&0&f&f&0&0want &#00AAFFto trade &x&f&f&a&a&0&0diamonds&r for &#abcdefsome emeralds at spawn";
+			break;
+		}
+
+		localChatManager = new LocalChatManager() {
+
+			public String translateColourCodes(String message, boolean rgb) {
+				return message;
+			}
+
+			public String processExternalPlaceholders(MultiChatLocalPlayer player, String message) {
+				return message;
+			}
+
+		};
+
+	}
+
+	@Benchmark
+	public String proxyReformatRGB() {
+		return MultiChatUtil.reformatRGB(message);
+	}
+
+	@Benchmark
+	public String proxyApproximateHexCodes() {
+		return MultiChatUtil.approximateHexCodes(MultiChatUtil.reformatRGB(message));
+	}
+
+	@Benchmark
+	public String localReformatRGB() {
+		return localChatManager.reformatRGB(message);
+	}
+
+}
@@ -0,0 +1,80 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latencies of one type of traffic sent by one load generator thread
+ *
+ * <p>The array is sized for the expected number of samples up front, so that recording
+ * does not add to the allocation rate being measured.</p>
+ */
+public class LatencyRecorder {
+
+	private long[] samples;
+	private int count;
+	private long errors;
+	private Throwable firstError;
+
+	public LatencyRecorder(int expected) {
+		samples = new long[Math.max(16, expected)];
+	}
+
+	public void record(long nanos) {
+		if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+		samples[count++] = nanos;
+	}
+
+	public void recordError(Throwable error) {
+		if (firstError == null) firstError = error;
+		errors++;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public Throwable getFirstError() {
+		return firstError;
+	}
+
+	/**
+	 * Merge the samples of several recorders, sorted so that percentiles can be read from them
+	 * @param recorders
+	 * @return The sorted samples
+	 */
+	public static long[] merge(Iterable<LatencyRecorder> recorders) {
+
+		int total = 0;
+		for (LatencyRecorder recorder : recorders) {
+			total += recorder.count;
+		}
+
+		long[] merged = new long[total];
+		int offset = 0;
+
+		for (LatencyRecorder recorder : recorders) {
+			System.arraycopy(recorder.samples, 0, merged, offset, recorder.count);
+			offset += recorder.count;
+		}
+
+		Arrays.sort(merged);
+		return merged;
+
+	}
+
+	/**
+	 * @param sorted The sorted samples
+	 * @param percentile Between 0 and 100
+	 * @return The sample at the percentile, or 0 if there are no samples
+	 */
+	public static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) return 0;
+		int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.min(sorted.length - 1, Math.max(0, index))];
+	}
+
+}
@@ -0,0 +1,102 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import xyz.olivermartin.multichat.local.common.storage.PartialMatchIndex;
+
+/**
+ * The partial name and nickname matching of LocalFileNameManager, used by /realname and tab completion
+ *
+ * <p>The index is benchmarked directly, as the name manager needs a running local server for its config.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameMatchBenchmark {
+
+	private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz0123456789_";
+
+	/**
+	 * The number of names known to the server
+	 */
+	@Param({"1000", "10000", "100000"})
+	public int names;
+
+	private PartialMatchIndex index;
+
+	@Setup
+	public void setup() {
+
+		Random random = new Random(410);
+		Map<String, UUID> entries = new HashMap<String, UUID>();
+
+		while (entries.size() < names) {
+
+			int length = 3 + random.nextInt(14);
+			StringBuilder name = new StringBuilder(length);
+			for (int i = 0; i < length; i++) {
+				name.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+			}
+
+			entries.put(name.toString(), UUID.randomUUID());
+
+		}
+
+		// Names which the queries below are sure to find
+		entries.put("revilo410", UUID.randomUUID());
+		entries.put("therevilo", UUID.randomUUID());
+
+		index = new PartialMatchIndex();
+		index.rebuild(entries);
+
+	}
+
+	@Benchmark
+	public Set<UUID> prefixMatch() {
+		return index.find("revi", Integer.MAX_VALUE);
+	}
+
+	/**
+	 * A short prefix matching many names, limited as it is for tab completion
+	 */
+	@Benchmark
+	public Set<UUID> shortPrefixMatchLimited() {
+		return index.find("a", 20);
+	}
+
+	@Benchmark
+	public Set<UUID> substringMatch() {
+		return index.find("ilo41", Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public Set<UUID> noMatch() {
+		return index.find("zzqzzq", Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public Set<UUID> regexMatch() {
+		return index.findByRegex("rev.*41", Integer.MAX_VALUE);
+	}
+
+}
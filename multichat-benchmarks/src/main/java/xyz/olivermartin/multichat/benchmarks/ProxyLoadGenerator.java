@@ -0,0 +1,482 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.ChatEvent;
+import net.md_5.bungee.api.event.PluginMessageEvent;
+import xyz.olivermartin.multichat.bungee.BungeeComm;
+import xyz.olivermartin.multichat.bungee.Events;
+import xyz.olivermartin.multichat.bungee.PrivateMessageManager;
+import xyz.olivermartin.multichat.bungee.StaffChatManager;
+
+/**
+ * A headless load test of the proxy side of MultiChat
+ *
+ * <p>Thousands of simulated players on simulated servers (see {@link SimulatedProxy}) send chat, private messages,
+ * staff chat and plugin messages at fixed rates, through the same entry points the proxy uses:</p>
+ * <ul>
+ * <li>chat - a chat event handled by {@link Events#onChat(ChatEvent)}, the checks made before a message is passed on to the server</li>
+ * <li>plugin - a multichat:chat plugin message handled by {@link BungeeComm}, the global chat broadcast sent back by the server</li>
+ * <li>pm - a private message sent by {@link PrivateMessageManager}</li>
+ * <li>staff - a mod chat message sent by {@link StaffChatManager}</li>
+ * </ul>
+ *
+ * <p>The load is open loop: each message has a time it is due to be sent, and its latency is measured from then,
+ * so a proxy which falls behind shows it in the latencies rather than by quietly sending less.</p>
+ *
+ * <p>Run with: java -cp target/benchmarks.jar xyz.olivermartin.multichat.benchmarks.ProxyLoadGenerator [options]</p>
+ */
+public class ProxyLoadGenerator {
+
+	private static final String[] TYPES = {"chat", "plugin", "pm", "staff"};
+
+	private static final int CHAT = 0;
+	private static final int PLUGIN = 1;
+	private static final int PM = 2;
+	private static final int STAFF = 3;
+
+	/**
+	 * How many players have their multichat:chat payloads encoded before the run
+	 */
+	private static final int PAYLOAD_SENDERS = 1024;
+
+	private static final String[] MESSAGES = {
+			"hello everyone, how is it going?",
+			"anyone want to trade diamonds for some emeralds at spawn",
+			"&6Welcome &rto the server! that was a fast join :)",
+			"does anyone know when the event starts? it was meant to be at 8",
+			"check out my build at /warp castle, took me all week",
+			"gg wp everyone, see you all tomorrow"
+	};
+
+	private static final String[][] OPTIONS = {
+			{"players", "2000", "Number of online players"},
+			{"servers", "10", "Number of servers the players are spread over"},
+			{"legacy-servers", "0", "How many of the servers are legacy (pre-1.16) servers"},
+			{"staff-every", "50", "Every nth player is a member of staff (mod chat and social spy)"},
+			{"chat-rate", "200", "Chat events per second"},
+			{"plugin-rate", "200", "multichat:chat plugin messages per second"},
+			{"pm-rate", "50", "Private messages per second"},
+			{"staff-rate", "10", "Mod chat messages per second"},
+			{"threads", "4", "Threads sending the load, as the proxy handles players on several threads"},
+			{"warmup", "10", "Seconds to run before measuring"},
+			{"duration", "30", "Seconds to measure for"}
+	};
+
+	private final SimulatedProxy proxy;
+	private final double[] rates;
+	private final int threads;
+
+	private final Events events;
+	private final BungeeComm bungeeComm;
+	private final StaffChatManager staffChatManager;
+	private final byte[][][] payloads;
+
+	public ProxyLoadGenerator(SimulatedProxy proxy, double[] rates, int threads) {
+
+		this.proxy = proxy;
+		this.rates = rates;
+		this.threads = threads;
+
+		events = new Events();
+		bungeeComm = new BungeeComm();
+		staffChatManager = new StaffChatManager();
+
+		payloads = new byte[Math.min(PAYLOAD_SENDERS, proxy.getPlayers().size())][][];
+		for (int i = 0; i < payloads.length; i++) {
+			payloads[i] = new byte[MESSAGES.length][];
+			for (int j = 0; j < MESSAGES.length; j++) {
+				payloads[i][j] = encodeChat(proxy.getPlayers().get(i), MESSAGES[j]);
+			}
+		}
+
+	}
+
+	/**
+	 * Encode a multichat:chat message, as the local plugin on the server does
+	 */
+	private static byte[] encodeChat(ProxiedPlayer player, String message) {
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(stream);
+
+		try {
+			out.writeUTF(player.getUniqueId().toString());
+			out.writeUTF(message);
+			out.writeUTF("&8[&aG&8] &7[" + player.getServer().getInfo().getName() + "] &f" + player.getName() + "&f: ");
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return stream.toByteArray();
+
+	}
+
+	/**
+	 * Send one chat message from every player, as the proxy sets up some of its state for a player on their first message
+	 */
+	public void prime() {
+		for (ProxiedPlayer player : proxy.getPlayers()) {
+			events.onChat(new ChatEvent(player, player.getServer(), MESSAGES[0]));
+		}
+	}
+
+	/**
+	 * Send one message of the given type
+	 */
+	private void send(int type, Random random) {
+
+		List<ProxiedPlayer> players = proxy.getPlayers();
+		String message = MESSAGES[random.nextInt(MESSAGES.length)];
+
+		switch (type) {
+
+		case CHAT:
+			ProxiedPlayer chatter = players.get(random.nextInt(players.size()));
+			events.onChat(new ChatEvent(chatter, chatter.getServer(), message));
+			break;
+
+		case PLUGIN:
+			int sender = random.nextInt(payloads.length);
+			ProxiedPlayer player = players.get(sender);
+			bungeeComm.onPluginMessage(new PluginMessageEvent(player.getServer(), player, "multichat:chat", payloads[sender][random.nextInt(MESSAGES.length)]));
+			break;
+
+		case PM:
+			int from = random.nextInt(players.size());
+			int to = random.nextInt(players.size() - 1);
+			if (to >= from) to++;
+			PrivateMessageManager.getInstance().sendMessage(message, players.get(from), players.get(to));
+			break;
+
+		case STAFF:
+			List<ProxiedPlayer> staff = proxy.getStaff();
+			ProxiedPlayer member = staff.get(random.nextInt(staff.size()));
+			staffChatManager.sendModMessage(member.getName(), member.getDisplayName(), member.getServer().getInfo().getName(), message);
+			break;
+
+		default:
+			throw new IllegalArgumentException("Unknown traffic type: " + type);
+
+		}
+
+	}
+
+	/**
+	 * Send the load for the given time
+	 * @param seconds
+	 * @return The results of the run
+	 */
+	public Result run(int seconds) throws InterruptedException {
+
+		long deliveredBefore = proxy.getChatDelivered();
+		long pluginBefore = proxy.getPluginMessagesSent();
+		long[] gcBefore = gcTotals();
+
+		long start = System.nanoTime() + 100000000L;
+		long end = start + seconds * 1000000000L;
+
+		List<Worker> workers = new ArrayList<Worker>();
+		for (int i = 0; i < threads; i++) {
+			Worker worker = new Worker(i, start, end, seconds);
+			workers.add(worker);
+			worker.start();
+		}
+
+		for (Worker worker : workers) {
+			worker.join();
+		}
+
+		long[] gcAfter = gcTotals();
+
+		return new Result(workers, seconds,
+				proxy.getChatDelivered() - deliveredBefore,
+				proxy.getPluginMessagesSent() - pluginBefore,
+				gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+
+	}
+
+	/**
+	 * @return The number of garbage collections so far and the milliseconds spent on them
+	 */
+	private static long[] gcTotals() {
+		long[] totals = new long[2];
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			totals[0] += Math.max(0, gc.getCollectionCount());
+			totals[1] += Math.max(0, gc.getCollectionTime());
+		}
+		return totals;
+	}
+
+	/**
+	 * @return The bytes allocated by the current thread so far, or -1 if the JVM cannot tell
+	 */
+	private static long allocatedBytes() {
+
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+		if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return -1;
+
+		return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+	}
+
+	private static void waitUntil(long due) {
+
+		long remaining;
+
+		while ((remaining = due - System.nanoTime()) > 0) {
+			if (remaining > 100000) {
+				LockSupport.parkNanos(remaining - 50000);
+			} else {
+				Thread.onSpinWait();
+			}
+		}
+
+	}
+
+	/**
+	 * A thread sending its share of each type of traffic
+	 */
+	private class Worker extends Thread {
+
+		private final int index;
+		private final long start;
+		private final long end;
+		private final LatencyRecorder[] recorders;
+		private long allocated;
+
+		Worker(int index, long start, long end, int seconds) {
+
+			super("MultiChat-Load-" + index);
+			setDaemon(true);
+
+			this.index = index;
+			this.start = start;
+			this.end = end;
+
+			recorders = new LatencyRecorder[TYPES.length];
+			for (int type = 0; type < TYPES.length; type++) {
+				recorders[type] = new LatencyRecorder((int) (rates[type] * seconds / threads * 1.1));
+			}
+
+		}
+
+		@Override
+		public void run() {
+
+			Random random = ThreadLocalRandom.current();
+
+			long[] interval = new long[TYPES.length];
+			long[] due = new long[TYPES.length];
+
+			for (int type = 0; type < TYPES.length; type++) {
+				interval[type] = rates[type] > 0 ? (long) (1000000000.0 * threads / rates[type]) : -1;
+				// Stagger the threads so they do not all send at the same moment
+				due[type] = start + interval[type] * index / threads;
+			}
+
+			long allocatedBefore = allocatedBytes();
+
+			while (true) {
+
+				int next = -1;
+				for (int type = 0; type < TYPES.length; type++) {
+					if (interval[type] > 0 && (next == -1 || due[type] < due[next])) next = type;
+				}
+
+				if (next == -1 || due[next] >= end) break;
+
+				waitUntil(due[next]);
+
+				try {
+					send(next, random);
+					recorders[next].record(System.nanoTime() - due[next]);
+				} catch (Throwable e) {
+					recorders[next].recordError(e);
+				}
+
+				due[next] += interval[next];
+
+			}
+
+			long allocatedAfter = allocatedBytes();
+			allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+
+		}
+
+	}
+
+	/**
+	 * The results of one run
+	 */
+	public class Result {
+
+		private final List<Worker> workers;
+		private final int seconds;
+		private final long delivered;
+		private final long pluginMessages;
+		private final long gcCount;
+		private final long gcMillis;
+
+		Result(List<Worker> workers, int seconds, long delivered, long pluginMessages, long gcCount, long gcMillis) {
+			this.workers = workers;
+			this.seconds = seconds;
+			this.delivered = delivered;
+			this.pluginMessages = pluginMessages;
+			this.gcCount = gcCount;
+			this.gcMillis = gcMillis;
+		}
+
+		public void print() {
+
+			System.out.println(String.format("%-8s %10s %10s %8s %10s %10s %10s %10s %10s",
+					"type", "target/s", "sent/s", "errors", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us"));
+
+			long sent = 0;
+
+			for (int type = 0; type < TYPES.length; type++) {
+
+				if (rates[type] <= 0) continue;
+
+				List<LatencyRecorder> recorders = new ArrayList<LatencyRecorder>();
+				long errors = 0;
+				Throwable firstError = null;
+
+				for (Worker worker : workers) {
+					recorders.add(worker.recorders[type]);
+					errors += worker.recorders[type].getErrors();
+					if (firstError == null) firstError = worker.recorders[type].getFirstError();
+				}
+
+				long[] sorted = LatencyRecorder.merge(recorders);
+				sent += sorted.length + errors;
+
+				System.out.println(String.format("%-8s %10.1f %10.1f %8d %10.1f %10.1f %10.1f %10.1f %10.1f",
+						TYPES[type], rates[type], (double) sorted.length / seconds, errors,
+						micros(LatencyRecorder.percentile(sorted, 50)),
+						micros(LatencyRecorder.percentile(sorted, 90)),
+						micros(LatencyRecorder.percentile(sorted, 99)),
+						micros(LatencyRecorder.percentile(sorted, 99.9)),
+						micros(LatencyRecorder.percentile(sorted, 100))));
+
+				if (firstError != null) {
+					System.out.println("  first " + TYPES[type] + " error:");
+					firstError.printStackTrace(System.out);
+				}
+
+			}
+
+			System.out.println();
+			System.out.println(String.format("Messages shown to players: %.1f/s", (double) delivered / seconds));
+			System.out.println(String.format("Plugin messages sent to servers: %.1f/s", (double) pluginMessages / seconds));
+
+			long allocated = 0;
+			for (Worker worker : workers) {
+				if (worker.allocated < 0) {
+					allocated = -1;
+					break;
+				}
+				allocated += worker.allocated;
+			}
+
+			if (allocated < 0) {
+				System.out.println("Allocation rate: not supported by this JVM");
+			} else {
+				System.out.println(String.format("Allocation rate: %.1f MB/s (%d bytes per message sent)",
+						allocated / 1048576.0 / seconds, sent == 0 ? 0 : allocated / sent));
+			}
+
+			System.out.println(String.format("Garbage collections: %d (%d ms)", gcCount, gcMillis));
+
+		}
+
+	}
+
+	private static double micros(long nanos) {
+		return nanos / 1000.0;
+	}
+
+	private static void printUsage() {
+		System.out.println("Usage: ProxyLoadGenerator [--option value]...");
+		for (String[] option : OPTIONS) {
+			System.out.println(String.format("  --%-16s %s (default %s)", option[0], option[2], option[1]));
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		Map<String, String> options = new HashMap<String, String>();
+		for (String[] option : OPTIONS) {
+			options.put(option[0], option[1]);
+		}
+
+		for (int i = 0; i < args.length; i++) {
+
+			String name = args[i].startsWith("--") ? args[i].substring(2) : args[i];
+
+			if (!options.containsKey(name) || i + 1 >= args.length) {
+				printUsage();
+				return;
+			}
+
+			options.put(name, args[++i]);
+
+		}
+
+		int players = Integer.parseInt(options.get("players"));
+		int servers = Integer.parseInt(options.get("servers"));
+		int staffEvery = Integer.parseInt(options.get("staff-every"));
+		int threads = Integer.parseInt(options.get("threads"));
+		int warmup = Integer.parseInt(options.get("warmup"));
+		int duration = Integer.parseInt(options.get("duration"));
+
+		if (players < 2 || servers < 1 || threads < 1 || duration < 1) {
+			printUsage();
+			return;
+		}
+
+		double[] rates = new double[TYPES.length];
+		for (int type = 0; type < TYPES.length; type++) {
+			rates[type] = Double.parseDouble(options.get(TYPES[type] + "-rate"));
+		}
+
+		System.out.println("Setting up " + players + " players on " + servers + " servers...");
+
+		SimulatedProxy proxy = new SimulatedProxy(players, servers, Integer.parseInt(options.get("legacy-servers")), staffEvery);
+
+		// Staff chat can only be sent if there is staff
+		if (proxy.getStaff().isEmpty()) rates[STAFF] = 0;
+
+		ProxyLoadGenerator generator = new ProxyLoadGenerator(proxy, rates, threads);
+		generator.prime();
+
+		if (warmup > 0) {
+			System.out.println("Warming up for " + warmup + "s...");
+			generator.run(warmup);
+		}
+
+		System.out.println("Measuring for " + duration + "s on " + threads + " threads...");
+		System.out.println();
+
+		generator.run(duration).print();
+
+	}
+
+}
@@ -0,0 +1,365 @@
+package xyz.olivermartin.multichat.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.olivermartin410.plugins.TChatInfo;
+
+import net.md_5.bungee.api.CommandSender;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
+import net.md_5.bungee.api.plugin.PluginManager;
+import xyz.olivermartin.multichat.bungee.Channel;
+import xyz.olivermartin.multichat.bungee.ChatModeManager;
+import xyz.olivermartin.multichat.bungee.ConfigManager;
+import xyz.olivermartin.multichat.bungee.MultiChat;
+import xyz.olivermartin.multichat.bungee.PlayerMetaManager;
+
+/**
+ * A stubbed proxy with many online players spread over a number of servers, for the load generator
+ *
+ * <p>The players, their connections and the servers are plain dynamic proxies rather than mocks,
+ * so that the thousands of calls made for each broadcast cost as little as possible.
+ * Everything sent to them is counted rather than kept.</p>
+ */
+public class SimulatedProxy {
+
+	private static final String[] STAFF_PERMISSIONS = {
+			"multichat.staff.mod",
+			"multichat.staff.spy",
+			"multichat.chat.colour",
+			"multichat.chat.link"
+	};
+
+	private final ProxyServer proxy;
+	private final List<ServerInfo> servers;
+	private final List<ProxiedPlayer> players;
+	private final List<ProxiedPlayer> staff;
+	private final Map<UUID, ProxiedPlayer> playersByUUID;
+	private final Map<String, ProxiedPlayer> playersByName;
+
+	private final LongAdder chatDelivered;
+	private final LongAdder pluginMessagesSent;
+	private final LongAdder consoleLines;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * Set up the stubbed proxy, its config files and its players
+	 * @param playerCount The number of online players
+	 * @param serverCount The number of servers the players are spread over
+	 * @param legacyServerCount How many of the servers are legacy (pre-1.16) servers
+	 * @param staffEvery Every nth player is a member of staff, who can see the mod chat and social spy
+	 */
+	public SimulatedProxy(int playerCount, int serverCount, int legacyServerCount, int staffEvery) throws IOException {
+
+		chatDelivered = new LongAdder();
+		pluginMessagesSent = new LongAdder();
+		consoleLines = new LongAdder();
+
+		BenchmarkStubs.setupConfig();
+
+		proxy = BenchmarkStubs.getProxy();
+
+		servers = new ArrayList<ServerInfo>();
+		List<List<ProxiedPlayer>> serverPlayers = new ArrayList<List<ProxiedPlayer>>();
+		List<String> legacyServers = new ArrayList<String>();
+
+		for (int i = 0; i < serverCount; i++) {
+			List<ProxiedPlayer> onServer = new ArrayList<ProxiedPlayer>();
+			String name = "server" + i;
+			servers.add(newProxy(ServerInfo.class, new ServerInfoHandler(name, Collections.unmodifiableList(onServer))));
+			serverPlayers.add(onServer);
+			if (i < legacyServerCount) legacyServers.add(name);
+		}
+
+		MultiChat.legacyServers = legacyServers;
+
+		players = new ArrayList<ProxiedPlayer>(playerCount);
+		staff = new ArrayList<ProxiedPlayer>();
+		playersByUUID = new HashMap<UUID, ProxiedPlayer>();
+		playersByName = new HashMap<String, ProxiedPlayer>();
+
+		String ccdefault = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ccdefault");
+		String ncdefault = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ncdefault");
+
+		for (int i = 0; i < playerCount; i++) {
+
+			String name = "Player" + i;
+			UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+			boolean isStaff = staffEvery > 0 && i % staffEvery == 0;
+
+			ServerInfo info = servers.get(i % serverCount);
+			Server connection = newProxy(Server.class, new ServerHandler(info));
+			ProxiedPlayer player = newProxy(ProxiedPlayer.class, new PlayerHandler(name, uuid, connection, isStaff ? STAFF_PERMISSIONS : new String[0]));
+
+			players.add(player);
+			serverPlayers.get(i % serverCount).add(player);
+			playersByUUID.put(uuid, player);
+			playersByName.put(name.toLowerCase(), player);
+
+			// The state the proxy sets up when a player joins
+			PlayerMetaManager.getInstance().registerPlayer(uuid, name);
+			ChatModeManager.getInstance().registerPlayer(uuid, true);
+			Channel.setChannel(uuid, Channel.getGlobalChannel());
+
+			if (isStaff) {
+
+				staff.add(player);
+				MultiChat.socialspy.add(uuid);
+
+				TChatInfo chatinfo = new TChatInfo();
+				chatinfo.setChatColor(ccdefault.charAt(0));
+				chatinfo.setNameColor(ncdefault.charAt(0));
+				MultiChat.modchatpreferences.put(uuid, chatinfo);
+
+			}
+
+		}
+
+		final Collection<ProxiedPlayer> online = Collections.unmodifiableList(players);
+		final CommandSender console = newProxy(CommandSender.class, new ConsoleHandler());
+
+		when(proxy.getPlayers()).thenReturn(online);
+		when(proxy.getConsole()).thenReturn(console);
+		when(proxy.getPluginManager()).thenReturn(new PluginManager(proxy));
+
+		when(proxy.getPlayer(any(UUID.class))).thenAnswer(new Answer<ProxiedPlayer>() {
+			public ProxiedPlayer answer(InvocationOnMock invocation) {
+				return playersByUUID.get(invocation.getArgument(0));
+			}
+		});
+
+		when(proxy.getPlayer(anyString())).thenAnswer(new Answer<ProxiedPlayer>() {
+			public ProxiedPlayer answer(InvocationOnMock invocation) {
+				String name = invocation.getArgument(0);
+				return name == null ? null : playersByName.get(name.toLowerCase());
+			}
+		});
+
+	}
+
+	public List<ProxiedPlayer> getPlayers() {
+		return players;
+	}
+
+	public List<ProxiedPlayer> getStaff() {
+		return staff;
+	}
+
+	public List<ServerInfo> getServers() {
+		return servers;
+	}
+
+	/**
+	 * @return The number of chat messages shown to players so far
+	 */
+	public long getChatDelivered() {
+		return chatDelivered.sum();
+	}
+
+	/**
+	 * @return The number of plugin messages sent to the servers so far
+	 */
+	public long getPluginMessagesSent() {
+		return pluginMessagesSent.sum();
+	}
+
+	/**
+	 * @return The number of lines logged to the console so far
+	 */
+	public long getConsoleLines() {
+		return consoleLines.sum();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+		return (T) java.lang.reflect.Proxy.newProxyInstance(SimulatedProxy.class.getClassLoader(), new Class<?>[] {type}, handler);
+	}
+
+	/**
+	 * Handle the methods of Object, and give a default value for anything else not handled
+	 */
+	private static Object fallback(Object proxy, Method method, Object[] args) {
+
+		switch (method.getName()) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "isConnected":
+			return true;
+		default:
+			break;
+		}
+
+		Class<?> type = method.getReturnType();
+
+		if (type == boolean.class) return false;
+		if (type == int.class) return 0;
+		if (type == long.class) return 0L;
+		return null;
+
+	}
+
+	private class PlayerHandler implements InvocationHandler {
+
+		private final String name;
+		private final UUID uuid;
+		private final Server connection;
+		private final Set<String> permissions;
+		private volatile String displayName;
+
+		PlayerHandler(String name, UUID uuid, Server connection, String[] permissions) {
+			this.name = name;
+			this.uuid = uuid;
+			this.connection = connection;
+			this.permissions = new HashSet<String>(Arrays.asList(permissions));
+			this.displayName = name;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+
+			switch (method.getName()) {
+			case "getName":
+				return name;
+			case "getDisplayName":
+				return displayName;
+			case "setDisplayName":
+				displayName = (String) args[0];
+				return null;
+			case "getUniqueId":
+				return uuid;
+			case "getServer":
+				return connection;
+			case "hasPermission":
+				return permissions.contains(args[0]);
+			case "getPermissions":
+				return permissions;
+			case "sendMessage":
+			case "sendMessages":
+				chatDelivered.increment();
+				return null;
+			case "sendData":
+				pluginMessagesSent.increment();
+				return null;
+			case "getLocale":
+				return Locale.ENGLISH;
+			case "toString":
+				return name;
+			default:
+				return fallback(proxy, method, args);
+			}
+
+		}
+
+	}
+
+	private class ServerHandler implements InvocationHandler {
+
+		private final ServerInfo info;
+
+		ServerHandler(ServerInfo info) {
+			this.info = info;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+
+			switch (method.getName()) {
+			case "getInfo":
+				return info;
+			case "sendData":
+				pluginMessagesSent.increment();
+				return null;
+			case "toString":
+				return "Server(" + info.getName() + ")";
+			default:
+				return fallback(proxy, method, args);
+			}
+
+		}
+
+	}
+
+	private class ServerInfoHandler implements InvocationHandler {
+
+		private final String name;
+		private final Collection<ProxiedPlayer> players;
+		private final InetSocketAddress address;
+
+		ServerInfoHandler(String name, Collection<ProxiedPlayer> players) {
+			this.name = name;
+			this.players = players;
+			this.address = InetSocketAddress.createUnresolved(name, 25565);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+
+			switch (method.getName()) {
+			case "getName":
+				return name;
+			case "getPlayers":
+				return players;
+			case "getAddress":
+			case "getSocketAddress":
+				return address;
+			case "sendData":
+				pluginMessagesSent.increment();
+				return method.getReturnType() == boolean.class ? true : null;
+			case "toString":
+				return name;
+			default:
+				return fallback(proxy, method, args);
+			}
+
+		}
+
+	}
+
+	private class ConsoleHandler implements InvocationHandler {
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+
+			switch (method.getName()) {
+			case "getName":
+				return "CONSOLE";
+			case "hasPermission":
+				return true;
+			case "sendMessage":
+			case "sendMessages":
+				consoleLines.increment();
+				return null;
+			case "toString":
+				return "CONSOLE";
+			default:
+				return fallback(proxy, method, args);
+			}
+
+		}
+
+	}
+
+}
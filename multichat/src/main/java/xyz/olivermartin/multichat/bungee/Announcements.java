@@ -1,14 +1,14 @@
 package xyz.olivermartin.multichat.bungee;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
-import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.ProxyServer;
-import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
-import net.md_5.bungee.api.scheduler.ScheduledTask;
 import xyz.olivermartin.multichat.bungee.events.PostBroadcastEvent;
 
 /**
@@ -20,48 +20,131 @@ import xyz.olivermartin.multichat.bungee.events.PostBroadcastEvent;
  */
 public class Announcements {
 
-	private static Map<String, Integer> aKey = new HashMap<String, Integer>();
+	private static Map<String, ScheduledBroadcast> aKey = new ConcurrentHashMap<String, ScheduledBroadcast>();
 	private static Map<String, String> announcements = new HashMap<String, String>();
 
+	/**
+	 * The announcements with the chat rules applied, ready to send
+	 */
+	private static Map<String, RenderedMessage> rendered = new ConcurrentHashMap<String, RenderedMessage>();
+
+	/**
+	 * @param name
+	 * @return The announcement ready to send, or null if it does not exist
+	 */
+	private static RenderedMessage getRenderedAnnouncement(String name) {
+
+		RenderedMessage message = rendered.get(name.toLowerCase());
+
+		if (message == null) {
+
+			String announcement = announcements.get(name.toLowerCase());
+			if (announcement == null) return null;
+
+			message = RenderedMessage.render(ChatControl.applyChatRules(announcement, "announcements", "").get());
+			rendered.put(name.toLowerCase(), message);
+
+		}
+
+		return message;
+
+	}
+
+	/**
+	 * Render the announcements again when they are next sent, i.e. after the chat rules are reloaded
+	 */
+	public static void invalidateRendered() {
+		rendered.clear();
+	}
+
 	public static boolean startAnnouncement(final String name, Integer minutes) {
+		return startAnnouncement(name, minutes, Collections.<String>emptyList());
+	}
 
-		if(!(aKey.containsKey(name.toLowerCase())) && announcements.containsKey(name.toLowerCase())) {
+	/**
+	 * Start repeating an announcement, which is sent straight away and then after every interval
+	 * @param name
+	 * @param minutes The interval
+	 * @param servers The servers to send it to, or empty for every server
+	 * @return False if the announcement does not exist or is already running
+	 */
+	public static boolean startAnnouncement(String name, Integer minutes, Collection<String> servers) {
 
-			Integer ID;
+		if (!announcements.containsKey(name.toLowerCase())) return false;
 
-			ScheduledTask task = ProxyServer.getInstance().getScheduler().schedule(MultiChat.getInstance(), new Runnable() {
+		ScheduledBroadcast broadcast = newBroadcast(name.toLowerCase(), TimeUnit.MINUTES.toMillis(minutes), BroadcastScheduler.getInstance().getDefaultJitter(), servers, false);
 
-				@Override
-				public void run() {
-					String message = announcements.get(name.toLowerCase());
+		// Only one of two commands starting it at the same time wins
+		if (aKey.putIfAbsent(name.toLowerCase(), broadcast) != null) return false;
 
-					message = ChatControl.applyChatRules(message, "announcements", "").get();
+		BroadcastScheduler.getInstance().schedule(broadcast, 0);
+		MultiChat.markDataChanged("Announcements.dat");
 
-					for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
-						if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
-							onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&',message))));
-						} else {
-							onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&',message)));
-						}
-					}
+		return true;
 
-					// Trigger PostBroadcastEvent
-					ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("announcement", message));
-				}
+	}
 
-			}, 0, minutes, TimeUnit.MINUTES);
+	/**
+	 * Start repeating an announcement which was running before the proxy restarted, it is first sent after its interval
+	 * @param name
+	 * @param interval In milliseconds
+	 * @param jitter In milliseconds
+	 * @param servers
+	 * @param paused
+	 */
+	public static void restoreAnnouncement(String name, long interval, long jitter, Collection<String> servers, boolean paused) {
 
-			ID = task.getId();
+		ScheduledBroadcast broadcast = newBroadcast(name.toLowerCase(), interval, jitter, servers, paused);
+		ScheduledBroadcast previous = aKey.put(name.toLowerCase(), broadcast);
 
-			aKey.put(name.toLowerCase(), ID);
+		if (previous != null) BroadcastScheduler.getInstance().cancel(previous);
+		BroadcastScheduler.getInstance().schedule(broadcast, interval);
 
-			return true;
+	}
 
-		} else {
+	/**
+	 * @return The announcements which are running, by name
+	 */
+	public static Map<String, ScheduledBroadcast> getRunningAnnouncements() {
+		return Collections.unmodifiableMap(aKey);
+	}
 
-			return false;
+	public static boolean pauseAnnouncement(String name) {
+		ScheduledBroadcast broadcast = aKey.get(name.toLowerCase());
+		if (broadcast == null || !BroadcastScheduler.getInstance().pause(broadcast)) return false;
+		MultiChat.markDataChanged("Announcements.dat");
+		return true;
+	}
+
+	public static boolean resumeAnnouncement(String name) {
+		ScheduledBroadcast broadcast = aKey.get(name.toLowerCase());
+		if (broadcast == null || !BroadcastScheduler.getInstance().resume(broadcast)) return false;
+		MultiChat.markDataChanged("Announcements.dat");
+		return true;
+	}
+
+	private static ScheduledBroadcast newBroadcast(final String name, long interval, long jitter, Collection<String> servers, boolean paused) {
+
+		return new ScheduledBroadcast("announcement " + name, interval, jitter, servers, paused) {
+
+			@Override
+			protected void broadcast() {
+
+				RenderedMessage message = getRenderedAnnouncement(name);
+
+				if (message == null) return;
+
+				for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
+					if (isShownTo(onlineplayer)) message.send(onlineplayer);
+				}
+
+				// Trigger PostBroadcastEvent
+				ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("announcement", message.getText()));
+
+			}
+
+		};
 
-		}
 	}
 
 	public static HashMap<String,String> getAnnouncementList() {
@@ -73,14 +156,16 @@ public class Announcements {
 	public static void loadAnnouncementList(HashMap<String, String> loadedAnnouncements) {
 
 		announcements = loadedAnnouncements;
+		rendered.clear();
 
 	}
 
 	public static boolean stopAnnouncement(String name) {
 
 		if (aKey.containsKey(name.toLowerCase())) {
-			ProxyServer.getInstance().getScheduler().cancel(aKey.get(name.toLowerCase()));
+			BroadcastScheduler.getInstance().cancel(aKey.get(name.toLowerCase()));
 			aKey.remove(name.toLowerCase());
+			MultiChat.markDataChanged("Announcements.dat");
 			return true;
 		} else {
 			return false;
@@ -93,6 +178,8 @@ public class Announcements {
 		if (!announcements.containsKey(name.toLowerCase())) {
 
 			announcements.put(name.toLowerCase(), MultiChatUtil.reformatRGB(message));
+			rendered.remove(name.toLowerCase());
+			MultiChat.markDataChanged("Announcements.dat");
 			return true;
 
 		} else {
@@ -104,12 +191,14 @@ public class Announcements {
 	public static boolean removeAnnouncement(String name) {
 
 		if (aKey.containsKey(name.toLowerCase())) {
-			ProxyServer.getInstance().getScheduler().cancel(aKey.get(name.toLowerCase()));
+			BroadcastScheduler.getInstance().cancel(aKey.get(name.toLowerCase()));
 			aKey.remove(name.toLowerCase());
 		}
 
 		if(announcements.containsKey(name.toLowerCase())) {
 			announcements.remove(name.toLowerCase());
+			rendered.remove(name.toLowerCase());
+			MultiChat.markDataChanged("Announcements.dat");
 			return true;
 		} else {
 			return false;
@@ -131,20 +220,14 @@ public class Announcements {
 
 		if (announcements.containsKey(name.toLowerCase())) {
 
-			String message = announcements.get(name.toLowerCase());
-
-			message = ChatControl.applyChatRules(message, "announcements", "").get();
+			RenderedMessage message = getRenderedAnnouncement(name);
 
 			for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
-				if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&',message))));
-				} else {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&',message)));
-				}
+				message.send(onlineplayer);
 			}
 
 			// Trigger PostBroadcastEvent
-			ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("announcement", message));
+			ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("announcement", message.getText()));
 
 		}
 	}
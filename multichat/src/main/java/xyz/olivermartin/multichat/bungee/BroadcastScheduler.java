@@ -0,0 +1,153 @@
+package xyz.olivermartin.multichat.bungee;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.md_5.bungee.config.Configuration;
+import xyz.olivermartin.multichat.proxy.common.scheduling.HashedTimingWheel;
+
+/**
+ * Repeats the announcements and bulletins which are running
+ *
+ * <p>Every broadcast is run by one thread using a {@link HashedTimingWheel}, rather than each being a task of the proxy scheduler,
+ * so it costs very little to have many broadcasts running. Broadcasts are run to the nearest second.</p>
+ */
+public class BroadcastScheduler {
+
+	private static BroadcastScheduler instance;
+
+	public static BroadcastScheduler getInstance() {
+		return instance;
+	}
+
+	static {
+		instance = new BroadcastScheduler();
+	}
+
+	/* END STATIC */
+
+	private final HashedTimingWheel wheel;
+	private volatile long defaultJitter;
+
+	/* END ATTRIBUTES */
+
+	private BroadcastScheduler() {
+		// 512 one second ticks, so broadcasts up to around 8 minutes apart never wait more than one time round the wheel
+		this.wheel = new HashedTimingWheel("MultiChat-Broadcasts", 1, TimeUnit.SECONDS, 512);
+	}
+
+	/**
+	 * Read the settings from the config
+	 * @param configYML
+	 */
+	public void configure(Configuration configYML) {
+		defaultJitter = TimeUnit.SECONDS.toMillis(Math.max(0, configYML.getInt("broadcast_jitter", 0)));
+	}
+
+	/**
+	 * @return The jitter given to new broadcasts, in milliseconds
+	 */
+	public long getDefaultJitter() {
+		return defaultJitter;
+	}
+
+	public void start() {
+		wheel.start();
+	}
+
+	/**
+	 * Stop running broadcasts, they are still kept by their owners so they can be saved
+	 */
+	public void stop() {
+		wheel.stop();
+	}
+
+	/**
+	 * Start repeating a broadcast, unless it is paused
+	 * @param broadcast
+	 * @param delay The time until it is first sent, in milliseconds
+	 */
+	public void schedule(ScheduledBroadcast broadcast, long delay) {
+		synchronized (broadcast) {
+			if (broadcast.cancelled || broadcast.paused) return;
+			broadcast.next = wheel.schedule(newTask(broadcast, broadcast.generation), delay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Stop repeating a broadcast
+	 * @param broadcast
+	 */
+	public void cancel(ScheduledBroadcast broadcast) {
+		synchronized (broadcast) {
+			broadcast.cancelled = true;
+			if (broadcast.next != null) broadcast.next.cancel();
+		}
+	}
+
+	/**
+	 * @param broadcast
+	 * @return False if the broadcast was already paused
+	 */
+	public boolean pause(ScheduledBroadcast broadcast) {
+		synchronized (broadcast) {
+			if (broadcast.paused) return false;
+			broadcast.paused = true;
+			broadcast.generation++;
+			if (broadcast.next != null) broadcast.next.cancel();
+			return true;
+		}
+	}
+
+	/**
+	 * Resume a paused broadcast, which is next sent after its interval
+	 * @param broadcast
+	 * @return False if the broadcast was not paused
+	 */
+	public boolean resume(ScheduledBroadcast broadcast) {
+		synchronized (broadcast) {
+			if (!broadcast.paused) return false;
+			broadcast.paused = false;
+			broadcast.generation++;
+			schedule(broadcast, getNextDelay(broadcast));
+			return true;
+		}
+	}
+
+	private Runnable newTask(final ScheduledBroadcast broadcast, final int generation) {
+		return new Runnable() {
+			public void run() {
+
+				if (broadcast.cancelled || broadcast.paused || broadcast.generation != generation) return;
+
+				try {
+					broadcast.broadcast();
+				} catch (Exception e) {
+					System.out.println("[MultiChat] Could not send the broadcast " + broadcast.getName() + ": " + e);
+					e.printStackTrace();
+				}
+
+				synchronized (broadcast) {
+					if (broadcast.generation == generation) schedule(broadcast, getNextDelay(broadcast));
+				}
+
+			}
+		};
+	}
+
+	/**
+	 * The interval, moved earlier or later at random by up to the jitter, so broadcasts with the same interval do not all arrive together
+	 */
+	private long getNextDelay(ScheduledBroadcast broadcast) {
+
+		long delay = broadcast.getInterval();
+
+		if (broadcast.getJitter() > 0) {
+			delay += ThreadLocalRandom.current().nextLong(-broadcast.getJitter(), broadcast.getJitter() + 1);
+		}
+
+		return Math.max(TimeUnit.SECONDS.toMillis(1), delay);
+
+	}
+
+}
@@ -1,14 +1,15 @@
 package xyz.olivermartin.multichat.bungee;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
-import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.ProxyServer;
-import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
-import net.md_5.bungee.api.scheduler.ScheduledTask;
 import xyz.olivermartin.multichat.bungee.events.PostBroadcastEvent;
 
 /**
@@ -20,13 +21,39 @@ import xyz.olivermartin.multichat.bungee.events.PostBroadcastEvent;
  */
 public class Bulletins {
 
-	private static int currentlyScheduled = 0;
+	private static volatile ScheduledBroadcast currentlyScheduled;
 	private static int nextBulletin = -1;
 	private static ArrayList<String> bulletin = new ArrayList<String>();
 	private static int timeInbetween = 0;
 
+	/**
+	 * The bulletins with the chat rules applied, ready to send, by their message
+	 */
+	private static Map<String, RenderedMessage> rendered = new ConcurrentHashMap<String, RenderedMessage>();
+
+	private static RenderedMessage getRenderedBulletin(String message) {
+
+		RenderedMessage renderedMessage = rendered.get(message);
+
+		if (renderedMessage == null) {
+			renderedMessage = RenderedMessage.render(ChatControl.applyChatRules(message, "bulletins", "").get());
+			rendered.put(message, renderedMessage);
+		}
+
+		return renderedMessage;
+
+	}
+
+	/**
+	 * Render the bulletins again when they are next sent, i.e. after the chat rules are reloaded
+	 */
+	public static void invalidateRendered() {
+		rendered.clear();
+	}
+
 	public static void setArrayList(ArrayList<String> bulletinList) {
 		bulletin = bulletinList;
+		rendered.clear();
 	}
 
 	public static ArrayList<String> getArrayList() {
@@ -34,14 +61,66 @@ public class Bulletins {
 	}
 
 	public static void startBulletins(int timeBetween) {
+		startBulletins(timeBetween, Collections.<String>emptyList());
+	}
+
+	/**
+	 * Start sending the bulletins in turn, one after every interval
+	 * 
+	 * <p>If they are already running, they are started again with the new interval and servers,
+	 * carrying on from the next bulletin.</p>
+	 * 
+	 * @param timeBetween The interval in minutes
+	 * @param servers The servers to send them to, or empty for every server
+	 */
+	public static void startBulletins(int timeBetween, Collection<String> servers) {
+		startBulletins(TimeUnit.MINUTES.toMillis(timeBetween), BroadcastScheduler.getInstance().getDefaultJitter(), servers, false);
+	}
+
+	/**
+	 * @param interval In milliseconds
+	 * @param jitter In milliseconds
+	 * @param servers
+	 * @param paused
+	 */
+	public static synchronized void startBulletins(long interval, long jitter, Collection<String> servers, boolean paused) {
 
-		timeInbetween = timeBetween;
+		timeInbetween = (int) TimeUnit.MILLISECONDS.toMinutes(interval);
+
+		if (bulletin.size() > 0) {
+
+			ScheduledBroadcast previous = currentlyScheduled;
+			if (previous != null) BroadcastScheduler.getInstance().cancel(previous);
+
+			if (nextBulletin == -1) nextBulletin = 0;
+			currentlyScheduled = newBroadcast(interval, jitter, servers, paused);
+			BroadcastScheduler.getInstance().schedule(currentlyScheduled, interval);
 
-		if (nextBulletin == -1 && bulletin.size() > 0) {
-			nextBulletin = 0;
-			scheduleNextBulletin(timeBetween);
 		}
 
+		MultiChat.markDataChanged("Bulletins.dat");
+
+	}
+
+	/**
+	 * @return The bulletins schedule, or null if they are not running
+	 */
+	public static ScheduledBroadcast getSchedule() {
+		return currentlyScheduled;
+	}
+
+	public static boolean pauseBulletins() {
+		ScheduledBroadcast broadcast = currentlyScheduled;
+		if (broadcast == null || !BroadcastScheduler.getInstance().pause(broadcast)) return false;
+		MultiChat.markDataChanged("Bulletins.dat");
+		return true;
+	}
+
+	public static boolean resumeBulletins() {
+		ScheduledBroadcast broadcast = currentlyScheduled;
+		if (broadcast == null || !BroadcastScheduler.getInstance().resume(broadcast)) return false;
+		MultiChat.markDataChanged("Bulletins.dat");
+		return true;
 	}
 
 	public static int getTimeBetween() {
@@ -56,24 +135,26 @@ public class Bulletins {
 		}
 	}
 
-	public static void stopBulletins() {
+	public static synchronized void stopBulletins() {
 
 		if (nextBulletin != -1) {
 			nextBulletin = -1;
 		}
 
-		try {
-			ProxyServer.getInstance().getScheduler().cancel(currentlyScheduled);
-		} catch (Exception e) {
-			System.err.println(e);
+		if (currentlyScheduled != null) {
+			BroadcastScheduler.getInstance().cancel(currentlyScheduled);
+			currentlyScheduled = null;
 		}
 
+		MultiChat.markDataChanged("Bulletins.dat");
+
 	}
 
 	public static void addBulletin(String message) {
 		synchronized (bulletin) {
 			bulletin.add(MultiChatUtil.reformatRGB(message));
 		}
+		MultiChat.markDataChanged("Bulletins.dat");
 	}
 
 	public static Iterator<String> getIterator() {
@@ -87,6 +168,8 @@ public class Bulletins {
 		synchronized (bulletin) {
 			try {
 				bulletin.remove(index);
+				rendered.clear();
+				MultiChat.markDataChanged("Bulletins.dat");
 			} catch (Exception e) {
 				System.err.println("Couldnt remove bulletin!");
 			}
@@ -94,32 +177,35 @@ public class Bulletins {
 
 	}
 
-	private static void scheduleNextBulletin(final int minutes) {
-		ScheduledTask task = ProxyServer.getInstance().getScheduler().schedule(MultiChat.getInstance(), new Runnable() {
+	private static ScheduledBroadcast newBroadcast(long interval, long jitter, Collection<String> servers, boolean paused) {
+
+		return new ScheduledBroadcast("bulletins", interval, jitter, servers, paused) {
 
 			@Override
-			public void run() {
+			protected void broadcast() {
+
+				RenderedMessage message;
 
-				String message;
+				// Stopped while it was due to be sent
+				if (nextBulletin == -1) return;
 
 				if (bulletin.size() < 1) {
 					/* EMPTY */
 				} else {
 
-					message = bulletin.get(nextBulletin);
+					// Bulletins may have been removed since the last one was sent
+					if (nextBulletin >= bulletin.size()) {
+						nextBulletin = 0;
+					}
 
-					message = ChatControl.applyChatRules(message, "bulletins", "").get();
+					message = getRenderedBulletin(bulletin.get(nextBulletin));
 
 					for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
-						if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
-							onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&',message))));
-						} else {
-							onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&',message)));
-						}
+						if (isShownTo(onlineplayer)) message.send(onlineplayer);
 					}
 					
 					// Trigger PostBroadcastEvent
-					ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("bulletin", message));
+					ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("bulletin", message.getText()));
 
 				}
 
@@ -129,11 +215,9 @@ public class Bulletins {
 					nextBulletin++;
 				}
 
-				scheduleNextBulletin(minutes);
 			}
 
-		}, minutes, TimeUnit.MINUTES);
+		};
 
-		currentlyScheduled = task.getId();
 	}
 }
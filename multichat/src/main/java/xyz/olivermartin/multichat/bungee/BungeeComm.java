@@ -18,6 +18,8 @@ import net.md_5.bungee.api.event.PluginMessageEvent;
 import net.md_5.bungee.api.plugin.Listener;
 import net.md_5.bungee.config.Configuration;
 import net.md_5.bungee.event.EventHandler;
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 
 /**
  * Bungee Communication Manager
@@ -28,8 +30,24 @@ import net.md_5.bungee.event.EventHandler;
  */
 public class BungeeComm implements Listener {
 
+	/**
+	 * Send a plugin message to a server, recording how long it took to write and its size
+	 */
+	private static void send(ServerInfo server, String tag, ByteArrayOutputStream stream, long start) {
+
+		byte[] data = stream.toByteArray();
+
+		PluginMessageMetrics.recordEncode(tag, start);
+		PluginMessageMetrics.recordSent(tag, data.length);
+
+		server.sendData(tag, data);
+
+	}
+
 	public static void sendMessage(String message, ServerInfo server) {
 
+		long start = System.nanoTime();
+
 		ByteArrayOutputStream stream = new ByteArrayOutputStream();
 		DataOutputStream out = new DataOutputStream(stream);
 
@@ -71,12 +89,14 @@ public class BungeeComm implements Listener {
 			e.printStackTrace();
 		}
 
-		server.sendData("multichat:comm", stream.toByteArray());
+		send(server, "multichat:comm", stream, start);
 
 	}
 
 	public static void sendCommandMessage(String command, ServerInfo server) {
 
+		long start = System.nanoTime();
+
 		ByteArrayOutputStream stream = new ByteArrayOutputStream();
 		DataOutputStream out = new DataOutputStream(stream);
 
@@ -89,12 +109,14 @@ public class BungeeComm implements Listener {
 			e.printStackTrace();
 		}
 
-		server.sendData("multichat:act", stream.toByteArray());
+		send(server, "multichat:act", stream, start);
 
 	}
 
 	public static void sendPlayerCommandMessage(String command, String playerRegex, ServerInfo server) {
 
+		long start = System.nanoTime();
+
 		ByteArrayOutputStream stream = new ByteArrayOutputStream();
 		DataOutputStream out = new DataOutputStream(stream);
 
@@ -108,12 +130,14 @@ public class BungeeComm implements Listener {
 			e.printStackTrace();
 		}
 
-		server.sendData("multichat:pact", stream.toByteArray());
+		send(server, "multichat:pact", stream, start);
 
 	}
 
 	public static void sendChatMessage(String message, ServerInfo server) {
 
+		long start = System.nanoTime();
+
 		// This has been repurposed to send casts to local chat streams!
 
 		ByteArrayOutputStream stream = new ByteArrayOutputStream();
@@ -129,12 +153,14 @@ public class BungeeComm implements Listener {
 			e.printStackTrace();
 		}
 
-		server.sendData("multichat:chat", stream.toByteArray());
+		send(server, "multichat:chat", stream, start);
 
 	}
 
 	public static void sendIgnoreMap(ServerInfo server) {
 
+		long start = System.nanoTime();
+
 		ByteArrayOutputStream stream = new ByteArrayOutputStream();
 		//DataOutputStream out = new DataOutputStream(stream);
 		try {
@@ -146,7 +172,7 @@ public class BungeeComm implements Listener {
 			e.printStackTrace();
 		}
 
-		server.sendData("multichat:ignore", stream.toByteArray());
+		send(server, "multichat:ignore", stream, start);
 
 	}
 
@@ -154,6 +180,8 @@ public class BungeeComm implements Listener {
 
 		sendIgnoreMap(server);
 
+		long start = System.nanoTime();
+
 		ByteArrayOutputStream stream = new ByteArrayOutputStream();
 		//DataOutputStream out = new DataOutputStream(stream);
 		try {
@@ -172,9 +200,9 @@ public class BungeeComm implements Listener {
 			e.printStackTrace();
 		}
 
-		server.sendData("multichat:ch", stream.toByteArray());
+		send(server, "multichat:ch", stream, start);
 
-		DebugManager.log("Sent message on multichat:ch channel!");
+		DebugManager.log(DebugCategory.COMMUNICATION, "Sent message on multichat:ch channel!");
 
 	}
 
@@ -188,11 +216,25 @@ public class BungeeComm implements Listener {
 			return;
 		}
 
+		// Only recorded for messages from servers, so players can not create new metrics by making up tags
+		long start = System.nanoTime();
+
+		try {
+			handlePluginMessage(ev);
+		} finally {
+			PluginMessageMetrics.recordDecode(ev.getTag(), start);
+			PluginMessageMetrics.recordReceived(ev.getTag(), ev.getData().length);
+		}
+
+	}
+
+	private void handlePluginMessage(PluginMessageEvent ev) {
+
 		if (ev.getTag().equals("multichat:chat")) {
 
 			ev.setCancelled(true);
 
-			DebugManager.log("{multichat:chat} Got a plugin message");
+			DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} Got a plugin message");
 
 			ByteArrayInputStream stream = new ByteArrayInputStream(ev.getData());
 			DataInputStream in = new DataInputStream(stream);
@@ -200,35 +242,36 @@ public class BungeeComm implements Listener {
 			try {
 
 				UUID uuid = UUID.fromString(in.readUTF());
-				DebugManager.log("{multichat:chat} UUID = " + uuid);
+				DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} UUID = %s", uuid);
 				String message = in.readUTF();
-				DebugManager.log("{multichat:chat} Message = " + message);
+				DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} Message = %s", message);
 				String format = in.readUTF();
 
-				DebugManager.log("{multichat:chat} Format (before removal of double chars) = " + format);
+				DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} Format (before removal of double chars) = %s", format);
 
 				format = format.replace("%%","%");
 
-				DebugManager.log("{multichat:chat} Format = " + format);
+				DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} Format = %s", format);
 
 				ProxiedPlayer player = ProxyServer.getInstance().getPlayer(uuid);
 
 				if (player == null) {
-					DebugManager.log("{multichat:chat} Could not get player! Abandoning chat message... (Is IP-Forwarding on?)");
+					DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} Could not get player! Abandoning chat message... (Is IP-Forwarding on?)");
 					return;
 				}
 
-				DebugManager.log("{multichat:chat} Got player successfully! Name = " + player.getName());
+				DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} Got player successfully! Name = %s", player.getName());
 
 				//synchronized (player) {
 
-				DebugManager.log("{multichat:chat} Global Channel Available? = " + (Channel.getGlobalChannel() != null));
+				DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} Global Channel Available? = %s", (Channel.getGlobalChannel() != null));
 				Channel.getGlobalChannel().sendMessage(player, message, format);
+				NetworkChatRelay.publishGlobalChat(player, message, format);
 
 				//}
 
 			} catch (IOException e) {
-				DebugManager.log("{multichat:chat} ERROR READING PLUGIN MESSAGE");
+				DebugManager.log(DebugCategory.COMMUNICATION, "{multichat:chat} ERROR READING PLUGIN MESSAGE");
 				e.printStackTrace();
 			}
 
@@ -361,7 +404,7 @@ public class BungeeComm implements Listener {
 
 			ev.setCancelled(true);
 
-			DebugManager.log("[multichat:dn] Got an incoming channel message!");
+			DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:dn] Got an incoming channel message!");
 
 			ByteArrayInputStream stream = new ByteArrayInputStream(ev.getData());
 			DataInputStream in = new DataInputStream(stream);
@@ -376,15 +419,15 @@ public class BungeeComm implements Listener {
 
 				synchronized (player) {
 
-					DebugManager.log("[multichat:dn] Player exists!");
+					DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:dn] Player exists!");
 
 					Optional<PlayerMeta> opm = PlayerMetaManager.getInstance().getPlayer(uuid);
 
 					if (opm.isPresent()) {
 
-						DebugManager.log("[multichat:dn] Player meta exists!");
+						DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:dn] Player meta exists!");
 
-						DebugManager.log("[multichat:dn] The displayname received is: " + spigotDisplayName);
+						DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:dn] The displayname received is: %s", spigotDisplayName);
 
 						opm.get().spigotDisplayName = spigotDisplayName;
 						PlayerMetaManager.getInstance().updateDisplayName(uuid);
@@ -406,7 +449,7 @@ public class BungeeComm implements Listener {
 			ByteArrayInputStream stream = new ByteArrayInputStream(ev.getData());
 			DataInputStream in = new DataInputStream(stream);
 
-			DebugManager.log("[multichat:world] Got an incoming channel message!");
+			DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:world] Got an incoming channel message!");
 
 			try {
 
@@ -416,7 +459,7 @@ public class BungeeComm implements Listener {
 
 				if (player == null) return;
 
-				DebugManager.log("[multichat:world] Player is online!");
+				DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:world] Player is online!");
 
 				synchronized (player) {
 
@@ -428,11 +471,11 @@ public class BungeeComm implements Listener {
 
 					if (opm.isPresent()) {
 
-						DebugManager.log("[multichat:world] Got their meta data correctly");
+						DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:world] Got their meta data correctly");
 
 						opm.get().world = world;
 
-						DebugManager.log("[multichat:world] Set their world to: " + world);
+						DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:world] Set their world to: %s", world);
 
 					}
 
@@ -449,7 +492,7 @@ public class BungeeComm implements Listener {
 
 			ev.setCancelled(true);
 
-			DebugManager.log("[multichat:pxe] Got an incoming pexecute message!");
+			DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:pxe] Got an incoming pexecute message!");
 
 			ByteArrayInputStream stream = new ByteArrayInputStream(ev.getData());
 			DataInputStream in = new DataInputStream(stream);
@@ -457,7 +500,7 @@ public class BungeeComm implements Listener {
 			try {
 
 				String command = in.readUTF();
-				DebugManager.log("[multichat:pxe] Command is: " + command);
+				DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:pxe] Command is: %s", command);
 				ProxyServer.getInstance().getPluginManager().dispatchCommand(ProxyServer.getInstance().getConsole(), command);
 
 			} catch (IOException e) {
@@ -470,7 +513,7 @@ public class BungeeComm implements Listener {
 
 			ev.setCancelled(true);
 
-			DebugManager.log("[multichat:ppxe] Got an incoming pexecute message (for a player)!");
+			DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:ppxe] Got an incoming pexecute message (for a player)!");
 
 			ByteArrayInputStream stream = new ByteArrayInputStream(ev.getData());
 			DataInputStream in = new DataInputStream(stream);
@@ -480,8 +523,8 @@ public class BungeeComm implements Listener {
 				String command = in.readUTF();
 				String playerRegex = in.readUTF();
 
-				DebugManager.log("[multichat:ppxe] Command is: " + command);
-				DebugManager.log("[multichat:ppxe] Player regex is: " + playerRegex);
+				DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:ppxe] Command is: %s", command);
+				DebugManager.log(DebugCategory.COMMUNICATION, "[multichat:ppxe] Player regex is: %s", playerRegex);
 
 				for (ProxiedPlayer p : ProxyServer.getInstance().getPlayers()) {
 
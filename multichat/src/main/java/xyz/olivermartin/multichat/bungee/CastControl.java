@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.bungee;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.md_5.bungee.api.CommandSender;
 
@@ -16,17 +17,48 @@ public class CastControl {
 
 	public static Map<String,String> castList = new HashMap<String,String>();
 
+	/**
+	 * The formats of the casts, ready to have each message added to them
+	 */
+	private static Map<String, RenderedMessage> renderedFormats = new ConcurrentHashMap<String, RenderedMessage>();
+
 	public static void sendCast(String castName, String castMessage, Channel chatStream, CommandSender sender) {
 		castMessage = ChatControl.applyChatRules(castMessage, "casts", "").get();
-		chatStream.sendMessage(castList.get(castName.toLowerCase()) + " " + castMessage, sender);
+		chatStream.sendMessage(getRenderedFormat(castName).append(" " + castMessage), sender);
+	}
+
+	private static RenderedMessage getRenderedFormat(String castName) {
+
+		String format = castList.get(castName.toLowerCase());
+		RenderedMessage rendered = renderedFormats.get(castName.toLowerCase());
+
+		// The cast list can be replaced when it is loaded, so check the format is still the same
+		if (rendered == null || !rendered.getText().equals(String.valueOf(format))) {
+			rendered = RenderedMessage.render(String.valueOf(format));
+			renderedFormats.put(castName.toLowerCase(), rendered);
+		}
+
+		return rendered;
+
+	}
+
+	/**
+	 * Render the cast formats again when they are next used
+	 */
+	public static void invalidateRendered() {
+		renderedFormats.clear();
 	}
 
 	public static void addCast(String castName, String castFormat) {
 		castList.put(castName.toLowerCase(), MultiChatUtil.reformatRGB(castFormat));
+		renderedFormats.remove(castName.toLowerCase());
+		MultiChat.markDataChanged("Casts.dat");
 	}
 
 	public static void removeCast(String castName) {
 		castList.remove(castName.toLowerCase());
+		renderedFormats.remove(castName.toLowerCase());
+		MultiChat.markDataChanged("Casts.dat");
 	}
 
 	public static boolean existsCast(String castName) {
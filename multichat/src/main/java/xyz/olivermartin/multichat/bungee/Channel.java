@@ -15,6 +15,10 @@ import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import xyz.olivermartin.multichat.bungee.events.PostBroadcastEvent;
 import xyz.olivermartin.multichat.bungee.events.PostGlobalChatEvent;
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.common.metrics.Counter;
+import xyz.olivermartin.multichat.common.metrics.LatencyHistogram;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
 
 /**
  * Channel
@@ -68,6 +72,9 @@ public class Channel {
 	protected String name;
 	protected String format;
 
+	private LatencyHistogram fanoutTime;
+	private Counter delivered;
+
 	public Channel(String name, String format, boolean whitelistServers, boolean whitelistMembers) {
 
 		this.name = name;
@@ -76,6 +83,8 @@ public class Channel {
 		this.servers = new ArrayList<String>();
 		this.members = new ArrayList<UUID>();
 		this.whitelistMembers = whitelistMembers;
+		this.fanoutTime = MetricsRegistry.getInstance().histogram("channel_fanout", "channel", name);
+		this.delivered = MetricsRegistry.getInstance().counter("channel_delivered", "channel", name);
 
 	}
 
@@ -99,6 +108,14 @@ public class Channel {
 		return this.whitelistMembers;
 	}
 
+	/**
+	 * @param server
+	 * @return True if players on the server can see this channel
+	 */
+	public boolean isShownOn(String server) {
+		return (whitelistServers && servers.contains(server)) || (!whitelistServers && !servers.contains(server));
+	}
+
 	public void addServer(String server) {
 		if (!servers.contains(server)) servers.add(server);
 	}
@@ -133,31 +150,76 @@ public class Channel {
 
 	public void sendMessage(ProxiedPlayer sender, String message, String format) {
 
-		DebugManager.log("CHANNEL #" + getName() + ": Got a message for the channel");
-		DebugManager.log("CHANNEL #" + getName() + ": SENDER = " + sender.getName());
-		DebugManager.log("CHANNEL #" + getName() + ": MESSAGE = " + message);
-		DebugManager.log("CHANNEL #" + getName() + ": FORMAT = " + format);
+		DebugManager.log(DebugCategory.CHANNELS, "CHANNEL #%s: Got a message for the channel", getName());
+		DebugManager.log(DebugCategory.CHANNELS, "CHANNEL #%s: SENDER = %s", getName(), sender.getName());
+		DebugManager.log(DebugCategory.CHANNELS, "CHANNEL #%s: MESSAGE = %s", getName(), message);
+		DebugManager.log(DebugCategory.CHANNELS, "CHANNEL #%s: FORMAT = %s", getName(), format);
+
+		if (sender != null && sender.getServer() != null) {
+			displayMessage(sender.getUniqueId(), sender, hasColourPermission(sender), message, format);
+		}
+
+		// Trigger PostGlobalChatEvent
+		ProxyServer.getInstance().getPluginManager().callEvent(new PostGlobalChatEvent(sender, format, message));
+
+		sendToConsole(sender,format,message);
+
+	}
+
+	/**
+	 * Display a message sent to this channel by a player on another proxy
+	 * @param senderUUID
+	 * @param colour Can the sender use colour codes?
+	 * @param message
+	 * @param format The format, with the placeholders of the sender already replaced
+	 */
+	public void sendRemoteMessage(UUID senderUUID, boolean colour, String message, String format) {
+
+		DebugManager.log(DebugCategory.CHANNELS, "CHANNEL #%s: Got a message for the channel from another proxy", getName());
+
+		displayMessage(senderUUID, null, colour, message, format);
+
+		if (colour) {
+			ConsoleManager.logChat(getName(), senderUUID, null, format, message);
+		} else {
+			ConsoleManager.logBasicChat(getName(), senderUUID, null, format, message);
+		}
+
+	}
+
+	/**
+	 * Display a message to the players on this proxy who can see this channel
+	 * @param senderUUID
+	 * @param sender The sender, or null if they are on another proxy
+	 * @param colour Can the sender use colour codes?
+	 * @param message
+	 * @param format
+	 */
+	private void displayMessage(UUID senderUUID, ProxiedPlayer sender, boolean colour, String message, String format) {
+
+		long start = System.nanoTime();
 
 		for (ProxiedPlayer receiver : ProxyServer.getInstance().getPlayers()) {
 
-			if (receiver != null && sender != null) {
+			if (receiver != null) {
 
 				synchronized (receiver) {
 
-					if (sender.getServer() != null && receiver.getServer() != null) {
+					if (receiver.getServer() != null) {
 
 						if ( (whitelistMembers && members.contains(receiver.getUniqueId())) || (!whitelistMembers && !members.contains(receiver.getUniqueId()))) {
 							if ( (whitelistServers && servers.contains(receiver.getServer().getInfo().getName())) || (!whitelistServers && !servers.contains(receiver.getServer().getInfo().getName()))) {
 
-								if (!ChatControl.ignores(sender.getUniqueId(), receiver.getUniqueId(), "global_chat")) {
+								if (!ChatControl.ignores(senderUUID, receiver.getUniqueId(), "global_chat")) {
 									// send all messages everywhere
-									receiver.sendMessage(buildFormat(sender,receiver,format,message));
+									receiver.sendMessage(buildFormat(colour,receiver,format,message));
+									delivered.increment();
 									// if (!receiver.getServer().getInfo().getName().equals(sender.getServer().getInfo().getName())) {
 										
 									// } else {
 									// 	// If they are on the same server, this message will already have been displayed locally.
 									// }
-								} else {
+								} else if (sender != null) {
 									ChatControl.sendIgnoreNotifications(receiver, sender, "global_chat");
 								}
 
@@ -173,14 +235,32 @@ public class Channel {
 
 		}
 
-		// Trigger PostGlobalChatEvent
-		ProxyServer.getInstance().getPluginManager().callEvent(new PostGlobalChatEvent(sender, format, message));
+		fanoutTime.recordSince(start);
 
-		sendToConsole(sender,format,message);
+		if (this == getGlobalChannel()) {
+			ChatReplayManager.getInstance().recordGlobalChat(senderUUID, colour, format, message);
+		}
+
+	}
 
+	/**
+	 * @param sender
+	 * @return True if the player can use colour codes in chat
+	 */
+	public static boolean hasColourPermission(ProxiedPlayer sender) {
+		return sender.hasPermission("multichat.chat.colour") || sender.hasPermission("multichat.chat.color");
 	}
 
 	public void sendMessage(String message, CommandSender sender) {
+		sendMessage(RenderedMessage.render(message), sender);
+	}
+
+	/**
+	 * Send a message which has already been rendered to everyone who can see this channel
+	 * @param message
+	 * @param sender
+	 */
+	public void sendMessage(RenderedMessage message, CommandSender sender) {
 
 		for (ProxiedPlayer receiver : ProxyServer.getInstance().getPlayers()) {
 			if (receiver != null && sender != null) {
@@ -189,11 +269,7 @@ public class Channel {
 						if ( (whitelistServers && servers.contains(receiver.getServer().getInfo().getName())) || (!whitelistServers && !servers.contains(receiver.getServer().getInfo().getName()))) {
 							//TODO hiding & showing streams
 
-							if (MultiChat.legacyServers.contains(receiver.getServer().getInfo().getName())) {
-								receiver.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
-							} else {
-								receiver.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
-							}
+							message.send(receiver);
 
 						}
 					}
@@ -202,9 +278,9 @@ public class Channel {
 		}
 
 		// Trigger PostBroadcastEvent
-		ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("cast", message));
+		ProxyServer.getInstance().getPluginManager().callEvent(new PostBroadcastEvent("cast", message.getText()));
 
-		ConsoleManager.logDisplayMessage(message);
+		ConsoleManager.logDisplayMessage(message.getText());
 
 	}
 
@@ -282,11 +358,24 @@ public class Channel {
 			newFormat = newFormat.replace("%M%", "G");
 		}*/
 
-		newFormat = newFormat + "%MESSAGE%";
+		return buildFormat(hasColourPermission(sender), receiver, newFormat, message);
+
+	}
+
+	/**
+	 * @param colour Can the sender use colour codes?
+	 * @param receiver
+	 * @param format The format, with its placeholders already replaced
+	 * @param message
+	 * @return The message to send to the receiver
+	 */
+	public BaseComponent[] buildFormat(boolean colour, ProxiedPlayer receiver, String format, String message) {
+
+		String newFormat = format + "%MESSAGE%";
 
 		BaseComponent[] toSend;
 
-		if (sender.hasPermission("multichat.chat.colour") || sender.hasPermission("multichat.chat.color")) {
+		if (colour) {
 
 			newFormat = newFormat.replace("%MESSAGE%", message);
 			if (MultiChat.legacyServers.contains(receiver.getServer().getInfo().getName())) {
@@ -378,18 +467,10 @@ public class Channel {
 			newFormat = newFormat.replace("%M%", "G");
 		}*/
 
-		newFormat = newFormat + "%MESSAGE%";
-
 		if (sender.hasPermission("multichat.chat.colour") || sender.hasPermission("multichat.chat.color")) {
-
-			newFormat = newFormat.replace("%MESSAGE%", message);
-			ConsoleManager.logChat(newFormat);
-
+			ConsoleManager.logChat(getName(), sender.getUniqueId(), sender.getServer().getInfo().getName(), newFormat, message);
 		} else {
-
-			newFormat = newFormat.replace("%MESSAGE%", "");
-			ConsoleManager.logBasicChat(newFormat, message);
-
+			ConsoleManager.logBasicChat(getName(), sender.getUniqueId(), sender.getServer().getInfo().getName(), newFormat, message);
 		}
 
 	}
@@ -410,11 +491,7 @@ public class Channel {
 		/*newFormat = newFormat.replace("%MODE%", "Global");
 		newFormat = newFormat.replace("%M%", "G");*/
 
-		newFormat = newFormat + "%MESSAGE%";
-
-		newFormat = newFormat.replace("%MESSAGE%", message);
-
-		ConsoleManager.logChat(newFormat);
+		ConsoleManager.logChat(getName(), null, server, newFormat, message);
 
 	}
 }
@@ -13,6 +13,10 @@ import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.config.Configuration;
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.common.metrics.LatencyHistogram;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
 
 public class ChatControl {
 
@@ -22,10 +26,14 @@ public class ChatControl {
 		spamMap = new HashMap<UUID, PlayerSpamInfo>();
 	}
 
-	private static Set<UUID> mutedPlayers;
-	private static Map<UUID, Set<UUID>> ignoreMap;
+	private static volatile Set<UUID> mutedPlayers;
+	private static volatile Map<UUID, Set<UUID>> ignoreMap;
 	private static Map<UUID, PlayerSpamInfo> spamMap;
 
+	private static final LatencyHistogram rulesTime = MetricsRegistry.getInstance().histogram("chatcontrol_stage", "stage", "rules");
+	private static final LatencyHistogram spamTime = MetricsRegistry.getInstance().histogram("chatcontrol_stage", "stage", "spam");
+	private static final LatencyHistogram linksTime = MetricsRegistry.getInstance().histogram("chatcontrol_stage", "stage", "links");
+
 	public static boolean controlLinks = false;
 	public static String linkRegex = "((https|http):\\/\\/)?(www\\.)?([-a-zA-Z0-9@:%._\\+~#=]{2,256}\\.)+[a-zA-Z]{2,4}\\b([-a-zA-Z0-9@:%_\\+.~#?&//=]*)";
 	public static String linkMessage = "[LINK REMOVED]";
@@ -52,8 +60,20 @@ public class ChatControl {
 	 * @param chatType The type of chat the message was sent in
 	 * @return The message to send with rules applied, or empty if the chat message should be cancelled
 	 */
+	public static Optional<String> applyChatRules(String input, String chatType, String playerName) {
+
+		long start = System.nanoTime();
+
+		try {
+			return runChatRules(input, chatType, playerName);
+		} finally {
+			rulesTime.recordSince(start);
+		}
+
+	}
+
 	@SuppressWarnings("rawtypes")
-	public static Optional<String>applyChatRules(String input, String chatType, String playerName) {
+	private static Optional<String> runChatRules(String input, String chatType, String playerName) {
 
 		Configuration config = ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig();
 		boolean cancel = false;
@@ -170,13 +190,19 @@ public class ChatControl {
 
 	public static void mute(UUID uuid) {
 
-		mutedPlayers.add(uuid);
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
+			mutedPlayers.add(uuid);
+			MultiChat.markDataChanged("Mute.dat");
+		}
 
 	}
 
 	public static void unmute(UUID uuid) {
 
-		mutedPlayers.remove(uuid);
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
+			mutedPlayers.remove(uuid);
+			MultiChat.markDataChanged("Mute.dat");
+		}
 
 	}
 
@@ -229,50 +255,63 @@ public class ChatControl {
 
 	public static void ignore(UUID ignorer, UUID ignoree) {
 
-		Set<UUID> ignoredPlayers;
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
 
-		if (ignoreMap.containsKey(ignorer)) {
+			Set<UUID> ignoredPlayers;
 
-			ignoredPlayers = ignoreMap.get(ignorer);
+			if (ignoreMap.containsKey(ignorer)) {
 
-		} else {
+				ignoredPlayers = ignoreMap.get(ignorer);
 
-			ignoredPlayers = new HashSet<UUID>();
+			} else {
 
-		}
+				ignoredPlayers = new HashSet<UUID>();
 
-		ignoredPlayers.add(ignoree);
-		ignoreMap.put(ignorer, ignoredPlayers);
+			}
+
+			ignoredPlayers.add(ignoree);
+			ignoreMap.put(ignorer, ignoredPlayers);
+			MultiChat.markDataChanged("Ignore.dat");
+
+		}
 
 	}
 
 	public static void unignore(UUID ignorer, UUID ignoree) {
 
-		Set<UUID> ignoredPlayers;
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
 
-		if (ignoreMap.containsKey(ignorer)) {
+			Set<UUID> ignoredPlayers;
 
-			ignoredPlayers = ignoreMap.get(ignorer);
+			if (ignoreMap.containsKey(ignorer)) {
 
-		} else {
+				ignoredPlayers = ignoreMap.get(ignorer);
+
+			} else {
 
-			return;
+				return;
 
-		}
+			}
 
-		ignoredPlayers.remove(ignoree);
+			ignoredPlayers.remove(ignoree);
+
+			if (ignoredPlayers.size() < 1) {
+				ignoreMap.remove(ignorer);
+			} else {
+				ignoreMap.put(ignorer, ignoredPlayers);
+			}
+
+			MultiChat.markDataChanged("Ignore.dat");
 
-		if (ignoredPlayers.size() < 1) {
-			ignoreMap.remove(ignorer);
-		} else {
-			ignoreMap.put(ignorer, ignoredPlayers);
 		}
 
 	}
 
 	public static void unignoreAll(UUID ignorer) {
 
-		ignoreMap.remove(ignorer);
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
+			if (ignoreMap.remove(ignorer) != null) MultiChat.markDataChanged("Ignore.dat");
+		}
 
 	}
 
@@ -299,11 +338,15 @@ public class ChatControl {
 
 		if (config.getBoolean("session_ignore")) {
 
-			for (UUID uuid : ignoreMap.keySet()) {
+			synchronized (MultiChatProxy.getInstance().getDataLock()) {
 
-				ProxiedPlayer player = ProxyServer.getInstance().getPlayer(uuid);
+				for (UUID uuid : ignoreMap.keySet()) {
 
-				if (player == null) ignoreMap.remove(uuid);
+					ProxiedPlayer player = ProxyServer.getInstance().getPlayer(uuid);
+
+					if (player == null) ignoreMap.remove(uuid);
+
+				}
 
 			}
 
@@ -313,7 +356,10 @@ public class ChatControl {
 
 	public static String replaceLinks(String message) {
 		if (!controlLinks) return message;
-		return message.replaceAll(linkRegex, linkMessage);
+		long start = System.nanoTime();
+		message = message.replaceAll(linkRegex, linkMessage);
+		linksTime.recordSince(start);
+		return message;
 		//return message.replaceAll("((https|http):\\/\\/)?(www\\.)?([-a-zA-Z0-9@:%._\\+~#=]{2,256}\\.)+[a-zA-Z]{2,4}\\b([-a-zA-Z0-9@:%_\\+.~#?&//=]*)", linkMessage);
 	}
 
@@ -327,23 +373,35 @@ public class ChatControl {
 	 */
 	public static boolean handleSpam(ProxiedPlayer player, String message, String chatType) {
 
-		DebugManager.log(player.getName() + " - checking for spam...");
+		long start = System.nanoTime();
+
+		try {
+			return runSpamCheck(player, message, chatType);
+		} finally {
+			spamTime.recordSince(start);
+		}
+
+	}
+
+	private static boolean runSpamCheck(ProxiedPlayer player, String message, String chatType) {
+
+		DebugManager.log(DebugCategory.CHAT, "%s - checking for spam...", player.getName());
 
 		Configuration config = ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig();
 
 		if (player.hasPermission("multichat.spam.bypass")) return false;
 
-		DebugManager.log(player.getName() + " - does not have bypass perm...");
+		DebugManager.log(DebugCategory.CHAT, "%s - does not have bypass perm...", player.getName());
 
 		if (!config.getBoolean("anti_spam")) return false;
 
-		DebugManager.log(player.getName() + " - anti spam IS enabled...");
+		DebugManager.log(DebugCategory.CHAT, "%s - anti spam IS enabled...", player.getName());
 
 		if (!config.contains("apply_anti_spam_to." + chatType)) return false;
 
 		if (!config.getBoolean("apply_anti_spam_to." + chatType)) return false;
 
-		DebugManager.log(player.getName() + " - anti spam IS enabled for " + chatType + "...");
+		DebugManager.log(DebugCategory.CHAT, "%s - anti spam IS enabled for %s...", player.getName(), chatType);
 
 		if (!spamMap.containsKey(player.getUniqueId())) spamMap.put(player.getUniqueId(), new PlayerSpamInfo());
 
@@ -353,21 +411,21 @@ public class ChatControl {
 
 		if (spam) {
 
-			DebugManager.log(player.getName() + " - PLAYER IS SPAMMING!");
+			DebugManager.log(DebugCategory.CHAT, "%s - PLAYER IS SPAMMING!", player.getName());
 
 			MessageManager.sendSpecialMessage(player, "anti_spam_cooldown", String.valueOf(spamInfo.getCooldownSeconds()));
 
-			DebugManager.log(player.getName() + " - sent cooldown message to player...");
+			DebugManager.log(DebugCategory.CHAT, "%s - sent cooldown message to player...", player.getName());
 
 			if (spamInfo.getSpamTriggerCount() >= config.getInt("anti_spam_trigger")) {
 
-				DebugManager.log(player.getName() + " - they have set off the trigger...");
+				DebugManager.log(DebugCategory.CHAT, "%s - they have set off the trigger...", player.getName());
 
 				spamInfo.resetSpamTriggerCount();
 
 				if (config.getBoolean("anti_spam_action")) {
 
-					DebugManager.log(player.getName() + " - trigger IS enabled...");
+					DebugManager.log(DebugCategory.CHAT, "%s - trigger IS enabled...", player.getName());
 
 					if (config.getBoolean("anti_spam_spigot")) {
 						ServerInfo server = player.getServer().getInfo();
@@ -382,7 +440,7 @@ public class ChatControl {
 
 		}
 
-		DebugManager.log(player.getName() + " - returning " + spam);
+		DebugManager.log(DebugCategory.CHAT, "%s - returning %s", player.getName(), spam);
 
 		return spam;
 
@@ -51,6 +51,39 @@ public class ChatManipulation {
 
 	}
 
+	/**
+	 * Replace the placeholders of a private message sent by a player on another proxy
+	 */
+	public String replaceRemoteMsgVars(String messageFormat, String message, String name, String displayName, String prefix, String suffix, String nick, String server, String world, ProxiedPlayer target) {
+
+		messageFormat = messageFormat.replace("%MESSAGE%", message);
+		messageFormat = messageFormat.replace("%DISPLAYNAME%", displayName);
+		messageFormat = messageFormat.replace("%NAME%", name);
+
+		if (prefix != null) messageFormat = messageFormat.replace("%PREFIX%", prefix);
+		if (suffix != null) messageFormat = messageFormat.replace("%SUFFIX%", suffix);
+		if (nick != null) messageFormat = messageFormat.replace("%NICK%", nick);
+
+		messageFormat = messageFormat.replace("%DISPLAYNAMET%", target.getDisplayName());
+		messageFormat = messageFormat.replace("%NAMET%", target.getName());
+
+		Optional<PlayerMeta> opmt = PlayerMetaManager.getInstance().getPlayer(target.getUniqueId());
+		if (opmt.isPresent()) {
+			messageFormat = messageFormat.replace("%PREFIXT%", opmt.get().prefix);
+			messageFormat = messageFormat.replace("%SUFFIXT%", opmt.get().suffix);
+			messageFormat = messageFormat.replace("%NICKT%", opmt.get().nick);
+			messageFormat = messageFormat.replace("%WORLDT%", opmt.get().world);
+		}
+
+		messageFormat = messageFormat.replace("%SERVER%", server);
+		messageFormat = messageFormat.replace("%SERVERT%", target.getServer().getInfo().getName());
+
+		if (world != null) messageFormat = messageFormat.replace("%WORLD%", world);
+
+		return messageFormat;
+
+	}
+
 	public String replaceMsgConsoleTargetVars(String messageFormat, String message, ProxiedPlayer sender) {
 
 		messageFormat = messageFormat.replace("%MESSAGE%", message);
@@ -7,6 +7,9 @@ import java.util.UUID;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
+
 public class ChatModeManager {
 
 	private static ChatModeManager instance;
@@ -21,7 +24,7 @@ public class ChatModeManager {
 
 	/* END STATIC */
 
-	private Map<UUID, Boolean> globalPlayers;
+	private volatile Map<UUID, Boolean> globalPlayers;
 
 	private ChatModeManager() {
 		globalPlayers = new HashMap<UUID, Boolean>();
@@ -29,7 +32,9 @@ public class ChatModeManager {
 
 	public void setLocal(UUID uuid) {
 
-		globalPlayers.put(uuid, false);
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
+			if (!Boolean.FALSE.equals(globalPlayers.put(uuid, false))) MultiChat.markDataChanged("GlobalChatInfo.dat");
+		}
 
 		// TODO
 		Channel.setChannel(uuid, Channel.getLocalChannel());
@@ -50,7 +55,9 @@ public class ChatModeManager {
 
 	public void setGlobal(UUID uuid) {
 
-		globalPlayers.put(uuid, true);
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
+			if (!Boolean.TRUE.equals(globalPlayers.put(uuid, true))) MultiChat.markDataChanged("GlobalChatInfo.dat");
+		}
 
 		// TODO
 		Channel.setChannel(uuid, Channel.getGlobalChannel());
@@ -71,7 +78,9 @@ public class ChatModeManager {
 
 	public void registerPlayer(UUID uuid, boolean global) {
 
-		globalPlayers.put(uuid, global);
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
+			if (!Boolean.valueOf(global).equals(globalPlayers.put(uuid, global))) MultiChat.markDataChanged("GlobalChatInfo.dat");
+		}
 
 	}
 
@@ -88,7 +97,7 @@ public class ChatModeManager {
 	public void loadData(Map<UUID, Boolean> data) {
 		this.globalPlayers = data;
 		if (this.globalPlayers == null) {
-			DebugManager.log("The global players data loaded was null... So made a new map!");
+			DebugManager.log(DebugCategory.STORAGE, "The global players data loaded was null... So made a new map!");
 			globalPlayers = new HashMap<UUID, Boolean>();
 		}
 	}
@@ -0,0 +1,344 @@
+package xyz.olivermartin.multichat.bungee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.olivermartin410.plugins.TGroupChatInfo;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.config.Configuration;
+import xyz.olivermartin.multichat.proxy.common.history.ChatRingBuffer;
+
+/**
+ * Keeps the most recent messages of global chat, mod chat, admin chat and each group chat,
+ * so they can be shown again to players who missed them
+ *
+ * <p>Staff who join the network are shown the recent mod and admin chat, and the recent messages of their group chats.
+ * Players who move from a server which does not show global chat, to one which does, are shown the global chat they missed.</p>
+ *
+ * <p>Each chat keeps a fixed number of messages, in a {@link ChatRingBuffer}, so the memory used does not grow.
+ * A message is kept as its time, sender and text, with the format, names and server shared between messages.
+ * The text kept of each message is limited to {@link #MAX_MESSAGE_LENGTH} characters.</p>
+ */
+public class ChatReplayManager {
+
+	private static ChatReplayManager instance;
+
+	/**
+	 * The most strings kept for sharing between messages, i.e. formats and names
+	 */
+	private static final int MAX_INTERNED = 4096;
+
+	/**
+	 * The longest text kept of a message
+	 * (Messages from players are at most 256 characters, but group chat from other proxies includes its format)
+	 */
+	private static final int MAX_MESSAGE_LENGTH = 512;
+
+	public static ChatReplayManager getInstance() {
+		return instance;
+	}
+
+	static {
+		instance = new ChatReplayManager();
+	}
+
+	/* END STATIC */
+
+	private volatile boolean enabled;
+	private volatile int lines;
+	private volatile long window;
+
+	private volatile ChatRingBuffer<ReplayLine> globalChat;
+	private volatile ChatRingBuffer<ReplayLine> modChat;
+	private volatile ChatRingBuffer<ReplayLine> adminChat;
+	private final Map<String, ChatRingBuffer<ReplayLine>> groupChats;
+
+	private volatile ConcurrentHashMap<String, String> interned;
+
+	/**
+	 * The time each player moved to a server which does not show global chat
+	 */
+	private final Map<UUID, Long> globalHiddenSince;
+
+	/* END ATTRIBUTES */
+
+	private ChatReplayManager() {
+		this.groupChats = new ConcurrentHashMap<String, ChatRingBuffer<ReplayLine>>();
+		this.interned = new ConcurrentHashMap<String, String>();
+		this.globalHiddenSince = new ConcurrentHashMap<UUID, Long>();
+		configure(false, 10, 10);
+	}
+
+	/**
+	 * Read the settings from the config, clearing the messages kept so far
+	 * @param configYML
+	 */
+	public void configure(Configuration configYML) {
+		configure(configYML.getBoolean("chat_replay", false),
+				configYML.getInt("chat_replay_lines", 10),
+				configYML.getInt("chat_replay_minutes", 10));
+	}
+
+	private void configure(boolean enabled, int lines, int minutes) {
+
+		this.lines = Math.max(1, lines);
+		this.window = TimeUnit.MINUTES.toMillis(Math.max(1, minutes));
+
+		// Twice the lines shown, as some may be from players the receiver ignores
+		globalChat = new ChatRingBuffer<ReplayLine>(this.lines * 2);
+		modChat = new ChatRingBuffer<ReplayLine>(this.lines);
+		adminChat = new ChatRingBuffer<ReplayLine>(this.lines);
+		groupChats.clear();
+		interned = new ConcurrentHashMap<String, String>();
+
+		this.enabled = enabled;
+
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param senderUUID
+	 * @param colour Can the sender use colour codes?
+	 * @param format The format, with the placeholders of the sender already replaced
+	 * @param message
+	 */
+	public void recordGlobalChat(UUID senderUUID, boolean colour, String format, String message) {
+		if (!enabled) return;
+		globalChat.add(new ReplayLine(senderUUID, null, null, null, intern(format), limit(message), colour));
+	}
+
+	public void recordModChat(String username, String displayname, String server, String message) {
+		if (!enabled) return;
+		modChat.add(new ReplayLine(null, intern(username), intern(displayname), intern(server), null, limit(message), true));
+	}
+
+	public void recordAdminChat(String username, String displayname, String server, String message) {
+		if (!enabled) return;
+		adminChat.add(new ReplayLine(null, intern(username), intern(displayname), intern(server), null, limit(message), true));
+	}
+
+	/**
+	 * @param groupName
+	 * @param senderUUID The sender, or null if it was not sent by a player
+	 * @param format The group chat format with everything but %MESSAGE% replaced, or null if the message is already formatted
+	 * @param message
+	 */
+	public void recordGroupChat(String groupName, UUID senderUUID, String format, String message) {
+
+		if (!enabled) return;
+
+		String key = groupName.toLowerCase();
+		ChatRingBuffer<ReplayLine> buffer = groupChats.get(key);
+
+		if (buffer == null) {
+			buffer = new ChatRingBuffer<ReplayLine>(lines);
+			ChatRingBuffer<ReplayLine> existing = groupChats.putIfAbsent(key, buffer);
+			if (existing != null) buffer = existing;
+		}
+
+		buffer.add(new ReplayLine(senderUUID, null, null, null, intern(format), limit(message), true));
+
+	}
+
+	/**
+	 * Show a player the chat they missed, if there is any, after they have connected to a server
+	 * @param player
+	 * @param joined True if this is the first server the player has connected to since joining the network
+	 */
+	public void handleServerSwitch(ProxiedPlayer player, boolean joined) {
+
+		if (!enabled || player.getServer() == null) return;
+
+		UUID uuid = player.getUniqueId();
+		long now = System.currentTimeMillis();
+
+		if (joined) {
+			replayStaffChats(player, now - window);
+			replayGroupChats(player, now - window);
+		}
+
+		GlobalChannel global = Channel.getGlobalChannel();
+
+		if (!global.isMember(uuid) || !global.isShownOn(player.getServer().getInfo().getName())) {
+			// Keep the time they first stopped seeing global chat
+			globalHiddenSince.putIfAbsent(uuid, now);
+			return;
+		}
+
+		Long hiddenSince = globalHiddenSince.remove(uuid);
+
+		if (hiddenSince != null && !joined) {
+			replayGlobalChat(player, Math.max(hiddenSince, now - window));
+		}
+
+	}
+
+	public void removePlayer(UUID uuid) {
+		globalHiddenSince.remove(uuid);
+	}
+
+	private void replayGlobalChat(ProxiedPlayer player, long since) {
+
+		List<ReplayLine> missed = new ArrayList<ReplayLine>();
+
+		for (ReplayLine line : globalChat.getRecent(lines * 2)) {
+			if (line.time < since) continue;
+			if (line.senderUUID != null && ChatControl.ignores(line.senderUUID, player.getUniqueId(), "global_chat")) continue;
+			missed.add(line);
+		}
+
+		if (missed.isEmpty()) return;
+
+		MessageManager.sendSpecialMessage(player, "chat_replay_header", "Global");
+
+		for (ReplayLine line : missed.subList(Math.max(0, missed.size() - lines), missed.size())) {
+			player.sendMessage(Channel.getGlobalChannel().buildFormat(line.colour, player, line.format, line.message));
+		}
+
+	}
+
+	private void replayStaffChats(ProxiedPlayer player, long since) {
+
+		StaffChatManager chatman = new StaffChatManager();
+
+		if (player.hasPermission("multichat.staff.mod")) {
+
+			List<ReplayLine> missed = getSince(modChat, since);
+
+			if (!missed.isEmpty()) {
+				MessageManager.sendSpecialMessage(player, "chat_replay_header", "Mod");
+				for (ReplayLine line : missed) {
+					chatman.replayModMessage(player, line.name, line.displayName, line.server, line.message);
+				}
+			}
+
+		}
+
+		if (player.hasPermission("multichat.staff.admin")) {
+
+			List<ReplayLine> missed = getSince(adminChat, since);
+
+			if (!missed.isEmpty()) {
+				MessageManager.sendSpecialMessage(player, "chat_replay_header", "Admin");
+				for (ReplayLine line : missed) {
+					chatman.replayAdminMessage(player, line.name, line.displayName, line.server, line.message);
+				}
+			}
+
+		}
+
+	}
+
+	private void replayGroupChats(ProxiedPlayer player, long since) {
+
+		if (!player.hasPermission("multichat.group")) return;
+
+		for (Map.Entry<String, ChatRingBuffer<ReplayLine>> entry : groupChats.entrySet()) {
+
+			TGroupChatInfo groupInfo = MultiChat.groupchats.get(entry.getKey());
+			if (groupInfo == null || !groupInfo.existsViewer(player.getUniqueId())) continue;
+
+			List<ReplayLine> missed = new ArrayList<ReplayLine>();
+
+			for (ReplayLine line : getSince(entry.getValue(), since)) {
+				if (line.senderUUID != null && ChatControl.ignores(line.senderUUID, player.getUniqueId(), "group_chats")) continue;
+				missed.add(line);
+			}
+
+			if (missed.isEmpty()) continue;
+
+			MessageManager.sendSpecialMessage(player, "chat_replay_header", groupInfo.getName());
+
+			for (ReplayLine line : missed) {
+				String message = line.format == null ? line.message : line.format.replace("%MESSAGE%", line.message);
+				if (MultiChat.legacyServers.contains(player.getServer().getInfo().getName())) {
+					player.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
+				} else {
+					player.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
+				}
+			}
+
+		}
+
+	}
+
+	private List<ReplayLine> getSince(ChatRingBuffer<ReplayLine> buffer, long since) {
+
+		List<ReplayLine> recent = new ArrayList<ReplayLine>();
+
+		for (ReplayLine line : buffer.getRecent(lines)) {
+			if (line.time >= since) recent.add(line);
+		}
+
+		return recent;
+
+	}
+
+	/**
+	 * Share strings which are the same between messages, such as the format of each sender
+	 */
+	private String intern(String value) {
+
+		if (value == null) return null;
+
+		ConcurrentHashMap<String, String> strings = interned;
+
+		String existing = strings.get(value);
+		if (existing != null) return existing;
+
+		// Once full, start again with an empty map, so the strings still in use go back in and keep being shared
+		if (strings.size() >= MAX_INTERNED) {
+			ConcurrentHashMap<String, String> fresh = new ConcurrentHashMap<String, String>();
+			fresh.put(value, value);
+			interned = fresh;
+			return value;
+		}
+
+		existing = strings.putIfAbsent(value, value);
+		return existing == null ? value : existing;
+
+	}
+
+	private static String limit(String message) {
+		if (message == null || message.length() <= MAX_MESSAGE_LENGTH) return message;
+		return message.substring(0, MAX_MESSAGE_LENGTH);
+	}
+
+	/**
+	 * A message kept to be shown again
+	 */
+	private static class ReplayLine {
+
+		private final long time;
+		private final UUID senderUUID;
+		private final String name;
+		private final String displayName;
+		private final String server;
+		private final String format;
+		private final String message;
+		private final boolean colour;
+
+		private ReplayLine(UUID senderUUID, String name, String displayName, String server, String format, String message, boolean colour) {
+			this.time = System.currentTimeMillis();
+			this.senderUUID = senderUUID;
+			this.name = name;
+			this.displayName = displayName;
+			this.server = server;
+			this.format = format;
+			this.message = message;
+			this.colour = colour;
+		}
+
+	}
+
+}
@@ -22,26 +22,54 @@ import net.md_5.bungee.config.YamlConfiguration;
 public class ConfigHandler {
 
 	// The config file
-	private Configuration config;
+	private volatile Configuration config;
 	// Path of config file
 	private File configPath;
 	// Name of config file
 	private String fileName;
 
 	public ConfigHandler(File configPath, String fileName) {
+		this(configPath, fileName, false);
+	}
+
+	/**
+	 * @param configPath
+	 * @param fileName
+	 * @param lazy If true, the file is created if it does not exist but is not loaded until {@link #getConfig()} is first called
+	 */
+	public ConfigHandler(File configPath, String fileName, boolean lazy) {
 
 		this.configPath = configPath;
 		this.config = null;
 		this.fileName = fileName;
-		this.startupConfig();
+
+		if (lazy) {
+			if (!new File(configPath, fileName).exists()) {
+				ProxyServer.getInstance().getLogger().info("Config file " + fileName + " not found... Creating new one.");
+				saveDefaultConfig();
+			}
+		} else {
+			this.startupConfig();
+		}
 
 	}
 
 	public Configuration getConfig() {
-		if (config == null) startupConfig();
+		if (config == null) {
+			synchronized (this) {
+				if (config == null) startupConfig();
+			}
+		}
 		return config;
 	}
 
+	/**
+	 * Forget the loaded config, so that the file is loaded again the next time it is used
+	 */
+	public void invalidate() {
+		config = null;
+	}
+
 	public void startupConfig() {
 
 		try {
@@ -2,9 +2,9 @@ package xyz.olivermartin.multichat.bungee;
 
 
 import java.io.File;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Configuration Manager Class
@@ -33,7 +33,7 @@ public class ConfigManager {
 
 	private ConfigManager() {
 
-		handlerMap = new HashMap<String,ConfigHandler>();
+		handlerMap = new ConcurrentHashMap<String,ConfigHandler>();
 
 	}
 
@@ -48,6 +48,17 @@ public class ConfigManager {
 
 	}
 
+	/**
+	 * Create a new configHandler for a given filename and path, which does not load the file until it is first used
+	 * @param fileName filename i.e. config_fr.yml
+	 * @param configPath THE PATH WITHOUT THE FILE NAME
+	 */
+	public void registerLazyHandler(String fileName, File configPath) {
+
+		handlerMap.put(fileName, new ConfigHandler(configPath, fileName, true));
+
+	}
+
 	public Optional<ConfigHandler> getSafeHandler(String fileName) {
 
 		if (handlerMap.containsKey(fileName)) {
@@ -0,0 +1,307 @@
+package xyz.olivermartin.multichat.bungee;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import xyz.olivermartin.multichat.common.metrics.Counter;
+import xyz.olivermartin.multichat.common.metrics.Gauge;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogRecord;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogSink;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogType;
+
+/**
+ * Writes the lines logged by the {@link ConsoleManager} to the console, and chat to the chat log sinks, on a thread of its own
+ *
+ * <p>The chat threads only add each line to a queue. The writer takes the lines from the queue in batches,
+ * so the colour codes are only translated, and the sinks only flushed, away from the chat threads.
+ * If the queue fills up, new lines are dropped rather than holding up chat, and a warning is printed.</p>
+ */
+public class ConsoleLogWriter {
+
+	private static final int QUEUE_SIZE = 16384;
+	private static final int MAX_BATCH = 256;
+	private static final long DROP_WARNING_INTERVAL = 60000L;
+
+	/**
+	 * Write a line to the console straight away, on the current thread
+	 * @param line
+	 */
+	static void writeToConsole(Line line) {
+
+		BaseComponent[] first = TextComponent.fromLegacyText(
+				ChatColor.translateAlternateColorCodes('&', MessageManager.getMessage("console_main_prefix") + MultiChatUtil.approximateHexCodes(MultiChatUtil.reformatRGB(line.getPrefix() + line.message))));
+
+		BaseComponent[] second = TextComponent.fromLegacyText(line.unformattedMessage);
+
+		BaseComponent[] both = Stream.concat(Arrays.stream(first), Arrays.stream(second))
+				.toArray(BaseComponent[]::new);
+
+		ProxyServer.getInstance().getConsole().sendMessage(both);
+
+	}
+
+	/* END STATIC */
+
+	private final BlockingQueue<Line> queue;
+	private final boolean consoleChat;
+	private final List<ChatLogSink> sinks;
+	private final AtomicLong dropped;
+	private final Counter written;
+	private final Counter droppedCounter;
+
+	private volatile boolean running;
+	private Thread thread;
+	private long lastDropWarning;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * @param consoleChat Should chat be shown in the console?
+	 * @param sinks Where to write chat to as well as the console, which must already be open
+	 */
+	public ConsoleLogWriter(boolean consoleChat, List<ChatLogSink> sinks) {
+		this.queue = new ArrayBlockingQueue<Line>(QUEUE_SIZE);
+		this.consoleChat = consoleChat;
+		this.sinks = new ArrayList<ChatLogSink>(sinks);
+		this.dropped = new AtomicLong(0);
+		this.written = MetricsRegistry.getInstance().counter("log_lines_written");
+		this.droppedCounter = MetricsRegistry.getInstance().counter("log_lines_dropped");
+	}
+
+	/**
+	 * Start the writer thread
+	 */
+	public void start() {
+
+		MetricsRegistry.getInstance().registerGauge(new Gauge("log_queue_depth") {
+			public long getValue() {
+				return queue.size();
+			}
+		});
+
+		running = true;
+
+		thread = new Thread(new Runnable() {
+			public void run() {
+				writeLines();
+			}
+		}, "MultiChat-Log-Writer");
+
+		thread.setDaemon(true);
+		thread.start();
+
+	}
+
+	/**
+	 * Write everything still in the queue, then stop the writer thread and close the sinks
+	 * @param timeout
+	 * @param unit
+	 */
+	public void shutdown(long timeout, TimeUnit unit) {
+
+		running = false;
+
+		try {
+			thread.join(unit.toMillis(timeout));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (thread.isAlive()) {
+			System.out.println("[MultiChat] The log writer did not finish in time! Some lines may not have been logged");
+			thread.interrupt();
+		}
+
+		MetricsRegistry.getInstance().unregister("log_queue_depth");
+
+	}
+
+	/**
+	 * Queue a line to be written
+	 * @param line
+	 */
+	void offer(Line line) {
+
+		if (queue.offer(line)) return;
+
+		long count = dropped.incrementAndGet();
+		droppedCounter.increment();
+
+		synchronized (this) {
+			long now = System.currentTimeMillis();
+			if (now - lastDropWarning < DROP_WARNING_INTERVAL) return;
+			lastDropWarning = now;
+		}
+
+		System.out.println("[MultiChat] The console log can not keep up! " + count + " line(s) dropped so far");
+
+	}
+
+	private void writeLines() {
+
+		List<Line> batch = new ArrayList<Line>(MAX_BATCH);
+
+		try {
+
+			// Keep going until the queue is empty after a shutdown
+			while (true) {
+
+				Line first = queue.poll(250, TimeUnit.MILLISECONDS);
+
+				if (first == null) {
+					if (!running) break;
+					continue;
+				}
+
+				batch.add(first);
+				queue.drainTo(batch, MAX_BATCH - 1);
+
+				for (Line line : batch) {
+					writeLine(line);
+				}
+
+				written.add(batch.size());
+				batch.clear();
+
+				flushSinks();
+
+			}
+
+		} catch (InterruptedException e) {
+			// Only interrupted if the shutdown timed out
+		} finally {
+			closeSinks();
+		}
+
+	}
+
+	private void writeLine(Line line) {
+
+		try {
+
+			if (line.type == null || consoleChat) {
+				writeToConsole(line);
+			}
+
+			if (line.type == null || sinks.isEmpty()) return;
+
+			String message = ChatColor.stripColor(ChatColor.translateAlternateColorCodes('&', MultiChatUtil.reformatRGB(line.message)) + line.unformattedMessage);
+			ChatLogRecord record = new ChatLogRecord(line.time, line.type, line.senderUUID, line.server, line.target, message);
+
+			Iterator<ChatLogSink> iterator = sinks.iterator();
+
+			while (iterator.hasNext()) {
+				ChatLogSink sink = iterator.next();
+				try {
+					sink.write(record);
+				} catch (IOException e) {
+					iterator.remove();
+					sinkFailed(sink, e);
+				}
+			}
+
+		} catch (RuntimeException e) {
+			// A bad line must not stop the writer
+			e.printStackTrace();
+		}
+
+	}
+
+	private void flushSinks() {
+
+		Iterator<ChatLogSink> iterator = sinks.iterator();
+
+		while (iterator.hasNext()) {
+			ChatLogSink sink = iterator.next();
+			try {
+				sink.flush();
+			} catch (IOException e) {
+				iterator.remove();
+				sinkFailed(sink, e);
+			}
+		}
+
+	}
+
+	private void closeSinks() {
+
+		for (ChatLogSink sink : sinks) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				System.out.println("[MultiChat] Could not close the " + sink.getName() + "!");
+				e.printStackTrace();
+			}
+		}
+
+	}
+
+	private void sinkFailed(ChatLogSink sink, IOException e) {
+
+		System.out.println("[MultiChat] Could not write to the " + sink.getName() + "! Chat will no longer be written to it until the proxy is restarted");
+		e.printStackTrace();
+
+		// Close what can be closed, so as much as possible can still be read
+		try {
+			sink.close();
+		} catch (IOException e2) {
+			/* EMPTY */
+		}
+
+	}
+
+	/**
+	 * A line waiting to be logged
+	 */
+	static class Line {
+
+		private final long time;
+		private final ChatLogType type;
+		private final UUID senderUUID;
+		private final String server;
+		private final String target;
+		private final String prefixKey;
+		private final String message;
+		private final String unformattedMessage;
+
+		/**
+		 * @param type The type of chat, or null if the line is not chat and so is only shown in the console
+		 * @param senderUUID
+		 * @param server
+		 * @param target
+		 * @param prefixKey The message to put before the line, or null if there is none
+		 * @param message The line, with colour codes to translate
+		 * @param unformattedMessage Added to the end of the line without translating its colour codes
+		 */
+		Line(ChatLogType type, UUID senderUUID, String server, String target, String prefixKey, String message, String unformattedMessage) {
+			this.time = System.currentTimeMillis();
+			this.type = type;
+			this.senderUUID = senderUUID;
+			this.server = server;
+			this.target = target;
+			this.prefixKey = prefixKey;
+			this.message = message;
+			this.unformattedMessage = unformattedMessage;
+		}
+
+		private String getPrefix() {
+			return prefixKey == null ? "" : MessageManager.getMessage(prefixKey);
+		}
+
+	}
+
+}
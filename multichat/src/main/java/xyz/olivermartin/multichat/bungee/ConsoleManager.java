@@ -1,98 +1,133 @@
 package xyz.olivermartin.multichat.bungee;
 
-import java.util.Arrays;
-import java.util.stream.Stream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-import net.md_5.bungee.api.ChatColor;
-import net.md_5.bungee.api.ProxyServer;
-import net.md_5.bungee.api.chat.BaseComponent;
-import net.md_5.bungee.api.chat.TextComponent;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogType;
 
 public class ConsoleManager {
 
+	private static volatile ConsoleLogWriter writer;
+
+	/**
+	 * Log everything from now on through the given writer, rather than on the calling thread
+	 * @param logWriter The writer, which must already be started
+	 */
+	public static void setWriter(ConsoleLogWriter logWriter) {
+		writer = logWriter;
+	}
+
+	/**
+	 * Go back to logging on the calling thread, and wait for the writer to finish what it has queued
+	 */
+	public static void shutdown() {
+
+		ConsoleLogWriter logWriter = writer;
+		if (logWriter == null) return;
+
+		writer = null;
+		logWriter.shutdown(10L, TimeUnit.SECONDS);
+
+	}
+
 	public static void log(String message) {
-		logToConsole(message);
+		logToConsole(null, null, null, null, null, message, "");
 	}
 
 	public static void logDisplayMessage(String message) {
-		logToConsole(MessageManager.getMessage("console_display_prefix") + message);
+		logToConsole(ChatLogType.DISPLAY, null, null, null, "console_display_prefix", message, "");
 	}
 
-	public static void logChat(String message) {
+	/**
+	 * @param channel
+	 * @param senderUUID The sender, or null if it is not known
+	 * @param server The server of the sender, or null if it is not known
+	 * @param format The format, with the placeholders of the sender already replaced
+	 * @param message
+	 */
+	public static void logChat(String channel, UUID senderUUID, String server, String format, String message) {
 
-		logToConsole(MessageManager.getMessage("console_chat_prefix") + message);
+		logToConsole(ChatLogType.CHAT, senderUUID, server, channel, "console_chat_prefix", format + message, "");
 
 	}
 
-	public static void logModChat(String message) {
+	public static void logModChat(UUID senderUUID, String server, String username, String message) {
 
 		if (!MultiChat.logStaffChat) {
 			return;
 		}
 
-		logToConsole(MessageManager.getMessage("console_modchat_prefix") + message);
+		logToConsole(ChatLogType.MOD_CHAT, senderUUID, server, null, "console_modchat_prefix", "(" + username + ") " + message, "");
 
 	}
 
-	public static void logGroupChat(String message) {
+	/**
+	 * @param senderUUID The sender, or null if it is not known
+	 * @param server The server of the sender, or null if it is not known
+	 * @param groupName
+	 * @param message The message in the group chat format
+	 */
+	public static void logGroupChat(UUID senderUUID, String server, String groupName, String message) {
 
 		if (!MultiChat.logGroupChat) {
 			return;
 		}
 
-		logToConsole(MessageManager.getMessage("console_groupchat_prefix") + message);
+		logToConsole(ChatLogType.GROUP_CHAT, senderUUID, server, groupName, "console_groupchat_prefix", message, "");
 
 	}
 
-	public static void logAdminChat(String message) {
+	public static void logAdminChat(UUID senderUUID, String server, String username, String message) {
 
 		if (!MultiChat.logStaffChat) {
 			return;
 		}
 
-		logToConsole(MessageManager.getMessage("console_adminchat_prefix") + message);
+		logToConsole(ChatLogType.ADMIN_CHAT, senderUUID, server, null, "console_adminchat_prefix", "(" + username + ") " + message, "");
 
 	}
 
-	public static void logHelpMe(String message) {
+	public static void logHelpMe(UUID senderUUID, String server, String message) {
 
-		logToConsole(MessageManager.getMessage("console_helpme_prefix") + message);
+		logToConsole(ChatLogType.HELP_ME, senderUUID, server, null, "console_helpme_prefix", message, "");
 
 	}
 
+	/**
+	 * Log chat from a player who can not use colour codes, so the colour codes of the message are not translated
+	 * @param channel
+	 * @param senderUUID The sender, or null if it is not known
+	 * @param server The server of the sender, or null if it is not known
+	 * @param format The format, with the placeholders of the sender already replaced
+	 * @param message
+	 */
+	public static void logBasicChat(String channel, UUID senderUUID, String server, String format, String message) {
 
-	public static void logBasicChat(String prefix, String message) {
-
-		logToConsole(MessageManager.getMessage("console_chat_prefix") + prefix, message);
+		logToConsole(ChatLogType.CHAT, senderUUID, server, channel, "console_chat_prefix", format, message);
 
 	}
 
-	public static void logSocialSpy(String p1, String p2, String message) {
+	public static void logSocialSpy(UUID senderUUID, String server, String p1, String p2, String message) {
 
 		if (!MultiChat.logPMs) {
 			return;
 		}
 
-		logToConsole(MessageManager.getMessage("console_socialspy_prefix") + "(" + p1 + " -> " + p2 + ")  " + message);
+		logToConsole(ChatLogType.PRIVATE_MESSAGE, senderUUID, server, p2, "console_socialspy_prefix", "(" + p1 + " -> " + p2 + ")  " + message, "");
 
 	}
 
-	private static void logToConsole(String message, String unformattedMessage) {
-		BaseComponent[] first = TextComponent.fromLegacyText(
-				ChatColor.translateAlternateColorCodes('&', MessageManager.getMessage("console_main_prefix") + MultiChatUtil.approximateHexCodes(MultiChatUtil.reformatRGB(message))));
-
-		BaseComponent[] second = TextComponent.fromLegacyText(unformattedMessage);
+	private static void logToConsole(ChatLogType type, UUID senderUUID, String server, String target, String prefixKey, String message, String unformattedMessage) {
 
-		BaseComponent[] both = Stream.concat(Arrays.stream(first), Arrays.stream(second))
-				.toArray(BaseComponent[]::new);
+		ConsoleLogWriter.Line line = new ConsoleLogWriter.Line(type, senderUUID, server, target, prefixKey, message, unformattedMessage);
+		ConsoleLogWriter logWriter = writer;
 
-		ProxyServer.getInstance().getConsole().sendMessage(both);
-
-	}
-
-	private static void logToConsole(String message) {
-
-		logToConsole(message, "");
+		// Until the writer is started (and after it is stopped) lines are logged straight away
+		if (logWriter == null) {
+			ConsoleLogWriter.writeToConsole(line);
+		} else {
+			logWriter.offer(line);
+		}
 
 	}
 
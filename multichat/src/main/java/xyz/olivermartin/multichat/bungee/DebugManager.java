@@ -1,23 +1,83 @@
 package xyz.olivermartin.multichat.bungee;
 
+import java.util.function.Supplier;
+
+import xyz.olivermartin.multichat.common.DebugCategory;
+
+/**
+ * Debug output for the proxy
+ * 
+ * <p>Debug output can be turned on for each {@link DebugCategory} separately.
+ * Messages built for every chat message should use the format or supplier methods,
+ * which do not build anything unless the category is turned on.</p>
+ * 
+ * @author Oliver Martin (Revilo410)
+ *
+ */
 public class DebugManager {
 
-	private static boolean debug;
+	// The categories turned on, as a set of DebugCategory masks
+	private static volatile int enabled;
 
 	static {
-		debug = false;
+		enabled = 0;
 	}
 
 	public static void setDebug(boolean debug) {
-		DebugManager.debug = debug;
+		enabled = debug ? DebugCategory.ALL : 0;
+	}
+
+	/**
+	 * Turn all debug output off if any of it is on, otherwise turn it all on
+	 */
+	public static synchronized void toggle() {
+		setDebug(enabled == 0);
 	}
 
-	public static void toggle() {
-		debug = !debug;
+	/**
+	 * @param category
+	 * @return If debug output for the category is now on
+	 */
+	public static synchronized boolean toggle(DebugCategory category) {
+		enabled ^= category.getMask();
+		return isEnabled(category);
+	}
+
+	public static boolean isEnabled(DebugCategory category) {
+		return (enabled & category.getMask()) != 0;
 	}
 
 	public static void log(String message) {
-		if (debug) ConsoleManager.log("[DEBUG] " + message);
+		log(DebugCategory.GENERAL, message);
+	}
+
+	public static void log(DebugCategory category, String message) {
+		if (isEnabled(category)) ConsoleManager.log("[DEBUG] " + message);
+	}
+
+	/**
+	 * @param category
+	 * @param format A {@link String#format(String, Object...)} format, only used if the category is turned on
+	 * @param arg
+	 */
+	public static void log(DebugCategory category, String format, Object arg) {
+		if (isEnabled(category)) ConsoleManager.log("[DEBUG] " + String.format(format, arg));
+	}
+
+	public static void log(DebugCategory category, String format, Object arg1, Object arg2) {
+		if (isEnabled(category)) ConsoleManager.log("[DEBUG] " + String.format(format, arg1, arg2));
+	}
+
+	public static void log(DebugCategory category, String format, Object... args) {
+		if (isEnabled(category)) ConsoleManager.log("[DEBUG] " + String.format(format, args));
+	}
+
+	/**
+	 * @param category
+	 * @param message Builds the message, only called if the category is turned on
+	 */
+	public static void log(DebugCategory category, Supplier<String> message) {
+		if (isEnabled(category)) ConsoleManager.log("[DEBUG] " + message.get());
 	}
 
 }
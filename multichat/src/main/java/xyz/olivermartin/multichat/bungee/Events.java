@@ -28,6 +28,9 @@ import net.md_5.bungee.config.Configuration;
 import net.md_5.bungee.event.EventHandler;
 import net.md_5.bungee.event.EventPriority;
 import xyz.olivermartin.multichat.bungee.commands.GCCommand;
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.common.metrics.LatencyHistogram;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
 
 /**
  * Events Manager
@@ -38,6 +41,8 @@ import xyz.olivermartin.multichat.bungee.commands.GCCommand;
  */
 public class Events implements Listener {
 
+	private static final LatencyHistogram chatEventTime = MetricsRegistry.getInstance().histogram("chat_event");
+
 	public static List<UUID> mcbPlayers = new ArrayList<UUID>();
 
 	private static List<UUID> MCToggle = new ArrayList<UUID>();
@@ -138,15 +143,27 @@ public class Events implements Listener {
 	@EventHandler(priority=64)
 	public void onChat(ChatEvent event) {
 
+		long start = System.nanoTime();
+
+		try {
+			handleChat(event);
+		} finally {
+			chatEventTime.recordSince(start);
+		}
+
+	}
+
+	private void handleChat(ChatEvent event) {
+
 		ProxiedPlayer player = (ProxiedPlayer) event.getSender();
 
 		// New null pointer checks
 		if (player.getServer() == null) {
-			DebugManager.log("Player sending chat message has null server! Abandoning...");
+			DebugManager.log(DebugCategory.CHAT, "Player sending chat message has null server! Abandoning...");
 			return;
 		} else {
 			if (player.getServer().getInfo() == null) {
-				DebugManager.log("Player sending chat message has null server info! Abandoning...");
+				DebugManager.log(DebugCategory.CHAT, "Player sending chat message has null server info! Abandoning...");
 				return;
 			}
 		}
@@ -206,6 +223,8 @@ public class Events implements Listener {
 
 					String chatName = ((String)MultiChat.viewedchats.get(player.getUniqueId())).toLowerCase();
 
+					MultiChat.loadGroupChats();
+
 					if (MultiChat.groupchats.containsKey(chatName)) {
 
 						TGroupChatInfo chatInfo = (TGroupChatInfo)MultiChat.groupchats.get(chatName);
@@ -360,10 +379,10 @@ public class Events implements Listener {
 					return;
 				}
 
-				DebugManager.log(player.getName() + "- about to check for spam");
+				DebugManager.log(DebugCategory.CHAT, "%s- about to check for spam", player.getName());
 
 				if (ChatControl.handleSpam(player, message, "global_chat")) {
-					DebugManager.log(player.getName() + " - chat message being cancelled due to spam");
+					DebugManager.log(DebugCategory.CHAT, "%s - chat message being cancelled due to spam", player.getName());
 					event.setCancelled(true);
 					return;
 				}
@@ -385,11 +404,11 @@ public class Events implements Listener {
 					event.setMessage(message);
 				}
 
-				DebugManager.log("Does player have ALL colour permission? " + (player.hasPermission("multichat.chat.colour")||player.hasPermission("multichat.chat.color")));
+				DebugManager.log(DebugCategory.CHAT, () -> "Does player have ALL colour permission? " + (player.hasPermission("multichat.chat.colour")||player.hasPermission("multichat.chat.color")));
 
-				DebugManager.log("Does player have simple colour permission? " + (player.hasPermission("multichat.chat.colour.simple")||player.hasPermission("multichat.chat.color.simple")));
+				DebugManager.log(DebugCategory.CHAT, () -> "Does player have simple colour permission? " + (player.hasPermission("multichat.chat.colour.simple")||player.hasPermission("multichat.chat.color.simple")));
 
-				DebugManager.log("Does player have rgb colour permission? " + (player.hasPermission("multichat.chat.colour.rgb")||player.hasPermission("multichat.chat.color.rgb")));
+				DebugManager.log(DebugCategory.CHAT, () -> "Does player have rgb colour permission? " + (player.hasPermission("multichat.chat.colour.rgb")||player.hasPermission("multichat.chat.color.rgb")));
 
 				// Let server know players channel preference
 				BungeeComm.sendPlayerChannelMessage(player.getName(), Channel.getChannel(player.getUniqueId()).getName(), Channel.getChannel(player.getUniqueId()), player.getServer().getInfo(), (player.hasPermission("multichat.chat.colour")||player.hasPermission("multichat.chat.color")||player.hasPermission("multichat.chat.colour.simple")||player.hasPermission("multichat.chat.color.simple")), (player.hasPermission("multichat.chat.colour")||player.hasPermission("multichat.chat.color")||player.hasPermission("multichat.chat.colour.rgb")||player.hasPermission("multichat.chat.color.rgb")));
@@ -425,6 +444,7 @@ public class Events implements Listener {
 				chatinfo.setChatColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ccdefault").toCharArray()[0]);
 				chatinfo.setNameColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ncdefault").toCharArray()[0]);
 				MultiChat.modchatpreferences.put(uuid, chatinfo);
+				MultiChat.markDataChanged("StaffChatInfo.dat");
 
 			}
 		}
@@ -437,6 +457,7 @@ public class Events implements Listener {
 				chatinfo.setChatColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.ccdefault").toCharArray()[0]);
 				chatinfo.setNameColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.ncdefault").toCharArray()[0]);
 				MultiChat.adminchatpreferences.put(uuid, chatinfo);
+				MultiChat.markDataChanged("AdminChatInfo.dat");
 
 			}
 		}
@@ -485,10 +506,7 @@ public class Events implements Listener {
 
 		//BungeeComm.sendPlayerChannelMessage(player.getName(), Channel.getChannel(player.getUniqueId()).getName(), Channel.getChannel(player.getUniqueId()), player.getServer().getInfo());
 
-		if (UUIDNameManager.existsUUID(uuid)) {
-			UUIDNameManager.removeUUID(uuid);
-		}
-
+		// Replaces any name already stored, and does nothing if the name has not changed
 		UUIDNameManager.addNew(uuid, player.getName());
 
 		ConsoleManager.log("Refreshed UUID-Name lookup: " + uuid.toString());
@@ -592,6 +610,7 @@ public class Events implements Listener {
 		}
 
 		PlayerMetaManager.getInstance().unregisterPlayer(uuid);
+		ChatReplayManager.getInstance().removePlayer(uuid);
 
 		ConsoleManager.log("Un-Registered player " + player.getName());
 
@@ -632,6 +651,10 @@ public class Events implements Listener {
 
 	@EventHandler(priority = EventPriority.LOWEST)
 	public void onServerSwitch(ServerSwitchEvent event) {
+
+		// Show the chat they missed
+		ChatReplayManager.getInstance().handleServerSwitch(event.getPlayer(), event.getFrom() == null);
+
 		// Tell the new server the player's channel preference
 		ProxyServer.getInstance().getScheduler().schedule(MultiChat.getInstance(), new Runnable() {
 
@@ -642,7 +665,7 @@ public class Events implements Listener {
 
 					// LEGACY SERVER HACK
 					if (ConfigManager.getInstance().getHandler("config.yml").getConfig().getStringList("legacy_servers").contains(event.getPlayer().getServer().getInfo().getName())) {
-						DebugManager.log("Player: " + event.getPlayer().getName() + ", switching to server: " + event.getPlayer().getServer().getInfo().getName() + ", is a LEGACY server!");
+						DebugManager.log(DebugCategory.GENERAL, "Player: %s, switching to server: %s, is a LEGACY server!", event.getPlayer().getName(), event.getPlayer().getServer().getInfo().getName());
 						BungeeComm.sendCommandMessage("!!!LEGACYSERVER!!!", event.getPlayer().getServer().getInfo());
 					} else {
 						BungeeComm.sendCommandMessage("!!!NOTLEGACYSERVER!!!", event.getPlayer().getServer().getInfo());
@@ -3,6 +3,8 @@ package xyz.olivermartin.multichat.bungee;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
+
 public class LocalChannel extends Channel {
 
 	public LocalChannel() {
@@ -20,7 +22,7 @@ public class LocalChannel extends Channel {
 	@Override
 	public void sendMessage(String message, CommandSender sender) {
 		
-		DebugManager.log("LocalChannel wants to send a cast message!");
+		DebugManager.log(DebugCategory.CHANNELS, "LocalChannel wants to send a cast message!");
 		
 		// Use this to relay CASTS to local chat!
 		if (sender instanceof ProxiedPlayer) {
@@ -62,6 +62,10 @@ public class MessageManager {
 		defaultMessages.put("command_announcement_started_error", "&cSorry, unable to start announcement: %SPECIAL%");
 		defaultMessages.put("command_announcement_added", "&aAdded announcement: %SPECIAL%");
 		defaultMessages.put("command_announcement_added_error", "&cSorry, announcement already exists: %SPECIAL%");
+		defaultMessages.put("command_announcement_paused", "&aPaused announcement: %SPECIAL%");
+		defaultMessages.put("command_announcement_paused_error", "&cSorry, unable to pause announcement: %SPECIAL%");
+		defaultMessages.put("command_announcement_resumed", "&aResumed announcement: %SPECIAL%");
+		defaultMessages.put("command_announcement_resumed_error", "&cSorry, unable to resume announcement: %SPECIAL%");
 		defaultMessages.put("command_announcement_usage", "&aUsage:");
 
 		defaultMessages.put("command_bulletin_stopped", "&bBulletins stopped");
@@ -71,6 +75,10 @@ public class MessageManager {
 		defaultMessages.put("command_bulletin_started", "&bStarted bulletin");
 		defaultMessages.put("command_bulletin_added", "&bAdded to bulletin");
 		defaultMessages.put("command_bulletin_invalid_usage", "&cInvalid command usage!");
+		defaultMessages.put("command_bulletin_paused", "&bBulletins paused");
+		defaultMessages.put("command_bulletin_paused_error", "&cBulletins are not running");
+		defaultMessages.put("command_bulletin_resumed", "&bBulletins resumed");
+		defaultMessages.put("command_bulletin_resumed_error", "&cBulletins are not paused");
 		defaultMessages.put("command_bulletin_usage", "&aUsage:");
 
 		defaultMessages.put("command_cast_usage", "&aUsage:");
@@ -206,6 +214,10 @@ public class MessageManager {
 						+ "&b/multichat reload\n"
 						+ "&3Save ALL plugin data\n"
 						+ "&b/multichat save\n"
+						+ "&3View chat performance stats\n"
+						+ "&b/multichat stats\n"
+						+ "&3Search the chat history\n"
+						+ "&b/multichat history <player|text> [since]\n"
 						+ "&3Display a message to all players\n"
 						+ "&b/display <message>\n"
 						+ "&3View group chat help\n"
@@ -265,6 +277,19 @@ public class MessageManager {
 		defaultMessages.put("command_multichat_save_completed", "&bSave completed!");
 		defaultMessages.put("command_multichat_reload_prepare", "&3Preparing to reload multichat files!");
 		defaultMessages.put("command_multichat_reload_completed", "&bReload completed!");
+		defaultMessages.put("command_multichat_stats_header", "&2&lMulti&a&lChat &b&lStats");
+		defaultMessages.put("command_multichat_stats_empty", "&bNothing has been recorded yet");
+		defaultMessages.put("command_multichat_debug_enabled", "&bDebug output turned on for: &3%SPECIAL%");
+		defaultMessages.put("command_multichat_debug_disabled", "&bDebug output turned off for: &3%SPECIAL%");
+		defaultMessages.put("command_multichat_debug_categories", "&cUnknown debug category! Use one of: &3%SPECIAL%");
+		defaultMessages.put("command_multichat_history_usage", "&cUsage: /multichat history <player|text> [since, i.e. 30m, 12h or 7d]");
+		defaultMessages.put("command_multichat_history_disabled", "&cThe chat history is not enabled! Turn on chat_history in config.yml");
+		defaultMessages.put("command_multichat_history_too_short", "&cPlease search for at least one word of 2 or more letters");
+		defaultMessages.put("command_multichat_history_header", "&2&lMulti&a&lChat &b&lHistory for: &3%SPECIAL%");
+		defaultMessages.put("command_multichat_history_empty", "&bNo messages found");
+		defaultMessages.put("command_multichat_history_failed", "&cCould not search the chat history! See the console for details");
+
+		defaultMessages.put("chat_replay_header", "&7&o%SPECIAL% chat you missed:");
 
 		defaultMessages.put("command_multichatbypass_usage", "&4Usage: /mcb\n"
 				+ "&c&oThis command causes your chat messages to bypass MultiChat and be handled directly by spigot.");
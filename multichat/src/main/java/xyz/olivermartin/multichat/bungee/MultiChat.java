@@ -1,16 +1,18 @@
 package xyz.olivermartin.multichat.bungee;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +28,24 @@ import net.md_5.bungee.api.plugin.Listener;
 import net.md_5.bungee.api.plugin.Plugin;
 import net.md_5.bungee.config.Configuration;
 import net.md_5.bungee.event.EventHandler;
+import xyz.olivermartin.multichat.common.metrics.Gauge;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
+import xyz.olivermartin.multichat.common.metrics.PrometheusEndpoint;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
+import xyz.olivermartin.multichat.proxy.common.ProxyStartupLoader;
+import xyz.olivermartin.multichat.proxy.common.history.ChatHistory;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogFile;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogSink;
+import xyz.olivermartin.multichat.proxy.common.network.NetworkBus;
+import xyz.olivermartin.multichat.proxy.common.network.TcpNetworkBus;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataFormat;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataStore;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataStoreManager;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDatabaseSetupManager;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxySQLRows;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxySQLStore;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxySQLStoreManager;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxySQLTable;
 
 
 /**
@@ -76,12 +96,12 @@ public class MultiChat extends Plugin implements Listener {
 
 	public static Map<UUID, TChatInfo> modchatpreferences = new HashMap<UUID, TChatInfo>();
 	public static Map<UUID, TChatInfo> adminchatpreferences = new HashMap<UUID, TChatInfo>();
-	public static Map<String, TGroupChatInfo> groupchats = new HashMap<String, TGroupChatInfo>();
+	public static volatile Map<String, TGroupChatInfo> groupchats = new HashMap<String, TGroupChatInfo>();
 
 	public static Map<UUID, String> viewedchats = new HashMap<UUID, String>();
 	public static Map<UUID, UUID> lastmsg = new HashMap<UUID, UUID>();
-	public static List<UUID> allspy = new ArrayList<UUID>();
-	public static List<UUID> socialspy = new ArrayList<UUID>();
+	public static volatile List<UUID> allspy = new ArrayList<UUID>();
+	public static volatile List<UUID> socialspy = new ArrayList<UUID>();
 
 	public static File configDir;
 	public static String configversion;
@@ -110,29 +130,50 @@ public class MultiChat extends Plugin implements Listener {
 
 	public void backup() {
 
+		Configuration configYML = ConfigManager.getInstance().getHandler("config.yml").getConfig();
+
+		// Minutes between saving any data which has changed
+		long interval = 60L;
+		if (configYML.contains("backup_interval")) {
+			interval = Math.max(1L, configYML.getLong("backup_interval"));
+		}
+
 		getProxy().getScheduler().schedule(this, new Runnable() {
 
 			public void run() {
 
-				getLogger().info("Commencing backup!");
+				int changed = MultiChatProxy.getInstance().getDataStoreManager().saveChanged();
+
+				if (changed > 0) {
+					getLogger().info("Commencing backup of " + changed + " changed data files! Any errors will be reported.");
+				}
+
+			}
+
+		}, interval, interval, TimeUnit.MINUTES);
 
-				saveChatInfo();
-				saveGroupChatInfo();
-				saveGroupSpyInfo();
-				saveGlobalChatInfo();
-				saveSocialSpyInfo();
-				saveAnnouncements();
-				saveBulletins();
-				saveCasts();
-				saveMute();
-				saveIgnore();
-				UUIDNameManager.saveUUIDS();
+	}
+
+	/**
+	 * Regularly write changes to the database shared with other proxies, and pick up their changes
+	 * @param sqlStoreManager
+	 */
+	public void syncDatabase(final ProxySQLStoreManager sqlStoreManager) {
 
-				getLogger().info("Backup complete. Any errors reported above.");
+		Configuration configYML = ConfigManager.getInstance().getHandler("config.yml").getConfig();
 
+		long interval = 5L;
+		if (configYML.contains("proxy_sql_sync_interval")) {
+			interval = Math.max(1L, configYML.getLong("proxy_sql_sync_interval"));
+		}
+
+		getProxy().getScheduler().schedule(this, new Runnable() {
+
+			public void run() {
+				sqlStoreManager.sync();
 			}
 
-		}, 1L, 60L, TimeUnit.MINUTES);
+		}, interval, interval, TimeUnit.SECONDS);
 
 	}
 
@@ -263,6 +304,8 @@ public class MultiChat extends Plugin implements Listener {
 
 		instance = this;
 
+		ProxyStartupLoader startup = new ProxyStartupLoader();
+
 		@SuppressWarnings("unused")
 		Metrics metrics = new Metrics(this);
 
@@ -272,21 +315,25 @@ public class MultiChat extends Plugin implements Listener {
 			getDataFolder().mkdirs();
 		}
 
+		MultiChatProxy.getInstance().registerDataStoreManager(new ProxyDataStoreManager(configDir));
+
 		String translationsDir = configDir.toString() + File.separator + "translations";
 		if (!new File(translationsDir).exists()) {
 			System.out.println("[MultiChat] Creating translations directory!");
 			new File(translationsDir).mkdirs();
 		}
 
-		ConfigManager.getInstance().registerHandler("config.yml", configDir);
-		ConfigManager.getInstance().registerHandler("joinmessages.yml", configDir);
-		ConfigManager.getInstance().registerHandler("messages.yml", configDir);
-		ConfigManager.getInstance().registerHandler("chatcontrol.yml", configDir);
+		startup.runParallel("configs", Arrays.asList(
+				registerConfigTask("config.yml", configDir),
+				registerConfigTask("joinmessages.yml", configDir),
+				registerConfigTask("messages.yml", configDir),
+				registerConfigTask("chatcontrol.yml", configDir)));
 
-		ConfigManager.getInstance().registerHandler("messages_fr.yml", new File(translationsDir));
-		ConfigManager.getInstance().registerHandler("joinmessages_fr.yml", new File(translationsDir));
-		ConfigManager.getInstance().registerHandler("config_fr.yml", new File(translationsDir));
-		ConfigManager.getInstance().registerHandler("chatcontrol_fr.yml", new File(translationsDir));
+		// Translations are only loaded when they are first used
+		ConfigManager.getInstance().registerLazyHandler("messages_fr.yml", new File(translationsDir));
+		ConfigManager.getInstance().registerLazyHandler("joinmessages_fr.yml", new File(translationsDir));
+		ConfigManager.getInstance().registerLazyHandler("config_fr.yml", new File(translationsDir));
+		ConfigManager.getInstance().registerLazyHandler("chatcontrol_fr.yml", new File(translationsDir));
 
 		Configuration configYML = ConfigManager.getInstance().getHandler("config.yml").getConfig();
 		Configuration chatcontrolYML = ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig();
@@ -306,34 +353,33 @@ public class MultiChat extends Plugin implements Listener {
 
 			}
 
-			// Register listeners
-			getProxy().getPluginManager().registerListener(this, new Events());
-			getProxy().getPluginManager().registerListener(this, this);
-
-			// Register communication channels and appropriate listeners
-			getProxy().registerChannel("multichat:comm");
-			getProxy().registerChannel("multichat:prefix");
-			getProxy().registerChannel("multichat:suffix");
-			getProxy().registerChannel("multichat:dn");
-			getProxy().registerChannel("multichat:nick");
-			getProxy().registerChannel("multichat:world");
-			getProxy().registerChannel("multichat:act");
-			getProxy().registerChannel("multichat:pact");
-			getProxy().registerChannel("multichat:chat");
-			getProxy().registerChannel("multichat:ch");
-			getProxy().registerChannel("multichat:ignore");
-			getProxy().registerChannel("multichat:pxe");
-			getProxy().registerChannel("multichat:ppxe");
-			getProxy().getPluginManager().registerListener(this, new BungeeComm());
-
-			// Register commands
-			registerCommands(configYML, chatcontrolYML);
+			startup.run("commands", new Runnable() {
+				public void run() {
+					registerListenersAndCommands(configYML, chatcontrolYML);
+				}
+			});
 
 			System.out.println("[MultiChat] Config Version: " + configversion);
 
 			// Run start-up routines
-			Startup();
-			UUIDNameManager.Startup();
+			registerDataStores();
+
+			if (configYML.getBoolean("proxy_sql")) {
+				startup.run("database", new Runnable() {
+					public void run() {
+						setupSQLStorage(configYML);
+					}
+				});
+			}
+
+			Startup(startup);
+
+			Optional<ProxySQLStoreManager> sqlStoreManager = MultiChatProxy.getInstance().getSQLStoreManager();
+			if (sqlStoreManager.isPresent()) {
+				// Copy in any data files which were loaded because the database had no data for them yet
+				sqlStoreManager.get().sync();
+				syncDatabase(sqlStoreManager.get());
+			}
 
 			// Set up chat control stuff
 			if (chatcontrolYML.contains("link_control")) {
@@ -387,6 +433,35 @@ public class MultiChat extends Plugin implements Listener {
 
 			}
 
+			// Read by /multichat stats
+			MetricsRegistry.getInstance().registerGauge(new Gauge("online_players") {
+				public long getValue() {
+					return ProxyServer.getInstance().getOnlineCount();
+				}
+			});
+
+			// Log chat away from the chat threads
+			setupConsoleLog(configYML);
+
+			// Keep recent chat to show to players who missed it
+			ChatReplayManager.getInstance().configure(configYML);
+
+			// Run the announcements and bulletins, including any restored from the data files
+			BroadcastScheduler.getInstance().configure(configYML);
+			BroadcastScheduler.getInstance().start();
+
+			// Serve the metrics to Prometheus
+			if (configYML.getBoolean("metrics_endpoint")) {
+				setupMetricsEndpoint(configYML);
+			}
+
+			// Relay chat to the other proxies of the network
+			if (configYML.getBoolean("network_bus")) {
+				setupNetworkBus(configYML);
+			}
+
+			startup.finish();
+
 		} else {
 			getLogger().info("Config incorrect version! Please repair or delete it!");
 		}
@@ -396,17 +471,66 @@ public class MultiChat extends Plugin implements Listener {
 
 		getLogger().info("Thankyou for using MultiChat. Disabling...");
 
-		saveChatInfo();
-		saveGroupChatInfo();
-		saveGroupSpyInfo();
-		saveGlobalChatInfo();
-		saveSocialSpyInfo();
-		saveAnnouncements();
-		saveBulletins();
-		saveCasts();
-		saveMute();
-		saveIgnore();
-		UUIDNameManager.saveUUIDS();
+		Optional<NetworkBus> networkBus = MultiChatProxy.getInstance().getNetworkBus();
+		if (networkBus.isPresent()) {
+			networkBus.get().shutdown();
+		}
+
+		Optional<PrometheusEndpoint> metricsEndpoint = MultiChatProxy.getInstance().getMetricsEndpoint();
+		if (metricsEndpoint.isPresent()) {
+			metricsEndpoint.get().stop();
+		}
+
+		Optional<ProxySQLStoreManager> sqlStoreManager = MultiChatProxy.getInstance().getSQLStoreManager();
+		if (sqlStoreManager.isPresent()) {
+			sqlStoreManager.get().shutdown(30L, TimeUnit.SECONDS);
+		}
+
+		UUIDNameManager.shutdown();
+
+		// Stop the announcements and bulletins, they are still saved below so they start again next time
+		BroadcastScheduler.getInstance().stop();
+
+		// Write anything which has changed, and wait for it to finish
+		MultiChatProxy.getInstance().getDataStoreManager().shutdown(30L, TimeUnit.SECONDS);
+
+		// Write anything still waiting to be logged
+		ConsoleManager.shutdown();
+
+	}
+
+	private static Runnable registerConfigTask(final String fileName, final File configPath) {
+		return new Runnable() {
+			public void run() {
+				ConfigManager.getInstance().registerHandler(fileName, configPath);
+			}
+		};
+	}
+
+	private void registerListenersAndCommands(Configuration configYML, Configuration chatcontrolYML) {
+
+		// Register listeners
+		getProxy().getPluginManager().registerListener(this, new Events());
+		getProxy().getPluginManager().registerListener(this, this);
+
+		// Register communication channels and appropriate listeners
+		getProxy().registerChannel("multichat:comm");
+		getProxy().registerChannel("multichat:prefix");
+		getProxy().registerChannel("multichat:suffix");
+		getProxy().registerChannel("multichat:dn");
+		getProxy().registerChannel("multichat:nick");
+		getProxy().registerChannel("multichat:world");
+		getProxy().registerChannel("multichat:act");
+		getProxy().registerChannel("multichat:pact");
+		getProxy().registerChannel("multichat:chat");
+		getProxy().registerChannel("multichat:ch");
+		getProxy().registerChannel("multichat:ignore");
+		getProxy().registerChannel("multichat:pxe");
+		getProxy().registerChannel("multichat:ppxe");
+		getProxy().getPluginManager().registerListener(this, new BungeeComm());
+
+		// Register commands
+		registerCommands(configYML, chatcontrolYML);
 
 	}
 
@@ -516,569 +640,908 @@ public class MultiChat extends Plugin implements Listener {
 
 	}
 
-	public static void saveAnnouncements() {
-
-		try {
-			File file = new File(configDir, "Announcements.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(Announcements.getAnnouncementList());
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the announcements file!");
-			e.printStackTrace();
+	/**
+	 * Connect to the database used to share data between proxies, and register a SQL store for each shared data file
+	 * 
+	 * <p>If the database can not be used, the data files are used as normal</p>
+	 * 
+	 * @param configYML
+	 */
+	public static void setupSQLStorage(Configuration configYML) {
+
+		ProxyDatabaseSetupManager setupManager;
+
+		if (configYML.getBoolean("mysql")) {
+			setupManager = new ProxyDatabaseSetupManager("multichatproxy.db",
+					configYML.getString("mysql_url"),
+					configYML.getString("mysql_database"),
+					configYML.getString("mysql_user"),
+					configYML.getString("mysql_pass"),
+					configYML.getStringList("mysql_flags"));
+		} else {
+			setupManager = new ProxyDatabaseSetupManager("multichatproxy.db", configDir);
 		}
 
-	}
+		if (!setupManager.isConnected()) {
+			System.out.println("[MultiChat] [Load Error] Could not connect to the database! The data files will be used instead");
+			return;
+		}
 
-	public static void saveBulletins() {
+		ProxySQLStoreManager sqlStoreManager = new ProxySQLStoreManager(setupManager.getDatabase().get(), MultiChatProxy.getInstance().getDataStoreManager(), MultiChatProxy.getInstance().getDataLock());
+		registerSQLStores(sqlStoreManager);
 
-		try	{
-			File file = new File(configDir, "Bulletins.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeBoolean(Bulletins.isEnabled());
-			out.writeInt(Bulletins.getTimeBetween());
-			out.writeObject(Bulletins.getArrayList());
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the bulletins file!");
-			e.printStackTrace();
+		if (!sqlStoreManager.setupTables()) {
+			System.out.println("[MultiChat] [Load Error] The data files will be used instead of the database");
+			sqlStoreManager.shutdown(5L, TimeUnit.SECONDS);
+			return;
 		}
 
+		MultiChatProxy.getInstance().registerSQLStoreManager(sqlStoreManager);
+		System.out.println("[MultiChat] Sharing data with other proxies using the database");
+
 	}
 
-	public static void saveChatInfo() {
+	/**
+	 * Start relaying chat to the other proxies of the network
+	 * 
+	 * <p>If the network bus can not be started, chat stays on this proxy</p>
+	 * 
+	 * @param configYML
+	 */
+	public static void setupNetworkBus(Configuration configYML) {
 
-		try {
-			File file = new File(configDir, "StaffChatInfo.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(modchatpreferences);
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the mod chat info file!");
-			e.printStackTrace();
+		String secret = configYML.getString("network_bus_secret", "");
+
+		if (secret.isEmpty()) {
+			System.out.println("[MultiChat] [Load Error] network_bus_secret must be set to relay chat to other proxies!");
+			return;
 		}
 
+		NetworkBus bus;
+
 		try {
-			File file = new File(configDir, "AdminChatInfo.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(adminchatpreferences);
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the admin chat info file!");
-			e.printStackTrace();
-		}
 
-	}
+			List<InetSocketAddress> peers = new ArrayList<InetSocketAddress>();
+			for (String peer : configYML.getStringList("network_bus_peers")) {
+				peers.add(TcpNetworkBus.parseAddress(peer, TcpNetworkBus.DEFAULT_PORT));
+			}
 
-	public static void saveGroupChatInfo() {
+			bus = new TcpNetworkBus(configYML.getString("network_bus_name", "proxy"),
+					TcpNetworkBus.parseAddress(configYML.getString("network_bus_bind", "127.0.0.1"), TcpNetworkBus.DEFAULT_PORT),
+					peers,
+					secret,
+					configYML.getInt("network_bus_queue_size", 10000));
 
-		try {
-			File file = new File(configDir, "GroupChatInfo.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(groupchats);
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the group chat info file!");
+			NetworkChatRelay.registerListeners(bus);
+			bus.start();
+
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println("[MultiChat] [Load Error] Could not start the network bus! Chat will not be relayed to other proxies");
 			e.printStackTrace();
+			return;
 		}
 
+		MultiChatProxy.getInstance().registerNetworkBus(bus);
+
 	}
 
-	public static void saveCasts() {
+	/**
+	 * Start logging the console and chat on a thread of its own, and writing chat to the chat log and chat history if they are enabled
+	 * 
+	 * @param configYML
+	 */
+	public static void setupConsoleLog(Configuration configYML) {
+
+		List<ChatLogSink> sinks = new ArrayList<ChatLogSink>();
+		ChatLogFile chatLog = null;
+
+		if (configYML.getBoolean("chat_log_file", false)) {
+
+			chatLog = new ChatLogFile(new File(configDir, "chatlogs"),
+					configYML.getLong("chat_log_max_size", 16L) * 1024L * 1024L,
+					configYML.getInt("chat_log_max_files", 30));
+
+			try {
+				chatLog.open();
+				sinks.add(chatLog);
+				System.out.println("[MultiChat] Writing chat to " + chatLog.getDirectory());
+			} catch (IOException e) {
+				System.out.println("[MultiChat] [Load Error] Could not open the chat log! Chat will only be logged to the console");
+				e.printStackTrace();
+				chatLog = null;
+			}
 
-		try {
-			File file = new File(configDir, "Casts.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(CastControl.castList);
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the casts file!");
-			e.printStackTrace();
 		}
 
-	}
+		if (configYML.getBoolean("chat_history", false)) {
 
-	public static void saveGroupSpyInfo() {
+			ChatHistory history = new ChatHistory(new File(configDir, "history"),
+					Math.min(1024L, Math.max(1L, configYML.getLong("chat_history_segment_size", 8L))) * 1024L * 1024L,
+					TimeUnit.DAYS.toMillis(Math.max(1L, configYML.getLong("chat_history_retention_days", 30L))));
+
+			try {
+				history.open();
+				sinks.add(history);
+				MultiChatProxy.getInstance().registerChatHistory(history);
+			} catch (IOException e) {
+				System.out.println("[MultiChat] [Load Error] Could not open the chat history! /multichat history will not be available");
+				e.printStackTrace();
+			}
 
-		try {
-			File file = new File(configDir, "GroupSpyInfo.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(allspy);
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the group spy info file!");
-			e.printStackTrace();
 		}
 
+		// Chat is always shown in the console if there is no chat log for it to go to instead
+		ConsoleLogWriter writer = new ConsoleLogWriter(chatLog == null || configYML.getBoolean("console_chat", true), sinks);
+		writer.start();
+
+		ConsoleManager.setWriter(writer);
+
 	}
 
-	public static void saveSocialSpyInfo() {
+	/**
+	 * Start serving the metrics in the Prometheus text format
+	 * 
+	 * @param configYML
+	 */
+	public static void setupMetricsEndpoint(Configuration configYML) {
+
+		PrometheusEndpoint endpoint;
 
 		try {
-			File file = new File(configDir, "SocialSpyInfo.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(socialspy);
-			out.close();
-		} catch (IOException e)	{
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the social spy info file!");
+			endpoint = new PrometheusEndpoint(PrometheusEndpoint.parseAddress(configYML.getString("metrics_endpoint_bind", "127.0.0.1"), PrometheusEndpoint.DEFAULT_PORT));
+			endpoint.start();
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println("[MultiChat] [Load Error] Could not start the metrics endpoint!");
 			e.printStackTrace();
+			return;
 		}
 
+		MultiChatProxy.getInstance().registerMetricsEndpoint(endpoint);
+		System.out.println("[MultiChat] Serving metrics at http://" + endpoint.getBindAddress().getHostString() + ":" + endpoint.getBindAddress().getPort() + "/metrics");
+
 	}
 
-	public static void saveGlobalChatInfo() {
+	/**
+	 * Registers a SQL store for each data file which is shared between proxies
+	 * @param sqlStoreManager
+	 */
+	public static void registerSQLStores(ProxySQLStoreManager sqlStoreManager) {
 
-		try {
-			File file = new File(configDir, "GlobalChatInfo.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(ChatModeManager.getInstance().getData());
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the global chat info file!");
-			e.printStackTrace();
-		}
+		final ProxySQLTable mutedPlayers = new ProxySQLTable("muted_players", 1,
+				"id VARCHAR(128)");
 
-	}
+		sqlStoreManager.registerStore(new ProxySQLStore("Mute.dat", "mute", mutedPlayers) {
 
-	public static void saveMute() {
+			protected void write(ProxySQLRows rows) {
+				for (UUID uuid : ChatControl.getMutedPlayers()) {
+					rows.add(mutedPlayers, uuid.toString());
+				}
+			}
 
-		try {
-			File file = new File(configDir, "Mute.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(ChatControl.getMutedPlayers());
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the mute file!");
-			e.printStackTrace();
-		}
+			protected void read(ProxySQLRows rows) {
+				Set<UUID> result = new HashSet<UUID>();
+				for (List<Object> row : rows.get(mutedPlayers)) {
+					result.add(UUID.fromString((String)row.get(0)));
+				}
+				ChatControl.setMutedPlayers(result);
+			}
 
-	}
+		});
 
-	public static void saveIgnore() {
+		final ProxySQLTable ignoredPlayers = new ProxySQLTable("ignored_players", 2,
+				"ignorer_id VARCHAR(128)",
+				"ignoree_id VARCHAR(128)");
 
-		Configuration config = ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig();
+		sqlStoreManager.registerStore(new ProxySQLStore("Ignore.dat", "ignore", ignoredPlayers) {
 
-		if (config.getBoolean("session_ignore")) return;
+			@Override
+			public boolean isEnabled() {
+				// Ignores only last for the session, so are never loaded or saved
+				return !ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig().getBoolean("session_ignore");
+			}
 
-		try {
-			File file = new File(configDir, "Ignore.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(ChatControl.getIgnoreMap());
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the ignore file!");
-			e.printStackTrace();
-		}
+			protected void write(ProxySQLRows rows) {
+				for (Map.Entry<UUID, Set<UUID>> entry : ChatControl.getIgnoreMap().entrySet()) {
+					for (UUID ignoree : entry.getValue()) {
+						rows.add(ignoredPlayers, entry.getKey().toString(), ignoree.toString());
+					}
+				}
+			}
 
-	}
+			protected void read(ProxySQLRows rows) {
 
-	@SuppressWarnings("unchecked")
-	public static HashMap<UUID, TChatInfo> loadModChatInfo() {
+				Map<UUID, Set<UUID>> result = new HashMap<UUID, Set<UUID>>();
 
-		HashMap<UUID, TChatInfo> result = null;
+				for (List<Object> row : rows.get(ignoredPlayers)) {
+					UUID ignorer = UUID.fromString((String)row.get(0));
+					if (!result.containsKey(ignorer)) result.put(ignorer, new HashSet<UUID>());
+					result.get(ignorer).add(UUID.fromString((String)row.get(1)));
+				}
 
-		try {
-			File file = new File(configDir, "StaffChatInfo.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (HashMap<UUID, TChatInfo>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the mod chat info file!");
-			e.printStackTrace();
-		}
+				ChatControl.setIgnoreMap(result);
 
-		return result;
+			}
 
-	}
+		});
 
-	@SuppressWarnings("unchecked")
-	public static void loadBulletins() {
+		final ProxySQLTable groupChats = new ProxySQLTable("group_chats", 1,
+				"group_id VARCHAR(128)",
+				"name VARCHAR(128)",
+				"chat_color VARCHAR(8)",
+				"name_color VARCHAR(8)",
+				"secret INT",
+				"formal INT",
+				"password VARCHAR(255)");
 
-		ArrayList<String> result = null;
-		boolean enabled = false;
-		int timeBetween = 0;
+		final ProxySQLTable groupChatMembers = new ProxySQLTable("group_chat_members", 3,
+				"group_id VARCHAR(128)",
+				"id VARCHAR(128)",
+				"role VARCHAR(16)");
 
-		try {
-			File file = new File(configDir, "Bulletins.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			enabled = in.readBoolean();
-			timeBetween = in.readInt();
-			result = (ArrayList<String>)in.readObject();
-			in.close();
-			Bulletins.setArrayList(result);
-			if (enabled) {
-				Bulletins.startBulletins(timeBetween);
-			}
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the bulletins file!");
-			e.printStackTrace();
-		}
+		sqlStoreManager.registerStore(new ProxySQLStore("GroupChatInfo.dat", "group chat info", groupChats, groupChatMembers) {
 
-	}
+			protected void write(ProxySQLRows rows) {
 
-	@SuppressWarnings("unchecked")
-	public static HashMap<String, String> loadAnnouncements() {
+				for (Map.Entry<String, TGroupChatInfo> entry : groupchats.entrySet()) {
 
-		HashMap<String, String> result = null;
+					TGroupChatInfo info = entry.getValue();
 
-		try {
-			File file = new File(configDir, "Announcements.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (HashMap<String, String>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the announcements file!");
-			e.printStackTrace();
-		}
+					rows.add(groupChats, entry.getKey(), info.getName(),
+							String.valueOf(info.getChatColor()), String.valueOf(info.getNameColor()),
+							info.getSecret() ? 1 : 0, info.getFormal() ? 1 : 0, info.getPassword());
 
-		return result;
+					addMembers(rows, entry.getKey(), "member", info.getMembers());
+					addMembers(rows, entry.getKey(), "viewer", info.getViewers());
+					addMembers(rows, entry.getKey(), "admin", info.getAdmins());
+					addMembers(rows, entry.getKey(), "banned", info.getBanned());
 
-	}
+				}
+
+			}
 
-	@SuppressWarnings("unchecked")
-	public static HashMap<UUID, TChatInfo> loadAdminChatInfo() {
+			private void addMembers(ProxySQLRows rows, String key, String role, List<UUID> members) {
+				for (UUID uuid : members) {
+					rows.add(groupChatMembers, key, uuid.toString(), role);
+				}
+			}
 
-		HashMap<UUID, TChatInfo> result = null;
+			protected void read(ProxySQLRows rows) {
 
-		try {
-			File file = new File(configDir, "AdminChatInfo.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (HashMap<UUID, TChatInfo>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the admin chat info file!");
-			e.printStackTrace();
-		}
+				Map<String, TGroupChatInfo> result = new HashMap<String, TGroupChatInfo>();
 
-		return result;
+				for (List<Object> row : rows.get(groupChats)) {
 
-	}
+					TGroupChatInfo info = new TGroupChatInfo();
 
-	@SuppressWarnings("unchecked")
-	public static HashMap<String, String> loadCasts() {
+					info.setName((String)row.get(1));
+					info.setChatColor(((String)row.get(2)).charAt(0));
+					info.setNameColor(((String)row.get(3)).charAt(0));
+					info.setSecret((Integer)row.get(4) != 0);
+					info.setFormal((Integer)row.get(5) != 0);
+					info.setPassword((String)row.get(6));
 
-		HashMap<String, String> result = null;
+					result.put((String)row.get(0), info);
 
-		try	{
-			File file = new File(configDir, "Casts.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (HashMap<String, String>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the casts file!");
-			e.printStackTrace();
-		}
+				}
 
-		return result;
+				for (List<Object> row : rows.get(groupChatMembers)) {
 
-	}
+					TGroupChatInfo info = result.get((String)row.get(0));
+					if (info == null) continue;
 
-	@SuppressWarnings("unchecked")
-	public static HashMap<String, TGroupChatInfo> loadGroupChatInfo() {
+					UUID uuid = UUID.fromString((String)row.get(1));
+					String role = (String)row.get(2);
 
-		HashMap<String, TGroupChatInfo> result = null;
+					if (role.equals("member")) {
+						info.getMembers().add(uuid);
+					} else if (role.equals("viewer")) {
+						info.getViewers().add(uuid);
+					} else if (role.equals("admin")) {
+						info.getAdmins().add(uuid);
+					} else if (role.equals("banned")) {
+						info.getBanned().add(uuid);
+					}
 
-		try {
-			File file = new File(configDir, "GroupChatInfo.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (HashMap<String, TGroupChatInfo>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the group chat info file!");
-			e.printStackTrace();
-		}
+				}
 
-		return result;
+				// Replaced rather than cleared, so anything reading the old map is not disturbed
+				groupchats = result;
 
-	}
+			}
 
-	@SuppressWarnings("unchecked")
-	public static List<UUID> loadGroupSpyInfo() {
+		});
 
-		List<UUID> result = null;
+		final ProxySQLTable groupSpyPlayers = new ProxySQLTable("group_spy_players", 1,
+				"id VARCHAR(128)");
 
-		try {
-			File file = new File(configDir, "GroupSpyInfo.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (List<UUID>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the group spy info file!");
-			e.printStackTrace();
-		}
+		sqlStoreManager.registerStore(new ProxySQLStore("GroupSpyInfo.dat", "group spy info", groupSpyPlayers) {
 
-		return result;
+			protected void write(ProxySQLRows rows) {
+				for (UUID uuid : allspy) {
+					rows.add(groupSpyPlayers, uuid.toString());
+				}
+			}
 
-	}
+			protected void read(ProxySQLRows rows) {
+				List<UUID> result = new ArrayList<UUID>();
+				for (List<Object> row : rows.get(groupSpyPlayers)) {
+					result.add(UUID.fromString((String)row.get(0)));
+				}
+				allspy = result;
+			}
 
-	@SuppressWarnings("unchecked")
-	public static List<UUID> loadSocialSpyInfo() {
+		});
 
-		List<UUID> result = null;
+		final ProxySQLTable socialSpyPlayers = new ProxySQLTable("social_spy_players", 1,
+				"id VARCHAR(128)");
 
-		try {
-			File file = new File(configDir, "SocialSpyInfo.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (List<UUID>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the social spy info file!");
-			e.printStackTrace();
-		}
+		sqlStoreManager.registerStore(new ProxySQLStore("SocialSpyInfo.dat", "social spy info", socialSpyPlayers) {
 
-		return result;
+			protected void write(ProxySQLRows rows) {
+				for (UUID uuid : socialspy) {
+					rows.add(socialSpyPlayers, uuid.toString());
+				}
+			}
 
-	}
+			protected void read(ProxySQLRows rows) {
+				List<UUID> result = new ArrayList<UUID>();
+				for (List<Object> row : rows.get(socialSpyPlayers)) {
+					result.add(UUID.fromString((String)row.get(0)));
+				}
+				socialspy = result;
+			}
 
-	@SuppressWarnings("unchecked")
-	public static Map<UUID, Boolean> loadGlobalChatInfo() {
+		});
 
-		Map<UUID, Boolean> result = null;
+		final ProxySQLTable chatModes = new ProxySQLTable("chat_modes", 1,
+				"id VARCHAR(128)",
+				"global_mode INT");
 
-		try {
-			File file = new File(configDir, "GlobalChatInfo.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (Map<UUID, Boolean>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the global chat info file!");
-			e.printStackTrace();
-		}
+		sqlStoreManager.registerStore(new ProxySQLStore("GlobalChatInfo.dat", "global chat info", chatModes) {
 
-		return result;
+			protected void write(ProxySQLRows rows) {
+				for (Map.Entry<UUID, Boolean> entry : ChatModeManager.getInstance().getData().entrySet()) {
+					rows.add(chatModes, entry.getKey().toString(), Boolean.TRUE.equals(entry.getValue()) ? 1 : 0);
+				}
+			}
+
+			protected void read(ProxySQLRows rows) {
+				Map<UUID, Boolean> result = new HashMap<UUID, Boolean>();
+				for (List<Object> row : rows.get(chatModes)) {
+					result.put(UUID.fromString((String)row.get(0)), (Integer)row.get(1) != 0);
+				}
+				ChatModeManager.getInstance().loadData(result);
+			}
+
+		});
 
 	}
 
-	@SuppressWarnings("unchecked")
-	public static Set<UUID> loadMute() {
+	/**
+	 * Registers a data store for each of the proxy's data files
+	 * 
+	 * <p>Should be called before the data files are loaded in {@link #Startup(ProxyStartupLoader)}</p>
+	 */
+	public static void registerDataStores() {
 
-		Set<UUID> result = null;
+		ProxyDataStoreManager dataStoreManager = MultiChatProxy.getInstance().getDataStoreManager();
 
-		try {
-			File file = new File(configDir, "Mute.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (Set<UUID>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the mute file!");
-			e.printStackTrace();
-		}
+		dataStoreManager.registerStore(new ProxyDataStore("StaffChatInfo.dat", "mod chat info", 1) {
 
-		return result;
+			protected void write(DataOutputStream out) throws IOException {
+				writeChatInfoMap(out, modchatpreferences);
+			}
 
-	}
+			protected void read(DataInputStream in, int version) throws IOException {
+				modchatpreferences.clear();
+				modchatpreferences.putAll(readChatInfoMap(in));
+			}
 
-	@SuppressWarnings("unchecked")
-	public static Map<UUID, Set<UUID>> loadIgnore() {
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				modchatpreferences.clear();
+				modchatpreferences.putAll((HashMap<UUID, TChatInfo>)in.readObject());
+			}
 
-		Configuration config = ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig();
+		});
 
-		if (config.getBoolean("session_ignore")) return new HashMap<UUID, Set<UUID>>();
+		dataStoreManager.registerStore(new ProxyDataStore("AdminChatInfo.dat", "admin chat info", 1) {
 
-		Map<UUID, Set<UUID>> result = null;
+			protected void write(DataOutputStream out) throws IOException {
+				writeChatInfoMap(out, adminchatpreferences);
+			}
 
-		try {
-			File file = new File(configDir, "Ignore.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (Map<UUID, Set<UUID>>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[MultiChat] [Load Error] An error has occured reading the ignore file!");
-			e.printStackTrace();
-		}
+			protected void read(DataInputStream in, int version) throws IOException {
+				adminchatpreferences.clear();
+				adminchatpreferences.putAll(readChatInfoMap(in));
+			}
 
-		return result;
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				adminchatpreferences.clear();
+				adminchatpreferences.putAll((HashMap<UUID, TChatInfo>)in.readObject());
+			}
 
-	}
+		});
 
-	public static void Startup() {
+		dataStoreManager.registerStore(new ProxyDataStore("GroupChatInfo.dat", "group chat info", 1) {
 
-		System.out.println("[MultiChat] Starting load routine for data files");
+			protected void write(DataOutputStream out) throws IOException {
 
-		File f = new File(configDir, "StaffChatInfo.dat");
-		File f2 = new File(configDir, "AdminChatInfo.dat");
+				ProxyDataFormat.writeCount(out, groupchats.size());
 
-		if ((f.exists()) && (!f.isDirectory()) && (f2.exists()) && (!f2.isDirectory())) {
+				for (Map.Entry<String, TGroupChatInfo> entry : groupchats.entrySet()) {
 
-			modchatpreferences.putAll(loadModChatInfo());
-			adminchatpreferences.putAll(loadAdminChatInfo());
+					TGroupChatInfo info = entry.getValue();
 
-		} else {
+					ProxyDataFormat.writeString(out, entry.getKey());
+					ProxyDataFormat.writeString(out, info.getName());
+					out.writeChar(info.getChatColor());
+					out.writeChar(info.getNameColor());
+					out.writeBoolean(info.getSecret());
+					out.writeBoolean(info.getFormal());
+					ProxyDataFormat.writeString(out, info.getPassword());
+					ProxyDataFormat.writeUUIDs(out, info.getMembers());
+					ProxyDataFormat.writeUUIDs(out, info.getViewers());
+					ProxyDataFormat.writeUUIDs(out, info.getAdmins());
+					ProxyDataFormat.writeUUIDs(out, info.getBanned());
 
-			System.out.println("[MultiChat] Some staff chat files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Welcome to MultiChat! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveChatInfo();
-			System.out.println("[MultiChat] The files were created!");
+				}
 
-		}
+			}
 
-		File f3 = new File(configDir, "GroupChatInfo.dat");
+			protected void read(DataInputStream in, int version) throws IOException {
 
-		if ((f3.exists()) && (!f3.isDirectory())) {
+				int count = ProxyDataFormat.readCount(in);
+				Map<String, TGroupChatInfo> result = new HashMap<String, TGroupChatInfo>();
 
-			groupchats.putAll(loadGroupChatInfo());
+				for (int i = 0; i < count; i++) {
 
-		} else {
+					String key = ProxyDataFormat.readString(in);
+					TGroupChatInfo info = new TGroupChatInfo();
 
-			System.out.println("[MultiChat] Some group chat files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Enabling Group Chats! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveGroupChatInfo();
-			System.out.println("[MultiChat] The files were created!");
+					info.setName(ProxyDataFormat.readString(in));
+					info.setChatColor(in.readChar());
+					info.setNameColor(in.readChar());
+					info.setSecret(in.readBoolean());
+					info.setFormal(in.readBoolean());
+					info.setPassword(ProxyDataFormat.readString(in));
+					ProxyDataFormat.readUUIDs(in, info.getMembers());
+					ProxyDataFormat.readUUIDs(in, info.getViewers());
+					ProxyDataFormat.readUUIDs(in, info.getAdmins());
+					ProxyDataFormat.readUUIDs(in, info.getBanned());
 
-		}
+					result.put(key, info);
 
-		File f4 = new File(configDir, "GroupSpyInfo.dat");
+				}
 
-		if ((f4.exists()) && (!f4.isDirectory())) {
+				groupchats.clear();
+				groupchats.putAll(result);
 
-			allspy = loadGroupSpyInfo();
+			}
 
-		} else {
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				groupchats.clear();
+				groupchats.putAll((HashMap<String, TGroupChatInfo>)in.readObject());
+			}
 
-			System.out.println("[MultiChat] Some group spy files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Enabling Group-Spy! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveGroupSpyInfo();
-			System.out.println("[MultiChat] The files were created!");
+		});
 
-		}
+		dataStoreManager.registerStore(new ProxyDataStore("GroupSpyInfo.dat", "group spy info", 1) {
 
-		File f5 = new File(configDir, "GlobalChatInfo.dat");
+			protected void write(DataOutputStream out) throws IOException {
+				ProxyDataFormat.writeUUIDs(out, allspy);
+			}
+
+			protected void read(DataInputStream in, int version) throws IOException {
+				allspy = ProxyDataFormat.readUUIDs(in, new ArrayList<UUID>());
+			}
 
-		if ((f5.exists()) && (!f5.isDirectory())) {
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				allspy = (List<UUID>)in.readObject();
+			}
 
-			ChatModeManager.getInstance().loadData(loadGlobalChatInfo());
+		});
 
-		} else {
+		dataStoreManager.registerStore(new ProxyDataStore("SocialSpyInfo.dat", "social spy info", 1) {
 
-			System.out.println("[MultiChat] Some global chat files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Enabling Global Chat! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveGlobalChatInfo();
-			System.out.println("[MultiChat] The files were created!");
+			protected void write(DataOutputStream out) throws IOException {
+				ProxyDataFormat.writeUUIDs(out, socialspy);
+			}
 
-		}
+			protected void read(DataInputStream in, int version) throws IOException {
+				socialspy = ProxyDataFormat.readUUIDs(in, new ArrayList<UUID>());
+			}
 
-		File f6 = new File(configDir, "SocialSpyInfo.dat");
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				socialspy = (List<UUID>)in.readObject();
+			}
 
-		if ((f6.exists()) && (!f6.isDirectory())) {
+		});
 
-			socialspy = loadSocialSpyInfo();
+		dataStoreManager.registerStore(new ProxyDataStore("GlobalChatInfo.dat", "global chat info", 1) {
 
-		} else {
+			protected void write(DataOutputStream out) throws IOException {
 
-			System.out.println("[MultiChat] Some social spy files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Enabling Social Spy! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveGroupSpyInfo();
-			System.out.println("[MultiChat] The files were created!");
+				Map<UUID, Boolean> data = ChatModeManager.getInstance().getData();
+				ProxyDataFormat.writeCount(out, data.size());
 
-		}
+				for (Map.Entry<UUID, Boolean> entry : data.entrySet()) {
+					ProxyDataFormat.writeUUID(out, entry.getKey());
+					out.writeBoolean(Boolean.TRUE.equals(entry.getValue()));
+				}
 
-		File f7 = new File(configDir, "Announcements.dat");
+			}
 
-		if ((f7.exists()) && (!f7.isDirectory())) {
+			protected void read(DataInputStream in, int version) throws IOException {
 
-			Announcements.loadAnnouncementList((loadAnnouncements()));
+				int count = ProxyDataFormat.readCount(in);
+				Map<UUID, Boolean> result = new HashMap<UUID, Boolean>();
 
-		} else {
+				for (int i = 0; i < count; i++) {
+					UUID uuid = ProxyDataFormat.readUUID(in);
+					result.put(uuid, in.readBoolean());
+				}
 
-			System.out.println("[MultiChat] Some announcements files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Welcome to MultiChat! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveAnnouncements();
-			System.out.println("[MultiChat] The files were created!");
+				ChatModeManager.getInstance().loadData(result);
 
-		}
+			}
 
-		File f8 = new File(configDir, "Bulletins.dat");
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				ChatModeManager.getInstance().loadData((Map<UUID, Boolean>)in.readObject());
+			}
 
-		if ((f8.exists()) && (!f8.isDirectory())) {
+		});
 
-			loadBulletins();
+		dataStoreManager.registerStore(new ProxyDataStore("Announcements.dat", "announcements", 2) {
 
-		} else {
+			protected void write(DataOutputStream out) throws IOException {
 
-			System.out.println("[MultiChat] Some bulletins files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Welcome to MultiChat! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveBulletins();
-			System.out.println("[MultiChat] The files were created!");
+				ProxyDataFormat.writeStringMap(out, Announcements.getAnnouncementList());
 
-		}
+				// Version 2 adds the announcements which are running
+				Map<String, ScheduledBroadcast> running = new HashMap<String, ScheduledBroadcast>(Announcements.getRunningAnnouncements());
+				ProxyDataFormat.writeCount(out, running.size());
 
-		File f9 = new File(configDir, "Casts.dat");
+				for (Map.Entry<String, ScheduledBroadcast> entry : running.entrySet()) {
+					ProxyDataFormat.writeString(out, entry.getKey());
+					writeSchedule(out, entry.getValue());
+				}
 
-		if ((f9.exists()) && (!f9.isDirectory())) {
+			}
 
-			CastControl.castList = loadCasts();
+			protected void read(DataInputStream in, int version) throws IOException {
 
-		} else {
+				Announcements.loadAnnouncementList(ProxyDataFormat.readStringMap(in, new HashMap<String, String>()));
+
+				if (version < 2) return;
+
+				int count = ProxyDataFormat.readCount(in);
+
+				for (int i = 0; i < count; i++) {
+					String name = ProxyDataFormat.readString(in);
+					long interval = in.readLong();
+					long jitter = in.readLong();
+					List<String> servers = ProxyDataFormat.readStrings(in, new ArrayList<String>());
+					boolean paused = in.readBoolean();
+					Announcements.restoreAnnouncement(name, interval, jitter, servers, paused);
+				}
+
+			}
+
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				Announcements.loadAnnouncementList((HashMap<String, String>)in.readObject());
+			}
+
+		});
+
+		dataStoreManager.registerStore(new ProxyDataStore("Bulletins.dat", "bulletins", 2) {
+
+			protected void write(DataOutputStream out) throws IOException {
+
+				ScheduledBroadcast schedule = Bulletins.getSchedule();
+
+				out.writeBoolean(Bulletins.isEnabled());
+				out.writeInt(Bulletins.getTimeBetween());
+				ProxyDataFormat.writeStrings(out, Bulletins.getArrayList());
+
+				// Version 2 adds the jitter, servers and whether they are paused
+				out.writeBoolean(schedule != null);
+				if (schedule != null) writeSchedule(out, schedule);
+
+			}
+
+			protected void read(DataInputStream in, int version) throws IOException {
+
+				boolean enabled = in.readBoolean();
+				int timeBetween = in.readInt();
+				ArrayList<String> bulletins = ProxyDataFormat.readStrings(in, new ArrayList<String>());
+
+				if (version >= 2 && in.readBoolean()) {
+					long interval = in.readLong();
+					long jitter = in.readLong();
+					List<String> servers = ProxyDataFormat.readStrings(in, new ArrayList<String>());
+					boolean paused = in.readBoolean();
+					Bulletins.setArrayList(bulletins);
+					if (enabled) Bulletins.startBulletins(interval, jitter, servers, paused);
+				} else {
+					restoreBulletins(enabled, timeBetween, bulletins);
+				}
+
+			}
+
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				boolean enabled = in.readBoolean();
+				int timeBetween = in.readInt();
+				restoreBulletins(enabled, timeBetween, (ArrayList<String>)in.readObject());
+			}
+
+		});
+
+		dataStoreManager.registerStore(new ProxyDataStore("Casts.dat", "casts", 1) {
+
+			protected void write(DataOutputStream out) throws IOException {
+				ProxyDataFormat.writeStringMap(out, CastControl.castList);
+			}
+
+			protected void read(DataInputStream in, int version) throws IOException {
+				CastControl.castList = ProxyDataFormat.readStringMap(in, new HashMap<String, String>());
+			}
+
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				CastControl.castList = (HashMap<String, String>)in.readObject();
+			}
+
+		});
+
+		dataStoreManager.registerStore(new ProxyDataStore("Mute.dat", "mute", 1) {
+
+			protected void write(DataOutputStream out) throws IOException {
+				ProxyDataFormat.writeUUIDs(out, ChatControl.getMutedPlayers());
+			}
+
+			protected void read(DataInputStream in, int version) throws IOException {
+				ChatControl.setMutedPlayers(ProxyDataFormat.readUUIDs(in, new HashSet<UUID>()));
+			}
 
-			System.out.println("[MultiChat] Some casts files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Welcome to MultiChat! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveCasts();
-			System.out.println("[MultiChat] The files were created!");
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				ChatControl.setMutedPlayers((Set<UUID>)in.readObject());
+			}
+
+		});
+
+		dataStoreManager.registerStore(new ProxyDataStore("Ignore.dat", "ignore", 1) {
+
+			@Override
+			public boolean isEnabled() {
+				// Ignores only last for the session, so are never loaded or saved
+				return !ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig().getBoolean("session_ignore");
+			}
+
+			protected void write(DataOutputStream out) throws IOException {
+
+				Map<UUID, Set<UUID>> ignoreMap = ChatControl.getIgnoreMap();
+				ProxyDataFormat.writeCount(out, ignoreMap.size());
+
+				for (Map.Entry<UUID, Set<UUID>> entry : ignoreMap.entrySet()) {
+					ProxyDataFormat.writeUUID(out, entry.getKey());
+					ProxyDataFormat.writeUUIDs(out, entry.getValue());
+				}
+
+			}
+
+			protected void read(DataInputStream in, int version) throws IOException {
+
+				int count = ProxyDataFormat.readCount(in);
+				Map<UUID, Set<UUID>> result = new HashMap<UUID, Set<UUID>>();
+
+				for (int i = 0; i < count; i++) {
+					UUID uuid = ProxyDataFormat.readUUID(in);
+					result.put(uuid, ProxyDataFormat.readUUIDs(in, new HashSet<UUID>()));
+				}
+
+				ChatControl.setIgnoreMap(result);
+
+			}
+
+			@SuppressWarnings("unchecked")
+			protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+				ChatControl.setIgnoreMap((Map<UUID, Set<UUID>>)in.readObject());
+			}
+
+		});
+
+	}
 
+	private static void writeSchedule(DataOutputStream out, ScheduledBroadcast schedule) throws IOException {
+		out.writeLong(schedule.getInterval());
+		out.writeLong(schedule.getJitter());
+		ProxyDataFormat.writeStrings(out, schedule.getServers());
+		out.writeBoolean(schedule.isPaused());
+	}
+
+	private static void writeChatInfoMap(DataOutputStream out, Map<UUID, TChatInfo> map) throws IOException {
+
+		ProxyDataFormat.writeCount(out, map.size());
+
+		for (Map.Entry<UUID, TChatInfo> entry : map.entrySet()) {
+			ProxyDataFormat.writeUUID(out, entry.getKey());
+			out.writeChar(entry.getValue().getChatColor());
+			out.writeChar(entry.getValue().getNameColor());
 		}
 
-		File f10 = new File(configDir, "Mute.dat");
+	}
 
-		if ((f10.exists()) && (!f10.isDirectory())) {
+	private static Map<UUID, TChatInfo> readChatInfoMap(DataInputStream in) throws IOException {
 
-			ChatControl.setMutedPlayers(loadMute());
+		int count = ProxyDataFormat.readCount(in);
+		Map<UUID, TChatInfo> result = new HashMap<UUID, TChatInfo>();
 
-		} else {
+		for (int i = 0; i < count; i++) {
+			UUID uuid = ProxyDataFormat.readUUID(in);
+			TChatInfo info = new TChatInfo();
+			info.setChatColor(in.readChar());
+			info.setNameColor(in.readChar());
+			result.put(uuid, info);
+		}
 
-			System.out.println("[MultiChat] Some mute files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Welcome to MultiChat! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveMute();
-			System.out.println("[MultiChat] The files were created!");
+		return result;
 
+	}
+
+	private static void restoreBulletins(boolean enabled, int timeBetween, ArrayList<String> bulletins) {
+		Bulletins.setArrayList(bulletins);
+		if (enabled) {
+			Bulletins.startBulletins(timeBetween);
 		}
+	}
 
-		File f11 = new File(configDir, "Ignore.dat");
+	/**
+	 * Mark the data of a store as changed, so that it is written by the next backup
+	 * @param fileName The file name of the store
+	 */
+	public static void markDataChanged(String fileName) {
+		MultiChatProxy.getInstance().getDataStoreManager().markDirty(fileName);
+	}
 
-		if ((f11.exists()) && (!f11.isDirectory())) {
+	private static void saveDataStore(String fileName) {
 
-			ChatControl.setIgnoreMap(loadIgnore());
+		Optional<ProxySQLStoreManager> sqlStoreManager = MultiChatProxy.getInstance().getSQLStoreManager();
 
+		if (sqlStoreManager.isPresent() && sqlStoreManager.get().handles(fileName)) {
+			sqlStoreManager.get().sync();
 		} else {
+			MultiChatProxy.getInstance().getDataStoreManager().save(fileName);
+		}
+
+	}
+
+	public static void saveAnnouncements() {
+		saveDataStore("Announcements.dat");
+	}
+
+	public static void saveBulletins() {
+		saveDataStore("Bulletins.dat");
+	}
+
+	public static void saveChatInfo() {
+		saveDataStore("StaffChatInfo.dat");
+		saveDataStore("AdminChatInfo.dat");
+	}
+
+	public static void saveGroupChatInfo() {
+		saveDataStore("GroupChatInfo.dat");
+	}
+
+	public static void saveCasts() {
+		saveDataStore("Casts.dat");
+	}
 
-			System.out.println("[MultiChat] Some ignore files do not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Welcome to MultiChat! :D");
-			System.out.println("[MultiChat] Attempting to create hash files!");
-			saveMute();
-			System.out.println("[MultiChat] The files were created!");
+	public static void saveGroupSpyInfo() {
+		saveDataStore("GroupSpyInfo.dat");
+	}
 
+	public static void saveSocialSpyInfo() {
+		saveDataStore("SocialSpyInfo.dat");
+	}
+
+	public static void saveGlobalChatInfo() {
+		saveDataStore("GlobalChatInfo.dat");
+	}
+
+	public static void saveMute() {
+		saveDataStore("Mute.dat");
+	}
+
+	public static void saveIgnore() {
+		saveDataStore("Ignore.dat");
+	}
+
+	private static Runnable loadDataStoreTask(final String fileName) {
+		return new Runnable() {
+			public void run() {
+
+				// Data shared between proxies is loaded from the database instead, if it can be
+				Optional<ProxySQLStoreManager> sqlStoreManager = MultiChatProxy.getInstance().getSQLStoreManager();
+				if (sqlStoreManager.isPresent() && sqlStoreManager.get().load(fileName)) return;
+
+				MultiChatProxy.getInstance().getDataStoreManager().load(fileName);
+
+			}
+		};
+	}
+
+	/**
+	 * Load the group chats if they have not been loaded yet
+	 * 
+	 * <p>Group chats are not loaded at start-up, so this must be called before {@link #groupchats} is first used</p>
+	 */
+	public static void loadGroupChats() {
+		MultiChatProxy.getInstance().getDataStoreManager().ensureLoaded("GroupChatInfo.dat");
+	}
+
+	/**
+	 * Load the bulletins if they have not been loaded yet
+	 * 
+	 * <p>Bulletins are loaded in the background after start-up, so this must be called before they are first used</p>
+	 */
+	public static void loadBulletins() {
+		MultiChatProxy.getInstance().getDataStoreManager().ensureLoaded("Bulletins.dat");
+	}
+
+	/**
+	 * Load the data files needed at start-up in parallel, and defer the rest
+	 * 
+	 * <p>Group chats are loaded when they are first used, unless they are shared using a database.
+	 * Bulletins and uuid-name data are loaded in the background, or as soon as they are first used
+	 * if that happens sooner.</p>
+	 * 
+	 * @param startup
+	 */
+	public static void Startup(ProxyStartupLoader startup) {
+
+		System.out.println("[MultiChat] Starting load routine for data files");
+
+		List<Runnable> tasks = new ArrayList<Runnable>(Arrays.asList(
+				loadDataStoreTask("StaffChatInfo.dat"),
+				loadDataStoreTask("AdminChatInfo.dat"),
+				loadDataStoreTask("GroupSpyInfo.dat"),
+				loadDataStoreTask("GlobalChatInfo.dat"),
+				loadDataStoreTask("SocialSpyInfo.dat"),
+				loadDataStoreTask("Announcements.dat"),
+				loadDataStoreTask("Casts.dat"),
+				loadDataStoreTask("Mute.dat"),
+				loadDataStoreTask("Ignore.dat")));
+
+		// Group chats shared with other proxies must be kept in step from the start
+		if (MultiChatProxy.getInstance().getSQLStoreManager().isPresent()) {
+			tasks.add(loadDataStoreTask("GroupChatInfo.dat"));
 		}
 
+		startup.runParallel("data files", tasks);
+
+		UUIDNameManager.Startup();
+
+		startup.defer("bulletins", new Runnable() {
+			public void run() {
+				loadBulletins();
+			}
+		});
+
+		startup.defer("uuid-name data", new Runnable() {
+			public void run() {
+				UUIDNameManager.load();
+			}
+		});
+
 		System.out.println("[MultiChat] [COMPLETE] Load sequence finished! (Any errors reported above)");
 
 	}
@@ -0,0 +1,327 @@
+package xyz.olivermartin.multichat.bungee;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import de.myzelyam.api.vanish.BungeeVanishAPI;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import xyz.olivermartin.multichat.bungee.commands.GCCommand;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
+import xyz.olivermartin.multichat.proxy.common.network.NetworkBus;
+import xyz.olivermartin.multichat.proxy.common.network.NetworkBusListener;
+import xyz.olivermartin.multichat.proxy.common.network.NetworkEnvelope;
+
+/**
+ * Network Chat Relay
+ * <p>Publishes the chat of this proxy to the other proxies of the network, and displays their chat
+ * using the same paths as local chat</p>
+ *
+ * <p>Global chat, staff chat and group chat are published after being displayed locally. Private
+ * messages to players who are not on this proxy are published as a request, which is answered by
+ * the proxy the target is on.</p>
+ */
+public class NetworkChatRelay {
+
+	public static final String GLOBAL_CHAT = "global_chat";
+	public static final String STAFF_CHAT = "staff_chat";
+	public static final String GROUP_CHAT = "group_chat";
+	public static final String PRIVATE_MESSAGE = "private_message";
+	public static final String PRIVATE_MESSAGE_RESULT = "private_message_result";
+
+	/**
+	 * How long to wait for another proxy to answer a private message, in seconds
+	 */
+	private static final long PRIVATE_MESSAGE_TIMEOUT = 5;
+
+	private static Map<UUID, UUID> pendingMessages = new ConcurrentHashMap<UUID, UUID>();
+
+	/**
+	 * @return True if chat is being relayed to other proxies
+	 */
+	public static boolean isEnabled() {
+		return MultiChatProxy.getInstance().getNetworkBus().isPresent();
+	}
+
+	/**
+	 * Register the listeners which display the chat of other proxies
+	 * @param bus
+	 */
+	public static void registerListeners(NetworkBus bus) {
+
+		bus.registerListener(GLOBAL_CHAT, new NetworkBusListener() {
+			public void onReceive(NetworkEnvelope envelope) {
+				Channel.getGlobalChannel().sendRemoteMessage(getUUID(envelope, "sender"), envelope.getFlag("colour"), envelope.getField("message"), envelope.getField("format"));
+			}
+		});
+
+		bus.registerListener(STAFF_CHAT, new NetworkBusListener() {
+			public void onReceive(NetworkEnvelope envelope) {
+
+				StaffChatManager chatman = new StaffChatManager();
+
+				if (envelope.getField("chat").equals("admin")) {
+					chatman.sendRemoteAdminMessage(envelope.getField("name"), envelope.getField("display_name"), envelope.getField("server"), envelope.getField("message"));
+				} else {
+					chatman.sendRemoteModMessage(envelope.getField("name"), envelope.getField("display_name"), envelope.getField("server"), envelope.getField("message"));
+				}
+
+			}
+		});
+
+		bus.registerListener(GROUP_CHAT, new NetworkBusListener() {
+			public void onReceive(NetworkEnvelope envelope) {
+				GCCommand.sendRemoteMessage(envelope.getField("message"), getUUID(envelope, "sender"), envelope.getField("group"));
+			}
+		});
+
+		bus.registerListener(PRIVATE_MESSAGE, new NetworkBusListener() {
+			public void onReceive(NetworkEnvelope envelope) {
+				receivePrivateMessage(envelope);
+			}
+		});
+
+		bus.registerListener(PRIVATE_MESSAGE_RESULT, new NetworkBusListener() {
+			public void onReceive(NetworkEnvelope envelope) {
+				receivePrivateMessageResult(envelope);
+			}
+		});
+
+	}
+
+	public static void publishGlobalChat(ProxiedPlayer sender, String message, String format) {
+
+		Optional<NetworkBus> bus = MultiChatProxy.getInstance().getNetworkBus();
+		if (!bus.isPresent() || sender == null) return;
+
+		Map<String, String> fields = new HashMap<String, String>();
+		fields.put("sender", sender.getUniqueId().toString());
+		fields.put("colour", String.valueOf(Channel.hasColourPermission(sender)));
+		fields.put("message", message);
+		fields.put("format", format);
+
+		bus.get().publish(GLOBAL_CHAT, fields);
+
+	}
+
+	/**
+	 * @param chat "mod" or "admin"
+	 * @param username
+	 * @param displayname
+	 * @param server
+	 * @param message The message, with the chat rules already applied
+	 */
+	public static void publishStaffChat(String chat, String username, String displayname, String server, String message) {
+
+		Optional<NetworkBus> bus = MultiChatProxy.getInstance().getNetworkBus();
+		if (!bus.isPresent()) return;
+
+		Map<String, String> fields = new HashMap<String, String>();
+		fields.put("chat", chat);
+		fields.put("name", username);
+		fields.put("display_name", displayname);
+		fields.put("server", server);
+		fields.put("message", message);
+
+		bus.get().publish(STAFF_CHAT, fields);
+
+	}
+
+	/**
+	 * @param groupName
+	 * @param senderUUID The sender, or null if it was not sent by a player
+	 * @param message The formatted message
+	 */
+	public static void publishGroupChat(String groupName, UUID senderUUID, String message) {
+
+		Optional<NetworkBus> bus = MultiChatProxy.getInstance().getNetworkBus();
+		if (!bus.isPresent()) return;
+
+		Map<String, String> fields = new HashMap<String, String>();
+		fields.put("group", groupName.toLowerCase());
+		if (senderUUID != null) fields.put("sender", senderUUID.toString());
+		fields.put("message", message);
+
+		bus.get().publish(GROUP_CHAT, fields);
+
+	}
+
+	/**
+	 * Show a private message between two players on this proxy to the social spies of other proxies
+	 * @param senderUUID
+	 * @param targetUUID
+	 * @param spyMessage The formatted message
+	 * @param bypass Does the sender or target bypass social spy?
+	 */
+	public static void publishPrivateMessageSpy(UUID senderUUID, UUID targetUUID, String spyMessage, boolean bypass) {
+
+		Optional<NetworkBus> bus = MultiChatProxy.getInstance().getNetworkBus();
+		if (!bus.isPresent() || bypass) return;
+
+		Map<String, String> fields = new HashMap<String, String>();
+		fields.put("status", "delivered");
+		fields.put("sender", senderUUID.toString());
+		fields.put("target", targetUUID.toString());
+		fields.put("spy", spyMessage);
+
+		bus.get().publish(PRIVATE_MESSAGE_RESULT, fields);
+
+	}
+
+	/**
+	 * Send a private message to a player who is not on this proxy
+	 *
+	 * <p>If no proxy answers within a few seconds, the sender is told the target is not online.</p>
+	 *
+	 * @param message The message, with the chat rules already applied
+	 * @param sender
+	 * @param targetName
+	 */
+	public static void sendPrivateMessage(String message, ProxiedPlayer sender, String targetName) {
+
+		Optional<NetworkBus> bus = MultiChatProxy.getInstance().getNetworkBus();
+
+		if (!bus.isPresent()) {
+			MessageManager.sendMessage(sender, "command_msg_not_online");
+			return;
+		}
+
+		message = MultiChatUtil.reformatRGB(message);
+
+		Map<String, String> fields = new HashMap<String, String>();
+		fields.put("sender", sender.getUniqueId().toString());
+		fields.put("name", sender.getName());
+		fields.put("display_name", sender.getDisplayName());
+		fields.put("server", sender.getServer().getInfo().getName());
+		fields.put("target", targetName);
+		fields.put("message", message);
+		fields.put("bypass", String.valueOf(sender.hasPermission("multichat.staff.spy.bypass")));
+		fields.put("see_vanished", String.valueOf(sender.hasPermission("multichat.chat.msg.vanished")));
+
+		Optional<PlayerMeta> opm = PlayerMetaManager.getInstance().getPlayer(sender.getUniqueId());
+		if (opm.isPresent()) {
+			fields.put("prefix", opm.get().prefix);
+			fields.put("suffix", opm.get().suffix);
+			fields.put("nick", opm.get().nick);
+			fields.put("world", opm.get().world);
+		}
+
+		final UUID request = bus.get().publish(PRIVATE_MESSAGE, fields).getId();
+		final UUID senderUUID = sender.getUniqueId();
+
+		pendingMessages.put(request, senderUUID);
+
+		ProxyServer.getInstance().getScheduler().schedule(MultiChat.getInstance(), new Runnable() {
+
+			public void run() {
+
+				if (pendingMessages.remove(request) == null) return;
+
+				ProxiedPlayer player = ProxyServer.getInstance().getPlayer(senderUUID);
+				if (player != null) MessageManager.sendMessage(player, "command_msg_not_online");
+
+			}
+
+		}, PRIVATE_MESSAGE_TIMEOUT, TimeUnit.SECONDS);
+
+	}
+
+	private static void receivePrivateMessage(NetworkEnvelope envelope) {
+
+		ProxiedPlayer target = ProxyServer.getInstance().getPlayer(envelope.getField("target"));
+
+		// Only the proxy which the target is on answers
+		if (target == null || target.getServer() == null) return;
+
+		UUID senderUUID = getUUID(envelope, "sender");
+		String name = envelope.getField("name");
+		boolean bypass = envelope.getFlag("bypass") || target.hasPermission("multichat.staff.spy.bypass");
+
+		Map<String, String> fields = new HashMap<String, String>();
+		fields.put("request", envelope.getId().toString());
+		fields.put("sender", senderUUID.toString());
+		fields.put("target", target.getUniqueId().toString());
+
+		if (MultiChat.premiumVanish && MultiChat.hideVanishedStaffInMsg
+				&& BungeeVanishAPI.isInvisible(target) && !envelope.getFlag("see_vanished")) {
+
+			fields.put("status", "not_online");
+
+		} else if (ConfigManager.getInstance().getHandler("config.yml").getConfig().getStringList("no_pm").contains(target.getServer().getInfo().getName())) {
+
+			fields.put("status", "disabled_target");
+
+		} else if (ChatControl.ignores(senderUUID, target.getUniqueId(), "private_messages")) {
+
+			if (ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig().getBoolean("notify_ignore")) {
+				MessageManager.sendSpecialMessage(target, "ignore_target", name);
+			}
+
+			fields.put("status", "ignored");
+
+		} else {
+
+			String[] messages = PrivateMessageManager.getInstance().sendRemoteMessage(envelope.getField("message"), senderUUID, name,
+					envelope.getField("display_name"), envelope.getField("prefix"), envelope.getField("suffix"), envelope.getField("nick"),
+					envelope.getField("server"), envelope.getField("world"), bypass, target);
+
+			fields.put("status", "delivered");
+			fields.put("out", messages[0]);
+			if (!bypass) fields.put("spy", messages[1]);
+
+		}
+
+		MultiChatProxy.getInstance().getNetworkBus().get().publish(PRIVATE_MESSAGE_RESULT, fields);
+
+	}
+
+	private static void receivePrivateMessageResult(NetworkEnvelope envelope) {
+
+		UUID senderUUID = getUUID(envelope, "sender");
+		UUID targetUUID = getUUID(envelope, "target");
+		String status = envelope.getField("status");
+		String request = envelope.getField("request");
+
+		// Answer to a private message sent from this proxy
+		if (request != null && pendingMessages.remove(UUID.fromString(request)) != null) {
+
+			ProxiedPlayer sender = ProxyServer.getInstance().getPlayer(senderUUID);
+
+			if (sender != null) {
+
+				switch (status) {
+				case "delivered":
+					PrivateMessageManager.getInstance().completeRemoteMessage(sender, targetUUID, envelope.getField("out"));
+					break;
+				case "disabled_target":
+					MessageManager.sendMessage(sender, "command_msg_disabled_target");
+					break;
+				case "ignored":
+					MessageManager.sendMessage(sender, "ignore_sender");
+					break;
+				default:
+					MessageManager.sendMessage(sender, "command_msg_not_online");
+					break;
+				}
+
+			}
+
+		}
+
+		if ("delivered".equals(status) && envelope.getField("spy") != null) {
+			PrivateMessageManager.getInstance().displaySpyMessage(envelope.getField("spy"), senderUUID, targetUUID, false);
+		}
+
+	}
+
+	private static UUID getUUID(NetworkEnvelope envelope, String field) {
+		String value = envelope.getField(field);
+		if (value == null) return null;
+		return UUID.fromString(value);
+	}
+
+}
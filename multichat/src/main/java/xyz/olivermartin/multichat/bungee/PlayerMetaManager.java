@@ -8,6 +8,8 @@ import java.util.UUID;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
+
 public class PlayerMetaManager {
 
 	static {
@@ -43,44 +45,44 @@ public class PlayerMetaManager {
 
 	public void updateDisplayName(UUID uuid) {
 
-		DebugManager.log("[PlayerMetaManager] Updating display name...");
+		DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Updating display name...");
 
 		Optional<PlayerMeta> opm = getPlayer(uuid);
 
 		if (!opm.isPresent()) return;
 
-		DebugManager.log("[PlayerMetaManager] Player is present!");
+		DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Player is present!");
 
 		ProxiedPlayer player = ProxyServer.getInstance().getPlayer(uuid);
 
 		if (ConfigManager.getInstance().getHandler("config.yml").getConfig().getBoolean("fetch_spigot_display_names") == true && player != null) {
 
-			DebugManager.log("[PlayerMetaManager] Fetch Spigot Display Names is true");
+			DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Fetch Spigot Display Names is true");
 
 			if (ConfigManager.getInstance().getHandler("config.yml").getConfig().contains("set_display_name")) {
 
 				if (ConfigManager.getInstance().getHandler("config.yml").getConfig().getBoolean("set_display_name")) {
 
-					DebugManager.log("[PlayerMetaManager] MultiChat is in charge of display names");
+					DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] MultiChat is in charge of display names");
 
 					if (ConfigManager.getInstance().getHandler("config.yml").getConfig().contains("display_name_format")) {
 						//player.setDisplayName(opm.get().getDisplayName(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("display_name_format")));
 
-						DebugManager.log("[PlayerMetaManager] Set as: " + opm.get().getSpigotDisplayname());
+						DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Set as: %s", opm.get().getSpigotDisplayname());
 
 						player.setDisplayName(opm.get().getSpigotDisplayname());
 					} else {
 						//player.setDisplayName(opm.get().getDisplayName("%PREFIX%%NICK%%SUFFIX%"));
 
-						DebugManager.log("[PlayerMetaManager] Set as: " + opm.get().getSpigotDisplayname());
+						DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Set as: %s", opm.get().getSpigotDisplayname());
 
 						player.setDisplayName(opm.get().getSpigotDisplayname());
 					}
 				} else {
 
-					DebugManager.log("[PlayerMetaManager] MultiChat is NOT in charge of display names!");
+					DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] MultiChat is NOT in charge of display names!");
 
-					DebugManager.log("[PlayerMetaManager] Set as: " + opm.get().getSpigotDisplayname());
+					DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Set as: %s", opm.get().getSpigotDisplayname());
 
 					player.setDisplayName(opm.get().getSpigotDisplayname());
 
@@ -92,13 +94,13 @@ public class PlayerMetaManager {
 					//player.setDisplayName(opm.get().getDisplayName(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("display_name_format")));
 					// TODO Maybe new option for "fetch_spigot_displayname"?
 
-					DebugManager.log("[PlayerMetaManager] Set as: " + opm.get().getSpigotDisplayname());
+					DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Set as: %s", opm.get().getSpigotDisplayname());
 
 					player.setDisplayName(opm.get().getSpigotDisplayname());
 				} else {
 					//player.setDisplayName(opm.get().getDisplayName("%PREFIX%%NICK%%SUFFIX%"));
 
-					DebugManager.log("[PlayerMetaManager] Set as: " + opm.get().getSpigotDisplayname());
+					DebugManager.log(DebugCategory.PLACEHOLDERS, "[PlayerMetaManager] Set as: %s", opm.get().getSpigotDisplayname());
 
 					player.setDisplayName(opm.get().getSpigotDisplayname());
 				}
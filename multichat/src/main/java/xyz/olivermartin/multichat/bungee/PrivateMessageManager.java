@@ -51,24 +51,10 @@ public class PrivateMessageManager {
 		}
 
 		finalmessage = chatfix.replaceMsgVars(messagespyformat, message, sender, target);
-		for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
+		boolean bypass = sender.hasPermission("multichat.staff.spy.bypass") || target.hasPermission("multichat.staff.spy.bypass");
+		displaySpyMessage(finalmessage, sender.getUniqueId(), target.getUniqueId(), bypass);
 
-			if ((onlineplayer.hasPermission("multichat.staff.spy"))
-					&& (MultiChat.socialspy.contains(onlineplayer.getUniqueId()))
-					&& (onlineplayer.getUniqueId() != sender.getUniqueId())
-					&& (onlineplayer.getUniqueId() != target.getUniqueId())
-					&& (!(sender.hasPermission("multichat.staff.spy.bypass")
-							|| target.hasPermission("multichat.staff.spy.bypass")))) {
-
-				if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', finalmessage))));
-				} else {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', finalmessage)));
-				}
-
-			}
-
-		}
+		NetworkChatRelay.publishPrivateMessageSpy(sender.getUniqueId(), target.getUniqueId(), finalmessage, bypass);
 
 		if (MultiChat.lastmsg.containsKey(sender.getUniqueId())) {
 			MultiChat.lastmsg.remove(sender.getUniqueId());
@@ -82,8 +68,94 @@ public class PrivateMessageManager {
 
 		MultiChat.lastmsg.put(target.getUniqueId(), sender.getUniqueId());
 
-		ConsoleManager.logSocialSpy(sender.getName(), target.getName(), message);
+		ConsoleManager.logSocialSpy(sender.getUniqueId(), sender.getServer().getInfo().getName(), sender.getName(), target.getName(), message);
+
+	}
+
+	/**
+	 * Deliver a private message sent by a player on another proxy to a player on this proxy
+	 * @param message The message, with the chat rules already applied
+	 * @param senderUUID
+	 * @param name
+	 * @param displayName
+	 * @param prefix
+	 * @param suffix
+	 * @param nick
+	 * @param server
+	 * @param world
+	 * @param bypass Does the sender bypass social spy?
+	 * @param target
+	 * @return The message to show the sender and the message to show social spies, in that order
+	 */
+	public String[] sendRemoteMessage(String message, UUID senderUUID, String name, String displayName, String prefix, String suffix, String nick, String server, String world, boolean bypass, ProxiedPlayer target) {
+
+		String messageoutformat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("pmout");
+		String messageinformat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("pmin");
+		String messagespyformat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("pmspy");
+
+		String outmessage = chatfix.replaceRemoteMsgVars(messageoutformat, message, name, displayName, prefix, suffix, nick, server, world, target);
+		String inmessage = chatfix.replaceRemoteMsgVars(messageinformat, message, name, displayName, prefix, suffix, nick, server, world, target);
+		String spymessage = chatfix.replaceRemoteMsgVars(messagespyformat, message, name, displayName, prefix, suffix, nick, server, world, target);
+
+		sendFormatted(target, inmessage);
+
+		bypass = bypass || target.hasPermission("multichat.staff.spy.bypass");
+		displaySpyMessage(spymessage, senderUUID, target.getUniqueId(), bypass);
+
+		MultiChat.lastmsg.put(target.getUniqueId(), senderUUID);
 
+		ConsoleManager.logSocialSpy(senderUUID, server, name, target.getName(), message);
+
+		return new String[] {outmessage, spymessage};
+
+	}
+
+	/**
+	 * Show the sender of a private message to a player on another proxy that it was delivered
+	 * @param sender
+	 * @param targetUUID
+	 * @param outmessage The formatted message
+	 */
+	public void completeRemoteMessage(ProxiedPlayer sender, UUID targetUUID, String outmessage) {
+
+		sendFormatted(sender, outmessage);
+
+		MultiChat.lastmsg.put(sender.getUniqueId(), targetUUID);
+
+	}
+
+	/**
+	 * Show a private message sent on another proxy to the social spies of this proxy
+	 * @param spymessage The formatted message
+	 * @param senderUUID
+	 * @param targetUUID
+	 * @param bypass Does the sender or target bypass social spy?
+	 */
+	public void displaySpyMessage(String spymessage, UUID senderUUID, UUID targetUUID, boolean bypass) {
+
+		if (bypass) return;
+
+		for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
+
+			if ((onlineplayer.hasPermission("multichat.staff.spy"))
+					&& (MultiChat.socialspy.contains(onlineplayer.getUniqueId()))
+					&& (!onlineplayer.getUniqueId().equals(senderUUID))
+					&& (!onlineplayer.getUniqueId().equals(targetUUID))) {
+
+				sendFormatted(onlineplayer, spymessage);
+
+			}
+
+		}
+
+	}
+
+	private void sendFormatted(ProxiedPlayer player, String message) {
+		if (player.getServer() != null && MultiChat.legacyServers.contains(player.getServer().getInfo().getName())) {
+			player.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
+		} else {
+			player.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
+		}
 	}
 
 	public void sendMessageConsoleTarget(String message, ProxiedPlayer sender) {
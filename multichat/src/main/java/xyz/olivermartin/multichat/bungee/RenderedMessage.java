@@ -0,0 +1,76 @@
+package xyz.olivermartin.multichat.bungee;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+/**
+ * A message which is broadcast to many players, converted to chat components once rather than for each player
+ *
+ * <p>Keeps the components for modern servers, and for legacy (PRE-1.16) servers with the RGB colour codes approximated.
+ * The components are shared by every player the message is sent to, so must not be changed.</p>
+ */
+public class RenderedMessage {
+
+	/**
+	 * @param message The message, using &amp; colour codes
+	 * @return The rendered message
+	 */
+	public static RenderedMessage render(String message) {
+		String translated = ChatColor.translateAlternateColorCodes('&', message);
+		return new RenderedMessage(message, translated, MultiChatUtil.approximateHexCodes(translated));
+	}
+
+	/* END STATIC */
+
+	private final String text;
+	private final String translated;
+	private final String approximated;
+	private final BaseComponent[] components;
+	private final BaseComponent[] legacyComponents;
+
+	/* END ATTRIBUTES */
+
+	private RenderedMessage(String text, String translated, String approximated) {
+		this.text = text;
+		this.translated = translated;
+		this.approximated = approximated;
+		this.components = TextComponent.fromLegacyText(translated);
+		this.legacyComponents = TextComponent.fromLegacyText(approximated);
+	}
+
+	/**
+	 * @return The message, using &amp; colour codes
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Add more text to the end of this message, so that the colours of this message carry over to it
+	 * @param message The text to add, using &amp; colour codes
+	 * @return The combined message
+	 */
+	public RenderedMessage append(String message) {
+		String translatedMessage = ChatColor.translateAlternateColorCodes('&', message);
+		return new RenderedMessage(text + message, translated + translatedMessage, approximated + MultiChatUtil.approximateHexCodes(translatedMessage));
+	}
+
+	/**
+	 * @param receiver
+	 * @return The components to send to the player, depending on whether they are on a legacy server
+	 */
+	public BaseComponent[] getComponents(ProxiedPlayer receiver) {
+		if (MultiChat.legacyServers.contains(receiver.getServer().getInfo().getName())) {
+			return legacyComponents;
+		} else {
+			return components;
+		}
+	}
+
+	public void send(ProxiedPlayer receiver) {
+		receiver.sendMessage(getComponents(receiver));
+	}
+
+}
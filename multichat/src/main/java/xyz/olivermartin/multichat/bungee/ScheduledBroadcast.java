@@ -0,0 +1,81 @@
+package xyz.olivermartin.multichat.bungee;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import xyz.olivermartin.multichat.proxy.common.scheduling.HashedTimingWheel.Timeout;
+
+/**
+ * A broadcast which is repeated by the {@link BroadcastScheduler}, i.e. an announcement or the bulletins
+ */
+public abstract class ScheduledBroadcast {
+
+	private final String name;
+	private final long interval;
+	private final long jitter;
+	private final Set<String> servers;
+
+	volatile boolean paused;
+	volatile boolean cancelled;
+	Timeout next;
+
+	/**
+	 * Changed each time the broadcast is paused or resumed, so a run which was already in progress does not schedule it again
+	 */
+	volatile int generation;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * @param name The name of the broadcast, used in error messages
+	 * @param interval The time between each broadcast, in milliseconds
+	 * @param jitter The most each broadcast may be sent earlier or later than the interval, in milliseconds
+	 * @param servers The servers to broadcast to, or empty to broadcast to every server
+	 * @param paused Should the broadcast start paused?
+	 */
+	public ScheduledBroadcast(String name, long interval, long jitter, Collection<String> servers, boolean paused) {
+		this.name = name;
+		this.interval = interval;
+		this.jitter = jitter;
+		this.servers = Collections.unmodifiableSet(new LinkedHashSet<String>(servers));
+		this.paused = paused;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	public long getJitter() {
+		return jitter;
+	}
+
+	public Set<String> getServers() {
+		return servers;
+	}
+
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * @param player
+	 * @return True if the player is on a server this broadcast is sent to
+	 */
+	public boolean isShownTo(ProxiedPlayer player) {
+		if (player.getServer() == null) return false;
+		return servers.isEmpty() || servers.contains(player.getServer().getInfo().getName());
+	}
+
+	/**
+	 * Send the broadcast, this is run on the thread of the scheduler
+	 */
+	protected abstract void broadcast();
+
+}
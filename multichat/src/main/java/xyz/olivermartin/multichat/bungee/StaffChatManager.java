@@ -22,8 +22,6 @@ public class StaffChatManager {
 
 		message = MultiChatUtil.reformatRGB(message);
 
-		ChatManipulation chatfix = new ChatManipulation();
-		String messageFormat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.format");
 		String original = message;
 
 		Optional<String> crm;
@@ -36,41 +34,90 @@ public class StaffChatManager {
 			return;
 		}
 
+		displayModMessage(username, displayname, server, original);
+
+		ProxiedPlayer player = null;
+
+		// Trigger PostStaffChatEvent
+		if (username.equalsIgnoreCase("console")) {
+			ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("mod", ProxyServer.getInstance().getConsole() , original));
+		} else {
+			player = ProxyServer.getInstance().getPlayer(username);
+			if (player != null) {
+				ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("mod", player , original));
+			}
+		}
+
+		ConsoleManager.logModChat(player == null ? null : player.getUniqueId(), server, username, original);
+
+		NetworkChatRelay.publishStaffChat("mod", username, displayname, server, original);
+
+	}
+
+	/**
+	 * Display a message sent to the mod chat by a member of staff on another proxy
+	 * @param username
+	 * @param displayname
+	 * @param server
+	 * @param message The message, with the chat rules already applied
+	 */
+	public void sendRemoteModMessage(String username, String displayname, String server, String message) {
+
+		displayModMessage(username, displayname, server, message);
+
+		ConsoleManager.logModChat(null, server, username, message);
+
+	}
+
+	private void displayModMessage(String username, String displayname, String server, String original) {
+
+		ChatManipulation chatfix = new ChatManipulation();
+		String messageFormat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.format");
+
 		for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
 
 			if (onlineplayer.hasPermission("multichat.staff.mod")) {
+				showModMessage(onlineplayer, chatfix, messageFormat, username, displayname, server, original);
+			}
+		}
+
+		ChatReplayManager.getInstance().recordModChat(username, displayname, server, original);
+
+	}
 
-				if (!MultiChat.modchatpreferences.containsKey(onlineplayer.getUniqueId())) {
+	/**
+	 * Show a message sent to the mod chat earlier to one member of staff
+	 * @param receiver
+	 * @param username
+	 * @param displayname
+	 * @param server
+	 * @param message The message, with the chat rules already applied
+	 */
+	public void replayModMessage(ProxiedPlayer receiver, String username, String displayname, String server, String message) {
+		String messageFormat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.format");
+		showModMessage(receiver, new ChatManipulation(), messageFormat, username, displayname, server, message);
+	}
 
-					TChatInfo chatinfo = new TChatInfo();
-					chatinfo.setChatColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ccdefault").toCharArray()[0]);
-					chatinfo.setNameColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ncdefault").toCharArray()[0]);
+	private void showModMessage(ProxiedPlayer onlineplayer, ChatManipulation chatfix, String messageFormat, String username, String displayname, String server, String original) {
 
-					MultiChat.modchatpreferences.put(onlineplayer.getUniqueId(), chatinfo);
+		if (!MultiChat.modchatpreferences.containsKey(onlineplayer.getUniqueId())) {
 
-				}
+			TChatInfo chatinfo = new TChatInfo();
+			chatinfo.setChatColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ccdefault").toCharArray()[0]);
+			chatinfo.setNameColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("modchat.ncdefault").toCharArray()[0]);
 
-				message = chatfix.replaceModChatVars(messageFormat, username, displayname, server, original, onlineplayer);
-				if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
-				} else {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
-				}
+			MultiChat.modchatpreferences.put(onlineplayer.getUniqueId(), chatinfo);
+			MultiChat.markDataChanged("StaffChatInfo.dat");
 
-			}
 		}
 
-		// Trigger PostStaffChatEvent
-		if (username.equalsIgnoreCase("console")) {
-			ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("mod", ProxyServer.getInstance().getConsole() , original));
+		String message = chatfix.replaceModChatVars(messageFormat, username, displayname, server, original, onlineplayer);
+		if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
+			onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
 		} else {
-			if (ProxyServer.getInstance().getPlayer(username) != null) {
-				ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("mod", ProxyServer.getInstance().getPlayer(username) , original));
-			}
+			onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
 		}
 
-		ConsoleManager.logModChat("(" + username + ") " + original);
-
 	}
 
 	public void sendAdminMessage(String username, String displayname, String server, String message) {
@@ -78,8 +125,6 @@ public class StaffChatManager {
 		message = MultiChatUtil.reformatRGB(message);
 
 		String original = message;
-		ChatManipulation chatfix = new ChatManipulation();
-		String messageFormat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.format");
 
 		Optional<String> crm;
 
@@ -91,40 +136,89 @@ public class StaffChatManager {
 			return;
 		}
 
+		displayAdminMessage(username, displayname, server, original);
+
+		ProxiedPlayer player = null;
+
+		// Trigger PostStaffChatEvent
+		if (username.equalsIgnoreCase("console")) {
+			ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("admin", ProxyServer.getInstance().getConsole() , original));
+		} else {
+			player = ProxyServer.getInstance().getPlayer(username);
+			if (player != null) {
+				ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("admin", player , original));
+			}
+		}
+
+		ConsoleManager.logAdminChat(player == null ? null : player.getUniqueId(), server, username, original);
+
+		NetworkChatRelay.publishStaffChat("admin", username, displayname, server, original);
+
+	}
+
+	/**
+	 * Display a message sent to the admin chat by a member of staff on another proxy
+	 * @param username
+	 * @param displayname
+	 * @param server
+	 * @param message The message, with the chat rules already applied
+	 */
+	public void sendRemoteAdminMessage(String username, String displayname, String server, String message) {
+
+		displayAdminMessage(username, displayname, server, message);
+
+		ConsoleManager.logAdminChat(null, server, username, message);
+
+	}
+
+	private void displayAdminMessage(String username, String displayname, String server, String original) {
+
+		ChatManipulation chatfix = new ChatManipulation();
+		String messageFormat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.format");
+
 		for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
 
 			if (onlineplayer.hasPermission("multichat.staff.admin")) {
+				showAdminMessage(onlineplayer, chatfix, messageFormat, username, displayname, server, original);
+			}
+		}
+
+		ChatReplayManager.getInstance().recordAdminChat(username, displayname, server, original);
+
+	}
 
-				if (!MultiChat.adminchatpreferences.containsKey(onlineplayer.getUniqueId())) {
+	/**
+	 * Show a message sent to the admin chat earlier to one member of staff
+	 * @param receiver
+	 * @param username
+	 * @param displayname
+	 * @param server
+	 * @param message The message, with the chat rules already applied
+	 */
+	public void replayAdminMessage(ProxiedPlayer receiver, String username, String displayname, String server, String message) {
+		String messageFormat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.format");
+		showAdminMessage(receiver, new ChatManipulation(), messageFormat, username, displayname, server, message);
+	}
 
-					TChatInfo chatinfo = new TChatInfo();
-					chatinfo.setChatColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.ccdefault").toCharArray()[0]);
-					chatinfo.setNameColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.ncdefault").toCharArray()[0]);
+	private void showAdminMessage(ProxiedPlayer onlineplayer, ChatManipulation chatfix, String messageFormat, String username, String displayname, String server, String original) {
 
-					MultiChat.adminchatpreferences.put(onlineplayer.getUniqueId(), chatinfo);
+		if (!MultiChat.adminchatpreferences.containsKey(onlineplayer.getUniqueId())) {
 
-				}
+			TChatInfo chatinfo = new TChatInfo();
+			chatinfo.setChatColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.ccdefault").toCharArray()[0]);
+			chatinfo.setNameColor(ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("adminchat.ncdefault").toCharArray()[0]);
 
-				message = chatfix.replaceAdminChatVars(messageFormat, username, displayname, server, original, onlineplayer);
-				if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
-				} else {
-					onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
-				}
+			MultiChat.adminchatpreferences.put(onlineplayer.getUniqueId(), chatinfo);
+			MultiChat.markDataChanged("AdminChatInfo.dat");
 
-			}
 		}
 
-		// Trigger PostStaffChatEvent
-		if (username.equalsIgnoreCase("console")) {
-			ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("admin", ProxyServer.getInstance().getConsole() , original));
+		String message = chatfix.replaceAdminChatVars(messageFormat, username, displayname, server, original, onlineplayer);
+		if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
+			onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
 		} else {
-			if (ProxyServer.getInstance().getPlayer(username) != null) {
-				ProxyServer.getInstance().getPluginManager().callEvent(new PostStaffChatEvent("admin", ProxyServer.getInstance().getPlayer(username) , original));
-			}
+			onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
 		}
 
-		ConsoleManager.logAdminChat("(" + username + ") " + original);
-
 	}
 }
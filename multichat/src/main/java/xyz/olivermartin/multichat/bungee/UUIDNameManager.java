@@ -1,15 +1,14 @@
 package xyz.olivermartin.multichat.bungee;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+import net.md_5.bungee.config.Configuration;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyIndexedUUIDNameStore;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyMemoryUUIDNameStore;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyUUIDNameStore;
+
 /**
  * UUID - NAME Manager
  * <p>Manages storage of UUIDS with their currently associated username</p>
@@ -19,76 +18,96 @@ import java.util.UUID;
  */
 public class UUIDNameManager {
 
-	private static Map<UUID, String> uuidname = new HashMap<UUID, String>();
+	private static ProxyUUIDNameStore store;
+	private static volatile boolean loaded = false;
+
+	/**
+	 * Get the store, loading it first if that has not happened yet
+	 * @return The loaded store
+	 */
+	private static ProxyUUIDNameStore getStore() {
+
+		if (!loaded) {
+			synchronized (UUIDNameManager.class) {
+				if (!loaded) {
+					store.load();
+					loaded = true;
+				}
+			}
+		}
+
+		return store;
+
+	}
+
+	/**
+	 * Load the names if they have not been loaded yet
+	 * 
+	 * <p>Names are otherwise loaded the first time they are used</p>
+	 */
+	public static void load() {
+		getStore();
+	}
 
 	public static void addNew(UUID uuid, String name) {
-		uuidname.put(uuid, name);
+		getStore().addNew(uuid, name);
 	}
 
 	public static void removeUUID(UUID uuid) {
-		uuidname.remove(uuid);
+		getStore().removeUUID(uuid);
 	}
 
 	public static String getName(UUID uuid) {
-		return (String)uuidname.get(uuid);
+		return getStore().getName(uuid);
 	}
 
-	public static void saveUUIDS() {
-
-		try {
-			File file = new File(MultiChat.configDir, "MultiChatUUIDName.dat");
-			FileOutputStream saveFile = new FileOutputStream(file);
-			ObjectOutputStream out = new ObjectOutputStream(saveFile);
-			out.writeObject(uuidname);
-			out.close();
-		} catch (IOException e) {
-			System.out.println("[MultiChat] [Save Error] An error has occured writing the uuid-name file!");
-			e.printStackTrace();
-		}
-
+	/**
+	 * @param name
+	 * @return The UUID of the player who most recently took this username, if there is one
+	 */
+	public static Optional<UUID> getUUID(String name) {
+		return getStore().getUUID(name);
 	}
 
-	@SuppressWarnings("unchecked")
-	public static HashMap<UUID, String> loadUUIDS() {
+	/**
+	 * Create the store, the names are not loaded until they are first used or {@link #load()} is called
+	 */
+	public static void Startup() {
 
-		HashMap<UUID, String> result = null;
+		Configuration configYML = ConfigManager.getInstance().getHandler("config.yml").getConfig();
 
-		try {
-			File file = new File(MultiChat.configDir, "MultiChatUUIDName.dat");
-			FileInputStream saveFile = new FileInputStream(file);
-			ObjectInputStream in = new ObjectInputStream(saveFile);
-			result = (HashMap<UUID,String>)in.readObject();
-			in.close();
-		} catch (IOException|ClassNotFoundException e) {
-			System.out.println("[ActivityMonitor] [Load Error] An error has occured reading the uuid-name file!");
-			e.printStackTrace();
-		}
+		if (configYML.contains("uuid_name_storage") && configYML.getString("uuid_name_storage").equalsIgnoreCase("disk")) {
 
-		return result;
+			int cacheSize = 10000;
+			if (configYML.contains("uuid_name_cache_size")) {
+				cacheSize = Math.max(100, configYML.getInt("uuid_name_cache_size"));
+			}
 
-	}
+			System.out.println("[MultiChat] Using the disk based uuid-name index");
+			store = new ProxyIndexedUUIDNameStore(MultiChat.configDir, MultiChatProxy.getInstance().getDataStoreManager(), cacheSize);
 
-	public static void Startup() {
+		} else {
 
-		File f = new File(MultiChat.configDir, "MultiChatUUIDName.dat");
+			store = new ProxyMemoryUUIDNameStore(MultiChatProxy.getInstance().getDataStoreManager());
 
-		if ((f.exists()) && (!f.isDirectory())) {
-			uuidname.putAll(loadUUIDS());
-		} else {
-			System.out.println("[MultiChat] File for uuid-name conversion does not exist to load. Must be first startup!");
-			System.out.println("[MultiChat] Attempting to create hash file!");
-			saveUUIDS();
-			System.out.println("[MultiChat] The uuid-name file was created!");
 		}
 
-	}
+		loaded = false;
 
-	public static boolean existsUUID(UUID uuid) {
+	}
 
-		if (uuidname.containsKey(uuid)) {
-			return true;
+	/**
+	 * Save the names and close any files
+	 * 
+	 * <p>Should be called in onDisable()</p>
+	 */
+	public static void shutdown() {
+		synchronized (UUIDNameManager.class) {
+			if (store != null && loaded) store.shutdown();
 		}
-		return false;
+	}
 
+	public static boolean existsUUID(UUID uuid) {
+		return getStore().existsUUID(uuid);
 	}
 }
@@ -8,6 +8,7 @@ import net.md_5.bungee.api.plugin.Command;
 import xyz.olivermartin.multichat.bungee.DebugManager;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
+import xyz.olivermartin.multichat.common.DebugCategory;
 
 /**
  * Admin-Chat colour command
@@ -38,7 +39,7 @@ public class ACCCommand extends Command {
 
 		} else if ((sender instanceof ProxiedPlayer)) {
 
-			DebugManager.log("[ACCCommand] Command sender is a player");
+			DebugManager.log(DebugCategory.GENERAL, "[ACCCommand] Command sender is a player");
 
 			TChatInfo chatinfo = new TChatInfo();
 			ProxiedPlayer player = (ProxiedPlayer)sender;
@@ -57,15 +58,16 @@ public class ACCCommand extends Command {
 						|| (args[1].equals("2")) || (args[1].equals("3")) || (args[1].equals("4")) || (args[1].equals("5"))
 						|| (args[1].equals("6")) || (args[1].equals("7")) || (args[1].equals("8")) || (args[1].equals("9"))) {
 
-					DebugManager.log("[ACCCommand] Colour codes are valid");
+					DebugManager.log(DebugCategory.GENERAL, "[ACCCommand] Colour codes are valid");
 
 					chatinfo.setChatColor(args[0].charAt(0));
 					chatinfo.setNameColor(args[1].charAt(0));
 
 					MultiChat.adminchatpreferences.remove(player.getUniqueId());
 					MultiChat.adminchatpreferences.put(player.getUniqueId(), chatinfo);
+					MultiChat.markDataChanged("AdminChatInfo.dat");
 
-					DebugManager.log("[ACCCommand] Preferences updated");
+					DebugManager.log(DebugCategory.GENERAL, "[ACCCommand] Preferences updated");
 
 					MessageManager.sendMessage(sender, "command_acc_updated");
 
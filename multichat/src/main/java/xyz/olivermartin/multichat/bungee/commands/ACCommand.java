@@ -8,6 +8,7 @@ import xyz.olivermartin.multichat.bungee.Events;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChatUtil;
 import xyz.olivermartin.multichat.bungee.StaffChatManager;
+import xyz.olivermartin.multichat.common.DebugCategory;
 
 /**
  * Admin-Chat command
@@ -32,12 +33,12 @@ public class ACCommand extends Command {
 
 			if ((sender instanceof ProxiedPlayer)) {
 
-				DebugManager.log("[ACCommand] Command sender is a player");
+				DebugManager.log(DebugCategory.GENERAL, "[ACCommand] Command sender is a player");
 
 				ProxiedPlayer player = (ProxiedPlayer)sender;
 				toggleresult = Events.toggleAC(player.getUniqueId());
 
-				DebugManager.log("[ACCommand] AC new toggle state: " + toggleresult);
+				DebugManager.log(DebugCategory.GENERAL, "[ACCommand] AC new toggle state: %s", toggleresult);
 
 				if (toggleresult == true) {
 					MessageManager.sendMessage(sender, "command_ac_toggle_on");
@@ -53,27 +54,27 @@ public class ACCommand extends Command {
 
 		} else if ((sender instanceof ProxiedPlayer)) {
 
-			DebugManager.log("[ACCommand] Command sender is a player");
+			DebugManager.log(DebugCategory.GENERAL, "[ACCommand] Command sender is a player");
 
 			String message = MultiChatUtil.getMessageFromArgs(args);
 
 			ProxiedPlayer player = (ProxiedPlayer)sender;
 			StaffChatManager chatman = new StaffChatManager();
 
-			DebugManager.log("[ACCommand] Next line of code will send the message, if no errors, then it worked!");
+			DebugManager.log(DebugCategory.GENERAL, "[ACCommand] Next line of code will send the message, if no errors, then it worked!");
 
 			chatman.sendAdminMessage(player.getName(), player.getDisplayName(), player.getServer().getInfo().getName(), message);
 			chatman = null;
 
 		} else {
 
-			DebugManager.log("[ACCommand] Command sender is the console");
+			DebugManager.log(DebugCategory.GENERAL, "[ACCommand] Command sender is the console");
 
 			String message = MultiChatUtil.getMessageFromArgs(args);
 
 			StaffChatManager chatman = new StaffChatManager();
 
-			DebugManager.log("[ACCommand] Next line of code will send the message, if no errors, then it worked!");
+			DebugManager.log(DebugCategory.GENERAL, "[ACCommand] Next line of code will send the message, if no errors, then it worked!");
 
 			chatman.sendAdminMessage("CONSOLE", "CONSOLE", "#", message);
 			chatman = null;
@@ -1,5 +1,6 @@
 package xyz.olivermartin.multichat.bungee.commands;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -75,6 +76,22 @@ public class AnnouncementCommand extends Command {
 					MessageManager.sendSpecialMessage(sender, "command_announcement_stopped_error", args[1].toUpperCase());
 				}
 
+			} else if (args[0].toLowerCase().equals("pause")) {
+
+				if (Announcements.pauseAnnouncement(args[1].toLowerCase()) == true) {
+					MessageManager.sendSpecialMessage(sender, "command_announcement_paused", args[1].toUpperCase());
+				} else {
+					MessageManager.sendSpecialMessage(sender, "command_announcement_paused_error", args[1].toUpperCase());
+				}
+
+			} else if (args[0].toLowerCase().equals("resume")) {
+
+				if (Announcements.resumeAnnouncement(args[1].toLowerCase()) == true) {
+					MessageManager.sendSpecialMessage(sender, "command_announcement_resumed", args[1].toUpperCase());
+				} else {
+					MessageManager.sendSpecialMessage(sender, "command_announcement_resumed_error", args[1].toUpperCase());
+				}
+
 			} else {
 
 				showCommandUsage(sender);
@@ -114,7 +131,16 @@ public class AnnouncementCommand extends Command {
 
 		} else if (args.length >= 3) {
 
-			if (args[0].toLowerCase().equals("add")) {
+			if (args[0].toLowerCase().equals("start") && isInteger(args[2])) {
+
+				// Only send it to the servers listed
+				if (Announcements.startAnnouncement(args[1].toLowerCase(), Integer.parseInt(args[2]), Arrays.asList(args).subList(3, args.length)) == true) {
+					MessageManager.sendSpecialMessage(sender, "command_announcement_started", args[1].toUpperCase());
+				} else {
+					MessageManager.sendSpecialMessage(sender, "command_announcement_started_error", args[1].toUpperCase());
+				}
+
+			} else if (args[0].toLowerCase().equals("add")) {
 
 				String message = MultiChatUtil.getMessageFromArgs(args, 2);
 
@@ -157,8 +183,10 @@ public class AnnouncementCommand extends Command {
 		MessageManager.sendMessage(sender, "command_announcement_usage");
 		sender.sendMessage(new ComponentBuilder("/announcement add <name> <message>").color(ChatColor.AQUA).create());
 		sender.sendMessage(new ComponentBuilder("/announcement remove <name>").color(ChatColor.AQUA).create());
-		sender.sendMessage(new ComponentBuilder("/announcement start <name> <interval in minutes>").color(ChatColor.AQUA).create());
+		sender.sendMessage(new ComponentBuilder("/announcement start <name> <interval in minutes> [servers]").color(ChatColor.AQUA).create());
 		sender.sendMessage(new ComponentBuilder("/announcement stop <name>").color(ChatColor.AQUA).create());
+		sender.sendMessage(new ComponentBuilder("/announcement pause <name>").color(ChatColor.AQUA).create());
+		sender.sendMessage(new ComponentBuilder("/announcement resume <name>").color(ChatColor.AQUA).create());
 		sender.sendMessage(new ComponentBuilder("/announcement list").color(ChatColor.AQUA).create());
 		sender.sendMessage(new ComponentBuilder("/announce <name>").color(ChatColor.AQUA).create());
 
@@ -1,5 +1,6 @@
 package xyz.olivermartin.multichat.bungee.commands;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 import net.md_5.bungee.api.ChatColor;
@@ -8,6 +9,7 @@ import net.md_5.bungee.api.chat.ComponentBuilder;
 import net.md_5.bungee.api.plugin.Command;
 import xyz.olivermartin.multichat.bungee.Bulletins;
 import xyz.olivermartin.multichat.bungee.MessageManager;
+import xyz.olivermartin.multichat.bungee.MultiChat;
 import xyz.olivermartin.multichat.bungee.MultiChatUtil;
 
 /**
@@ -28,6 +30,8 @@ public class BulletinCommand extends Command {
 	@Override
 	public void execute(CommandSender sender, String[] args) {
 
+		MultiChat.loadBulletins();
+
 		if (args.length < 1) {
 
 			showCommandUsage(sender);
@@ -39,6 +43,22 @@ public class BulletinCommand extends Command {
 				Bulletins.stopBulletins();
 				MessageManager.sendMessage(sender, "command_bulletin_stopped");
 
+			} else if (args[0].toLowerCase().equals("pause")) {
+
+				if (Bulletins.pauseBulletins()) {
+					MessageManager.sendMessage(sender, "command_bulletin_paused");
+				} else {
+					MessageManager.sendMessage(sender, "command_bulletin_paused_error");
+				}
+
+			} else if (args[0].toLowerCase().equals("resume")) {
+
+				if (Bulletins.resumeBulletins()) {
+					MessageManager.sendMessage(sender, "command_bulletin_resumed");
+				} else {
+					MessageManager.sendMessage(sender, "command_bulletin_resumed_error");
+				}
+
 			} else if (args[0].toLowerCase().equals("list")) {
 
 				int counter = 0;
@@ -97,6 +117,17 @@ public class BulletinCommand extends Command {
 
 				Bulletins.addBulletin(message);
 				MessageManager.sendMessage(sender, "command_bulletin_added");
+
+			} else if (args[0].toLowerCase().equals("start")) {
+
+				// Only send them to the servers listed
+				try {
+					Bulletins.startBulletins(Integer.parseInt(args[1]), Arrays.asList(args).subList(2, args.length));
+					MessageManager.sendMessage(sender, "command_bulletin_started");
+				} catch (Exception e) {
+					MessageManager.sendMessage(sender, "command_bulletin_invalid_usage");
+				}
+
 			}
 
 		} else {
@@ -112,8 +143,10 @@ public class BulletinCommand extends Command {
 		MessageManager.sendMessage(sender, "command_bulletin_usage");
 		sender.sendMessage(new ComponentBuilder("/bulletin add <message>").color(ChatColor.AQUA).create());
 		sender.sendMessage(new ComponentBuilder("/bulletin remove <index>").color(ChatColor.AQUA).create());
-		sender.sendMessage(new ComponentBuilder("/bulletin start <interval in minutes>").color(ChatColor.AQUA).create());
+		sender.sendMessage(new ComponentBuilder("/bulletin start <interval in minutes> [servers]").color(ChatColor.AQUA).create());
 		sender.sendMessage(new ComponentBuilder("/bulletin stop").color(ChatColor.AQUA).create());
+		sender.sendMessage(new ComponentBuilder("/bulletin pause").color(ChatColor.AQUA).create());
+		sender.sendMessage(new ComponentBuilder("/bulletin resume").color(ChatColor.AQUA).create());
 		sender.sendMessage(new ComponentBuilder("/bulletin list").color(ChatColor.AQUA).create());
 
 	}
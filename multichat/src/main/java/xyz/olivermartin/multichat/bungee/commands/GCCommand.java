@@ -1,6 +1,7 @@
 package xyz.olivermartin.multichat.bungee.commands;
 
 import java.util.Optional;
+import java.util.UUID;
 
 import com.olivermartin410.plugins.TGroupChatInfo;
 
@@ -11,6 +12,7 @@ import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.plugin.Command;
 import xyz.olivermartin.multichat.bungee.ChatControl;
+import xyz.olivermartin.multichat.bungee.ChatReplayManager;
 import xyz.olivermartin.multichat.bungee.ChatManipulation;
 import xyz.olivermartin.multichat.bungee.ConfigManager;
 import xyz.olivermartin.multichat.bungee.ConsoleManager;
@@ -18,6 +20,7 @@ import xyz.olivermartin.multichat.bungee.Events;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
 import xyz.olivermartin.multichat.bungee.MultiChatUtil;
+import xyz.olivermartin.multichat.bungee.NetworkChatRelay;
 
 /**
  * Group Chat Messaging Command
@@ -36,6 +39,8 @@ public class GCCommand extends Command {
 
 	public void execute(CommandSender sender, String[] args) {
 
+		MultiChat.loadGroupChats();
+
 		if (args.length < 1) {
 
 			if ((sender instanceof ProxiedPlayer)) {
@@ -120,22 +125,56 @@ public class GCCommand extends Command {
 		}
 
 		String messageFormat = ConfigManager.getInstance().getHandler("config.yml").getConfig().getString("groupchat.format");
+		String replayFormat = chatfix.replaceGroupChatVars(messageFormat, playerName, "%MESSAGE%", groupInfo.getName());
+		String rawMessage = message;
 		message = chatfix.replaceGroupChatVars(messageFormat, playerName, message, groupInfo.getName());
 
+		displayMessage(message, potentialPlayer == null ? null : potentialPlayer.getUniqueId(), potentialPlayer, groupInfo);
+
+		ChatReplayManager.getInstance().recordGroupChat(groupInfo.getName(), potentialPlayer == null ? null : potentialPlayer.getUniqueId(), replayFormat, rawMessage);
+
+		if (potentialPlayer == null) {
+			ConsoleManager.logGroupChat(null, null, groupInfo.getName(), message);
+		} else {
+			ConsoleManager.logGroupChat(potentialPlayer.getUniqueId(), potentialPlayer.getServer().getInfo().getName(), groupInfo.getName(), message);
+		}
+
+		NetworkChatRelay.publishGroupChat(groupInfo.getName(), potentialPlayer == null ? null : potentialPlayer.getUniqueId(), message);
+
+	}
+
+	/**
+	 * Display a message sent to a group chat by a player on another proxy
+	 * @param message The formatted message
+	 * @param senderUUID The sender, or null if it was not sent by a player
+	 * @param groupName
+	 */
+	public static void sendRemoteMessage(String message, UUID senderUUID, String groupName) {
+
+		MultiChat.loadGroupChats();
+
+		// If the group does not exist on this proxy, only the spies see the message
+		TGroupChatInfo groupInfo = MultiChat.groupchats.get(groupName.toLowerCase());
+
+		displayMessage(message, senderUUID, null, groupInfo);
+
+		// The format of the other proxy is not known, so the whole message is kept
+		if (groupInfo != null) {
+			ChatReplayManager.getInstance().recordGroupChat(groupInfo.getName(), senderUUID, null, message);
+		}
+
+		ConsoleManager.logGroupChat(senderUUID, null, groupName, message);
+
+	}
+
+	private static void displayMessage(String message, UUID senderUUID, ProxiedPlayer sender, TGroupChatInfo groupInfo) {
+
 		for (ProxiedPlayer onlineplayer : ProxyServer.getInstance().getPlayers()) {
 
-			if (((groupInfo.existsViewer(onlineplayer.getUniqueId())) && (onlineplayer.hasPermission("multichat.group"))) || ((MultiChat.allspy.contains(onlineplayer.getUniqueId())) && (onlineplayer.hasPermission("multichat.staff.spy")))) {
+			if (((groupInfo != null && groupInfo.existsViewer(onlineplayer.getUniqueId())) && (onlineplayer.hasPermission("multichat.group"))) || ((MultiChat.allspy.contains(onlineplayer.getUniqueId())) && (onlineplayer.hasPermission("multichat.staff.spy")))) {
 
-				if (potentialPlayer != null) {
-					if (!ChatControl.ignores(potentialPlayer.getUniqueId(), onlineplayer.getUniqueId(), "group_chats")) {
-						if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
-							onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
-						} else {
-							onlineplayer.sendMessage(TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', message)));
-						}
-					} else {
-						ChatControl.sendIgnoreNotifications(onlineplayer, potentialPlayer, "group_chats");
-					}
+				if (senderUUID != null && ChatControl.ignores(senderUUID, onlineplayer.getUniqueId(), "group_chats")) {
+					if (sender != null) ChatControl.sendIgnoreNotifications(onlineplayer, sender, "group_chats");
 				} else {
 					if (MultiChat.legacyServers.contains(onlineplayer.getServer().getInfo().getName())) {
 						onlineplayer.sendMessage(TextComponent.fromLegacyText(MultiChatUtil.approximateHexCodes(ChatColor.translateAlternateColorCodes('&', message))));
@@ -148,6 +187,5 @@ public class GCCommand extends Command {
 
 		}
 
-		ConsoleManager.logGroupChat(message);
 	}
-}
+}
\ No newline at end of file
@@ -17,6 +17,7 @@ import xyz.olivermartin.multichat.bungee.GroupManager;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
 import xyz.olivermartin.multichat.bungee.UUIDNameManager;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
 
 /**
  * The Group Command
@@ -35,6 +36,20 @@ public class GroupCommand extends Command implements TabExecutor {
 
 	public void execute(CommandSender sender, String[] args) {
 
+		MultiChat.loadGroupChats();
+
+		// Group chats and group spies are shared between proxies, so are only changed while holding the data lock
+		synchronized (MultiChatProxy.getInstance().getDataLock()) {
+			executeGroupCommand(sender, args);
+			// Most group commands change the groups or spies, so both are checked by the next backup
+			MultiChat.markDataChanged("GroupChatInfo.dat");
+			MultiChat.markDataChanged("GroupSpyInfo.dat");
+		}
+
+	}
+
+	private void executeGroupCommand(CommandSender sender, String[] args) {
+
 		if ((args.length < 1) || ((args.length == 1) && (args[0].toLowerCase().equals("help")))) {
 
 			GroupManager groupman = new GroupManager();
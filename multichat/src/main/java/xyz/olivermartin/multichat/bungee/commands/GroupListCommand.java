@@ -22,6 +22,8 @@ public class GroupListCommand extends Command {
 
 	public void execute(CommandSender sender, String[] args) {
 
+		MultiChat.loadGroupChats();
+
 		MessageManager.sendMessage(sender, "command_grouplist_list");
 
 		for (String groupname : MultiChat.groupchats.keySet()) {
@@ -80,7 +80,11 @@ public class HelpMeCommand extends Command {
 			}
 		}
 
-		ConsoleManager.logHelpMe(message);
+		if (potentialPlayer == null) {
+			ConsoleManager.logHelpMe(null, null, message);
+		} else {
+			ConsoleManager.logHelpMe(potentialPlayer.getUniqueId(), potentialPlayer.getServer().getInfo().getName(), message);
+		}
 
 		return true;
 
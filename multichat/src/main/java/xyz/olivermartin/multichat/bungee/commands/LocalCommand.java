@@ -15,6 +15,7 @@ import xyz.olivermartin.multichat.bungee.Events;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
 import xyz.olivermartin.multichat.bungee.MultiChatUtil;
+import xyz.olivermartin.multichat.common.DebugCategory;
 
 /**
  * Local Chat Command
@@ -56,10 +57,10 @@ public class LocalCommand extends Command {
 						return;
 					}
 
-					DebugManager.log(player.getName() + "- about to check for spam");
+					DebugManager.log(DebugCategory.CHAT, "%s- about to check for spam", player.getName());
 
 					if (ChatControl.handleSpam(player, message, "global_chat")) {
-						DebugManager.log(player.getName() + " - chat message being cancelled due to spam");
+						DebugManager.log(DebugCategory.CHAT, "%s - chat message being cancelled due to spam", player.getName());
 						return;
 					}
 
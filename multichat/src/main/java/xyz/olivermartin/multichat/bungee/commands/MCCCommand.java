@@ -57,6 +57,7 @@ public class MCCCommand extends Command {
 					chatinfo.setNameColor(args[1].charAt(0));
 
 					MultiChat.modchatpreferences.put(player.getUniqueId(), chatinfo);
+					MultiChat.markDataChanged("StaffChatInfo.dat");
 
 					MessageManager.sendMessage(sender, "command_mcc_updated");
 
@@ -18,6 +18,7 @@ import xyz.olivermartin.multichat.bungee.Events;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
 import xyz.olivermartin.multichat.bungee.MultiChatUtil;
+import xyz.olivermartin.multichat.bungee.NetworkChatRelay;
 import xyz.olivermartin.multichat.bungee.PrivateMessageManager;
 
 /**
@@ -198,6 +199,16 @@ public class MsgCommand extends Command implements TabExecutor {
 
 					// End of console target stuff
 
+				} else if (NetworkChatRelay.isEnabled()) {
+
+					// The target may be online on another proxy
+
+					if (!ConfigManager.getInstance().getHandler("config.yml").getConfig().getStringList("no_pm").contains(((ProxiedPlayer)sender).getServer().getInfo().getName())) {
+						NetworkChatRelay.sendPrivateMessage(message, (ProxiedPlayer)sender, args[0]);
+					} else {
+						MessageManager.sendMessage(sender, "command_msg_disabled_sender");
+					}
+
 				} else {
 					MessageManager.sendMessage(sender, "command_msg_not_online");
 				}
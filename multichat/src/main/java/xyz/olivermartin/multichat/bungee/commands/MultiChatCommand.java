@@ -1,18 +1,43 @@
 package xyz.olivermartin.multichat.bungee.commands;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ComponentBuilder;
+import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.plugin.Command;
+import xyz.olivermartin.multichat.bungee.Announcements;
+import xyz.olivermartin.multichat.bungee.BroadcastScheduler;
+import xyz.olivermartin.multichat.bungee.Bulletins;
+import xyz.olivermartin.multichat.bungee.CastControl;
 import xyz.olivermartin.multichat.bungee.Channel;
 import xyz.olivermartin.multichat.bungee.ChatControl;
+import xyz.olivermartin.multichat.bungee.ChatReplayManager;
 import xyz.olivermartin.multichat.bungee.CommandManager;
 import xyz.olivermartin.multichat.bungee.ConfigManager;
 import xyz.olivermartin.multichat.bungee.DebugManager;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
+import xyz.olivermartin.multichat.bungee.MultiChatUtil;
 import xyz.olivermartin.multichat.bungee.UUIDNameManager;
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
+import xyz.olivermartin.multichat.proxy.common.history.ChatHistory;
+import xyz.olivermartin.multichat.proxy.common.history.HistoryIndex;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogRecord;
 
 /**
  * MultiChat (Admin) Command
@@ -25,6 +50,10 @@ public class MultiChatCommand extends Command {
 
 	private static String[] aliases = new String[] {};
 
+	private static final int HISTORY_RESULTS = 20;
+	private static final Pattern HISTORY_SINCE = Pattern.compile("(\\d{1,6})([smhdw])");
+	private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
 	public MultiChatCommand() {
 		super("multichat", "multichat.admin", aliases);
 	}
@@ -63,6 +92,11 @@ public class MultiChatCommand extends Command {
 
 		} else {
 
+			if (args[0].toLowerCase().equals("history")) {
+				searchHistory(sender, args);
+				return;
+			}
+
 			if (args.length == 1) {
 
 				if (args[0].toLowerCase().equals("help")) {
@@ -72,26 +106,37 @@ public class MultiChatCommand extends Command {
 				} else if (args[0].toLowerCase().equals("debug")) {
 
 					DebugManager.toggle();
-					DebugManager.log("Debug mode toggled");
+					DebugManager.log(DebugCategory.GENERAL, "Debug mode toggled");
 
 				} else if (args[0].toLowerCase().equals("save")) {
 
 					MessageManager.sendMessage(sender, "command_multichat_save_prepare");
 
-					MultiChat.saveChatInfo();
-					MultiChat.saveGroupChatInfo();
-					MultiChat.saveGroupSpyInfo();
-					MultiChat.saveGlobalChatInfo();
-					MultiChat.saveSocialSpyInfo();
-					MultiChat.saveAnnouncements();
-					MultiChat.saveBulletins();
-					MultiChat.saveCasts();
-					MultiChat.saveMute();
-					MultiChat.saveIgnore();
-					UUIDNameManager.saveUUIDS();
+					// Write everything, even if it has not changed, and wait for it to finish
+					MultiChatProxy.getInstance().getDataStoreManager().saveAll();
+					MultiChatProxy.getInstance().getDataStoreManager().flush(30L, TimeUnit.SECONDS);
+
+					if (MultiChatProxy.getInstance().getSQLStoreManager().isPresent()) {
+						MultiChatProxy.getInstance().getSQLStoreManager().get().sync();
+						MultiChatProxy.getInstance().getSQLStoreManager().get().flush(30L, TimeUnit.SECONDS);
+					}
 
 					MessageManager.sendMessage(sender, "command_multichat_save_completed");
 
+				} else if (args[0].toLowerCase().equals("stats")) {
+
+					List<String> summary = MetricsRegistry.getInstance().getSummary();
+
+					MessageManager.sendMessage(sender, "command_multichat_stats_header");
+
+					if (summary.isEmpty()) {
+						MessageManager.sendMessage(sender, "command_multichat_stats_empty");
+					}
+
+					for (String line : summary) {
+						sender.sendMessage(new ComponentBuilder(ChatColor.translateAlternateColorCodes('&', "&b" + line)).create());
+					}
+
 				} else if (args[0].toLowerCase().equals("reload")) {
 
 					MessageManager.sendMessage(sender, "command_multichat_reload_prepare");
@@ -106,16 +151,22 @@ public class MultiChatCommand extends Command {
 					ConfigManager.getInstance().getHandler("messages.yml").startupConfig();
 					ConfigManager.getInstance().getHandler("chatcontrol.yml").startupConfig();
 
-					ConfigManager.getInstance().getHandler("messages_fr.yml").startupConfig();
-					ConfigManager.getInstance().getHandler("joinmessages_fr.yml").startupConfig();
-					ConfigManager.getInstance().getHandler("config_fr.yml").startupConfig();
-					ConfigManager.getInstance().getHandler("chatcontrol_fr.yml").startupConfig();
+					// Translations are loaded again when they are next used
+					ConfigManager.getInstance().getHandler("messages_fr.yml").invalidate();
+					ConfigManager.getInstance().getHandler("joinmessages_fr.yml").invalidate();
+					ConfigManager.getInstance().getHandler("config_fr.yml").invalidate();
+					ConfigManager.getInstance().getHandler("chatcontrol_fr.yml").invalidate();
 
 					// Reload, and re-register commands
 					CommandManager.reload();
 					MultiChat.getInstance().registerCommands(ConfigManager.getInstance().getHandler("config.yml").getConfig(), ConfigManager.getInstance().getHandler("chatcontrol.yml").getConfig());
 
 					ChatControl.reload();
+					Announcements.invalidateRendered();
+					Bulletins.invalidateRendered();
+					CastControl.invalidateRendered();
+					ChatReplayManager.getInstance().configure(ConfigManager.getInstance().getHandler("config.yml").getConfig());
+					BroadcastScheduler.getInstance().configure(ConfigManager.getInstance().getHandler("config.yml").getConfig());
 
 					System.out.println("VERSION LOADED: " + MultiChat.configversion);
 
@@ -179,8 +230,127 @@ public class MultiChatCommand extends Command {
 						displayHelp(sender,3);
 					}
 
+				} else if (args[0].toLowerCase().equals("debug")) {
+
+					DebugCategory category = DebugCategory.fromName(args[1]);
+
+					if (category == null) {
+						MessageManager.sendSpecialMessage(sender, "command_multichat_debug_categories", DebugCategory.getNames());
+					} else if (DebugManager.toggle(category)) {
+						MessageManager.sendSpecialMessage(sender, "command_multichat_debug_enabled", category.name().toLowerCase());
+					} else {
+						MessageManager.sendSpecialMessage(sender, "command_multichat_debug_disabled", category.name().toLowerCase());
+					}
+
+				}
+			}
+		}
+	}
+
+	/**
+	 * Search the chat history for the messages of a player, or for some text
+	 * 
+	 * <p>/multichat history <player|text> [since], where since is how far back to search, i.e. 7d</p>
+	 */
+	private void searchHistory(final CommandSender sender, String[] args) {
+
+		Optional<ChatHistory> history = MultiChatProxy.getInstance().getChatHistory();
+
+		if (!history.isPresent()) {
+			MessageManager.sendMessage(sender, "command_multichat_history_disabled");
+			return;
+		}
+
+		if (args.length < 2) {
+			MessageManager.sendMessage(sender, "command_multichat_history_usage");
+			return;
+		}
+
+		long since = 0;
+		int end = args.length - 1;
+
+		Matcher matcher = HISTORY_SINCE.matcher(args[end].toLowerCase());
+
+		if (args.length > 2 && matcher.matches()) {
+			since = System.currentTimeMillis() - getSinceMillis(Long.parseLong(matcher.group(1)), matcher.group(2));
+			end--;
+		}
+
+		final String query = MultiChatUtil.getMessageFromArgs(args, 1, end);
+		final Optional<UUID> player = end == 1 ? UUIDNameManager.getUUID(query) : Optional.<UUID>empty();
+
+		if (!player.isPresent() && HistoryIndex.tokenise(query).isEmpty()) {
+			MessageManager.sendMessage(sender, "command_multichat_history_too_short");
+			return;
+		}
+
+		final ChatHistory chatHistory = history.get();
+		final long searchSince = since;
+
+		// Searching reads from disk, so it is kept off the command thread
+		ProxyServer.getInstance().getScheduler().runAsync(MultiChat.getInstance(), new Runnable() {
+			public void run() {
+
+				List<ChatLogRecord> results;
+
+				try {
+					if (player.isPresent()) {
+						results = chatHistory.findBySender(player.get(), searchSince, HISTORY_RESULTS);
+					} else {
+						results = chatHistory.findByText(query, searchSince, HISTORY_RESULTS);
+					}
+				} catch (IOException e) {
+					MessageManager.sendMessage(sender, "command_multichat_history_failed");
+					e.printStackTrace();
+					return;
+				}
+
+				MessageManager.sendSpecialMessage(sender, "command_multichat_history_header", query);
+
+				if (results.isEmpty()) {
+					MessageManager.sendMessage(sender, "command_multichat_history_empty");
 				}
+
+				// Oldest first, so the most recent message is at the bottom of the chat
+				for (int i = results.size() - 1; i >= 0; i--) {
+					sender.sendMessage(formatHistoryRecord(results.get(i)));
+				}
+
 			}
+		});
+
+	}
+
+	private static long getSinceMillis(long amount, String unit) {
+
+		switch (unit) {
+		case "s":
+			return TimeUnit.SECONDS.toMillis(amount);
+		case "m":
+			return TimeUnit.MINUTES.toMillis(amount);
+		case "h":
+			return TimeUnit.HOURS.toMillis(amount);
+		case "w":
+			return TimeUnit.DAYS.toMillis(amount * 7);
+		default:
+			return TimeUnit.DAYS.toMillis(amount);
 		}
+
 	}
+
+	private static BaseComponent[] formatHistoryRecord(ChatLogRecord record) {
+
+		StringBuilder line = new StringBuilder();
+
+		line.append("&3").append(HISTORY_TIME.format(Instant.ofEpochMilli(record.getTime())));
+		line.append(" &b").append(record.getType().getName());
+		if (record.getTarget() != null) line.append(" &3").append(record.getTarget());
+		if (record.getServer() != null) line.append(" &7(").append(record.getServer()).append(")");
+		line.append(" &f");
+
+		// The message has no colour codes, and is added after translating so none can be slipped into it
+		return TextComponent.fromLegacyText(ChatColor.translateAlternateColorCodes('&', line.toString()) + record.getMessage());
+
+	}
+
 }
@@ -6,6 +6,7 @@ import net.md_5.bungee.api.plugin.Command;
 import xyz.olivermartin.multichat.bungee.ConfigManager;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
+import xyz.olivermartin.multichat.proxy.common.MultiChatProxy;
 
 /**
  * SocialSpy Command
@@ -26,12 +27,18 @@ public class SocialSpyCommand extends Command {
 
 			if (args.length < 1) {
 
-				if (MultiChat.socialspy.contains(((ProxiedPlayer)sender).getUniqueId())) {
-					MultiChat.socialspy.remove(((ProxiedPlayer)sender).getUniqueId());
-					MessageManager.sendMessage(sender, "command_socialspy_disabled");
-				} else {
-					MultiChat.socialspy.add(((ProxiedPlayer)sender).getUniqueId());
+				boolean enabled;
+
+				synchronized (MultiChatProxy.getInstance().getDataLock()) {
+					enabled = !MultiChat.socialspy.remove(((ProxiedPlayer)sender).getUniqueId());
+					if (enabled) MultiChat.socialspy.add(((ProxiedPlayer)sender).getUniqueId());
+					MultiChat.markDataChanged("SocialSpyInfo.dat");
+				}
+
+				if (enabled) {
 					MessageManager.sendMessage(sender, "command_socialspy_enabled");
+				} else {
+					MessageManager.sendMessage(sender, "command_socialspy_disabled");
 				}
 
 			} else {
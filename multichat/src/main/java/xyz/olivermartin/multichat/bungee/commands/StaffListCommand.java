@@ -12,6 +12,7 @@ import xyz.olivermartin.multichat.bungee.ConfigManager;
 import xyz.olivermartin.multichat.bungee.DebugManager;
 import xyz.olivermartin.multichat.bungee.MessageManager;
 import xyz.olivermartin.multichat.bungee.MultiChat;
+import xyz.olivermartin.multichat.common.DebugCategory;
 
 /**
  * Staff List Command
@@ -36,13 +37,13 @@ public class StaffListCommand extends Command {
 
 		MessageManager.sendMessage(sender, "command_stafflist_list");
 		
-		DebugManager.log("[StaffList] Player: " + sender.getName() + " is the command sender!");
+		DebugManager.log(DebugCategory.GENERAL, "[StaffList] Player: %s is the command sender!", sender.getName());
 
 		for (Iterator<String> localIterator1 = ProxyServer.getInstance().getServers().keySet().iterator(); localIterator1.hasNext();) {
 
 			server = (String)localIterator1.next();
 			
-			DebugManager.log("[StaffList] First Server: " + server);
+			DebugManager.log(DebugCategory.GENERAL, "[StaffList] First Server: %s", server);
 
 			if (!ProxyServer.getInstance().getServerInfo(server).getPlayers().isEmpty()) {
 
@@ -52,20 +53,20 @@ public class StaffListCommand extends Command {
 
 					if ((onlineplayer2.hasPermission("multichat.staff"))) {
 						
-						DebugManager.log("[StaffList] Found a staff member: " + onlineplayer2.getName());
+						DebugManager.log(DebugCategory.GENERAL, "[StaffList] Found a staff member: %s", onlineplayer2.getName());
 
 						boolean showInList = true;
 						
-						DebugManager.log("[StaffList] Are we hooked to PremiumVanish: " + MultiChat.premiumVanish);
-						DebugManager.log("[StaffList] Are we hiding vanished players as set in config?: " + MultiChat.hideVanishedStaffInStaffList);
+						DebugManager.log(DebugCategory.GENERAL, "[StaffList] Are we hooked to PremiumVanish: %s", MultiChat.premiumVanish);
+						DebugManager.log(DebugCategory.GENERAL, "[StaffList] Are we hiding vanished players as set in config?: %s", MultiChat.hideVanishedStaffInStaffList);
 
 						if (MultiChat.premiumVanish && MultiChat.hideVanishedStaffInStaffList) {
 							
-							DebugManager.log("[StaffList] Is staff invisible: " + BungeeVanishAPI.isInvisible(onlineplayer2));
-							DebugManager.log("[StaffList] Can player see vanished staff?: " + sender.hasPermission("multichat.staff.list.vanished"));
+							DebugManager.log(DebugCategory.GENERAL, "[StaffList] Is staff invisible: %s", BungeeVanishAPI.isInvisible(onlineplayer2));
+							DebugManager.log(DebugCategory.GENERAL, () -> "[StaffList] Can player see vanished staff?: " + sender.hasPermission("multichat.staff.list.vanished"));
 							
 							if (BungeeVanishAPI.isInvisible(onlineplayer2) && !sender.hasPermission("multichat.staff.list.vanished")) {
-								DebugManager.log("[StaffList] This staff member will be hidden from list!");
+								DebugManager.log(DebugCategory.GENERAL, "[StaffList] This staff member will be hidden from list!");
 								showInList = false;
 							}
 						}
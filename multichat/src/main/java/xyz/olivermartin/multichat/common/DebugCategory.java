@@ -0,0 +1,88 @@
+package xyz.olivermartin.multichat.common;
+
+/**
+ * The parts of MultiChat which debug output can be turned on for separately
+ * 
+ * <p>i.e. /multichat debug communication only shows the plugin messages between the proxy and the servers</p>
+ */
+public enum DebugCategory {
+
+	/**
+	 * Anything not in one of the other categories
+	 */
+	GENERAL,
+
+	/**
+	 * Handling chat messages and building their formats
+	 */
+	CHAT,
+
+	/**
+	 * Channels, and who is sent their messages
+	 */
+	CHANNELS,
+
+	/**
+	 * Plugin messages between the proxy and the servers
+	 */
+	COMMUNICATION,
+
+	/**
+	 * Placeholders, prefixes, suffixes, nicknames and display names
+	 */
+	PLACEHOLDERS,
+
+	/**
+	 * Data files, databases and the name managers
+	 */
+	STORAGE;
+
+	/**
+	 * Every category turned on
+	 */
+	public static final int ALL = (1 << values().length) - 1;
+
+	private final int mask;
+
+	private DebugCategory() {
+		mask = 1 << ordinal();
+	}
+
+	/**
+	 * @return The bit for this category in a set of turned on categories
+	 */
+	public int getMask() {
+		return mask;
+	}
+
+	/**
+	 * @param name
+	 * @return The category with the given name (ignoring case), or null if there is none
+	 */
+	public static DebugCategory fromName(String name) {
+
+		for (DebugCategory category : values()) {
+			if (category.name().equalsIgnoreCase(name)) return category;
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * @return The names of all categories, i.e. general/chat/channels
+	 */
+	public static String getNames() {
+
+		StringBuilder names = new StringBuilder();
+
+		for (DebugCategory category : values()) {
+			if (names.length() > 0) names.append('/');
+			names.append(category.name().toLowerCase());
+		}
+
+		return names.toString();
+
+	}
+
+}
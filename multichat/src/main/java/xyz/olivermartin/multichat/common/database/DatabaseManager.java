@@ -6,6 +6,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -33,12 +34,29 @@ public class DatabaseManager {
 
 	private int defaultPoolSize = 10;
 
+	private Map<String, String> dataSourcePropertiesMySQL;
+	private Map<String, String> dataSourcePropertiesSQLite;
+
 	private DatabaseMode databaseMode = DatabaseMode.SQLite;
 
 	private Map<String, GenericPooledDatabase> databases;
 
 	private DatabaseManager() {
+
 		databases = new HashMap<String, GenericPooledDatabase>();
+
+		// Have Connector/J cache prepared statements per physical connection, so re-preparing the same
+		// SQL template on a pooled connection does not go back to the server, and send batches as one statement
+		dataSourcePropertiesMySQL = new LinkedHashMap<String, String>();
+		dataSourcePropertiesMySQL.put("cachePrepStmts", "true");
+		dataSourcePropertiesMySQL.put("prepStmtCacheSize", "250");
+		dataSourcePropertiesMySQL.put("prepStmtCacheSqlLimit", "2048");
+		dataSourcePropertiesMySQL.put("useServerPrepStmts", "true");
+		dataSourcePropertiesMySQL.put("rewriteBatchedStatements", "true");
+
+		// The SQLite driver has no statement cache, so SQLitePooledDatabase keeps the statements of each connection instead
+		dataSourcePropertiesSQLite = new LinkedHashMap<String, String>();
+
 	}
 
 	////////////
@@ -254,7 +272,7 @@ public class DatabaseManager {
 					databaseFlagsString = "?" + String.join("&", databaseFlagsMySQL);
 			}
 
-			databases.put(databaseName.toLowerCase(), new MySQLPooledDatabase(databaseURLMySQL, fileName + databaseFlagsString, databaseUsernameMySQL, databasePasswordMySQL, defaultPoolSize));
+			databases.put(databaseName.toLowerCase(), new MySQLPooledDatabase(databaseURLMySQL, fileName + databaseFlagsString, databaseUsernameMySQL, databasePasswordMySQL, defaultPoolSize, new LinkedHashMap<String, String>(dataSourcePropertiesMySQL)));
 
 			return databases.get(databaseName.toLowerCase());
 
@@ -265,7 +283,7 @@ public class DatabaseManager {
 				databasePathSQLite.mkdirs();
 			}
 
-			databases.put(databaseName.toLowerCase(), new SQLitePooledDatabase(databasePathSQLite, fileName, defaultPoolSize));
+			databases.put(databaseName.toLowerCase(), new SQLitePooledDatabase(databasePathSQLite, fileName, defaultPoolSize, new LinkedHashMap<String, String>(dataSourcePropertiesSQLite)));
 
 			return databases.get(databaseName.toLowerCase());
 
@@ -1,6 +1,8 @@
 package xyz.olivermartin.multichat.common.database;
 
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
 
 public abstract class GenericPooledDatabase {
 
@@ -11,16 +13,19 @@ public abstract class GenericPooledDatabase {
 	protected String password;
 
 	private int poolSize;
+	private Map<String, String> dataSourceProperties;
 
-	public GenericPooledDatabase(String url, int poolSize) throws SQLException {
+	public GenericPooledDatabase(String url, int poolSize, Map<String, String> dataSourceProperties) throws SQLException {
 		this.url = url;
 		this.poolSize = poolSize;
+		this.dataSourceProperties = dataSourceProperties;
 		ready = setupDatabase(url);
 	}
 
-	public GenericPooledDatabase(String url, String user, String pass, int poolSize) throws SQLException {
+	public GenericPooledDatabase(String url, String user, String pass, int poolSize, Map<String, String> dataSourceProperties) throws SQLException {
 		this.url = url;
 		this.poolSize = poolSize;
+		this.dataSourceProperties = dataSourceProperties;
 		this.username = user;
 		this.password = pass;
 		ready = setupDatabase(url);
@@ -34,12 +39,25 @@ public abstract class GenericPooledDatabase {
 		return this.poolSize;
 	}
 
+	/**
+	 * @return The properties passed to the JDBC driver when connecting (i.e. statement caching settings)
+	 */
+	public Map<String, String> getDataSourceProperties() {
+		if (dataSourceProperties == null) return Collections.emptyMap();
+		return Collections.unmodifiableMap(dataSourceProperties);
+	}
+
 	public boolean isReady() {
 		return this.ready;
 	}
 
 	public abstract SimpleConnection getConnection() throws SQLException;
 
+	/**
+	 * @return The SQL dialect used by this database, for statements which differ between them (i.e. upserts)
+	 */
+	public abstract DatabaseMode getMode();
+
 	protected abstract boolean setupDatabase(String url) throws SQLException;
 
 	protected abstract void disconnect() throws SQLException;
@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.common.database;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -13,8 +14,8 @@ public class MySQLPooledDatabase extends GenericPooledDatabase {
 	private HikariDataSource ds;
 	private HikariConfig config;
 
-	public MySQLPooledDatabase(String url, String databaseName, String username, String password, int poolSize) throws SQLException {
-		super(URL_PREFIX + "//" + url + "/" + databaseName, username, password, poolSize);
+	public MySQLPooledDatabase(String url, String databaseName, String username, String password, int poolSize, Map<String, String> dataSourceProperties) throws SQLException {
+		super(URL_PREFIX + "//" + url + "/" + databaseName, username, password, poolSize, dataSourceProperties);
 	}
 
 	@Override
@@ -38,6 +39,9 @@ public class MySQLPooledDatabase extends GenericPooledDatabase {
 		config.setUsername(username);
 		config.setPassword(password);
 		config.setMaximumPoolSize(getPoolSize());
+		for (Map.Entry<String, String> property : getDataSourceProperties().entrySet()) {
+			config.addDataSourceProperty(property.getKey(), property.getValue());
+		}
 		ds = new HikariDataSource(config);
 		Connection conn = ds.getConnection();
 		conn.close();
@@ -45,6 +49,11 @@ public class MySQLPooledDatabase extends GenericPooledDatabase {
 
 	}
 
+	@Override
+	public DatabaseMode getMode() {
+		return DatabaseMode.MySQL;
+	}
+
 	@Override
 	public SimpleConnection getConnection() throws SQLException {
 		return new SimpleConnection(ds.getConnection());
@@ -3,6 +3,7 @@ package xyz.olivermartin.multichat.common.database;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -14,8 +15,11 @@ public class SQLitePooledDatabase extends GenericPooledDatabase {
 	private HikariDataSource ds;
 	private HikariConfig config;
 
-	public SQLitePooledDatabase(File path, String filename, int poolSize) throws SQLException {
-		super(URL_PREFIX + path + File.separator + filename, poolSize);
+	// The SQLite driver has no statement cache, so statements are kept for each physical connection instead
+	private final StatementCache statementCache = new StatementCache();
+
+	public SQLitePooledDatabase(File path, String filename, int poolSize, Map<String, String> dataSourceProperties) throws SQLException {
+		super(URL_PREFIX + path + File.separator + filename, poolSize, dataSourceProperties);
 	}
 
 	protected boolean setupDatabase(String url) throws SQLException {
@@ -28,6 +32,7 @@ public class SQLitePooledDatabase extends GenericPooledDatabase {
 		if (ds != null) {
 			ds.close();
 		}
+		statementCache.clear();
 	}
 
 	@Override
@@ -36,6 +41,9 @@ public class SQLitePooledDatabase extends GenericPooledDatabase {
 		config = new HikariConfig();
 		config.setJdbcUrl(url);
 		config.setMaximumPoolSize(getPoolSize());
+		for (Map.Entry<String, String> property : getDataSourceProperties().entrySet()) {
+			config.addDataSourceProperty(property.getKey(), property.getValue());
+		}
 		ds = new HikariDataSource(config);
 		Connection conn = ds.getConnection();
 		conn.close();
@@ -43,9 +51,16 @@ public class SQLitePooledDatabase extends GenericPooledDatabase {
 
 	}
 
+	@Override
+	public DatabaseMode getMode() {
+		return DatabaseMode.SQLite;
+	}
+
 	@Override
 	public SimpleConnection getConnection() throws SQLException {
-		return new SimpleConnection(ds.getConnection());
+		Connection connection = ds.getConnection();
+		Connection physical = connection.unwrap(Connection.class);
+		return new SimpleConnection(connection, physical, statementCache.get(physical));
 	}
 
 }
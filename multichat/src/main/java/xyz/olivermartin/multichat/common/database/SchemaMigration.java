@@ -0,0 +1,70 @@
+package xyz.olivermartin.multichat.common.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A single, ordered step in the evolution of a database schema
+ * 
+ * <p>Run at most once per database by a {@link SchemaMigrator}. Because MySQL commits DDL straight away,
+ * a migration may be re-run after a partial failure, so each step should check before changing anything.</p>
+ */
+public abstract class SchemaMigration {
+
+	private final int version;
+	private final String description;
+
+	public SchemaMigration(int version, String description) {
+		this.version = version;
+		this.description = description;
+	}
+
+	public int getVersion() {
+		return this.version;
+	}
+
+	public String getDescription() {
+		return this.description;
+	}
+
+	/**
+	 * Apply this migration
+	 * @param conn The connection to use
+	 * @param mode The SQL dialect of the database
+	 * @throws SQLException
+	 */
+	public abstract void migrate(SimpleConnection conn, DatabaseMode mode) throws SQLException;
+
+	/**
+	 * @return True if an index with this name already exists on the table
+	 */
+	protected boolean indexExists(SimpleConnection conn, DatabaseMode mode, String table, String index) throws SQLException {
+
+		ResultSet results;
+
+		switch (mode) {
+		case MySQL:
+			results = conn.safeQuery("SELECT index_name FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?;", table, index);
+			break;
+		case SQLite:
+		default:
+			results = conn.safeQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND name = ?;", table, index);
+			break;
+		}
+
+		return results.next();
+
+	}
+
+	/**
+	 * Create an index, unless it already exists
+	 */
+	protected void createIndex(SimpleConnection conn, DatabaseMode mode, String table, String index, String column, boolean unique) throws SQLException {
+
+		if (indexExists(conn, mode, table, index)) return;
+
+		conn.safeUpdate("CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + index + " ON " + table + "(" + column + ");");
+
+	}
+
+}
@@ -0,0 +1,97 @@
+package xyz.olivermartin.multichat.common.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Brings a database schema up to date by running any migrations which have not yet been applied
+ * 
+ * <p>Applied versions are recorded in a schema_version table, keyed by schema name so several
+ * schemas (i.e. local and proxy) can share a database. Running the migrator again does nothing
+ * once all migrations have been applied.</p>
+ */
+public class SchemaMigrator {
+
+	private GenericPooledDatabase database;
+	private String schemaName;
+	private Map<Integer, SchemaMigration> migrations;
+
+	public SchemaMigrator(GenericPooledDatabase database, String schemaName) {
+		this.database = database;
+		this.schemaName = schemaName;
+		this.migrations = new TreeMap<Integer, SchemaMigration>();
+	}
+
+	public SchemaMigrator addMigration(SchemaMigration migration) {
+		if (migration.getVersion() < 1) throw new IllegalArgumentException("Schema migration versions must start from 1");
+		if (migrations.containsKey(migration.getVersion())) throw new IllegalArgumentException("Duplicate schema migration version: " + migration.getVersion());
+		migrations.put(migration.getVersion(), migration);
+		return this;
+	}
+
+	/**
+	 * Run all migrations newer than the current version of the schema, in order
+	 * <p>Each migration is applied in its own transaction along with the record of its version.
+	 * If one fails then no later migrations are run.</p>
+	 * @return The version of the schema after migrating
+	 * @throws SQLException If a migration failed
+	 */
+	public int migrate() throws SQLException {
+
+		SimpleConnection conn = null;
+
+		try {
+
+			conn = database.getConnection();
+
+			conn.safeUpdate("CREATE TABLE IF NOT EXISTS schema_version(schema_name VARCHAR(64), version INT, description VARCHAR(255), applied BIGINT, PRIMARY KEY (schema_name, version));");
+
+			int version = getVersion(conn);
+
+			for (SchemaMigration migration : migrations.values()) {
+
+				if (migration.getVersion() <= version) continue;
+
+				conn.setAutoCommit(false);
+
+				try {
+					migration.migrate(conn, database.getMode());
+					conn.safeUpdate("INSERT INTO schema_version VALUES (?, ?, ?, ?);", schemaName, migration.getVersion(), migration.getDescription(), System.currentTimeMillis());
+					conn.commit();
+				} catch (SQLException e) {
+					try {
+						conn.rollback();
+					} catch (SQLException ignored) { /* EMPTY */ }
+					throw new SQLException("Could not apply migration " + migration.getVersion() + " (" + migration.getDescription() + ") to schema " + schemaName, e);
+				} finally {
+					conn.setAutoCommit(true);
+				}
+
+				version = migration.getVersion();
+
+			}
+
+			return version;
+
+		} finally {
+			SimpleConnection.safelyCloseAll(conn);
+		}
+
+	}
+
+	private int getVersion(SimpleConnection conn) throws SQLException {
+
+		ResultSet results = conn.safeQuery("SELECT MAX(version) AS version FROM schema_version WHERE schema_name = ?;", schemaName);
+
+		if (results.next()) {
+			// MAX is null (read as 0) if nothing has been applied yet
+			return results.getInt("version");
+		}
+
+		return 0;
+
+	}
+
+}
@@ -4,6 +4,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public class SimpleConnection {
 
@@ -11,16 +17,81 @@ public class SimpleConnection {
 		if (conn != null) conn.closeAll();
 	}
 
+	/**
+	 * Bind parameters to a statement based on their type
+	 * <p>UUIDs are stored as strings, and nulls are bound as VARCHAR</p>
+	 */
+	private static void bindParameters(PreparedStatement ps, Object... parameters) throws SQLException {
+
+		ps.clearParameters();
+
+		for (int i = 1; i <= parameters.length; i++) {
+
+			Object parameter = parameters[i-1];
+
+			if (parameter == null) {
+				ps.setNull(i, Types.VARCHAR);
+			} else if (parameter instanceof String) {
+				ps.setString(i, (String) parameter);
+			} else if (parameter instanceof UUID) {
+				ps.setString(i, parameter.toString());
+			} else if (parameter instanceof Integer) {
+				ps.setInt(i, (Integer) parameter);
+			} else if (parameter instanceof Long) {
+				ps.setLong(i, (Long) parameter);
+			} else if (parameter instanceof Boolean) {
+				ps.setBoolean(i, (Boolean) parameter);
+			} else if (parameter instanceof byte[]) {
+				ps.setBytes(i, (byte[]) parameter);
+			} else {
+				ps.setObject(i, parameter);
+			}
+
+		}
+
+	}
+
+	/* END STATIC */
+
 	private Connection connection;
 	private PreparedStatement ps;
 	private ResultSet rs;
 
+	// Statements keyed by their SQL template, so they can be reused
+	private Connection statementConnection;
+	private Map<String, PreparedStatement> statements;
+	private boolean sharedStatements;
+	private Set<String> pendingBatches;
+
+	/**
+	 * Statements are prepared on this connection, and reused until it is closed
+	 * @param connection
+	 */
 	public SimpleConnection(Connection connection) {
+		this(connection, connection, new HashMap<String, PreparedStatement>(), false);
+	}
+
+	/**
+	 * Statements are kept for the physical connection behind a pooled connection, so they are reused by every borrower of it
+	 * @param connection The pooled connection
+	 * @param physical The physical connection behind it, which statements are prepared on
+	 * @param statements The statements already prepared on the physical connection, which new ones are added to
+	 */
+	public SimpleConnection(Connection connection, Connection physical, Map<String, PreparedStatement> statements) {
+		this(connection, physical, statements, true);
+	}
+
+	private SimpleConnection(Connection connection, Connection statementConnection, Map<String, PreparedStatement> statements, boolean sharedStatements) {
 		this.connection = connection;
+		this.statementConnection = statementConnection;
+		this.statements = statements;
+		this.sharedStatements = sharedStatements;
+		this.pendingBatches = new LinkedHashSet<String>();
 	}
 
 	public void closeAll() {
-		handleClose(connection, ps, rs);
+		closeResultSetAndPreparedStatement();
+		handleClose(connection, null, null);
 	}
 
 	protected void handleClose(Connection conn, PreparedStatement ps, ResultSet rs) {
@@ -31,53 +102,159 @@ public class SimpleConnection {
 		} catch (SQLException ignored) { /* EMPTY */ }
 	}
 
+	/**
+	 * Start (false) or end (true) a transaction on this connection
+	 * <p>The pool resets auto-commit when the connection is closed</p>
+	 */
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		connection.setAutoCommit(autoCommit);
+	}
+
+	public void commit() throws SQLException {
+		connection.commit();
+	}
+
+	public void rollback() throws SQLException {
+		connection.rollback();
+	}
+
 	public void closeConnectionOnly() {
 		handleClose(connection, null, null);
 	}
 
 	public void closeResultSetAndPreparedStatement() {
-		handleClose(null, ps, rs);
+
+		handleClose(null, null, rs);
+		rs = null;
+
+		if (sharedStatements) {
+
+			// Kept open for the next borrower, but without anything left over from this one
+			for (String sqlTemplate : pendingBatches) {
+				try {
+					statements.get(sqlTemplate).clearBatch();
+				} catch (SQLException ignored) { /* EMPTY */ }
+			}
+
+		} else {
+
+			for (PreparedStatement statement : statements.values()) {
+				handleClose(null, statement, null);
+			}
+
+			statements.clear();
+
+		}
+
+		pendingBatches.clear();
+		ps = null;
+
 	}
 
-	public ResultSet safeQuery(String sqlTemplate, String... stringParameters) throws SQLException {
+	/**
+	 * Get a prepared statement for this SQL template, reusing the one already prepared if there is one
+	 * @param sqlTemplate
+	 * @return The prepared statement, with any previous parameters cleared
+	 * @throws SQLException
+	 */
+	private PreparedStatement prepare(String sqlTemplate) throws SQLException {
 
-		closeResultSetAndPreparedStatement();
+		// Results of the previous query can not be used once another statement is run
+		handleClose(null, null, rs);
+		rs = null;
 
-		ps = connection.prepareStatement(sqlTemplate);
+		PreparedStatement statement = statements.get(sqlTemplate);
 
-		for (int i = 1; i <= stringParameters.length; i++) {
-			ps.setString(i, stringParameters[i-1]);
+		if (statement == null || statement.isClosed()) {
+			statement = statementConnection.prepareStatement(sqlTemplate);
+			statements.put(sqlTemplate, statement);
 		}
 
-		rs = ps.executeQuery();
+		ps = statement;
+		return statement;
+
+	}
+
+	public ResultSet safeQuery(String sqlTemplate, Object... parameters) throws SQLException {
+
+		PreparedStatement statement = prepare(sqlTemplate);
+		bindParameters(statement, parameters);
+
+		rs = statement.executeQuery();
 
 		return rs;
 
 	}
 
-	public void safeUpdate(String sqlTemplate, String... stringParameters) throws SQLException {
+	public void safeUpdate(String sqlTemplate, Object... parameters) throws SQLException {
 
-		closeResultSetAndPreparedStatement();
+		PreparedStatement statement = prepare(sqlTemplate);
+		bindParameters(statement, parameters);
 
-		ps = connection.prepareStatement(sqlTemplate);
+		statement.executeUpdate();
 
-		for (int i = 1; i <= stringParameters.length; i++) {
-			ps.setString(i, stringParameters[i-1]);
-		}
+	}
 
-		ps.executeUpdate();
+	public void safeExecute(String sqlTemplate, Object... parameters) throws SQLException {
+
+		PreparedStatement statement = prepare(sqlTemplate);
+		bindParameters(statement, parameters);
+
+		statement.execute();
+
+	}
+
+	/**
+	 * Queue an update to be sent with {@link #executeBatch()}
+	 * <p>Updates using the same SQL template are sent to the database together</p>
+	 * @param sqlTemplate
+	 * @param parameters
+	 * @throws SQLException
+	 */
+	public void addBatch(String sqlTemplate, Object... parameters) throws SQLException {
+
+		PreparedStatement statement = prepare(sqlTemplate);
+		bindParameters(statement, parameters);
+
+		statement.addBatch();
+		pendingBatches.add(sqlTemplate);
 
 	}
 
-	public void safeExecute(String sqlTemplate, String... stringParameters) throws SQLException {
+	/**
+	 * Send all updates queued by {@link #addBatch(String, Object...)}
+	 * <p>Batches are sent in the order their SQL templates were first queued</p>
+	 * @return The total number of rows updated, where the driver reports it
+	 * @throws SQLException
+	 */
+	public int executeBatch() throws SQLException {
+
+		int updated = 0;
+
+		try {
+
+			for (String sqlTemplate : pendingBatches) {
+				for (int count : statements.get(sqlTemplate).executeBatch()) {
+					if (count > 0) updated += count;
+				}
+			}
+
+		} catch (SQLException e) {
+
+			// Make sure nothing left over is sent with the next batch
+			for (String sqlTemplate : pendingBatches) {
+				try {
+					statements.get(sqlTemplate).clearBatch();
+				} catch (SQLException ignored) { /* EMPTY */ }
+			}
 
-		ps = connection.prepareStatement(sqlTemplate);
+			throw e;
 
-		for (int i = 1; i <= stringParameters.length; i++) {
-			ps.setString(i, stringParameters[i-1]);
+		} finally {
+			pendingBatches.clear();
 		}
 
-		ps.execute();
+		return updated;
 
 	}
 
@@ -0,0 +1,67 @@
+package xyz.olivermartin.multichat.common.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The prepared statements of each physical connection of a pool, keyed by their SQL template
+ *
+ * <p>Used for drivers without a statement cache of their own (i.e. SQLite). Each time a connection
+ * is borrowed from the pool, the statements already prepared on it are handed to its
+ * {@link SimpleConnection}, so they are reused instead of being prepared again. A physical
+ * connection is only borrowed by one thread at a time, so its statements are too.</p>
+ */
+class StatementCache {
+
+	private final Map<Connection, Map<String, PreparedStatement>> statements;
+
+	StatementCache() {
+		this.statements = new IdentityHashMap<Connection, Map<String, PreparedStatement>>();
+	}
+
+	/**
+	 * @param physical A physical connection of the pool
+	 * @return The statements prepared on this connection
+	 */
+	synchronized Map<String, PreparedStatement> get(Connection physical) {
+
+		Map<String, PreparedStatement> connectionStatements = statements.get(physical);
+
+		if (connectionStatements == null) {
+			// A new connection is only opened when another has been retired, so forget any closed ones
+			removeClosed();
+			connectionStatements = new HashMap<String, PreparedStatement>();
+			statements.put(physical, connectionStatements);
+		}
+
+		return connectionStatements;
+
+	}
+
+	/**
+	 * Forget every connection, once the pool has been closed
+	 */
+	synchronized void clear() {
+		statements.clear();
+	}
+
+	private void removeClosed() {
+
+		Iterator<Connection> connections = statements.keySet().iterator();
+
+		while (connections.hasNext()) {
+			try {
+				if (connections.next().isClosed()) connections.remove();
+			} catch (SQLException e) {
+				connections.remove();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,34 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count which only goes up, i.e. the number of chat messages delivered
+ */
+public class Counter extends Metric {
+
+	private final LongAdder count;
+
+	Counter(String name, String... labels) {
+		super(name, labels);
+		count = new LongAdder();
+	}
+
+	public void increment() {
+		count.increment();
+	}
+
+	public void add(long amount) {
+		count.add(amount);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	@Override
+	public String describe() {
+		return String.valueOf(getCount());
+	}
+
+}
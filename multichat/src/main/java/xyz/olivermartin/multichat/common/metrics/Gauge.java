@@ -0,0 +1,21 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+/**
+ * A value which is read when it is needed, i.e. the number of online players
+ * 
+ * <p>Gauges are created as anonymous classes and given to {@link MetricsRegistry#registerGauge(Gauge)}.</p>
+ */
+public abstract class Gauge extends Metric {
+
+	protected Gauge(String name, String... labels) {
+		super(name, labels);
+	}
+
+	public abstract long getValue();
+
+	@Override
+	public String describe() {
+		return String.valueOf(getValue());
+	}
+
+}
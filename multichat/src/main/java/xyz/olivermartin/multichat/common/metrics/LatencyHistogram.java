@@ -0,0 +1,160 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, in the style of HdrHistogram
+ * 
+ * <p>Each power of two is split into 32 buckets, so any value read back is within about 3% of what was recorded,
+ * from 1 nanosecond up to over an hour. Recording is lock free and does not allocate,
+ * so it can be done on every chat message.</p>
+ */
+public class LatencyHistogram extends Metric {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Values of 2^42 nanoseconds (73 minutes) or more are all counted in the last bucket
+	 */
+	private static final int MAX_EXPONENT = 42;
+
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	private final AtomicLongArray buckets;
+	private final LongAdder count;
+	private final LongAdder sum;
+	private final AtomicLong max;
+
+	LatencyHistogram(String name, String... labels) {
+		super(name, labels);
+		buckets = new AtomicLongArray(BUCKETS);
+		count = new LongAdder();
+		sum = new LongAdder();
+		max = new AtomicLong();
+	}
+
+	static int bucketIndex(long value) {
+
+		if (value < SUB_BUCKETS) return (int) value;
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+
+		int shift = exponent - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKETS + (int) (value >>> shift);
+
+	}
+
+	/**
+	 * @return The highest value counted in the bucket
+	 */
+	static long bucketUpperBound(int index) {
+
+		if (index < 2 * SUB_BUCKETS) return index;
+		if (index == BUCKETS - 1) return Long.MAX_VALUE;
+
+		int shift = index / SUB_BUCKETS - 1;
+		long subBucket = index - shift * SUB_BUCKETS;
+
+		return ((subBucket + 1) << shift) - 1;
+
+	}
+
+	/**
+	 * @param nanos The duration to record
+	 */
+	public void record(long nanos) {
+
+		if (nanos < 0) nanos = 0;
+
+		buckets.incrementAndGet(bucketIndex(nanos));
+		count.increment();
+		sum.add(nanos);
+
+		long current = max.get();
+		while (nanos > current && !max.compareAndSet(current, nanos)) {
+			current = max.get();
+		}
+
+	}
+
+	/**
+	 * Record the time since the given start
+	 * @param startNanos A value of {@link System#nanoTime()} taken at the start
+	 */
+	public void recordSince(long startNanos) {
+		record(System.nanoTime() - startNanos);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return The total of all durations recorded, in nanoseconds
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public long getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : getSum() / n;
+	}
+
+	/**
+	 * @param percentile Between 0 and 100
+	 * @return The duration, in nanoseconds, which the given percentage of durations recorded were at or below
+	 */
+	public long getValueAtPercentile(double percentile) {
+
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += buckets.get(i);
+		}
+
+		if (total == 0) return 0;
+
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= target) return Math.min(bucketUpperBound(i), getMax());
+		}
+
+		return getMax();
+
+	}
+
+	@Override
+	public String describe() {
+
+		if (getCount() == 0) return "0 recorded";
+
+		return getCount() + " recorded, mean " + formatNanos(getMean())
+				+ ", p50 " + formatNanos(getValueAtPercentile(50))
+				+ ", p99 " + formatNanos(getValueAtPercentile(99))
+				+ ", max " + formatNanos(getMax());
+
+	}
+
+	/**
+	 * @param nanos
+	 * @return The duration in the most readable unit, i.e. 1.25ms
+	 */
+	public static String formatNanos(long nanos) {
+		if (nanos < 1000L) return nanos + "ns";
+		if (nanos < 1000000L) return String.format("%.1fus", nanos / 1000.0);
+		if (nanos < 1000000000L) return String.format("%.2fms", nanos / 1000000.0);
+		return String.format("%.2fs", nanos / 1000000000.0);
+	}
+
+}
@@ -0,0 +1,63 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+/**
+ * A named metric kept by the {@link MetricsRegistry}
+ * 
+ * <p>Labels are given as pairs of names and values, i.e. "tag", "multichat:chat".
+ * A metric is identified by its name together with its labels.</p>
+ */
+public abstract class Metric {
+
+	private final String name;
+	private final String[] labels;
+	private final String key;
+
+	protected Metric(String name, String... labels) {
+
+		if (labels.length % 2 != 0) throw new IllegalArgumentException("Metric labels must be given as name and value pairs: " + name);
+
+		this.name = name;
+		this.labels = labels.clone();
+		this.key = createKey(name, labels);
+
+	}
+
+	static String createKey(String name, String... labels) {
+
+		if (labels.length == 0) return name;
+
+		StringBuilder key = new StringBuilder(name).append('{');
+
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) key.append(',');
+			key.append(labels[i]).append("=\"").append(labels[i + 1]).append('"');
+		}
+
+		return key.append('}').toString();
+
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The labels as pairs of names and values
+	 */
+	public String[] getLabels() {
+		return labels.clone();
+	}
+
+	/**
+	 * @return The name and labels, i.e. plugin_message_decode{tag="multichat:chat"}
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * @return A short description of the current value, as shown by the stats commands
+	 */
+	public abstract String describe();
+
+}
@@ -0,0 +1,130 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the counters, gauges and latency histograms measuring MultiChat's chat pipeline
+ * 
+ * <p>Unlike the bStats Metrics, which report usage data, these metrics stay on the server and are shown by /multichat stats and /multichatlocal stats.</p>
+ * 
+ * <p>Metrics used on a hot path should be looked up once and kept in a static field,
+ * rather than looked up by name for every message.</p>
+ */
+public class MetricsRegistry {
+
+	private static MetricsRegistry instance;
+
+	public static MetricsRegistry getInstance() {
+		return instance;
+	}
+
+	static {
+		instance = new MetricsRegistry();
+	}
+
+	/* END STATIC */
+
+	private final ConcurrentMap<String, Metric> metrics;
+
+	private MetricsRegistry() {
+		metrics = new ConcurrentHashMap<String, Metric>();
+	}
+
+	/**
+	 * Get a counter, creating it if it does not exist yet
+	 * @param name
+	 * @param labels Pairs of label names and values
+	 * @return The counter
+	 */
+	public Counter counter(String name, String... labels) {
+
+		String key = Metric.createKey(name, labels);
+		Metric metric = metrics.get(key);
+
+		if (metric == null) {
+			metric = new Counter(name, labels);
+			Metric existing = metrics.putIfAbsent(key, metric);
+			if (existing != null) metric = existing;
+		}
+
+		if (!(metric instanceof Counter)) throw new IllegalArgumentException(key + " is already registered as a different type of metric");
+
+		return (Counter) metric;
+
+	}
+
+	/**
+	 * Get a latency histogram, creating it if it does not exist yet
+	 * @param name
+	 * @param labels Pairs of label names and values
+	 * @return The histogram
+	 */
+	public LatencyHistogram histogram(String name, String... labels) {
+
+		String key = Metric.createKey(name, labels);
+		Metric metric = metrics.get(key);
+
+		if (metric == null) {
+			metric = new LatencyHistogram(name, labels);
+			Metric existing = metrics.putIfAbsent(key, metric);
+			if (existing != null) metric = existing;
+		}
+
+		if (!(metric instanceof LatencyHistogram)) throw new IllegalArgumentException(key + " is already registered as a different type of metric");
+
+		return (LatencyHistogram) metric;
+
+	}
+
+	/**
+	 * Register a gauge, replacing any gauge already registered with the same name and labels
+	 * @param gauge
+	 */
+	public void registerGauge(Gauge gauge) {
+		metrics.put(gauge.getKey(), gauge);
+	}
+
+	public void unregister(String name, String... labels) {
+		metrics.remove(Metric.createKey(name, labels));
+	}
+
+	/**
+	 * @return All metrics, sorted by name and labels
+	 */
+	public List<Metric> getMetrics() {
+
+		List<Metric> sorted = new ArrayList<Metric>(metrics.values());
+
+		Collections.sort(sorted, new Comparator<Metric>() {
+			public int compare(Metric a, Metric b) {
+				return a.getKey().compareTo(b.getKey());
+			}
+		});
+
+		return sorted;
+
+	}
+
+	/**
+	 * @return A line for each metric which has recorded something, as shown by the stats commands
+	 */
+	public List<String> getSummary() {
+
+		List<String> lines = new ArrayList<String>();
+
+		for (Metric metric : getMetrics()) {
+			if (metric instanceof LatencyHistogram && ((LatencyHistogram) metric).getCount() == 0) continue;
+			if (metric instanceof Counter && ((Counter) metric).getCount() == 0) continue;
+			lines.add(metric.getKey() + ": " + metric.describe());
+		}
+
+		return lines;
+
+	}
+
+}
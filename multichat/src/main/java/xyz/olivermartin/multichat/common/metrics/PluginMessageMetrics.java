@@ -0,0 +1,83 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The metrics of the multichat:* plugin messaging channels, kept per channel (tag)
+ * 
+ * <p>The metrics of each tag are looked up once and kept here, as plugin messages are sent for every chat message.
+ * Only tags sent by the servers or by MultiChat itself should be given, so that players can not create new metrics.</p>
+ */
+public class PluginMessageMetrics {
+
+	private static final ConcurrentMap<String, LatencyHistogram> encodeTimes = new ConcurrentHashMap<String, LatencyHistogram>();
+	private static final ConcurrentMap<String, LatencyHistogram> decodeTimes = new ConcurrentHashMap<String, LatencyHistogram>();
+	private static final ConcurrentMap<String, Counter> bytesSent = new ConcurrentHashMap<String, Counter>();
+	private static final ConcurrentMap<String, Counter> bytesReceived = new ConcurrentHashMap<String, Counter>();
+
+	private PluginMessageMetrics() { /* EMPTY */ }
+
+	/**
+	 * Record the time taken to build (and hand over) a plugin message
+	 * @param tag
+	 * @param startNanos
+	 */
+	public static void recordEncode(String tag, long startNanos) {
+
+		LatencyHistogram histogram = encodeTimes.get(tag);
+
+		if (histogram == null) {
+			histogram = MetricsRegistry.getInstance().histogram("plugin_message_encode", "tag", tag);
+			encodeTimes.put(tag, histogram);
+		}
+
+		histogram.recordSince(startNanos);
+
+	}
+
+	/**
+	 * Record the time taken to read and act on a plugin message
+	 * @param tag
+	 * @param startNanos
+	 */
+	public static void recordDecode(String tag, long startNanos) {
+
+		LatencyHistogram histogram = decodeTimes.get(tag);
+
+		if (histogram == null) {
+			histogram = MetricsRegistry.getInstance().histogram("plugin_message_decode", "tag", tag);
+			decodeTimes.put(tag, histogram);
+		}
+
+		histogram.recordSince(startNanos);
+
+	}
+
+	public static void recordSent(String tag, int bytes) {
+
+		Counter counter = bytesSent.get(tag);
+
+		if (counter == null) {
+			counter = MetricsRegistry.getInstance().counter("plugin_message_bytes", "tag", tag, "direction", "out");
+			bytesSent.put(tag, counter);
+		}
+
+		counter.add(bytes);
+
+	}
+
+	public static void recordReceived(String tag, int bytes) {
+
+		Counter counter = bytesReceived.get(tag);
+
+		if (counter == null) {
+			counter = MetricsRegistry.getInstance().counter("plugin_message_bytes", "tag", tag, "direction", "in");
+			bytesReceived.put(tag, counter);
+		}
+
+		counter.add(bytes);
+
+	}
+
+}
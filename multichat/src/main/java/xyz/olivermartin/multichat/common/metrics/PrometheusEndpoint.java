@@ -0,0 +1,299 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the metrics of the {@link MetricsRegistry} over HTTP in the Prometheus text format
+ *
+ * <p>Uses the HTTP server built into the JDK, with a single thread, at /metrics.
+ * It should be bound to a local address, as anyone who can reach it can read the metrics.</p>
+ *
+ * <p>Counters are served as counters with a _total suffix, latency histograms as summaries in seconds, and gauges as gauges.
+ * Every name is given a multichat_ prefix.</p>
+ */
+public class PrometheusEndpoint {
+
+	public static final int DEFAULT_PORT = 9225;
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+	/**
+	 * Parse an address of the form host:port
+	 * @param address
+	 * @param defaultPort The port to use if none is given
+	 * @return The address to bind to
+	 */
+	public static InetSocketAddress parseAddress(String address, int defaultPort) {
+
+		address = address.trim();
+		int colon = address.lastIndexOf(':');
+
+		if (colon < 0) return new InetSocketAddress(address, defaultPort);
+
+		try {
+			return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid port in address " + address);
+		}
+
+	}
+
+	/**
+	 * Write the given metrics in the Prometheus text format
+	 * @param metrics The metrics, as returned by {@link MetricsRegistry#getMetrics()}
+	 * @return The text to serve
+	 */
+	public static String format(List<Metric> metrics) {
+
+		// Every metric with the same name must be written together under a single TYPE line
+		Map<String, List<Metric>> families = new LinkedHashMap<String, List<Metric>>();
+
+		for (Metric metric : metrics) {
+			List<Metric> family = families.get(metric.getName());
+			if (family == null) {
+				family = new ArrayList<Metric>();
+				families.put(metric.getName(), family);
+			}
+			family.add(metric);
+		}
+
+		StringBuilder out = new StringBuilder(4096);
+
+		for (List<Metric> family : families.values()) {
+
+			Metric first = family.get(0);
+			String name = "multichat_" + sanitise(first.getName());
+
+			if (first instanceof Counter) {
+
+				name += "_total";
+				out.append("# TYPE ").append(name).append(" counter\n");
+
+				for (Metric metric : family) {
+					if (!(metric instanceof Counter)) continue;
+					appendSample(out, name, metric.getLabels(), null, Long.toString(((Counter) metric).getCount()));
+				}
+
+			} else if (first instanceof LatencyHistogram) {
+
+				name += "_seconds";
+				out.append("# TYPE ").append(name).append(" summary\n");
+
+				for (Metric metric : family) {
+
+					if (!(metric instanceof LatencyHistogram)) continue;
+					LatencyHistogram histogram = (LatencyHistogram) metric;
+
+					for (double quantile : QUANTILES) {
+						appendSample(out, name, metric.getLabels(), Double.toString(quantile), seconds(histogram.getValueAtPercentile(quantile * 100)));
+					}
+
+					appendSample(out, name + "_sum", metric.getLabels(), null, seconds(histogram.getSum()));
+					appendSample(out, name + "_count", metric.getLabels(), null, Long.toString(histogram.getCount()));
+
+				}
+
+			} else if (first instanceof Gauge) {
+
+				out.append("# TYPE ").append(name).append(" gauge\n");
+
+				for (Metric metric : family) {
+					if (!(metric instanceof Gauge)) continue;
+					appendSample(out, name, metric.getLabels(), null, Long.toString(((Gauge) metric).getValue()));
+				}
+
+			}
+
+		}
+
+		return out.toString();
+
+	}
+
+	private static void appendSample(StringBuilder out, String name, String[] labels, String quantile, String value) {
+
+		out.append(name);
+
+		if (labels.length > 0 || quantile != null) {
+
+			out.append('{');
+
+			for (int i = 0; i < labels.length; i += 2) {
+				if (i > 0) out.append(',');
+				out.append(sanitise(labels[i])).append("=\"");
+				appendEscaped(out, labels[i + 1]);
+				out.append('"');
+			}
+
+			if (quantile != null) {
+				if (labels.length > 0) out.append(',');
+				out.append("quantile=\"").append(quantile).append('"');
+			}
+
+			out.append('}');
+
+		}
+
+		out.append(' ').append(value).append('\n');
+
+	}
+
+	private static void appendEscaped(StringBuilder out, String value) {
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '\\':
+				out.append("\\\\");
+				break;
+			case '"':
+				out.append("\\\"");
+				break;
+			case '\n':
+				out.append("\\n");
+				break;
+			default:
+				out.append(c);
+			}
+		}
+
+	}
+
+	/**
+	 * Names may only contain letters, digits and underscores
+	 */
+	private static String sanitise(String name) {
+
+		StringBuilder result = new StringBuilder(name.length());
+
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || (i > 0 && c >= '0' && c <= '9');
+			result.append(valid ? c : '_');
+		}
+
+		return result.toString();
+
+	}
+
+	private static String seconds(long nanos) {
+		return Double.toString(nanos / 1e9);
+	}
+
+	/* END STATIC */
+
+	private final InetSocketAddress bindAddress;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * @param bindAddress The local address and port to serve the metrics on
+	 */
+	public PrometheusEndpoint(InetSocketAddress bindAddress) {
+		this.bindAddress = bindAddress;
+	}
+
+	public InetSocketAddress getBindAddress() {
+		return bindAddress;
+	}
+
+	/**
+	 * Start serving the metrics
+	 * @throws IOException If the address could not be bound
+	 */
+	public void start() throws IOException {
+
+		server = HttpServer.create(bindAddress, 0);
+
+		server.createContext("/metrics", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				handleRequest(exchange);
+			}
+		});
+
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "MultiChat-Metrics");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		server.setExecutor(executor);
+		server.start();
+
+	}
+
+	/**
+	 * Stop serving the metrics, waiting up to a second for a request in progress to finish
+	 */
+	public void stop() {
+
+		if (server != null) {
+			server.stop(1);
+			server = null;
+		}
+
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+
+	}
+
+	private void handleRequest(HttpExchange exchange) throws IOException {
+
+		try {
+
+			String method = exchange.getRequestMethod();
+
+			if (!method.equals("GET") && !method.equals("HEAD")) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			if (!exchange.getRequestURI().getPath().equals("/metrics")) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+
+			byte[] body = format(MetricsRegistry.getInstance().getMetrics()).getBytes(StandardCharsets.UTF_8);
+
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+
+			if (method.equals("HEAD")) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+
+			exchange.sendResponseHeaders(200, body.length);
+
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+
+		} finally {
+			exchange.close();
+		}
+
+	}
+
+}
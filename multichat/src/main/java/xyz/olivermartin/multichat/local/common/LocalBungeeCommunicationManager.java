@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.local.common;
 
 import java.util.UUID;
 
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 import xyz.olivermartin.multichat.proxy.common.MultiChatProxyPlatform;
 
 /**
@@ -35,42 +36,58 @@ public abstract class LocalBungeeCommunicationManager extends LocalProxyCommunic
 
 	@Override
 	protected void sendNicknameUpdate(UUID uuid, String nickname) {
+		long start = System.nanoTime();
 		sendUUIDAndString(nicknameChannel, uuid, nickname);
+		PluginMessageMetrics.recordEncode(nicknameChannel, start);
 	}
 
 	@Override
 	public void sendWorldUpdate(UUID uuid, String world) {
+		long start = System.nanoTime();
 		sendUUIDAndString(worldChannel, uuid, world);
+		PluginMessageMetrics.recordEncode(worldChannel, start);
 	}
 
 	@Override
 	protected void sendPrefixUpdate(UUID uuid, String prefix) {
+		long start = System.nanoTime();
 		sendUUIDAndString(prefixChannel, uuid, prefix);
+		PluginMessageMetrics.recordEncode(prefixChannel, start);
 	}
 
 	@Override
 	protected void sendSuffixUpdate(UUID uuid, String suffix) {
+		long start = System.nanoTime();
 		sendUUIDAndString(suffixChannel, uuid, suffix);
+		PluginMessageMetrics.recordEncode(suffixChannel, start);
 	}
 
 	@Override
 	protected void sendDisplayNameUpdate(UUID uuid, String displayName) {
+		long start = System.nanoTime();
 		sendUUIDAndString(displayNameChannel, uuid, displayName);
+		PluginMessageMetrics.recordEncode(displayNameChannel, start);
 	}
 
 	@Override
 	public void sendProxyExecuteMessage(String command) {
+		long start = System.nanoTime();
 		sendString(pxeChannel, command);
+		PluginMessageMetrics.recordEncode(pxeChannel, start);
 	}
 
 	@Override
 	public void sendProxyExecutePlayerMessage(String command, String player) {
+		long start = System.nanoTime();
 		sendStringAndString(ppxeChannel, command, player);
+		PluginMessageMetrics.recordEncode(ppxeChannel, start);
 	}
 	
 	@Override
 	public void sendChatMessage(UUID uuid, String message, String format) {
+		long start = System.nanoTime();
 		sendUUIDAndStringAndString(chatChannel, uuid, message, format);
+		PluginMessageMetrics.recordEncode(chatChannel, start);
 	}
 
 }
@@ -7,6 +7,7 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.UUID;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.config.LocalConfig;
 import xyz.olivermartin.multichat.local.common.config.RegexChannelForcer;
 import xyz.olivermartin.multichat.local.common.storage.LocalDataStore;
@@ -46,10 +47,10 @@ public abstract class LocalChatManager {
 
 			if (playerChannels.containsKey(uuid)) {
 				channel = playerChannels.get(uuid);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Got selected player channel as " + channel);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Got selected player channel as %s", channel);
 			} else {
 				channel = "global";
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Player was not in channel map, so using global...");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Player was not in channel map, so using global...");
 			}
 
 		}
@@ -93,7 +94,7 @@ public abstract class LocalChatManager {
 
 				// Hack for /global /local direct messaging...
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Player in chat queue...");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Player in chat queue...");
 
 				String tempChannel;
 
@@ -108,9 +109,9 @@ public abstract class LocalChatManager {
 					tempChannel = chatQueues.get(player.getName().toLowerCase()).peek();
 				}
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("What did we get from the chat queue? Is it null?: " + (tempChannel==null));
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "What did we get from the chat queue? Is it null?: %s", (tempChannel==null));
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("It was: " + tempChannel);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "It was: %s", tempChannel);
 
 				channel = tempChannel;
 
@@ -183,17 +184,17 @@ public abstract class LocalChatManager {
 
 			if (colourMap.containsKey(uuid)) {
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Player is in the simple colour map!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Player is in the simple colour map!");
 
 				boolean colour = colourMap.get(uuid);
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Can they use simple colours? --> " + colour);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Can they use simple colours? --> %s", colour);
 
 				return colour;
 
 			} else {
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Player was NOT in the simple colour map! That probably isn't good!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Player was NOT in the simple colour map! That probably isn't good!");
 
 				return false;
 
@@ -212,17 +213,17 @@ public abstract class LocalChatManager {
 
 			if (colourMap.containsKey(uuid)) {
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Player is in the rgb colour map!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Player is in the rgb colour map!");
 
 				boolean colour = colourMap.get(uuid);
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Can they use rgb colours? --> " + colour);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Can they use rgb colours? --> %s", colour);
 
 				return colour;
 
 			} else {
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Player was NOT in the rgb colour map! That probably isn't good!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[LocalChatManager] Player was NOT in the rgb colour map! That probably isn't good!");
 
 				return false;
 
@@ -269,22 +270,22 @@ public abstract class LocalChatManager {
 
 			for (String key : config.getMultichatPlaceholders().keySet()) {
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] MultiChatPlaceholder Key = " + key);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.PLACEHOLDERS, "[LocalChatManager] MultiChatPlaceholder Key = %s", key);
 
 				String value = config.getMultichatPlaceholders().get(key);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] MultiChatPlaceholder Value = " + value);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.PLACEHOLDERS, "[LocalChatManager] MultiChatPlaceholder Value = %s", value);
 
 				value = MultiChatLocal.getInstance().getPlaceholderManager().processMultiChatPlaceholders(player.getUniqueId(), value);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Processed Value to get: " + value);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.PLACEHOLDERS, "[LocalChatManager] Processed Value to get: %s", value);
 
 				// If we are hooked with PAPI then use their placeholders!
 				value = processExternalPlaceholders(player, value);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Processed with external placeholders to get: " + value);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.PLACEHOLDERS, "[LocalChatManager] Processed with external placeholders to get: %s", value);
 
 				value = translateColourCodes(value, true);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] Translated colour codes to get: " + value);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.PLACEHOLDERS, "[LocalChatManager] Translated colour codes to get: %s", value);
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalChatManager] MESSAGE = : " + message);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.PLACEHOLDERS, "[LocalChatManager] MESSAGE = : %s", message);
 
 				if (message.contains(key)) {
 					message = message.replace(key, value);
@@ -1,5 +1,9 @@
 package xyz.olivermartin.multichat.local.common;
 
+import java.util.function.Supplier;
+
+import xyz.olivermartin.multichat.common.DebugCategory;
+
 public abstract class LocalConsoleLogger {
 
 	private MultiChatLocalPlatform platform;
@@ -7,11 +11,12 @@ public abstract class LocalConsoleLogger {
 	protected String prefix;
 	protected String debugPrefix;
 
-	private boolean debug;
+	// The debug categories turned on, as a set of DebugCategory masks
+	private volatile int debugEnabled;
 
 	protected LocalConsoleLogger(MultiChatLocalPlatform platform) {
 		this.platform = platform;
-		debug = false;
+		debugEnabled = 0;
 		prefix = "&8[&2M&aC&3L&8]&7 ";
 		debugPrefix = "&8[&2M&aC&3L&8][&4DEBUG&8]&7 ";
 	}
@@ -25,12 +30,29 @@ public abstract class LocalConsoleLogger {
 	}
 
 	public void setDebug(boolean debug) {
-		this.debug = debug;
+		this.debugEnabled = debug ? DebugCategory.ALL : 0;
 	}
-	
-	public boolean toggleDebug() {
-		this.debug = !this.debug;
-		return this.debug;
+
+	/**
+	 * Turn all debug output off if any of it is on, otherwise turn it all on
+	 * @return If debug output is now on
+	 */
+	public synchronized boolean toggleDebug() {
+		setDebug(this.debugEnabled == 0);
+		return this.debugEnabled != 0;
+	}
+
+	/**
+	 * @param category
+	 * @return If debug output for the category is now on
+	 */
+	public synchronized boolean toggleDebug(DebugCategory category) {
+		this.debugEnabled ^= category.getMask();
+		return isDebugEnabled(category);
+	}
+
+	public boolean isDebugEnabled(DebugCategory category) {
+		return (debugEnabled & category.getMask()) != 0;
 	}
 
 	public MultiChatLocalPlatform getPlatform() {
@@ -46,7 +68,36 @@ public abstract class LocalConsoleLogger {
 	}
 
 	public void debug(String message) {
-		if (debug) sendColouredMessageToConsoleSender(debugPrefix + message);
+		debug(DebugCategory.GENERAL, message);
+	}
+
+	public void debug(DebugCategory category, String message) {
+		if (isDebugEnabled(category)) sendColouredMessageToConsoleSender(debugPrefix + message);
+	}
+
+	/**
+	 * @param category
+	 * @param format A {@link String#format(String, Object...)} format, only used if the category is turned on
+	 * @param arg
+	 */
+	public void debug(DebugCategory category, String format, Object arg) {
+		if (isDebugEnabled(category)) sendColouredMessageToConsoleSender(debugPrefix + String.format(format, arg));
+	}
+
+	public void debug(DebugCategory category, String format, Object arg1, Object arg2) {
+		if (isDebugEnabled(category)) sendColouredMessageToConsoleSender(debugPrefix + String.format(format, arg1, arg2));
+	}
+
+	public void debug(DebugCategory category, String format, Object... args) {
+		if (isDebugEnabled(category)) sendColouredMessageToConsoleSender(debugPrefix + String.format(format, args));
+	}
+
+	/**
+	 * @param category
+	 * @param message Builds the message, only called if the category is turned on
+	 */
+	public void debug(DebugCategory category, Supplier<String> message) {
+		if (isDebugEnabled(category)) sendColouredMessageToConsoleSender(debugPrefix + message.get());
 	}
 
 }
@@ -2,6 +2,8 @@ package xyz.olivermartin.multichat.local.common;
 
 import java.util.UUID;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
+
 public abstract class LocalPlaceholderManager {
 
 	private MultiChatLocalPlatform platform;
@@ -36,12 +38,12 @@ public abstract class LocalPlaceholderManager {
 
 		LocalConsoleLogger logger = MultiChatLocal.getInstance().getConsoleLogger();
 
-		logger.debug("---------------------------");
+		logger.debug(DebugCategory.PLACEHOLDERS, "---------------------------");
 
-		logger.debug("Processing placeholders...");
+		logger.debug(DebugCategory.PLACEHOLDERS, "Processing placeholders...");
 
-		logger.debug("INPUT FORMAT = " + message);
-		logger.debug("INPUT FORMAT (visualised) = " + message.replace("&", "(#d)").replace("", "(#e)"));
+		logger.debug(DebugCategory.PLACEHOLDERS, "INPUT FORMAT = %s", message);
+		if (logger.isDebugEnabled(DebugCategory.PLACEHOLDERS)) logger.debug(DebugCategory.PLACEHOLDERS, "INPUT FORMAT (visualised) = " + message.replace("&", "(#d)").replace("", "(#e)"));
 
 		//logger.debug("%NAME% = " + MultiChatLocal.getInstance().getNameManager().getName(uuid));
 		if (message.contains("%NAME%")) message = message.replace("%NAME%", MultiChatLocal.getInstance().getNameManager().getName(uuid));
@@ -58,10 +60,10 @@ public abstract class LocalPlaceholderManager {
 		//logger.debug("%SERVER% = " + MultiChatLocal.getInstance().getConfigManager().getLocalConfig().getServerName());
 		if (message.contains("%SERVER%")) message = message.replace("%SERVER%", MultiChatLocal.getInstance().getConfigManager().getLocalConfig().getServerName());
 
-		logger.debug("Final Message = " + message);
-		logger.debug("Final Message (visualised) = " + message.replace("&", "(#d)").replace("", "(#e)"));
+		logger.debug(DebugCategory.PLACEHOLDERS, "Final Message = %s", message);
+		if (logger.isDebugEnabled(DebugCategory.PLACEHOLDERS)) logger.debug(DebugCategory.PLACEHOLDERS, "Final Message (visualised) = " + message.replace("&", "(#d)").replace("", "(#e)"));
 
-		logger.debug("---------------------------");
+		logger.debug(DebugCategory.PLACEHOLDERS, "---------------------------");
 
 		return message;
 
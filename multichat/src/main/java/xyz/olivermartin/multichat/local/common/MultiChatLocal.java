@@ -1,7 +1,10 @@
 package xyz.olivermartin.multichat.local.common;
 
 import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.Executor;
 
+import xyz.olivermartin.multichat.common.metrics.PrometheusEndpoint;
 import xyz.olivermartin.multichat.local.common.config.LocalConfigManager;
 import xyz.olivermartin.multichat.local.common.storage.LocalDataStore;
 import xyz.olivermartin.multichat.local.common.storage.LocalFileSystemManager;
@@ -39,6 +42,8 @@ public class MultiChatLocal {
 	private LocalConsoleLogger consoleLogger;
 	private LocalPlaceholderManager placeholderManager;
 	private LocalChatManager chatManager;
+	private Executor mainThreadExecutor;
+	private PrometheusEndpoint metricsEndpoint;
 
 	/* END ATTRIBUTES */
 
@@ -322,4 +327,49 @@ public class MultiChatLocal {
 		return this.chatManager;
 	}
 
+	/**
+	 * Register the executor which runs tasks on the server's main thread
+	 * 
+	 * <p>Should be registered in onEnable()</p>
+	 * 
+	 * @param mainThreadExecutor The platform's main thread executor to register to the API
+	 */
+	public void registerMainThreadExecutor(Executor mainThreadExecutor) {
+		this.mainThreadExecutor = mainThreadExecutor;
+	}
+
+	/**
+	 * Get the executor which runs tasks on the server's main thread
+	 * 
+	 * <p>Used to hand results of asynchronous work back to the server where the platform API requires it</p>
+	 * 
+	 * <p>Will throw Illegal State Exception if one has not been registered</p>
+	 * 
+	 * @return The main thread executor registered with the API
+	 */
+	public Executor getMainThreadExecutor() {
+		if (this.mainThreadExecutor == null) throw new IllegalStateException("No MultiChat main thread executor has been registered");
+		return this.mainThreadExecutor;
+	}
+
+	/**
+	 * Register the metrics endpoint to be used by MultiChatLocal
+	 * 
+	 * <p>Only registered if the metrics are being served</p>
+	 * 
+	 * @param metricsEndpoint The metrics endpoint to register to the API
+	 */
+	public void registerMetricsEndpoint(PrometheusEndpoint metricsEndpoint) {
+		this.metricsEndpoint = metricsEndpoint;
+	}
+
+	/**
+	 * Get the metrics endpoint being used by MultiChatLocal
+	 * 
+	 * @return The metrics endpoint, or empty if the metrics are not being served
+	 */
+	public Optional<PrometheusEndpoint> getMetricsEndpoint() {
+		return Optional.ofNullable(this.metricsEndpoint);
+	}
+
 }
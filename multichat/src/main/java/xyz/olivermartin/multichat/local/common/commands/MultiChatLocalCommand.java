@@ -1,12 +1,18 @@
 package xyz.olivermartin.multichat.local.common.commands;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
 import xyz.olivermartin.multichat.local.common.storage.LocalFileNameManager;
 import xyz.olivermartin.multichat.local.common.storage.LocalFileSystemManager;
+import xyz.olivermartin.multichat.local.common.storage.LocalNameRecord;
 import xyz.olivermartin.multichat.local.common.storage.LocalNameManagerMode;
 import xyz.olivermartin.multichat.local.common.storage.LocalSQLNameManager;
 import xyz.olivermartin.multichat.local.spigot.LocalSpigotFileNameManager;
@@ -15,6 +21,10 @@ public abstract class MultiChatLocalCommand {
 
 	protected boolean executeMultiChatLocalCommand(MultiChatLocalCommandSender sender, String[] args) {
 
+		if (args.length == 2 && args[0].equalsIgnoreCase("debug")) {
+			return debug(sender, args[1]);
+		}
+
 		if (args.length != 1) {
 			return false;
 		}
@@ -31,6 +41,10 @@ public abstract class MultiChatLocalCommand {
 
 			return debug(sender);
 
+		} else if (args[0].equalsIgnoreCase("stats")) {
+
+			return stats(sender);
+
 		} else {
 
 			return false;
@@ -72,6 +86,55 @@ public abstract class MultiChatLocalCommand {
 
 	}
 
+	private boolean debug(MultiChatLocalCommandSender sender, String categoryName) {
+
+		if (sender.hasPermission("multichatlocal.debug")) {
+
+			DebugCategory category = DebugCategory.fromName(categoryName);
+
+			if (category == null) {
+				sender.sendBadMessage("Unknown debug category! Use one of: " + DebugCategory.getNames());
+			} else {
+				boolean result = MultiChatLocal.getInstance().getConsoleLogger().toggleDebug(category);
+				sender.sendGoodMessage("Debug mode for " + category.name().toLowerCase() + " set to " + result);
+			}
+
+		} else {
+
+			sender.sendBadMessage("You do not have permission to enable/disable debug mode");
+
+		}
+
+		return true;
+
+	}
+
+	private boolean stats(MultiChatLocalCommandSender sender) {
+
+		if (sender.hasPermission("multichatlocal.stats")) {
+
+			List<String> summary = MetricsRegistry.getInstance().getSummary();
+
+			sender.sendGoodMessage("MultiChatLocal Stats");
+
+			if (summary.isEmpty()) {
+				sender.sendInfoMessageA("Nothing has been recorded yet");
+			}
+
+			for (String line : summary) {
+				sender.sendInfoMessageA(line);
+			}
+
+		} else {
+
+			sender.sendBadMessage("You do not have permission to view the plugin stats");
+
+		}
+
+		return true;
+
+	}
+
 	private boolean migrateToSQL(MultiChatLocalCommandSender sender) {
 
 		if (sender.isPlayer()) {
@@ -101,6 +164,8 @@ public abstract class MultiChatLocalCommand {
 			int checkcount = 25;
 			int checkpoint = checkcount/100*max;
 
+			Map<UUID, LocalNameRecord> records = new LinkedHashMap<UUID, LocalNameRecord>();
+
 			for (Entry<UUID, String> entry : fnm.getMapUUIDName().entrySet()) {
 
 				count++;
@@ -127,9 +192,15 @@ public abstract class MultiChatLocalCommand {
 					formattedNick = null;
 				}
 
+				records.put(uuid, new LocalNameRecord(formattedName, name, formattedNick, nick));
 
-				((LocalSQLNameManager) MultiChatLocal.getInstance().getNameManager()).registerMigratedPlayer(uuid, name, formattedName, nick, formattedNick);
+			}
 
+			// Written in batches, rather than a round trip for every player
+			if (!((LocalSQLNameManager) MultiChatLocal.getInstance().getNameManager()).registerMigratedPlayers(records)) {
+				sender.sendBadMessage("Migration failed, no records were migrated! Check the console for errors.");
+				lfsm.getNicknameFile().close();
+				return true;
 			}
 
 			sender.sendGoodMessage("Successfully migrated: " + max + " records");
@@ -138,6 +209,9 @@ public abstract class MultiChatLocalCommand {
 
 			lfsm.getNicknameFile().save();
 
+			// The file was only opened for the migration, so its journal is not left open
+			lfsm.getNicknameFile().close();
+
 		}
 
 		return true;
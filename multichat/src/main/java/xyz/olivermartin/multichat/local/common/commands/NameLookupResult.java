@@ -0,0 +1,61 @@
+package xyz.olivermartin.multichat.local.common.commands;
+
+import java.util.List;
+
+/**
+ * The result of a /realname or /username lookup
+ * 
+ * <p>The lookup itself may need to go to the database, so is run by the name manager off the main thread.
+ * This holds everything needed to then reply to the sender back on the main thread.</p>
+ */
+class NameLookupResult {
+
+	/**
+	 * Number of partial matches shown unless the sender has the nolimit permission
+	 */
+	static final int PARTIAL_MATCH_LIMIT = 10;
+
+	static NameLookupResult exact(String match) {
+		return new NameLookupResult(match, null, false);
+	}
+
+	static NameLookupResult partial(List<String> matches, boolean truncated) {
+		return new NameLookupResult(null, matches, truncated);
+	}
+
+	static NameLookupResult none() {
+		return new NameLookupResult(null, null, false);
+	}
+
+	private final String exactMatch;
+	private final List<String> partialMatches;
+	private final boolean truncated;
+
+	private NameLookupResult(String exactMatch, List<String> partialMatches, boolean truncated) {
+		this.exactMatch = exactMatch;
+		this.partialMatches = partialMatches;
+		this.truncated = truncated;
+	}
+
+	/**
+	 * @return The name matching the query exactly, or null if there was no exact match
+	 */
+	String getExactMatch() {
+		return this.exactMatch;
+	}
+
+	/**
+	 * @return The lines to show for each partial match, or null if no partial matches were found
+	 */
+	List<String> getPartialMatches() {
+		return this.partialMatches;
+	}
+
+	/**
+	 * @return True if there were more partial matches than could be shown
+	 */
+	boolean isTruncated() {
+		return this.truncated;
+	}
+
+}
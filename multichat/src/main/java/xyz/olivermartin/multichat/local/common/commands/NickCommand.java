@@ -1,11 +1,14 @@
 package xyz.olivermartin.multichat.local.common.commands;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlayer;
 import xyz.olivermartin.multichat.local.common.config.LocalConfig;
+import xyz.olivermartin.multichat.local.common.storage.FormattingProfile;
 import xyz.olivermartin.multichat.local.common.storage.LocalNameManager;
 
 public abstract class NickCommand {
@@ -28,10 +31,17 @@ public abstract class NickCommand {
 			}
 		}
 
+		Executor mainThread = MultiChatLocal.getInstance().getMainThreadExecutor();
+
 		if (proposedNick.equalsIgnoreCase("off")) {
-			lnm.removeNickname(targetUUID);
-			MultiChatLocal.getInstance().getProxyCommunicationManager().updatePlayerMeta(targetUUID);
-			sender.sendGoodMessage("The nickname has been removed!");
+			lnm.removeNicknameAsync(targetUUID).whenCompleteAsync((result, error) -> {
+				if (error != null) {
+					sender.sendBadMessage("Sorry, the nickname could not be removed! Check the console for errors.");
+					return;
+				}
+				MultiChatLocal.getInstance().getProxyCommunicationManager().updatePlayerMeta(targetUUID);
+				sender.sendGoodMessage("The nickname has been removed!");
+			}, mainThread);
 			return true;
 		}
 
@@ -39,31 +49,84 @@ public abstract class NickCommand {
 			return true;
 		}
 
-		lnm.setNickname(targetUUID, proposedNick);
-		MultiChatLocal.getInstance().getProxyCommunicationManager().updatePlayerMeta(targetUUID);
+		String nickname = proposedNick;
+		boolean impersonate = sender.hasPermission("multichatlocal.nick.impersonate");
+
+		// Checking the nickname is free may need the database, so this is done off the main thread
+		lnm.supplyAsync(() -> setNicknameIfAvailable(targetUUID, nickname, impersonate)).whenCompleteAsync((error, failure) -> {
+
+			// Already logged by the name manager
+			if (failure != null) {
+				sender.sendBadMessage("Sorry, the nickname could not be set! Check the console for errors.");
+				return;
+			}
+
+			if (error.isPresent()) {
+				sender.sendBadMessage(error.get());
+				return;
+			}
+
+			MultiChatLocal.getInstance().getProxyCommunicationManager().updatePlayerMeta(targetUUID);
+			sender.sendGoodMessage("The nickname has been set!");
+
+		}, mainThread);
 
-		sender.sendGoodMessage("The nickname has been set!");
 		return true;
 
 	}
 
+	/**
+	 * Sets the nickname as long as it is not already in use by someone else
+	 * <p>This is run off the main thread, so must not use the sender</p>
+	 * @return An optional which contains an error message if the nickname could not be set
+	 */
+	private Optional<String> setNicknameIfAvailable(UUID targetUUID, String proposedNick, boolean impersonate) {
+
+		LocalNameManager lnm = MultiChatLocal.getInstance().getNameManager();
+
+		String strippedNick = lnm.stripAllFormattingCodes(proposedNick);
+		String targetNickname = lnm.stripAllFormattingCodes(lnm.getCurrentName(targetUUID, false));
+		String targetName = lnm.getName(targetUUID);
+
+		// Otherwise two players could both find the nickname free and both take it
+		synchronized (lnm.getNicknameLock()) {
+
+			if (lnm.existsNickname(proposedNick) && !targetNickname.equalsIgnoreCase(strippedNick) ) {
+				return Optional.of("Sorry, this nickname is already in use!");
+			}
+
+			if (lnm.existsPlayer(proposedNick) && !targetName.equalsIgnoreCase(strippedNick) && !impersonate) {
+				return Optional.of("Sorry, a player already exists with this name!");
+			}
+
+			lnm.setNickname(targetUUID, proposedNick);
+			return Optional.empty();
+
+		}
+
+	}
+
 
 	private boolean checkPermissions(MultiChatLocalPlayer targetPlayer, MultiChatLocalPlayer sender, String proposedNick) {
 
 		LocalNameManager lnm = MultiChatLocal.getInstance().getNameManager();
 		LocalConfig config = MultiChatLocal.getInstance().getConfigManager().getLocalConfig();
 
-		if (lnm.containsRGBColorCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.color") || sender.hasPermission("multichatlocal.nick.colour")||sender.hasPermission("multichatlocal.nick.color.rgb") || sender.hasPermission("multichatlocal.nick.colour.rgb"))) {
+		// Scan the nickname once, rather than once for every type of code we need to check
+		FormattingProfile profile = lnm.getFormattingProfile(proposedNick);
+		String strippedNick = profile.getStrippedText();
+
+		if (profile.contains(FormattingProfile.RGB_COLOR) && !(sender.hasPermission("multichatlocal.nick.color") || sender.hasPermission("multichatlocal.nick.colour")||sender.hasPermission("multichatlocal.nick.color.rgb") || sender.hasPermission("multichatlocal.nick.colour.rgb"))) {
 			sender.sendBadMessage("You do not have permission to use nicknames with rgb color codes!");
 			return false;
 		}
 
-		if (lnm.containsSimpleColorCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.color") || sender.hasPermission("multichatlocal.nick.colour")||sender.hasPermission("multichatlocal.nick.color.simple") || sender.hasPermission("multichatlocal.nick.colour.simple") ||sender.hasPermission("multichatlocal.nick.color.rgb") || sender.hasPermission("multichatlocal.nick.colour.rgb"))) {
+		if (profile.contains(FormattingProfile.SIMPLE_COLOR) && !(sender.hasPermission("multichatlocal.nick.color") || sender.hasPermission("multichatlocal.nick.colour")||sender.hasPermission("multichatlocal.nick.color.simple") || sender.hasPermission("multichatlocal.nick.colour.simple") ||sender.hasPermission("multichatlocal.nick.color.rgb") || sender.hasPermission("multichatlocal.nick.colour.rgb"))) {
 			sender.sendBadMessage("You do not have permission to use nicknames with simple color codes!");
 			return false;
 		}
 
-		if (lnm.containsFormatCodes(proposedNick)) {
+		if (profile.contains(FormattingProfile.ANY_FORMAT)) {
 
 			// If the nickname has ANY format codes...
 
@@ -71,32 +134,32 @@ public abstract class NickCommand {
 
 				// If they don't have the permission for ALL format codes, then we will check individually...
 
-				if (lnm.containsBoldFormatCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.format.bold"))) {
+				if (profile.contains(FormattingProfile.BOLD) && !(sender.hasPermission("multichatlocal.nick.format.bold"))) {
 					sender.sendBadMessage("You do not have permission to use nicknames with bold format codes!");
 					return false;
 				}
 
-				if (lnm.containsItalicFormatCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.format.italic"))) {
+				if (profile.contains(FormattingProfile.ITALIC) && !(sender.hasPermission("multichatlocal.nick.format.italic"))) {
 					sender.sendBadMessage("You do not have permission to use nicknames with italic format codes!");
 					return false;
 				}
 
-				if (lnm.containsUnderlineFormatCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.format.underline"))) {
+				if (profile.contains(FormattingProfile.UNDERLINE) && !(sender.hasPermission("multichatlocal.nick.format.underline"))) {
 					sender.sendBadMessage("You do not have permission to use nicknames with underline format codes!");
 					return false;
 				}
 
-				if (lnm.containsStrikethroughFormatCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.format.strikethrough"))) {
+				if (profile.contains(FormattingProfile.STRIKETHROUGH) && !(sender.hasPermission("multichatlocal.nick.format.strikethrough"))) {
 					sender.sendBadMessage("You do not have permission to use nicknames with strikethrough format codes!");
 					return false;
 				}
 
-				if (lnm.containsObfuscatedFormatCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.format.obfuscated"))) {
+				if (profile.contains(FormattingProfile.OBFUSCATED) && !(sender.hasPermission("multichatlocal.nick.format.obfuscated"))) {
 					sender.sendBadMessage("You do not have permission to use nicknames with obfuscated format codes!");
 					return false;
 				}
 
-				if (lnm.containsResetFormatCodes(proposedNick) && !(sender.hasPermission("multichatlocal.nick.format.reset"))) {
+				if (profile.contains(FormattingProfile.RESET) && !(sender.hasPermission("multichatlocal.nick.format.reset"))) {
 					sender.sendBadMessage("You do not have permission to use nicknames with reset format codes!");
 					return false;
 				}
@@ -119,7 +182,7 @@ public abstract class NickCommand {
 				length = proposedNick.length();
 				endOfMessage = "(Including format codes)";
 			} else {
-				length = lnm.stripAllFormattingCodes(proposedNick).length();
+				length = profile.getStrippedLength();
 				endOfMessage = "(Excluding format codes)";
 			}
 
@@ -135,30 +198,17 @@ public abstract class NickCommand {
 
 		}
 
-		if (lnm.stripAllFormattingCodes(proposedNick).length() < 1) {
+		if (profile.getStrippedLength() < 1) {
 			sender.sendBadMessage("Sorry your nickname cannot be empty!");
 			return false;
 		}
 
-		String targetNickname = lnm.stripAllFormattingCodes(lnm.getCurrentName(targetPlayer.getUniqueId(), false));
-		String targetName = lnm.getName(targetPlayer.getUniqueId());
-
-		if (lnm.existsNickname(proposedNick) && !targetNickname.equalsIgnoreCase(lnm.stripAllFormattingCodes(proposedNick)) ) {
-			sender.sendBadMessage("Sorry, this nickname is already in use!");
-			return false;
-		}
-
-		if (lnm.existsPlayer(proposedNick) && !targetName.equalsIgnoreCase(lnm.stripAllFormattingCodes(proposedNick)) && !sender.hasPermission("multichatlocal.nick.impersonate")) {
-			sender.sendBadMessage("Sorry, a player already exists with this name!");
-			return false;
-		}
-
 		if (! sender.hasPermission("multichatlocal.nick.blacklist")) {
 
 			boolean blacklisted = false;
 
 			for (String bl : config.getNicknameBlacklist()) {
-				if (lnm.stripAllFormattingCodes(proposedNick).matches(bl)) {
+				if (strippedNick.matches(bl)) {
 					blacklisted = true;
 					break;
 				}
@@ -1,5 +1,7 @@
 package xyz.olivermartin.multichat.local.common.commands;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -22,54 +24,86 @@ public abstract class UsernameCommand {
 
 		LocalNameManager lnm = MultiChatLocal.getInstance().getNameManager();
 
-		if (lnm.existsPlayer(args[0])) {
+		String username = args[0];
+		boolean partial = sender.hasPermission("multichatlocal.username.partial");
+		boolean noLimit = sender.hasPermission("multichatlocal.username.nolimit");
+
+		// The lookup may need to query the database, so let the name manager run it off the main thread
+		lnm.supplyAsync(() -> lookup(lnm, username, partial, noLimit))
+			.whenCompleteAsync((result, error) -> {
+				if (error != null) {
+					// Already logged by the name manager
+					sender.sendBadMessage("Sorry, the lookup failed! Check the console for errors.");
+				} else {
+					sendResult(sender, username, result);
+				}
+			}, MultiChatLocal.getInstance().getMainThreadExecutor());
 
-			Optional<String> player;
-			player = lnm.getFormattedNameFromName(args[0]);
+		return true;
 
-			if (player.isPresent()) {
-				sender.sendGoodMessage("User exists with name: '" + player.get() + "'");
-			} else {
-				sender.sendBadMessage("No one could be found with username: " + args[0]);
-			}
+	}
 
-			return true;
+	private NameLookupResult lookup(LocalNameManager lnm, String username, boolean partial, boolean noLimit) {
 
-		} else if (sender.hasPermission("multichatlocal.username.partial")) {
+		if (lnm.existsPlayer(username)) {
 
-			Optional<Set<UUID>> matches = lnm.getPartialNameMatches(args[0]);
+			Optional<String> player = lnm.getFormattedNameFromName(username);
+			return player.isPresent() ? NameLookupResult.exact(player.get()) : NameLookupResult.none();
 
-			if (matches.isPresent()) {
+		} else if (partial) {
 
-				int limit = 10;
+			// One more than the limit is asked for, to know if there were more than could be shown
+			Optional<Set<UUID>> matches = lnm.getPartialNameMatches(username,
+					noLimit ? Integer.MAX_VALUE : NameLookupResult.PARTIAL_MATCH_LIMIT + 1);
 
-				sender.sendInfoMessageA("No one could be found with the exact username: " + args[0]);
-				sender.sendInfoMessageB("The following were found as partial matches:");
+			if (!matches.isPresent()) {
+				return NameLookupResult.none();
+			}
 
-				for (UUID uuid : matches.get()) {
+			List<String> lines = new ArrayList<String>();
 
-					if (limit > 0 || sender.hasPermission("multichatlocal.username.nolimit")) {
-						sender.sendGoodMessage("- '" + lnm.getName(uuid) + "'");
-						limit--;
-					} else {
-						sender.sendInfoMessageA("Only the first 10 results have been shown, please try a more specific query!");
-						break;
-					}
+			for (UUID uuid : matches.get()) {
 
+				if (lines.size() >= NameLookupResult.PARTIAL_MATCH_LIMIT && !noLimit) {
+					return NameLookupResult.partial(lines, true);
 				}
 
-			} else {
+				lines.add("- '" + lnm.getName(uuid) + "'");
+
+			}
+
+			return NameLookupResult.partial(lines, false);
+
+		} else {
+
+			return NameLookupResult.none();
 
-				sender.sendBadMessage("No one could be found with username: " + args[0]);
+		}
+
+	}
+
+	private void sendResult(MultiChatLocalCommandSender sender, String username, NameLookupResult result) {
+
+		if (result.getExactMatch() != null) {
+
+			sender.sendGoodMessage("User exists with name: '" + result.getExactMatch() + "'");
 
+		} else if (result.getPartialMatches() != null) {
+
+			sender.sendInfoMessageA("No one could be found with the exact username: " + username);
+			sender.sendInfoMessageB("The following were found as partial matches:");
+
+			for (String line : result.getPartialMatches()) {
+				sender.sendGoodMessage(line);
 			}
 
-			return true;
+			if (result.isTruncated()) {
+				sender.sendInfoMessageA("Only the first 10 results have been shown, please try a more specific query!");
+			}
 
 		} else {
 
-			sender.sendBadMessage("No one could be found with username: " + args[0]);
-			return true;
+			sender.sendBadMessage("No one could be found with username: " + username);
 
 		}
 
@@ -36,9 +36,14 @@ public abstract class LocalConfig {
 	private int nicknameLengthLimit;
 	private int nicknameLengthMin;
 	private boolean nicknameLengthLimitFormatting;
+	private boolean nicknameRegexSearch;
 	private boolean nicknameSQL;
 	private boolean mySQL;
 
+	// METRICS SETTINGS
+	private boolean metricsEndpoint;
+	private String metricsEndpointBind;
+
 	// CHANNEL CONTROL SETTINGS
 	private List<RegexChannelForcer> regexChannelForcers;
 
@@ -138,6 +143,7 @@ public abstract class LocalConfig {
 		nicknameLengthLimit = getInt("nickname_length_limit", 20);
 		nicknameLengthMin = getInt("nickname_length_min", 3);
 		nicknameLengthLimitFormatting = getBoolean("nickname_length_limit_formatting", false);
+		nicknameRegexSearch = getBoolean("nickname_regex_search", false);
 		nicknameSQL = getBoolean("nickname_sql", false);
 
 		// MySQL
@@ -148,6 +154,10 @@ public abstract class LocalConfig {
 				getString("mysql_pass",""),
 				getStringList("mysql_flags"));
 
+		// Metrics
+		metricsEndpoint = getBoolean("metrics_endpoint", false);
+		metricsEndpointBind = getString("metrics_endpoint_bind", "127.0.0.1:9226");
+
 		// CHANNEL CONTROL
 		regexChannelForcers = getRegexChannelForcers("force_channel");
 
@@ -273,6 +283,13 @@ public abstract class LocalConfig {
 		return nicknameLengthLimitFormatting;
 	}
 
+	/**
+	 * @return the nicknameRegexSearch
+	 */
+	public boolean isNicknameRegexSearch() {
+		return nicknameRegexSearch;
+	}
+
 	/**
 	 * @return the nicknameSQL
 	 */
@@ -287,6 +304,20 @@ public abstract class LocalConfig {
 		return mySQL;
 	}
 
+	/**
+	 * @return if the metrics should be served to Prometheus
+	 */
+	public boolean isMetricsEndpoint() {
+		return metricsEndpoint;
+	}
+
+	/**
+	 * @return the address and port to serve the metrics on
+	 */
+	public String getMetricsEndpointBind() {
+		return metricsEndpointBind;
+	}
+
 	/**
 	 * @return the regex channel forcers
 	 */
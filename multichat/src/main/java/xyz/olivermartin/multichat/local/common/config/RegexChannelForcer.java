@@ -1,10 +1,15 @@
 package xyz.olivermartin.multichat.local.common.config;
 
+import java.util.regex.Pattern;
+
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
+import xyz.olivermartin.multichat.local.common.storage.FormattingProfile;
 
 public class RegexChannelForcer {
 
 	private String regex;
+	private Pattern pattern;
 	private boolean ignoreFormatCodes;
 	private String channel;
 
@@ -25,25 +30,30 @@ public class RegexChannelForcer {
 
 	public boolean matchesRegex(String messageFormat) {
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[RegexChannelForcer] Testing format: " + messageFormat);
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[RegexChannelForcer] Testing format (visualised): " + messageFormat.replace("&", "(#d)").replace("", "(#e)"));
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHANNELS, "[RegexChannelForcer] Testing format: %s", messageFormat);
+		if (MultiChatLocal.getInstance().getConsoleLogger().isDebugEnabled(DebugCategory.CHANNELS)) MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHANNELS, "[RegexChannelForcer] Testing format (visualised): " + messageFormat.replace("&", "(#d)").replace("", "(#e)"));
 
 		String testMessage = messageFormat;
 
 		if (ignoreFormatCodes) {
-			testMessage = MultiChatLocal.getInstance().getNameManager().stripAllFormattingCodesAndPreformattedText(testMessage);
+			testMessage = FormattingProfile.stripIncludingPreformatted(testMessage);
 		} else {
 			// This makes life easier when doing the config file as only have to use & style colour codes
 			testMessage = testMessage.replace('', '&');
 		}
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[RegexChannelForcer] Processed format codes: " + testMessage);
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[RegexChannelForcer] Processed format codes (visualised): " + testMessage.replace("&", "(#d)").replace("", "(#e)"));
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHANNELS, "[RegexChannelForcer] Processed format codes: %s", testMessage);
+		if (MultiChatLocal.getInstance().getConsoleLogger().isDebugEnabled(DebugCategory.CHANNELS)) MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHANNELS, "[RegexChannelForcer] Processed format codes (visualised): " + testMessage.replace("&", "(#d)").replace("", "(#e)"));
+
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHANNELS, "[RegexChannelForcer] Regex is: %s", regex);
+		if (MultiChatLocal.getInstance().getConsoleLogger().isDebugEnabled(DebugCategory.CHANNELS)) MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHANNELS, "[RegexChannelForcer] Regex is (visualised): " + regex.replace("&", "(#d)").replace("", "(#e)"));
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[RegexChannelForcer] Regex is: " + regex);
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[RegexChannelForcer] Regex is (visualised): " + regex.replace("&", "(#d)").replace("", "(#e)"));
+		// Compiled on first use so an invalid regex still only fails when it is tested
+		if (pattern == null) {
+			pattern = Pattern.compile(regex);
+		}
 
-		return testMessage.matches(regex);
+		return pattern.matcher(testMessage).matches();
 
 	}
 
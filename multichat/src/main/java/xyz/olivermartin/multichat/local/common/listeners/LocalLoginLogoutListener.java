@@ -12,8 +12,6 @@ public abstract class LocalLoginLogoutListener {
 
 	protected void handleLoginEvent(MultiChatLocalPlayer player) {
 
-		MultiChatLocal.getInstance().getNameManager().registerPlayer(player.getUniqueId(), player.getName());
-
 		Map<UUID, String> playerChannels = MultiChatLocal.getInstance().getDataStore().getPlayerChannels();
 		synchronized (playerChannels) {
 			if (!playerChannels.containsKey(player.getUniqueId())) {
@@ -35,7 +33,18 @@ public abstract class LocalLoginLogoutListener {
 			}
 		}
 
-		MultiChatLocal.getInstance().getProxyCommunicationManager().updatePlayerMeta(player.getUniqueId());
+		// Registering may need the database, so is done off the main thread before their meta is sent to the proxy
+		MultiChatLocal.getInstance().getNameManager().registerPlayerAsync(player.getUniqueId(), player.getName()).thenRunAsync(() -> {
+
+			if (!isPlayerStillOnline(player)) {
+				// They logged out before registration finished, so make sure they are not left registered as online
+				MultiChatLocal.getInstance().getNameManager().unregisterPlayer(player.getUniqueId());
+				return;
+			}
+
+			MultiChatLocal.getInstance().getProxyCommunicationManager().updatePlayerMeta(player.getUniqueId());
+
+		}, MultiChatLocal.getInstance().getMainThreadExecutor());
 
 	}
 
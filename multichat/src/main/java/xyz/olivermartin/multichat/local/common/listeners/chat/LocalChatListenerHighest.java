@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.local.common.listeners.chat;
 
 import java.util.Optional;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.LocalChatManager;
 import xyz.olivermartin.multichat.local.common.LocalPseudoChannel;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
@@ -14,32 +15,32 @@ public abstract class LocalChatListenerHighest {
 		// IF ITS ALREADY CANCELLED WE CAN IGNORE IT
 		if (event.isCancelled()) return;
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Now is where the fun starts... Welcome to the highest level!");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Now is where the fun starts... Welcome to the highest level!");
 
 		LocalChatManager chatManager = MultiChatLocal.getInstance().getChatManager();
 
 		if (chatManager.canChatInRGBColour(event.getPlayer().getUniqueId())) {
 			event.setMessage(chatManager.translateColourCodes(event.getMessage(),true));
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Translated their message to include the colours (RGB) and set back in the event as: " + event.getMessage());
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Translated their message to include the colours (RGB) and set back in the event as: %s", event.getMessage());
 		} else if (chatManager.canChatInSimpleColour(event.getPlayer().getUniqueId())) {
 			event.setMessage(chatManager.translateColourCodes(event.getMessage(),false));
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Translated their message to include the colours (SIMPLE ONLY) and set back in the event as: " + event.getMessage());
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Translated their message to include the colours (SIMPLE ONLY) and set back in the event as: %s", event.getMessage());
 		}
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Now we will process MultiChat placeholders!");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Now we will process MultiChat placeholders!");
 
 		event.setFormat(chatManager.processMultiChatConfigPlaceholders(event.getPlayer(), event.getFormat()));
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - The resulting format was... " + event.getFormat());
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - The resulting format was... %s", event.getFormat());
 
 		String channel = chatManager.peekAtChatChannel(event.getPlayer());
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Channel for this message before forcing is: " + channel);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Channel for this message before forcing is: %s", channel);
 
 		// Deal with regex channel forcing...
 		channel = chatManager.getRegexForcedChannel(channel, event.getFormat());
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Channel for this message after forcing is: " + channel);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Channel for this message after forcing is: %s", channel);
 
 		// Deal with ignores and channel members
 
@@ -47,44 +48,44 @@ public abstract class LocalChatListenerHighest {
 
 		if (opChannelObject.isPresent()) {
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Do we have a channel object to match that name? Yes!");
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Now we are attempting to remove ignored players from the recipient list of the message, and making sure only people who are meant to see the channel (as specified in the channel object), can see it!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Do we have a channel object to match that name? Yes!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Now we are attempting to remove ignored players from the recipient list of the message, and making sure only people who are meant to see the channel (as specified in the channel object), can see it!");
 
 			event.removeIgnoredPlayersAndNonChannelMembersFromRecipients(opChannelObject.get());
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - And BAM! That was handled by the local platform implementation!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - And BAM! That was handled by the local platform implementation!");
 
 		} else {
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - We didn't find a channel object to match that name... Probably not good!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - We didn't find a channel object to match that name... Probably not good!");
 
 		}
 
 		if (!chatManager.isGlobalChatServer() || channel.equalsIgnoreCase("local")) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - We are speaking into local chat, so at this point we are returning! Bye!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - We are speaking into local chat, so at this point we are returning! Bye!");
 			return;
 		}
 
 		if (chatManager.isForceMultiChatFormat()) {
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - OKAYYY! We are forcing our format! All other plugins shall now crumble!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - OKAYYY! We are forcing our format! All other plugins shall now crumble!");
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Currently it is starting out as... " + event.getFormat());
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Currently it is starting out as... %s", event.getFormat());
 
 			String format;
 
 			format = chatManager.getChannelFormat(channel);
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Got the format for this channel as:" + format);
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Got the format for this channel as:%s", format);
 
 			// Build chat format
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Rebuilding the chat format...");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Rebuilding the chat format...");
 			format = MultiChatLocal.getInstance().getPlaceholderManager().buildChatFormat(event.getPlayer().getUniqueId(), format);
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Now we have: " + format);
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Now we have: %s", format);
 
 			format = chatManager.processExternalPlaceholders(event.getPlayer(), format);
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Processed external placeholders to get: " + format);
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Processed external placeholders to get: %s", format);
 
 			if (MultiChatLocal.getInstance().getPlatform() == MultiChatLocalPlatform.SPIGOT) {
 				// Handle Spigot displayname formatting etc.
@@ -97,10 +98,10 @@ public abstract class LocalChatListenerHighest {
 				format = format.replace("%", "%%");
 			}
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - Did some magic to get..." + format);
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - Did some magic to get...%s", format);
 
 			event.setFormat(chatManager.translateColourCodes(format, true));
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@HIGHEST - FORMAT HAS BEEN SET AS: " + event.getFormat());
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@HIGHEST - FORMAT HAS BEEN SET AS: %s", event.getFormat());
 
 		}
 
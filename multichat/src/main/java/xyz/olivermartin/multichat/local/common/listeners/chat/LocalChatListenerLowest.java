@@ -1,5 +1,6 @@
 package xyz.olivermartin.multichat.local.common.listeners.chat;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.LocalChatManager;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
@@ -12,7 +13,7 @@ public abstract class LocalChatListenerLowest {
 		// IF ITS ALREADY CANCELLED THEN WE CAN IGNORE IT!
 		if (event.isCancelled()) return;
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Handling chat message...");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Handling chat message...");
 
 		LocalChatManager chatManager = MultiChatLocal.getInstance().getChatManager();
 
@@ -20,39 +21,39 @@ public abstract class LocalChatListenerLowest {
 		String channel = chatManager.peekAtChatChannel(player);
 		String format = event.getFormat();
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Channel for this message before forcing is " + channel);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Channel for this message before forcing is %s", channel);
 
 		// Deal with regex channel forcing...
 		channel = chatManager.getRegexForcedChannel(channel, format);
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Channel for this message after forcing is " + channel);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Channel for this message after forcing is %s", channel);
 
 		if (!chatManager.isGlobalChatServer()) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Not a global chat server, so setting channel to local!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Not a global chat server, so setting channel to local!");
 			channel = "local";
 		}
 
 		if (channel.equals("local") && !chatManager.isSetLocalFormat()) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Its local chat and we aren't setting the format for that, so return now!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Its local chat and we aren't setting the format for that, so return now!");
 			return;
 		}
 
 		if (chatManager.isOverrideMultiChatFormat()) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - We are overriding MultiChat's formatting... So abandon here...");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - We are overriding MultiChat's formatting... So abandon here...");
 			return;
 		}
 
 		format = chatManager.getChannelFormat(channel);
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Got the format for this channel as:" + format);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Got the format for this channel as:%s", format);
 
 		// Build chat format
 		format = MultiChatLocal.getInstance().getPlaceholderManager().buildChatFormat(player.getUniqueId(), format);
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Built to become: " + format);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Built to become: %s", format);
 
 		format = chatManager.processExternalPlaceholders(player, format);
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Processing external placeholders to become: " + format);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Processing external placeholders to become: %s", format);
 
 		if (MultiChatLocal.getInstance().getPlatform() == MultiChatLocalPlatform.SPIGOT) {
 			// Handle Spigot displayname formatting etc.
@@ -65,11 +66,11 @@ public abstract class LocalChatListenerLowest {
 			format = format.replace("%", "%%");
 		}
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Did some magic formatting to end up as: " + format);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Did some magic formatting to end up as: %s", format);
 
 		event.setFormat(chatManager.translateColourCodes(format, true));
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@LOWEST - Set the format of the message. Finished processing at the lowest level!");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@LOWEST - Set the format of the message. Finished processing at the lowest level!");
 
 	}
 
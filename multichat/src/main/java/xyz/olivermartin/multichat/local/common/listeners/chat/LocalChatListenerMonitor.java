@@ -1,5 +1,6 @@
 package xyz.olivermartin.multichat.local.common.listeners.chat;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.LocalChatManager;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
@@ -9,7 +10,7 @@ public abstract class LocalChatListenerMonitor {
 
 	public void handleChat(MultiChatLocalPlayerChatEvent event) {
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - Okay less fun here, we are just the monitor...");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - Okay less fun here, we are just the monitor...");
 
 		LocalConfig config = MultiChatLocal.getInstance().getConfigManager().getLocalConfig();
 		LocalChatManager chatManager = MultiChatLocal.getInstance().getChatManager();
@@ -19,12 +20,12 @@ public abstract class LocalChatListenerMonitor {
 		// Deal with regex channel forcing...
 		channel = chatManager.getRegexForcedChannel(channel, event.getFormat());
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - If the message is cancelled, then we will end here...");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - If the message is cancelled, then we will end here...");
 
 		// IF ITS ALREADY CANCELLED WE CAN IGNORE IT
 		if (event.isCancelled()) return;
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - The message isn't cancelled! We will cancel it.");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - The message isn't cancelled! We will cancel it.");
 		event.setCancelled(true);
 
 		// IF ITS LOCAL CHAT WE CAN IGNORE IT
@@ -36,9 +37,9 @@ public abstract class LocalChatListenerMonitor {
 
 		// IF WE ARE MANAGING GLOBAL CHAT THEN WE NEED TO MANAGE IT!
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - We are in global chat... SO TIME TO FORWARD TO PROXY!");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - We are in global chat... SO TIME TO FORWARD TO PROXY!");
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - First we are sending their meta data...");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - First we are sending their meta data...");
 		MultiChatLocal.getInstance().getProxyCommunicationManager().updatePlayerMeta(event.getPlayer().getUniqueId());
 
 		String proxyFormat = event.getFormat();
@@ -50,27 +51,27 @@ public abstract class LocalChatListenerMonitor {
 
 			if (!config.isOverrideAllMultiChatFormatting()) {
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - We were managing the format...");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - We were managing the format...");
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - Currently it is " + proxyFormat);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - Currently it is %s", proxyFormat);
 
 				proxyFormat = proxyFormat.replace("%1$s", MultiChatLocal.getInstance().getMetaManager().getDisplayName(event.getPlayer().getUniqueId()));
 				proxyFormat = proxyFormat.replace("%2$s", "");
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - We replaced the special bits to get: " + proxyFormat);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - We replaced the special bits to get: %s", proxyFormat);
 
 			} else {
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - Oh dear... we need to send it to the proxy... but we weren't managing the chat...");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - Oh dear... we need to send it to the proxy... but we weren't managing the chat...");
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - The format currently is: " + proxyFormat);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - The format currently is: %s", proxyFormat);
 
 				proxyFormat = proxyFormat.replace("%1$s", MultiChatLocal.getInstance().getMetaManager().getDisplayName(event.getPlayer().getUniqueId()));
 				proxyFormat = proxyFormat.replace("%2$s", "");
 				proxyFormat = proxyFormat.replaceFirst("\\$s", MultiChatLocal.getInstance().getMetaManager().getDisplayName(event.getPlayer().getUniqueId()));
 				proxyFormat = proxyFormat.replaceFirst("\\$s", "");
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - But we worked some magic to arrive at... " + proxyFormat);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - But we worked some magic to arrive at... %s", proxyFormat);
 
 			}
 
@@ -78,10 +79,10 @@ public abstract class LocalChatListenerMonitor {
 
 		MultiChatLocal.getInstance().getProxyCommunicationManager().sendChatMessage(event.getPlayer().getUniqueId(), proxyMessage, proxyFormat);
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - Aaaaand we sent it to the proxy! ALL DONE.");
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - UUID: " + event.getPlayer().getUniqueId());
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - MESSAGE (please note this will be shown in colour here even if the player doesn't have colour permissions): " + proxyMessage);
-		MultiChatLocal.getInstance().getConsoleLogger().debug("#CHAT@MONITOR - FORMAT: " + proxyFormat);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - Aaaaand we sent it to the proxy! ALL DONE.");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - UUID: %s", event.getPlayer().getUniqueId());
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - MESSAGE (please note this will be shown in colour here even if the player doesn't have colour permissions): %s", proxyMessage);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "#CHAT@MONITOR - FORMAT: %s", proxyFormat);
 
 	}
 
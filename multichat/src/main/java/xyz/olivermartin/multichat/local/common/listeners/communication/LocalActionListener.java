@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.local.common.listeners.communication;
 
 import java.io.IOException;
 
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.listeners.LocalBungeeMessage;
 
@@ -11,6 +12,18 @@ public abstract class LocalActionListener {
 
 	protected boolean handleMessage(LocalBungeeMessage message) {
 
+		long start = System.nanoTime();
+
+		try {
+			return readMessage(message);
+		} finally {
+			PluginMessageMetrics.recordDecode("multichat:act", start);
+		}
+
+	}
+
+	private boolean readMessage(LocalBungeeMessage message) {
+
 		try {
 
 			String command = message.readUTF();
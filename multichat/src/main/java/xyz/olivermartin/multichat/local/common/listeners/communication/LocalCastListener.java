@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.local.common.listeners.communication;
 
 import java.io.IOException;
 
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.listeners.LocalBungeeMessage;
 
@@ -9,6 +10,18 @@ public abstract class LocalCastListener {
 
 	protected boolean handleMessage(LocalBungeeMessage message) {
 
+		long start = System.nanoTime();
+
+		try {
+			return readMessage(message);
+		} finally {
+			PluginMessageMetrics.recordDecode("multichat:chat", start);
+		}
+
+	}
+
+	private boolean readMessage(LocalBungeeMessage message) {
+
 		try {
 
 			String castMessage = message.readUTF();
@@ -5,6 +5,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.listeners.LocalBungeeObjectMessage;
 
@@ -13,11 +15,23 @@ public abstract class LocalIgnoreListener {
 	@SuppressWarnings("unchecked")
 	protected boolean handleMessage(LocalBungeeObjectMessage message) {
 
+		long start = System.nanoTime();
+
+		try {
+			return readMessage(message);
+		} finally {
+			PluginMessageMetrics.recordDecode("multichat:ignore", start);
+		}
+
+	}
+
+	private boolean readMessage(LocalBungeeObjectMessage message) {
+
 		try {
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("{multichat:ignore} Reading ignore map...");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.COMMUNICATION, "{multichat:ignore} Reading ignore map...");
 			MultiChatLocal.getInstance().getDataStore().setIgnoreMap((Map<UUID, Set<UUID>>) message.readObject());
-			MultiChatLocal.getInstance().getConsoleLogger().debug("{multichat:ignore} Successfully read ignore map!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.COMMUNICATION, "{multichat:ignore} Successfully read ignore map!");
 			return true;
 
 		} catch (IOException e) {
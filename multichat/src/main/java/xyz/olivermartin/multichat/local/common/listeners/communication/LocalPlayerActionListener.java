@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.local.common.listeners.communication;
 
 import java.io.IOException;
 
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.listeners.LocalBungeeMessage;
 
@@ -13,6 +14,18 @@ public abstract class LocalPlayerActionListener {
 
 	protected boolean handleMessage(LocalBungeeMessage message) {
 
+		long start = System.nanoTime();
+
+		try {
+			return readMessage(message);
+		} finally {
+			PluginMessageMetrics.recordDecode("multichat:pact", start);
+		}
+
+	}
+
+	private boolean readMessage(LocalBungeeMessage message) {
+
 		try {
 
 			String playerRegex = message.readUTF();
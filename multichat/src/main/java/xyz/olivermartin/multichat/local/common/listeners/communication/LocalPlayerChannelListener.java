@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 import xyz.olivermartin.multichat.local.common.LocalPseudoChannel;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlayer;
@@ -18,6 +19,18 @@ public abstract class LocalPlayerChannelListener {
 	@SuppressWarnings("unchecked")
 	protected boolean handleMessage(LocalBungeeObjectMessage message) {
 
+		long start = System.nanoTime();
+
+		try {
+			return readMessage(message);
+		} finally {
+			PluginMessageMetrics.recordDecode("multichat:ch", start);
+		}
+
+	}
+
+	private boolean readMessage(LocalBungeeObjectMessage message) {
+
 		try {
 
 			Optional<MultiChatLocalPlayer> opPlayer = getPlayerFromName(message.readUTF());
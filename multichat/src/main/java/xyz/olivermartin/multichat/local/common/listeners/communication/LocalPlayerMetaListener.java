@@ -3,6 +3,7 @@ package xyz.olivermartin.multichat.local.common.listeners.communication;
 import java.io.IOException;
 import java.util.Optional;
 
+import xyz.olivermartin.multichat.common.metrics.PluginMessageMetrics;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlayer;
 import xyz.olivermartin.multichat.local.common.listeners.LocalBungeeMessage;
@@ -13,6 +14,18 @@ public abstract class LocalPlayerMetaListener {
 
 	protected boolean handleMessage(LocalBungeeMessage message) {
 
+		long start = System.nanoTime();
+
+		try {
+			return readMessage(message);
+		} finally {
+			PluginMessageMetrics.recordDecode("multichat:comm", start);
+		}
+
+	}
+
+	private boolean readMessage(LocalBungeeMessage message) {
+
 		try {
 
 			boolean setDisplayName = false;
@@ -0,0 +1,191 @@
+package xyz.olivermartin.multichat.local.common.storage;
+
+/**
+ * A profile of the formatting codes used in a piece of text
+ *
+ * <p>Built in a single pass over the text, this records which kinds of '&' codes were found as a bitmask
+ * along with the text that remains once they are stripped, so callers such as the nick command do not need
+ * to run a separate regex for each kind of code.</p>
+ */
+public class FormattingProfile {
+
+	public static final int SIMPLE_COLOR = 1;
+	public static final int RGB_COLOR = 1 << 1;
+	public static final int BOLD = 1 << 2;
+	public static final int ITALIC = 1 << 3;
+	public static final int UNDERLINE = 1 << 4;
+	public static final int STRIKETHROUGH = 1 << 5;
+	public static final int OBFUSCATED = 1 << 6;
+	public static final int RESET = 1 << 7;
+
+	/**
+	 * All of the (non colour) format codes, i.e. '&k' to '&o' and '&r'
+	 */
+	public static final int ANY_FORMAT = BOLD | ITALIC | UNDERLINE | STRIKETHROUGH | OBFUSCATED | RESET;
+
+	private static final char COLOR_CHAR = '&';
+	private static final char PREFORMATTED_COLOR_CHAR = '\u00A7';
+
+	/**
+	 * Scan some text for '&' formatting codes
+	 * @param input The text to scan
+	 * @return The profile of the text, or null if the input was null
+	 */
+	public static FormattingProfile of(String input) {
+
+		if (input == null) {
+			return null;
+		}
+
+		StringBuilder stripped = new StringBuilder(input.length());
+		int flags = 0;
+		int length = input.length();
+
+		for (int i = 0; i < length; i++) {
+
+			char c = input.charAt(i);
+
+			if (c == COLOR_CHAR && i + 1 < length) {
+				int flag = getFlag(input.charAt(i + 1));
+				if (flag != 0) {
+					flags |= flag;
+					i++;
+					continue;
+				}
+			}
+
+			stripped.append(c);
+
+		}
+
+		return new FormattingProfile(flags, stripped.toString());
+
+	}
+
+	/**
+	 * Remove all colour / format codes from a string (using the '&' char)
+	 * @param input The text to strip
+	 * @return The stripped text, or null if the input was null
+	 */
+	public static String strip(String input) {
+		return strip(input, COLOR_CHAR);
+	}
+
+	/**
+	 * Remove all colour / format codes from a string (using both the '&' char and then the special section sign char)
+	 * @param input The text to strip
+	 * @return The stripped text, or null if the input was null
+	 */
+	public static String stripIncludingPreformatted(String input) {
+		return strip(strip(input, COLOR_CHAR), PREFORMATTED_COLOR_CHAR);
+	}
+
+	private static String strip(String input, char colorChar) {
+
+		if (input == null) {
+			return null;
+		}
+
+		int start = input.indexOf(colorChar);
+
+		// Nothing to strip, so avoid copying the string at all
+		if (start < 0) {
+			return input;
+		}
+
+		StringBuilder stripped = new StringBuilder(input.length());
+		stripped.append(input, 0, start);
+		int length = input.length();
+
+		for (int i = start; i < length; i++) {
+
+			char c = input.charAt(i);
+
+			if (c == colorChar && i + 1 < length && getFlag(input.charAt(i + 1)) != 0) {
+				i++;
+				continue;
+			}
+
+			stripped.append(c);
+
+		}
+
+		return stripped.toString();
+
+	}
+
+	/**
+	 * @param code The character following the colour char
+	 * @return The flag for this code, or 0 if it is not a valid code
+	 */
+	private static int getFlag(char code) {
+
+		// Only ASCII letters are case insensitive, as with the (?i) regex flag
+		if (code >= 'A' && code <= 'Z') {
+			code = (char) (code + ('a' - 'A'));
+		}
+
+		switch (code) {
+		case '0': case '1': case '2': case '3': case '4': case '5': case '6': case '7':
+		case '8': case '9': case 'a': case 'b': case 'c': case 'd': case 'e': case 'f':
+			return SIMPLE_COLOR;
+		case 'x':
+			return RGB_COLOR;
+		case 'k':
+			return OBFUSCATED;
+		case 'l':
+			return BOLD;
+		case 'm':
+			return STRIKETHROUGH;
+		case 'n':
+			return UNDERLINE;
+		case 'o':
+			return ITALIC;
+		case 'r':
+			return RESET;
+		default:
+			return 0;
+		}
+
+	}
+
+	/* END STATIC */
+
+	private final int flags;
+	private final String strippedText;
+
+	private FormattingProfile(int flags, String strippedText) {
+		this.flags = flags;
+		this.strippedText = strippedText;
+	}
+
+	/**
+	 * @return The bitmask of codes found in the text
+	 */
+	public int getFlags() {
+		return this.flags;
+	}
+
+	/**
+	 * @param mask One or more of the flags in this class
+	 * @return True if the text contained any of the codes in the mask
+	 */
+	public boolean contains(int mask) {
+		return (flags & mask) != 0;
+	}
+
+	/**
+	 * @return The text with all '&' codes removed
+	 */
+	public String getStrippedText() {
+		return this.strippedText;
+	}
+
+	/**
+	 * @return The length of the text with all '&' codes removed
+	 */
+	public int getStrippedLength() {
+		return this.strippedText.length();
+	}
+
+}
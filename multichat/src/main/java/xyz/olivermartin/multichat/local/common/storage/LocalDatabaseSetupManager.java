@@ -2,8 +2,11 @@ package xyz.olivermartin.multichat.local.common.storage;
 
 import java.sql.SQLException;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.common.database.DatabaseManager;
 import xyz.olivermartin.multichat.common.database.DatabaseMode;
+import xyz.olivermartin.multichat.common.database.SchemaMigration;
+import xyz.olivermartin.multichat.common.database.SchemaMigrator;
 import xyz.olivermartin.multichat.common.database.SimpleConnection;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 
@@ -57,6 +60,8 @@ public class LocalDatabaseSetupManager {
 			conn.safeUpdate("CREATE TABLE IF NOT EXISTS nick_data(id VARCHAR(128), u_nick VARCHAR(255), f_nick VARCHAR(255), PRIMARY KEY (id));");
 			conn.closeAll();
 
+			migrateDatabase();
+
 			return true;
 
 		} catch (SQLException e) {
@@ -67,4 +72,35 @@ public class LocalDatabaseSetupManager {
 
 	}
 
+	/**
+	 * Bring the name_data and nick_data tables up to date
+	 * <p>A failed migration is logged, but the tables remain usable at their previous version</p>
+	 */
+	private void migrateDatabase() {
+
+		SchemaMigrator migrator = new SchemaMigrator(DatabaseManager.getInstance().getDatabase(databaseName).get(), "multichatlocal");
+
+		// Usernames are not unique, as another player may since have taken the name of someone who has not logged in again.
+		// Nicknames are kept unique by the name manager, but older databases may already hold duplicates, which a unique
+		// index would fail on every startup, so neither index is unique.
+		migrator.addMigration(new SchemaMigration(1, "Index usernames and nicknames") {
+			@Override
+			public void migrate(SimpleConnection conn, DatabaseMode mode) throws SQLException {
+				createIndex(conn, mode, "name_data", "idx_name_data_u_name", "u_name", false);
+				createIndex(conn, mode, "nick_data", "idx_nick_data_u_nick", "u_nick", false);
+			}
+		});
+
+		try {
+			int version = migrator.migrate();
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalDatabaseSetupManager] Database schema is at version %s", version);
+		} catch (SQLException e) {
+			MultiChatLocal.getInstance().getConsoleLogger().log("Could not update the database schema! Name lookups will be slower until this is fixed: " + e.getMessage());
+			if (e.getCause() != null) {
+				MultiChatLocal.getInstance().getConsoleLogger().log("Caused by: " + e.getCause().getMessage());
+			}
+		}
+
+	}
+
 }
@@ -1,13 +1,12 @@
 package xyz.olivermartin.multichat.local.common.storage;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.regex.PatternSyntaxException;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
 
@@ -29,12 +28,21 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	protected Map<String,String> mapNickFormatted;
 	protected Map<String,String> mapNameFormatted;
 
+	// Indexes over the keys of mapNameUUID and mapNickUUID for partial matching
+	protected PartialMatchIndex nameIndex;
+	protected PartialMatchIndex nickIndex;
+
+	// Records changes as they are made, if the nickname file uses one
+	protected LocalNameJournal journal;
+
 	protected MultiChatLocalPlatform platform;
 
 	public LocalFileNameManager(MultiChatLocalPlatform platform) {
 
 		super(LocalNameManagerMode.FILE);
 		this.platform = platform;
+		this.nameIndex = new PartialMatchIndex();
+		this.nickIndex = new PartialMatchIndex();
 		setDefaultData();
 
 	}
@@ -87,10 +95,12 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 
 	public void setMapNameUUID(Map<String, UUID> mapNameUUID) {
 		this.mapNameUUID = mapNameUUID;
+		nameIndex.rebuild(mapNameUUID);
 	}
 
 	public void setMapNickUUID(Map<String, UUID> mapNickUUID) {
 		this.mapNickUUID = mapNickUUID;
+		nickIndex.rebuild(mapNickUUID);
 	}
 
 	public void setMapNameFormatted(Map<String, String> mapNameFormatted) {
@@ -101,6 +111,23 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 		this.mapNickFormatted = mapNickFormatted;
 	}
 
+	public void setJournal(LocalNameJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * The lock every journaled change takes before any of the maps
+	 * 
+	 * <p>The journal holds its own lock while it compacts, which reads the maps, so a change must
+	 * take the journal's lock first rather than while holding a map, or the two could deadlock.</p>
+	 * 
+	 * @return The journal, or this name manager if there is no journal
+	 */
+	protected Object getChangeLock() {
+		LocalNameJournal current = journal;
+		return current == null ? this : current;
+	}
+
 	/**
 	 * Returns the FORMATTED NICKNAME of a player if they have one set, otherwise returns their username
 	 * 
@@ -110,12 +137,12 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 */
 	public String getCurrentName(UUID uuid, boolean withPrefix) {
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Getting CurrentName for " + uuid);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Getting CurrentName for %s", uuid);
 
 		synchronized (mapUUIDNick) {
 			if (mapUUIDNick.containsKey(uuid)) {
 				
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] UUID is in the UUIDNick map");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] UUID is in the UUIDNick map");
 				
 				String currentName;
 				
@@ -125,24 +152,24 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 					currentName = mapNickFormatted.get(mapUUIDNick.get(uuid));
 				}
 				
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] CurrentName (withPrefix?=" + withPrefix + ") is " + currentName);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] CurrentName (withPrefix?=%s) is %s", withPrefix, currentName);
 				
 				return currentName;
 			} 
 		}
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] They do not have a nickname...");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] They do not have a nickname...");
 
 		synchronized (mapUUIDName) {
 			if (mapUUIDName.containsKey(uuid)) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] They are in the UUIDName map!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] They are in the UUIDName map!");
 				String result = mapNameFormatted.get(mapUUIDName.get(uuid));
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] CurrentName is " + result);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] CurrentName is %s", result);
 				return result;
 			}
 		}
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] This player does not exist in any map... returning empty string");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] This player does not exist in any map... returning empty string");
 
 		return "";
 	}
@@ -212,60 +239,72 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 * @param player
 	 */
 	public void registerPlayer(UUID uuid, String username) {
-		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Registering player (" + username + ") with UUID = " + uuid);
 
-		String oldUsername;
+		synchronized (getChangeLock()) {
 
-		synchronized (mapUUIDName) {
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Registering player (%s) with UUID = %s", username, uuid);
 
-			if (mapUUIDName.containsKey(uuid)) {
+			String oldUsername;
+
+			synchronized (mapUUIDName) {
+
+				if (mapUUIDName.containsKey(uuid)) {
 				
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] The player has joined before...");
+					MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] The player has joined before...");
 
-				oldUsername = mapUUIDName.get(uuid);
+					oldUsername = mapUUIDName.get(uuid);
 
-				if (!oldUsername.equalsIgnoreCase(username)) {
+					if (!oldUsername.equalsIgnoreCase(username)) {
 					
-					MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] They have a new username (" + username + "), previously was " + oldUsername);
+						MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] They have a new username (%s), previously was %s", username, oldUsername);
 
-					synchronized (mapNameUUID) {
+						synchronized (mapNameUUID) {
 
-						mapUUIDName.remove(uuid);
-						mapUUIDName.put(uuid, username.toLowerCase());
-						mapNameUUID.remove(oldUsername);
-						mapNameUUID.put(username.toLowerCase(), uuid);
+							mapUUIDName.remove(uuid);
+							mapUUIDName.put(uuid, username.toLowerCase());
+							mapNameUUID.remove(oldUsername);
+							mapNameUUID.put(username.toLowerCase(), uuid);
+							nameIndex.remove(oldUsername);
+							nameIndex.put(username.toLowerCase(), uuid);
+
+						}
 
 					}
 
-				}
+					String oldFormattedName = mapNameFormatted.remove(oldUsername);
+					mapNameFormatted.put(username.toLowerCase(), username);
 
-				mapNameFormatted.remove(oldUsername);
-				mapNameFormatted.put(username.toLowerCase(), username);
+					if (journal != null && !username.equals(oldFormattedName)) {
+						journal.appendName(uuid, username);
+					}
 				
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Updated necessary maps!");
+					MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Updated necessary maps!");
 
-			} else {
+				} else {
 				
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Player has not joined before...");
+					MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Player has not joined before...");
 
-				synchronized (mapNameUUID) {
+					synchronized (mapNameUUID) {
 
-					mapUUIDName.put(uuid, username.toLowerCase());
-					mapNameUUID.put(username.toLowerCase(), uuid);
-					mapNameFormatted.put(username.toLowerCase(), username);
+						mapUUIDName.put(uuid, username.toLowerCase());
+						mapNameUUID.put(username.toLowerCase(), uuid);
+						mapNameFormatted.put(username.toLowerCase(), username);
+						nameIndex.put(username.toLowerCase(), uuid);
+						if (journal != null) journal.appendName(uuid, username);
 					
-					MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Updated necessary maps!");
+						MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Updated necessary maps!");
+
+					}
 
 				}
 
 			}
 
-		}
-
-		online.add(uuid);
+			online.add(uuid);
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Added player to list of online players!");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Added player to list of online players!");
+
+		}
 
 	}
 
@@ -276,21 +315,27 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 */
 	public void registerOfflinePlayerByUUID(UUID uuid, String username) {
 
-		synchronized (mapUUIDName) {
+		synchronized (getChangeLock()) {
 
-			if (mapUUIDName.containsKey(uuid)) {
+			synchronized (mapUUIDName) {
+
+				if (mapUUIDName.containsKey(uuid)) {
 
-				/*
-				 * EMPTY : Player does not need registering
-				 */
+					/*
+					 * EMPTY : Player does not need registering
+					 */
 
-			} else {
+				} else {
 
-				synchronized (mapNameUUID) {
+					synchronized (mapNameUUID) {
 
-					mapUUIDName.put(uuid, username.toLowerCase());
-					mapNameUUID.put(username.toLowerCase(), uuid);
-					mapNameFormatted.put(username.toLowerCase(), username);
+						mapUUIDName.put(uuid, username.toLowerCase());
+						mapNameUUID.put(username.toLowerCase(), uuid);
+						mapNameFormatted.put(username.toLowerCase(), username);
+						nameIndex.put(username.toLowerCase(), uuid);
+						if (journal != null) journal.appendName(uuid, username);
+
+					}
 
 				}
 
@@ -306,7 +351,7 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 */
 	public void unregisterPlayer(UUID uuid) {
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Unregistering " + uuid);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Unregistering %s", uuid);
 
 		online.remove(uuid);
 
@@ -318,39 +363,45 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 * @param nickname
 	 */
 	public void setNickname(UUID uuid, String nickname) {
-		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Setting nickname (" + nickname + ") for UUID " + uuid);
 
-		if (!mapUUIDName.containsKey(uuid)) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] This UUID is not in mapUUIDName... Abandoning...");
-			return;
-		}
+		synchronized (getChangeLock()) {
 
-		if (mapUUIDNick.containsKey(uuid)) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] They previously had an older nickname... Removing this...");
-			removeNickname(uuid);
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Old nickname removed!");
-		}
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Setting nickname (%s) for UUID %s", nickname, uuid);
+
+			if (!mapUUIDName.containsKey(uuid)) {
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] This UUID is not in mapUUIDName... Abandoning...");
+				return;
+			}
+
+			if (mapUUIDNick.containsKey(uuid)) {
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] They previously had an older nickname... Removing this...");
+				removeNickname(uuid);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Old nickname removed!");
+			}
 
-		String unformattedNickname = stripAllFormattingCodes(nickname.toLowerCase());
+			String unformattedNickname = stripAllFormattingCodes(nickname.toLowerCase());
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Unformatted nickname = " + unformattedNickname);
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Unformatted nickname = %s", unformattedNickname);
 
-		synchronized (mapNickUUID) {
+			synchronized (mapNickUUID) {
 
-			// Check for duplicates
-			if (mapNickUUID.containsKey(unformattedNickname)) {
-				if (mapNickUUID.get(unformattedNickname) != uuid) {
-					MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] This nickname already exists... Abandoning...");
-					return;
+				// Check for duplicates
+				if (mapNickUUID.containsKey(unformattedNickname)) {
+					if (mapNickUUID.get(unformattedNickname) != uuid) {
+						MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] This nickname already exists... Abandoning...");
+						return;
+					}
 				}
-			}
 
-			mapUUIDNick.put(uuid, unformattedNickname);
-			mapNickUUID.put(unformattedNickname, uuid);
-			mapNickFormatted.put(unformattedNickname, nickname);
+				mapUUIDNick.put(uuid, unformattedNickname);
+				mapNickUUID.put(unformattedNickname, uuid);
+				mapNickFormatted.put(unformattedNickname, nickname);
+				nickIndex.put(unformattedNickname, uuid);
+				if (journal != null) journal.appendNickname(uuid, nickname);
 			
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Maps updated with new info!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Maps updated with new info!");
+
+			}
 
 		}
 
@@ -378,49 +429,12 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 * @return An optional which might contain a players UUID if a partial match was found
 	 */
 	public Optional<Set<UUID>> getPartialNicknameMatches(String nickname) {
+		return getPartialNicknameMatches(nickname, Integer.MAX_VALUE);
+	}
 
-		Set<String> nickSet = mapNickUUID.keySet();
-		nickname = stripAllFormattingCodes(nickname.toLowerCase());
-		Set<UUID> uuidSet = new HashSet<UUID>();
-
-		for (String nick : nickSet) {
-
-			if (nick.startsWith(nickname)) {
-				uuidSet.add(mapNickUUID.get(nick));
-			}
-
-		}
-
-		if (!uuidSet.isEmpty()) return Optional.of(uuidSet);
-
-		for (String nick : nickSet) {
-
-			if (nick.contains(nickname)) {
-				uuidSet.add(mapNickUUID.get(nick));
-			}
-
-		}
-
-		if (!uuidSet.isEmpty()) return Optional.of(uuidSet);
-
-		try {
-			for (String nick : nickSet) {
-
-				if (nick.matches(nickname)) {
-					uuidSet.add(mapNickUUID.get(nick));
-				}
-
-			}
-		} catch (PatternSyntaxException e) {
-			/*
-			 * Its not a valid regex, so we will just say there are no matches!
-			 */
-		}
-
-		if (!uuidSet.isEmpty()) return Optional.of(uuidSet);
-
-		return Optional.empty();
-
+	@Override
+	public Optional<Set<UUID>> getPartialNicknameMatches(String nickname, int limit) {
+		return findPartialMatches(nickIndex, stripAllFormattingCodes(nickname.toLowerCase()), limit);
 	}
 
 	/**
@@ -429,43 +443,23 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 * @return An optional which might contain a players UUID if a partial match was found
 	 */
 	public Optional<Set<UUID>> getPartialNameMatches(String name) {
+		return getPartialNameMatches(name, Integer.MAX_VALUE);
+	}
 
-		Set<String> nameSet = mapNameUUID.keySet();
-		name = stripAllFormattingCodes(name.toLowerCase());
-		Set<UUID> uuidSet = new HashSet<UUID>();
-
-		for (String n : nameSet) {
-
-			if (n.startsWith(name)) {
-				uuidSet.add(mapNameUUID.get(n));
-			}
-
-		}
-
-		if (!uuidSet.isEmpty()) return Optional.of(uuidSet);
-
-		for (String n : nameSet) {
-
-			if (n.contains(name)) {
-				uuidSet.add(mapNameUUID.get(n));
-			}
-
-		}
-
-		if (!uuidSet.isEmpty()) return Optional.of(uuidSet);
+	@Override
+	public Optional<Set<UUID>> getPartialNameMatches(String name, int limit) {
+		return findPartialMatches(nameIndex, stripAllFormattingCodes(name.toLowerCase()), limit);
+	}
 
-		try {
-			for (String n : nameSet) {
+	/**
+	 * Matches names starting with the query first, then those containing it, and then only if enabled in the config, those matching it as a regex
+	 */
+	private Optional<Set<UUID>> findPartialMatches(PartialMatchIndex index, String query, int limit) {
 
-				if (n.matches(name)) {
-					uuidSet.add(mapNameUUID.get(n));
-				}
+		Set<UUID> uuidSet = index.find(query, limit);
 
-			}
-		} catch (PatternSyntaxException e) {
-			/*
-			 * Its not a valid regex, so we will just say there are no matches!
-			 */
+		if (uuidSet.isEmpty() && MultiChatLocal.getInstance().getConfigManager().getLocalConfig().isNicknameRegexSearch()) {
+			uuidSet = index.findByRegex(query, limit);
 		}
 
 		if (!uuidSet.isEmpty()) return Optional.of(uuidSet);
@@ -487,23 +481,29 @@ public abstract class LocalFileNameManager extends LocalNameManager {
 	 * @param uuid
 	 */
 	public void removeNickname(UUID uuid) {
-		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Removing nickname for " + uuid);
 
-		synchronized (mapUUIDNick) {
+		synchronized (getChangeLock()) {
 
-			if (!mapUUIDNick.containsKey(uuid)) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] This player does not have a nickname! Abandoning...");
-				return;
-			}
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Removing nickname for %s", uuid);
+
+			synchronized (mapUUIDNick) {
 
-			String nickname = mapUUIDNick.get(uuid);
+				if (!mapUUIDNick.containsKey(uuid)) {
+					MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] This player does not have a nickname! Abandoning...");
+					return;
+				}
 
-			mapUUIDNick.remove(uuid);
-			mapNickUUID.remove(nickname);
-			mapNickFormatted.remove(nickname);
+				String nickname = mapUUIDNick.get(uuid);
+
+				mapUUIDNick.remove(uuid);
+				mapNickUUID.remove(nickname);
+				mapNickFormatted.remove(nickname);
+				nickIndex.remove(nickname);
+				if (journal != null) journal.appendRemoveNickname(uuid);
 			
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalFileNameManager] Updated necessary maps! Completed process.");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalFileNameManager] Updated necessary maps! Completed process.");
+
+			}
 
 		}
 
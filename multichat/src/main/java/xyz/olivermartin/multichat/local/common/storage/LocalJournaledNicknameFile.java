@@ -0,0 +1,94 @@
+package xyz.olivermartin.multichat.local.common.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import xyz.olivermartin.multichat.local.common.MultiChatLocal;
+import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
+
+/**
+ * A nickname file stored using a {@link LocalNameJournal}
+ * 
+ * <p>Changes are journaled as they are made by the name manager, so saving just compacts the journal into
+ * a new snapshot. A file still in the platform's old format is loaded once using {@link #loadLegacyFile(File)},
+ * backed up, and then rewritten as a snapshot.</p>
+ */
+public abstract class LocalJournaledNicknameFile extends LocalNicknameFile {
+
+	// Not initialised here, as it is first set by startupFile() while the super constructor is still running
+	private LocalNameJournal journal;
+
+	public LocalJournaledNicknameFile(File configPath, String fileName, LocalFileNameManager lfnm, MultiChatLocalPlatform platform) {
+		super(configPath, fileName, lfnm, platform);
+	}
+
+	private LocalNameJournal getJournal(File file) {
+		if (journal == null) {
+			journal = new LocalNameJournal(file, lfnm);
+			lfnm.setJournal(journal);
+		}
+		return journal;
+	}
+
+	@Override
+	protected boolean startupFile() {
+		// The journal can be replayed without a snapshot, so an empty file must not be saved first
+		return loadFile(getFile());
+	}
+
+	@Override
+	protected boolean loadFile(File file) {
+
+		LocalNameJournal journal = getJournal(file);
+
+		if (file.exists() && !LocalNameJournal.isSnapshot(file)) {
+
+			MultiChatLocal.getInstance().getConsoleLogger().log("Converting " + file.getName() + " to the new name data format...");
+
+			if (!loadLegacyFile(file)) {
+				return false;
+			}
+
+			File backup = new File(file.getParentFile(), file.getName() + ".old");
+
+			try {
+				Files.copy(file.toPath(), backup.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			} catch (IOException e) {
+				MultiChatLocal.getInstance().getConsoleLogger().log("Could not back up " + file.getName() + ", so it has not been converted!");
+				return false;
+			}
+
+			if (!journal.compact()) {
+				return false;
+			}
+
+			MultiChatLocal.getInstance().getConsoleLogger().log("Converted " + file.getName() + ", the old file has been kept as " + backup.getName());
+
+			return true;
+
+		}
+
+		return journal.load();
+
+	}
+
+	@Override
+	protected boolean saveFile(File file) {
+		return getJournal(file).compact();
+	}
+
+	@Override
+	public void close() {
+		if (journal != null) journal.close();
+	}
+
+	/**
+	 * Load a nickname file which was saved in this platform's old format into the name manager
+	 * @param file
+	 * @return True if it was loaded
+	 */
+	protected abstract boolean loadLegacyFile(File file);
+
+}
@@ -0,0 +1,673 @@
+package xyz.olivermartin.multichat.local.common.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import xyz.olivermartin.multichat.common.DebugCategory;
+import xyz.olivermartin.multichat.local.common.MultiChatLocal;
+
+/**
+ * Journaled storage for the name data of a {@link LocalFileNameManager}
+ *
+ * <p>Every change to a name or nickname is appended to a journal as it happens, so saving only ever
+ * writes what has changed. Once the journal grows as large as the snapshot, it is compacted on a background
+ * thread: the journal is moved aside and a new one started, then the state at that moment is written to a new
+ * snapshot (via a temporary file which is then renamed over the old one) and the old journal is deleted.
+ * Changes are only held up while the state is copied, never while the snapshot is written.
+ * Loading replays the snapshot, then any journal left aside by an unfinished compaction, and then the journal.</p>
+ *
+ * <p>Each record carries a CRC32 checksum. A journal which was cut short by a crash is read up to the
+ * last complete record, and the rest is discarded.</p>
+ */
+public class LocalNameJournal {
+
+	private static final int SNAPSHOT_MAGIC = 0x4D434E53; // MCNS
+	private static final int JOURNAL_MAGIC = 0x4D434E4A; // MCNJ
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte RECORD_NAME = 1;
+	private static final byte RECORD_NICK = 2;
+	private static final byte RECORD_REMOVE_NICK = 3;
+
+	private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+	// Never compact more often than this, however small the snapshot
+	private static final int MIN_COMPACT_RECORDS = 1000;
+
+	/**
+	 * @param file
+	 * @return True if this file is a snapshot written by a name journal, rather than in a legacy format
+	 */
+	public static boolean isSnapshot(File file) {
+
+		if (!file.exists() || file.length() < 8) return false;
+
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == SNAPSHOT_MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+
+	}
+
+	/* END STATIC */
+
+	private File snapshotFile;
+	private File journalFile;
+	private File compactingFile;
+	private LocalFileNameManager lfnm;
+
+	// Held for the whole of a compaction, before the lock on this journal
+	private final Object compactLock = new Object();
+	private ExecutorService compactExecutor;
+	private boolean compactQueued;
+	private boolean closed;
+
+	private DataOutputStream journalOut;
+	private int journalRecords;
+	private int snapshotRecords;
+
+	public LocalNameJournal(File snapshotFile, LocalFileNameManager lfnm) {
+		this.snapshotFile = snapshotFile;
+		this.journalFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".journal");
+		this.compactingFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".journal.compacting");
+		this.lfnm = lfnm;
+	}
+
+	/**
+	 * Load the snapshot and replay the journal into the name manager (overwrites anything currently loaded)
+	 * <p>The journal is then left open to record further changes.</p>
+	 * @return True if the data was loaded
+	 */
+	public boolean load() {
+
+		synchronized (compactLock) {
+			synchronized (this) {
+
+				closeJournal();
+				closed = false;
+
+				NameData data = new NameData();
+
+				try {
+
+					if (snapshotFile.exists()) {
+						snapshotRecords = readSnapshot(data);
+					} else {
+						snapshotRecords = 0;
+					}
+
+					// Left by a compaction which did not finish, and older than anything in the journal
+					int compactingRecords = 0;
+					long compactingLength = 0;
+
+					if (compactingFile.exists()) {
+						compactingLength = readJournal(compactingFile, data);
+						compactingRecords = journalRecords;
+					}
+
+					long validLength = journalFile.exists() ? readJournal(journalFile, data) : 0;
+
+					data.apply(lfnm);
+
+					if (compactingFile.exists()) {
+						restoreCompactingJournal(compactingLength, validLength);
+						journalRecords += compactingRecords;
+						validLength = journalFile.length();
+					}
+
+					openJournal(validLength);
+
+					MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNameJournal] Loaded %s snapshot records and %s journal records", snapshotRecords, journalRecords);
+
+					return true;
+
+				} catch (IOException e) {
+					MultiChatLocal.getInstance().getConsoleLogger().log("Could not load name data from " + snapshotFile.getName() + ": " + e.getMessage());
+					return false;
+				}
+
+			}
+		}
+
+	}
+
+	/**
+	 * Write everything currently in the name manager to a new snapshot, and start a new journal
+	 * <p>This waits for the snapshot to be written, so should not be run on the main thread while the server is running.</p>
+	 * @return True if the snapshot was written
+	 */
+	public boolean compact() {
+		return compact(false);
+	}
+
+	private boolean compact(boolean background) {
+
+		synchronized (compactLock) {
+
+			byte[] snapshot;
+			int records;
+			int compactingRecords;
+
+			synchronized (this) {
+
+				compactQueued = false;
+
+				// Nothing more should be written once closed
+				if (background && closed) return false;
+
+				closeJournal();
+
+				try {
+
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					DataOutputStream out = new DataOutputStream(bytes);
+					records = writeSnapshot(out);
+					out.flush();
+					snapshot = bytes.toByteArray();
+
+					// Still there if it could not be put back after an earlier compaction failed
+					if (compactingFile.exists()) {
+						restoreCompactingJournal(compactingFile.length(), journalFile.exists() ? journalFile.length() : 0);
+					}
+
+					// Changes from now on go to a new journal, while the old one is kept until the snapshot is written
+					if (journalFile.exists()) {
+						Files.move(journalFile.toPath(), compactingFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+
+					compactingRecords = journalRecords;
+					openJournal(0);
+
+				} catch (IOException e) {
+
+					MultiChatLocal.getInstance().getConsoleLogger().log("Could not save name data to " + snapshotFile.getName() + ": " + e.getMessage());
+
+					// Keep journaling after the existing records, so nothing is lost
+					try {
+						openJournal(journalFile.exists() ? journalFile.length() : 0);
+					} catch (IOException ignored) { /* EMPTY */ }
+
+					return false;
+
+				}
+
+			}
+
+			File tempFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+
+			try {
+
+				try (FileOutputStream fileOut = new FileOutputStream(tempFile)) {
+
+					fileOut.write(snapshot);
+
+					// Make sure the snapshot is on disk before it replaces the old one
+					fileOut.getFD().sync();
+
+				}
+
+				try {
+					Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+
+			} catch (IOException e) {
+
+				MultiChatLocal.getInstance().getConsoleLogger().log("Could not save name data to " + snapshotFile.getName() + ": " + e.getMessage());
+
+				// Put the old journal back in front of the new one, so nothing is lost
+				synchronized (this) {
+
+					boolean open = journalOut != null;
+					closeJournal();
+
+					try {
+						restoreCompactingJournal(compactingFile.length(), journalFile.length());
+						journalRecords += compactingRecords;
+						if (open) openJournal(journalFile.length());
+					} catch (IOException restoreException) {
+						MultiChatLocal.getInstance().getConsoleLogger().log("Could not restore the name data journal, it will be replayed from " + compactingFile.getName() + " when next loaded: " + restoreException.getMessage());
+						try {
+							if (open) openJournal(journalFile.length());
+						} catch (IOException ignored) { /* EMPTY */ }
+					}
+
+				}
+
+				return false;
+
+			}
+
+			synchronized (this) {
+
+				// Everything in the old journal is now in the snapshot
+				compactingFile.delete();
+				snapshotRecords = records;
+
+			}
+
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNameJournal] Compacted name data into %s snapshot records", records);
+
+			return true;
+
+		}
+
+	}
+
+	/**
+	 * Stop recording changes, i.e. when the server is stopping
+	 * <p>Waits for a compaction already running in the background to finish.</p>
+	 */
+	public void close() {
+
+		ExecutorService executor;
+
+		synchronized (this) {
+			closed = true;
+			closeJournal();
+			executor = compactExecutor;
+			compactExecutor = null;
+		}
+
+		if (executor == null) return;
+
+		executor.shutdown();
+
+		try {
+			if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+				MultiChatLocal.getInstance().getConsoleLogger().log("Timed out waiting for the name data journal to be compacted");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+	}
+
+	/**
+	 * Record that a player has a (formatted) username
+	 */
+	public synchronized void appendName(UUID uuid, String formattedName) {
+		append(RECORD_NAME, uuid, formattedName);
+	}
+
+	/**
+	 * Record that a player has a (formatted) nickname
+	 */
+	public synchronized void appendNickname(UUID uuid, String formattedNick) {
+		append(RECORD_NICK, uuid, formattedNick);
+	}
+
+	/**
+	 * Record that a player no longer has a nickname
+	 */
+	public synchronized void appendRemoveNickname(UUID uuid) {
+		append(RECORD_REMOVE_NICK, uuid, null);
+	}
+
+	private void append(byte type, UUID uuid, String value) {
+
+		if (journalOut == null) return;
+
+		try {
+
+			writeRecord(journalOut, type, uuid, value);
+			journalOut.flush();
+			journalRecords++;
+
+		} catch (IOException e) {
+			MultiChatLocal.getInstance().getConsoleLogger().log("Could not write to name data journal: " + e.getMessage());
+			return;
+		}
+
+		if (journalRecords >= Math.max(MIN_COMPACT_RECORDS, snapshotRecords) && !compactQueued) {
+			queueCompaction();
+		}
+
+	}
+
+	/**
+	 * Compact on a background thread, as this is reached from the main thread when a player joins or changes nickname
+	 */
+	private void queueCompaction() {
+
+		if (compactExecutor == null) {
+			compactExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "MultiChatLocal-NameJournal");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		compactQueued = true;
+		compactExecutor.execute(() -> compact(true));
+
+	}
+
+	/**
+	 * Put the records of the journal after those of the journal left aside by a compaction, and make that the journal
+	 * @param compactingLength The length of the old journal up to the end of its last good record
+	 * @param journalLength The length of the journal up to the end of its last good record
+	 */
+	private void restoreCompactingJournal(long compactingLength, long journalLength) throws IOException {
+
+		if (compactingLength < 8) {
+			Files.delete(compactingFile.toPath());
+			return;
+		}
+
+		try (RandomAccessFile out = new RandomAccessFile(compactingFile, "rw")) {
+
+			out.setLength(compactingLength);
+			out.seek(compactingLength);
+
+			if (journalLength > 8) {
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+					in.skipBytes(8);
+					byte[] records = new byte[(int) (journalLength - 8)];
+					in.readFully(records);
+					out.write(records);
+				}
+			}
+
+		}
+
+		Files.move(compactingFile.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+	}
+
+	private void openJournal(long validLength) throws IOException {
+
+		if (validLength < 8) {
+
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journalFile, false))) {
+				out.writeInt(JOURNAL_MAGIC);
+				out.writeInt(FORMAT_VERSION);
+			}
+
+			journalRecords = 0;
+
+		} else if (journalFile.length() > validLength) {
+
+			// Drop anything after the last good record, otherwise new records could never be read back
+			try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+				raf.setLength(validLength);
+			}
+
+		}
+
+		journalOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+
+	}
+
+	private void closeJournal() {
+
+		if (journalOut == null) return;
+
+		try {
+			journalOut.close();
+		} catch (IOException ignored) { /* EMPTY */ }
+
+		journalOut = null;
+
+	}
+
+	private int writeSnapshot(DataOutputStream out) throws IOException {
+
+		out.writeInt(SNAPSHOT_MAGIC);
+		out.writeInt(FORMAT_VERSION);
+
+		Map<UUID, String> names = new HashMap<UUID, String>();
+		Map<UUID, String> nicks = new HashMap<UUID, String>();
+
+		synchronized (lfnm.getMapUUIDName()) {
+			for (Map.Entry<UUID, String> entry : lfnm.getMapUUIDName().entrySet()) {
+				String formatted = lfnm.getMapNameFormatted().get(entry.getValue());
+				names.put(entry.getKey(), formatted == null ? entry.getValue() : formatted);
+			}
+		}
+
+		synchronized (lfnm.getMapUUIDNick()) {
+			for (Map.Entry<UUID, String> entry : lfnm.getMapUUIDNick().entrySet()) {
+				String formatted = lfnm.getMapNickFormatted().get(entry.getValue());
+				nicks.put(entry.getKey(), formatted == null ? entry.getValue() : formatted);
+			}
+		}
+
+		out.writeInt(names.size() + nicks.size());
+
+		for (Map.Entry<UUID, String> entry : names.entrySet()) {
+			writeRecord(out, RECORD_NAME, entry.getKey(), entry.getValue());
+		}
+
+		for (Map.Entry<UUID, String> entry : nicks.entrySet()) {
+			writeRecord(out, RECORD_NICK, entry.getKey(), entry.getValue());
+		}
+
+		return names.size() + nicks.size();
+
+	}
+
+	private int readSnapshot(NameData data) throws IOException {
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+
+			if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a name data snapshot");
+			int version = in.readInt();
+			if (version > FORMAT_VERSION) throw new IOException("Name data snapshot is from a newer version (" + version + ")");
+
+			int count = in.readInt();
+
+			for (int i = 0; i < count; i++) {
+				// The snapshot was renamed into place once complete, so any damage here is a real error
+				if (!readRecord(in, data)) throw new IOException("Name data snapshot is corrupt at record " + i);
+			}
+
+			return count;
+
+		}
+
+	}
+
+	/**
+	 * @return The length of the journal up to the end of the last good record
+	 */
+	private long readJournal(File file, NameData data) throws IOException {
+
+		journalRecords = 0;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+			try {
+				if (in.readInt() != JOURNAL_MAGIC) throw new IOException("Not a name data journal");
+				int version = in.readInt();
+				if (version > FORMAT_VERSION) throw new IOException("Name data journal is from a newer version (" + version + ")");
+			} catch (EOFException e) {
+				// Crashed while writing the header, so there is nothing to replay
+				return 0;
+			}
+
+			long validLength = 8;
+
+			while (true) {
+
+				int recordLength;
+
+				try {
+					recordLength = readRecordLength(in);
+				} catch (EOFException e) {
+					break;
+				}
+
+				if (recordLength < 0 || !readRecordBody(in, recordLength, data)) {
+					MultiChatLocal.getInstance().getConsoleLogger().log("Discarding incomplete or corrupt records at the end of " + file.getName());
+					break;
+				}
+
+				validLength += 4 + recordLength + 4;
+				journalRecords++;
+
+			}
+
+			return validLength;
+
+		}
+
+	}
+
+	private static void writeRecord(DataOutputStream out, byte type, UUID uuid, String value) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		DataOutputStream payload = new DataOutputStream(bytes);
+
+		payload.writeByte(type);
+		payload.writeLong(uuid.getMostSignificantBits());
+		payload.writeLong(uuid.getLeastSignificantBits());
+		if (value != null) payload.writeUTF(value);
+
+		byte[] record = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(record);
+
+		out.writeInt(record.length);
+		out.write(record);
+		out.writeInt((int) crc.getValue());
+
+	}
+
+	private static boolean readRecord(DataInputStream in, NameData data) throws IOException {
+		int recordLength = readRecordLength(in);
+		return recordLength >= 0 && readRecordBody(in, recordLength, data);
+	}
+
+	/**
+	 * @return The length of the next record, or -1 if it is not a plausible length
+	 */
+	private static int readRecordLength(DataInputStream in) throws IOException {
+		int recordLength = in.readInt();
+		return (recordLength < 17 || recordLength > MAX_RECORD_LENGTH) ? -1 : recordLength;
+	}
+
+	/**
+	 * @return False if the record was incomplete or did not match its checksum
+	 */
+	private static boolean readRecordBody(DataInputStream in, int recordLength, NameData data) throws IOException {
+
+		byte[] record = new byte[recordLength];
+		int checksum;
+
+		try {
+			in.readFully(record);
+			checksum = in.readInt();
+		} catch (EOFException e) {
+			return false;
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		if ((int) crc.getValue() != checksum) return false;
+
+		DataInputStream payload = new DataInputStream(new ByteArrayInputStream(record));
+
+		byte type = payload.readByte();
+		UUID uuid = new UUID(payload.readLong(), payload.readLong());
+
+		switch (type) {
+		case RECORD_NAME:
+			data.setName(uuid, payload.readUTF());
+			return true;
+		case RECORD_NICK:
+			data.setNickname(uuid, payload.readUTF());
+			return true;
+		case RECORD_REMOVE_NICK:
+			data.removeNickname(uuid);
+			return true;
+		default:
+			return false;
+		}
+
+	}
+
+	/**
+	 * The maps of a {@link LocalFileNameManager}, built up while replaying records
+	 */
+	private static class NameData {
+
+		private Map<UUID, String> mapUUIDNick = new HashMap<UUID, String>();
+		private Map<UUID, String> mapUUIDName = new HashMap<UUID, String>();
+		private Map<String, UUID> mapNickUUID = new HashMap<String, UUID>();
+		private Map<String, UUID> mapNameUUID = new HashMap<String, UUID>();
+		private Map<String, String> mapNickFormatted = new HashMap<String, String>();
+		private Map<String, String> mapNameFormatted = new HashMap<String, String>();
+
+		private void setName(UUID uuid, String formattedName) {
+
+			String name = formattedName.toLowerCase();
+			String oldName = mapUUIDName.put(uuid, name);
+
+			if (oldName != null && !oldName.equals(name) && mapNameUUID.remove(oldName, uuid)) {
+				mapNameFormatted.remove(oldName);
+			}
+
+			mapNameUUID.put(name, uuid);
+			mapNameFormatted.put(name, formattedName);
+
+		}
+
+		private void setNickname(UUID uuid, String formattedNick) {
+
+			String nick = FormattingProfile.strip(formattedNick.toLowerCase());
+			String oldNick = mapUUIDNick.put(uuid, nick);
+
+			if (oldNick != null && !oldNick.equals(nick) && mapNickUUID.remove(oldNick, uuid)) {
+				mapNickFormatted.remove(oldNick);
+			}
+
+			mapNickUUID.put(nick, uuid);
+			mapNickFormatted.put(nick, formattedNick);
+
+		}
+
+		private void removeNickname(UUID uuid) {
+
+			String oldNick = mapUUIDNick.remove(uuid);
+
+			if (oldNick != null && mapNickUUID.remove(oldNick, uuid)) {
+				mapNickFormatted.remove(oldNick);
+			}
+
+		}
+
+		private void apply(LocalFileNameManager lfnm) {
+			lfnm.setMapUUIDNick(mapUUIDNick);
+			lfnm.setMapUUIDName(mapUUIDName);
+			lfnm.setMapNickUUID(mapNickUUID);
+			lfnm.setMapNameUUID(mapNameUUID);
+			lfnm.setMapNickFormatted(mapNickFormatted);
+			lfnm.setMapNameFormatted(mapNameFormatted);
+		}
+
+	}
+
+}
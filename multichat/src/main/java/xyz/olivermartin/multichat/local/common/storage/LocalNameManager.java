@@ -1,12 +1,16 @@
 package xyz.olivermartin.multichat.local.common.storage;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 
 /**
@@ -22,10 +26,13 @@ public abstract class LocalNameManager {
 	protected LocalNameManagerMode mode;
 	protected List<UUID> online;
 
+	private final Object nicknameLock = new Object();
+
 	protected LocalNameManager(LocalNameManagerMode mode) {
 
 		this.mode = mode;
-		this.online = new ArrayList<UUID>();
+		// Players may be registered from the name manager's I/O thread
+		this.online = Collections.synchronizedList(new ArrayList<UUID>());
 
 	}
 
@@ -33,6 +40,14 @@ public abstract class LocalNameManager {
 		return this.mode;
 	}
 
+	/**
+	 * Held while checking a nickname is free and then setting it,
+	 * as the SQL name manager runs its tasks on more than one thread
+	 */
+	public Object getNicknameLock() {
+		return nicknameLock;
+	}
+
 	/**
 	 * Returns the FORMATTED NICKNAME (WITH PREFIX IF SET) of a player if they have one set, otherwise returns their username
 	 * 
@@ -41,7 +56,7 @@ public abstract class LocalNameManager {
 	 */
 	public String getCurrentName(UUID uuid) {
 		String currentName = getCurrentName(uuid, true);
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalNameManager] CurrentName = " + currentName);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNameManager] CurrentName = %s", currentName);
 		return currentName;
 	}
 
@@ -92,7 +107,7 @@ public abstract class LocalNameManager {
 
 		Optional<UUID> uuid = getUUIDFromUnformattedNickname(nickname);
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalNameManager] UUIDFromNickname: " + nickname);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNameManager] UUIDFromNickname: %s", nickname);
 
 		return uuid;
 
@@ -216,6 +231,42 @@ public abstract class LocalNameManager {
 	 */
 	public abstract Optional<Set<UUID>> getPartialNameMatches(String name);
 
+	/**
+	 * Return the UUIDs of players who have nicknames containing characters provided in the nickname argument
+	 * @param nickname The characters of the nickname to check
+	 * @param limit The maximum number of matches to return
+	 * @return An optional which might contain a players UUID if a partial match was found
+	 */
+	public Optional<Set<UUID>> getPartialNicknameMatches(String nickname, int limit) {
+		return limitMatches(getPartialNicknameMatches(nickname), limit);
+	}
+
+	/**
+	 * Return the UUIDs of players who have names containing characters provided in the name argument
+	 * @param name The characters of the name to check
+	 * @param limit The maximum number of matches to return
+	 * @return An optional which might contain a players UUID if a partial match was found
+	 */
+	public Optional<Set<UUID>> getPartialNameMatches(String name, int limit) {
+		return limitMatches(getPartialNameMatches(name), limit);
+	}
+
+	private Optional<Set<UUID>> limitMatches(Optional<Set<UUID>> matches, int limit) {
+
+		if (!matches.isPresent() || matches.get().size() <= limit) {
+			return matches;
+		}
+
+		Set<UUID> limited = new LinkedHashSet<UUID>();
+		for (UUID uuid : matches.get()) {
+			if (limited.size() >= limit) break;
+			limited.add(uuid);
+		}
+
+		return Optional.of(limited);
+
+	}
+
 	/**
 	 * @param uuid
 	 * @return If this player is currently online on the server
@@ -223,7 +274,7 @@ public abstract class LocalNameManager {
 	public boolean isOnline(UUID uuid) {
 		boolean result = online.contains(uuid);
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalNameManager] Is UUID (" + uuid.toString() + ") online? - " + result);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNameManager] Is UUID (%s) online? - %s", uuid, result);
 
 		return result;
 	}
@@ -234,89 +285,169 @@ public abstract class LocalNameManager {
 	 */
 	public abstract void removeNickname(UUID uuid);
 
-	/*
-	 * Remove all colour / format codes from a string (using the '&' char)
+	/**
+	 * Run a task which uses this name manager without blocking the calling thread
+	 * 
+	 * <p>Name managers which hold everything in memory simply run the task straight away, but
+	 * those backed by a database run it on their own I/O executor.</p>
+	 * 
+	 * <p>The returned future may complete on any thread, so results which touch the server must
+	 * be handed back using {@link MultiChatLocal#getMainThreadExecutor()}.</p>
+	 * 
+	 * @param task The task to run
+	 * @return A future which completes with the result of the task
 	 */
-	public String stripAllFormattingCodes(String input) {
+	public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
 
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "[0-9A-FK-ORX]");
+		CompletableFuture<T> future = new CompletableFuture<T>();
 
-		if (input == null) {
-			return null;
+		try {
+			future.complete(task.get());
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			future.completeExceptionally(e);
 		}
 
-		return STRIP_COLOR_PATTERN.matcher(input).replaceAll("");
+		return future;
 
 	}
 
-	/*
-	 * Remove all colour / format codes from a string (using the special  char)
+	/**
+	 * Asynchronous version of {@link #registerPlayer(UUID, String)}
 	 */
-	public String stripAllFormattingCodesAndPreformattedText(String input) {
-
-		input = stripAllFormattingCodes(input);
+	public CompletableFuture<Void> registerPlayerAsync(UUID uuid, String username) {
+		return supplyAsync(() -> {
+			registerPlayer(uuid, username);
+			return null;
+		});
+	}
 
-		char COLOR_CHAR = '';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "[0-9A-FK-ORX]");
+	/**
+	 * Asynchronous version of {@link #setNickname(UUID, String)}
+	 */
+	public CompletableFuture<Void> setNicknameAsync(UUID uuid, String nickname) {
+		return supplyAsync(() -> {
+			setNickname(uuid, nickname);
+			return null;
+		});
+	}
 
-		if (input == null) {
+	/**
+	 * Asynchronous version of {@link #removeNickname(UUID)}
+	 */
+	public CompletableFuture<Void> removeNicknameAsync(UUID uuid) {
+		return supplyAsync(() -> {
+			removeNickname(uuid);
 			return null;
-		}
+		});
+	}
 
-		return STRIP_COLOR_PATTERN.matcher(input).replaceAll("");
+	/**
+	 * Asynchronous version of {@link #existsPlayer(String)}
+	 */
+	public CompletableFuture<Boolean> existsPlayerAsync(String username) {
+		return supplyAsync(() -> existsPlayer(username));
+	}
 
+	/**
+	 * Asynchronous version of {@link #existsNickname(String)}
+	 */
+	public CompletableFuture<Boolean> existsNicknameAsync(String nickname) {
+		return supplyAsync(() -> existsNickname(nickname));
 	}
 
 	/**
-	 * @param input
-	 * @return True if the input contains colour codes (e.g. '&a')
+	 * Asynchronous version of {@link #getNameFromNickname(String)}
 	 */
-	public boolean containsSimpleColorCodes(String input) {
+	public CompletableFuture<Optional<String>> getNameFromNicknameAsync(String nickname) {
+		return supplyAsync(() -> getNameFromNickname(nickname));
+	}
 
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "[0-9A-F]");
+	/**
+	 * Asynchronous version of {@link #getFormattedNameFromName(String)}
+	 */
+	public CompletableFuture<Optional<String>> getFormattedNameFromNameAsync(String username) {
+		return supplyAsync(() -> getFormattedNameFromName(username));
+	}
 
-		if (input == null) {
-			return false;
-		}
+	/**
+	 * Asynchronous version of {@link #getPartialNicknameMatches(String)}
+	 */
+	public CompletableFuture<Optional<Set<UUID>>> getPartialNicknameMatchesAsync(String nickname) {
+		return supplyAsync(() -> getPartialNicknameMatches(nickname));
+	}
 
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
+	/**
+	 * Asynchronous version of {@link #getPartialNameMatches(String)}
+	 */
+	public CompletableFuture<Optional<Set<UUID>>> getPartialNameMatchesAsync(String name) {
+		return supplyAsync(() -> getPartialNameMatches(name));
+	}
 
+	/**
+	 * Stop any background work used by this name manager
+	 * 
+	 * <p>Should be called in onDisable(), before the database is disconnected</p>
+	 */
+	public void shutdown() {
+		/* EMPTY */
 	}
 
 	/**
+	 * Profile the '&' colour / format codes used in a string in a single pass
 	 * @param input
-	 * @return True if the input contains hex colour codes (e.g. '&x...')
+	 * @return The formatting profile of the input, or null if the input was null
 	 */
-	public boolean containsRGBColorCodes(String input) {
+	public FormattingProfile getFormattingProfile(String input) {
+		return FormattingProfile.of(input);
+	}
 
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "[X]");
+	/*
+	 * Remove all colour / format codes from a string (using the '&' char)
+	 */
+	public String stripAllFormattingCodes(String input) {
+		return FormattingProfile.strip(input);
+	}
+
+	/*
+	 * Remove all colour / format codes from a string (using the '&' char and then the special section sign char)
+	 */
+	public String stripAllFormattingCodesAndPreformattedText(String input) {
+		return FormattingProfile.stripIncludingPreformatted(input);
+	}
+
+	private boolean containsCodes(String input, int mask) {
 
 		if (input == null) {
 			return false;
 		}
 
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
+		return FormattingProfile.of(input).contains(mask);
 
 	}
 
 	/**
 	 * @param input
-	 * @return True if the input contains format codes (e.g. '&l')
+	 * @return True if the input contains colour codes (e.g. '&a')
 	 */
-	public boolean containsFormatCodes(String input) {
-
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "[K-OR]");
-
-		if (input == null) {
-			return false;
-		}
+	public boolean containsSimpleColorCodes(String input) {
+		return containsCodes(input, FormattingProfile.SIMPLE_COLOR);
+	}
 
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
+	/**
+	 * @param input
+	 * @return True if the input contains hex colour codes (e.g. '&x...')
+	 */
+	public boolean containsRGBColorCodes(String input) {
+		return containsCodes(input, FormattingProfile.RGB_COLOR);
+	}
 
+	/**
+	 * @param input
+	 * @return True if the input contains format codes (e.g. '&l')
+	 */
+	public boolean containsFormatCodes(String input) {
+		return containsCodes(input, FormattingProfile.ANY_FORMAT);
 	}
 
 	/**
@@ -324,16 +455,7 @@ public abstract class LocalNameManager {
 	 * @return True if the input contains bold format codes
 	 */
 	public boolean containsBoldFormatCodes(String input) {
-
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "L");
-
-		if (input == null) {
-			return false;
-		}
-
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
-
+		return containsCodes(input, FormattingProfile.BOLD);
 	}
 
 	/**
@@ -341,16 +463,7 @@ public abstract class LocalNameManager {
 	 * @return True if the input contains italic format codes
 	 */
 	public boolean containsItalicFormatCodes(String input) {
-
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "O");
-
-		if (input == null) {
-			return false;
-		}
-
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
-
+		return containsCodes(input, FormattingProfile.ITALIC);
 	}
 
 	/**
@@ -358,16 +471,7 @@ public abstract class LocalNameManager {
 	 * @return True if the input contains underline format codes
 	 */
 	public boolean containsUnderlineFormatCodes(String input) {
-
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "N");
-
-		if (input == null) {
-			return false;
-		}
-
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
-
+		return containsCodes(input, FormattingProfile.UNDERLINE);
 	}
 
 	/**
@@ -375,16 +479,7 @@ public abstract class LocalNameManager {
 	 * @return True if the input contains strikethrough format codes
 	 */
 	public boolean containsStrikethroughFormatCodes(String input) {
-
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "M");
-
-		if (input == null) {
-			return false;
-		}
-
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
-
+		return containsCodes(input, FormattingProfile.STRIKETHROUGH);
 	}
 
 	/**
@@ -392,16 +487,7 @@ public abstract class LocalNameManager {
 	 * @return True if the input contains obfuscated format codes
 	 */
 	public boolean containsObfuscatedFormatCodes(String input) {
-
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "K");
-
-		if (input == null) {
-			return false;
-		}
-
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
-
+		return containsCodes(input, FormattingProfile.OBFUSCATED);
 	}
 
 	/**
@@ -409,16 +495,7 @@ public abstract class LocalNameManager {
 	 * @return True if the input contains reset format codes
 	 */
 	public boolean containsResetFormatCodes(String input) {
-
-		char COLOR_CHAR = '&';
-		Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + String.valueOf(COLOR_CHAR) + "R");
-
-		if (input == null) {
-			return false;
-		}
-
-		return !STRIP_COLOR_PATTERN.matcher(input).replaceAll("").equals(input);
-
+		return containsCodes(input, FormattingProfile.RESET);
 	}
 
 }
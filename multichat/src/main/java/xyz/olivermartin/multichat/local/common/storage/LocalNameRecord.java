@@ -0,0 +1,58 @@
+package xyz.olivermartin.multichat.local.common.storage;
+
+/**
+ * An immutable copy of the name and nickname data held for a player
+ *
+ * <p>The nickname fields are null if the player does not have a nickname set.</p>
+ */
+public class LocalNameRecord {
+
+	private final String formattedName;
+	private final String unformattedName;
+	private final String formattedNick;
+	private final String unformattedNick;
+
+	public LocalNameRecord(String formattedName, String unformattedName, String formattedNick, String unformattedNick) {
+		this.formattedName = formattedName;
+		this.unformattedName = unformattedName;
+		this.formattedNick = formattedNick;
+		this.unformattedNick = unformattedNick;
+	}
+
+	public String getFormattedName() {
+		return this.formattedName;
+	}
+
+	public String getUnformattedName() {
+		return this.unformattedName;
+	}
+
+	public String getFormattedNick() {
+		return this.formattedNick;
+	}
+
+	public String getUnformattedNick() {
+		return this.unformattedNick;
+	}
+
+	public boolean hasNickname() {
+		return this.formattedNick != null;
+	}
+
+	/**
+	 * @param formattedNick
+	 * @param unformattedNick
+	 * @return A copy of this record with the nickname set
+	 */
+	public LocalNameRecord withNickname(String formattedNick, String unformattedNick) {
+		return new LocalNameRecord(formattedName, unformattedName, formattedNick, unformattedNick);
+	}
+
+	/**
+	 * @return A copy of this record with the nickname removed
+	 */
+	public LocalNameRecord withoutNickname() {
+		return new LocalNameRecord(formattedName, unformattedName, null, null);
+	}
+
+}
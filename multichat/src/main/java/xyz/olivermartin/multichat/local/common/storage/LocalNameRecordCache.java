@@ -0,0 +1,188 @@
+package xyz.olivermartin.multichat.local.common.storage;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In memory cache of name records for a database backed name manager
+ *
+ * <p>Records for online players are held until they log out. Records looked up for offline players
+ * (i.e. by /realname or /username) are held in a bounded LRU and expire after a while, as they may
+ * have been changed by another server sharing the same database.</p>
+ *
+ * <p>Reverse lookups (by username and by unformatted nickname) are served from indexes over every cached record.</p>
+ */
+public class LocalNameRecordCache {
+
+	private static class OfflineEntry {
+
+		private final LocalNameRecord record;
+		private final long expiry;
+
+		private OfflineEntry(LocalNameRecord record, long expiry) {
+			this.record = record;
+			this.expiry = expiry;
+		}
+
+	}
+
+	private final int maxOfflineRecords;
+	private final long offlineExpiryMillis;
+
+	private final Map<UUID, LocalNameRecord> online;
+	private final LinkedHashMap<UUID, OfflineEntry> offline;
+
+	private final Map<String, UUID> nameIndex;
+	private final Map<String, UUID> nickIndex;
+
+	public LocalNameRecordCache(int maxOfflineRecords, long offlineExpiryMillis) {
+
+		this.maxOfflineRecords = maxOfflineRecords;
+		this.offlineExpiryMillis = offlineExpiryMillis;
+
+		this.online = new HashMap<UUID, LocalNameRecord>();
+		this.nameIndex = new HashMap<String, UUID>();
+		this.nickIndex = new HashMap<String, UUID>();
+
+		// Access ordered, so the eldest entry is always the least recently used
+		this.offline = new LinkedHashMap<UUID, OfflineEntry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UUID, OfflineEntry> eldest) {
+				if (size() > LocalNameRecordCache.this.maxOfflineRecords) {
+					unindex(eldest.getKey(), eldest.getValue().record);
+					return true;
+				}
+				return false;
+			}
+
+		};
+
+	}
+
+	/**
+	 * @param uuid
+	 * @return The cached record for this player, if there is one
+	 */
+	public synchronized Optional<LocalNameRecord> get(UUID uuid) {
+
+		LocalNameRecord record = online.get(uuid);
+		if (record != null) return Optional.of(record);
+
+		OfflineEntry entry = offline.get(uuid);
+		if (entry == null) return Optional.empty();
+
+		if (entry.expiry < System.currentTimeMillis()) {
+			offline.remove(uuid);
+			unindex(uuid, entry.record);
+			return Optional.empty();
+		}
+
+		return Optional.of(entry.record);
+
+	}
+
+	/**
+	 * @param unformattedName The lowercase username
+	 * @return The UUID of the cached player with this username, if there is one
+	 */
+	public synchronized Optional<UUID> getUUIDFromName(String unformattedName) {
+		return getIndexed(nameIndex.get(unformattedName));
+	}
+
+	/**
+	 * @param unformattedNick The lowercase nickname with all formatting codes removed
+	 * @return The UUID of the cached player with this nickname, if there is one
+	 */
+	public synchronized Optional<UUID> getUUIDFromUnformattedNickname(String unformattedNick) {
+		return getIndexed(nickIndex.get(unformattedNick));
+	}
+
+	private Optional<UUID> getIndexed(UUID uuid) {
+		if (uuid == null) return Optional.empty();
+		// Make sure the record has not expired
+		return get(uuid).isPresent() ? Optional.of(uuid) : Optional.empty();
+	}
+
+	/**
+	 * Cache the record of an online player until they are removed by {@link #removeOnline(UUID)}
+	 * @param uuid
+	 * @param record
+	 */
+	public synchronized void putOnline(UUID uuid, LocalNameRecord record) {
+		OfflineEntry old = offline.remove(uuid);
+		if (old != null) unindex(uuid, old.record);
+		unindex(uuid, online.put(uuid, record));
+		index(uuid, record);
+	}
+
+	/**
+	 * Cache the record of an offline player in the LRU
+	 * @param uuid
+	 * @param record
+	 */
+	public synchronized void putOffline(UUID uuid, LocalNameRecord record) {
+
+		if (online.containsKey(uuid)) {
+			putOnline(uuid, record);
+			return;
+		}
+
+		OfflineEntry old = offline.put(uuid, new OfflineEntry(record, System.currentTimeMillis() + offlineExpiryMillis));
+		if (old != null) unindex(uuid, old.record);
+		index(uuid, record);
+
+	}
+
+	/**
+	 * Replace the record of a player, only if it is already cached
+	 * @param uuid
+	 * @param record
+	 */
+	public synchronized void update(UUID uuid, LocalNameRecord record) {
+		if (online.containsKey(uuid)) {
+			putOnline(uuid, record);
+		} else if (offline.containsKey(uuid)) {
+			putOffline(uuid, record);
+		}
+	}
+
+	/**
+	 * Stop treating a player as online, their record is moved into the LRU
+	 * @param uuid
+	 */
+	public synchronized void removeOnline(UUID uuid) {
+		LocalNameRecord record = online.remove(uuid);
+		if (record == null) return;
+		unindex(uuid, record);
+		putOffline(uuid, record);
+	}
+
+	/**
+	 * Remove any cached record for a player
+	 * @param uuid
+	 */
+	public synchronized void invalidate(UUID uuid) {
+		unindex(uuid, online.remove(uuid));
+		OfflineEntry old = offline.remove(uuid);
+		if (old != null) unindex(uuid, old.record);
+	}
+
+	private void index(UUID uuid, LocalNameRecord record) {
+		nameIndex.put(record.getUnformattedName(), uuid);
+		if (record.hasNickname()) nickIndex.put(record.getUnformattedNick(), uuid);
+	}
+
+	private void unindex(UUID uuid, LocalNameRecord record) {
+		if (record == null) return;
+		// Only remove index entries which still belong to this player
+		nameIndex.remove(record.getUnformattedName(), uuid);
+		if (record.hasNickname()) nickIndex.remove(record.getUnformattedNick(), uuid);
+	}
+
+}
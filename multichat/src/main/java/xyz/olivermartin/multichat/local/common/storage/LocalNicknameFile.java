@@ -2,6 +2,7 @@ package xyz.olivermartin.multichat.local.common.storage;
 
 import java.io.File;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
 
@@ -49,25 +50,32 @@ public abstract class LocalNicknameFile {
 
 	protected boolean startupFile() {
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalNicknameFile] Starting up file...");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNicknameFile] Starting up file...");
 
 		File file = new File(configPath, fileName);
 
 		boolean status;
 
 		if (!file.exists()) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalNicknameFile] File does not already exist...");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNicknameFile] File does not already exist...");
 			status = saveFile(file);
 		}
 
 		status = loadFile(file);
 		
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalNicknameFile] FINAL STATUS = " + status);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalNicknameFile] FINAL STATUS = %s", status);
 
 		return status;
 
 	}
 
+	/**
+	 * Release anything held open by the file, i.e. once the server is stopping
+	 */
+	public void close() {
+		/* EMPTY */
+	}
+
 	/**
 	 * Load the file contents into the name manager
 	 * @param file
@@ -3,13 +3,24 @@ package xyz.olivermartin.multichat.local.common.storage;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.common.database.DatabaseManager;
+import xyz.olivermartin.multichat.common.database.DatabaseMode;
 import xyz.olivermartin.multichat.common.database.GenericPooledDatabase;
 import xyz.olivermartin.multichat.common.database.SimpleConnection;
+import xyz.olivermartin.multichat.common.metrics.LatencyHistogram;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 
 /**
@@ -22,14 +33,91 @@ import xyz.olivermartin.multichat.local.common.MultiChatLocal;
  */
 public class LocalSQLNameManager extends LocalNameManager {
 
+	private static final int OFFLINE_CACHE_SIZE = 1000;
+	private static final long OFFLINE_CACHE_EXPIRY_MILLIS = 5 * 60 * 1000;
+
+	private static final String SELECT_RECORD =
+			"SELECT name_data.id, f_name, u_name, f_nick, u_nick FROM name_data LEFT JOIN nick_data ON name_data.id = nick_data.id WHERE ";
+
+	private static final String UPSERT_NAME_SQLITE =
+			"INSERT INTO name_data VALUES (?, ?, ?) ON CONFLICT(id) DO UPDATE SET f_name = excluded.f_name, u_name = excluded.u_name;";
+
+	private static final String UPSERT_NAME_MYSQL =
+			"INSERT INTO name_data VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE f_name = VALUES(f_name), u_name = VALUES(u_name);";
+
+	private static final String UPSERT_NICK_SQLITE =
+			"INSERT INTO nick_data VALUES (?, ?, ?) ON CONFLICT(id) DO UPDATE SET u_nick = excluded.u_nick, f_nick = excluded.f_nick;";
+
+	private static final String UPSERT_NICK_MYSQL =
+			"INSERT INTO nick_data VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE u_nick = VALUES(u_nick), f_nick = VALUES(f_nick);";
+
+	private static final int MIGRATION_BATCH_SIZE = 500;
+
+	private static final LatencyHistogram loadRecordTime = queryTime("load_record");
+	private static final LatencyHistogram upsertPlayerTime = queryTime("upsert_player");
+	private static final LatencyHistogram existsUUIDTime = queryTime("exists_uuid");
+	private static final LatencyHistogram hasNicknameTime = queryTime("has_nickname");
+	private static final LatencyHistogram migratePlayersTime = queryTime("migrate_players");
+	private static final LatencyHistogram registerOfflineTime = queryTime("register_offline");
+	private static final LatencyHistogram setNicknameTime = queryTime("set_nickname");
+	private static final LatencyHistogram existsPlayerTime = queryTime("exists_player");
+	private static final LatencyHistogram existsNicknameTime = queryTime("exists_nickname");
+	private static final LatencyHistogram otherHasNicknameTime = queryTime("other_has_nickname");
+	private static final LatencyHistogram partialMatchTime = queryTime("partial_match");
+	private static final LatencyHistogram removeNicknameTime = queryTime("remove_nickname");
+
+	private static LatencyHistogram queryTime(String query) {
+		return MetricsRegistry.getInstance().histogram("sql_query", "query", query);
+	}
+
 	private boolean connected;
 	private GenericPooledDatabase localDatabase;
+	private LocalNameRecordCache cache;
+	private ExecutorService ioExecutor;
 
 	public LocalSQLNameManager(String databaseName) {
 
 		super(LocalNameManagerMode.SQL);
+		cache = new LocalNameRecordCache(OFFLINE_CACHE_SIZE, OFFLINE_CACHE_EXPIRY_MILLIS);
 		connected = getDatabase(databaseName);
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Connection Staus: " + connected);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Connection Staus: %s", connected);
+
+		// One thread per pooled connection, any more would just be waiting on the pool
+		int threads = connected ? Math.max(1, localDatabase.getPoolSize()) : 1;
+		AtomicInteger threadCount = new AtomicInteger();
+		ioExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "MultiChatLocal-SQL-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	}
+
+	@Override
+	public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+		return CompletableFuture.supplyAsync(task, ioExecutor).whenComplete((result, e) -> {
+			if (e != null) {
+				MultiChatLocal.getInstance().getConsoleLogger().log("Error running name manager task: " + e.getMessage());
+				e.printStackTrace();
+			}
+		});
+	}
+
+	@Override
+	public void shutdown() {
+
+		ioExecutor.shutdown();
+
+		// Let any nickname changes etc. still queued reach the database
+		try {
+			if (!ioExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+				MultiChatLocal.getInstance().getConsoleLogger().log("Timed out waiting for name manager tasks to complete");
+				ioExecutor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			ioExecutor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
 
 	}
 
@@ -45,105 +133,127 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 	}
 
-	@Override
-	public String getCurrentName(UUID uuid, boolean withPrefix) {
+	/**
+	 * Get the name record of a player, from the cache if possible, otherwise from the database
+	 * @param uuid
+	 * @return The record, if the player exists
+	 */
+	private Optional<LocalNameRecord> getRecord(UUID uuid) {
 
-		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
+		Optional<LocalNameRecord> record = cache.get(uuid);
+		if (record.isPresent()) return record;
+
+		if (loadRecord("name_data.id = ?", uuid.toString(), false).isPresent()) {
+			return cache.get(uuid);
+		}
+
+		return Optional.empty();
+
+	}
+
+	/**
+	 * Load a player's name record from the database into the cache
+	 * @param condition The WHERE condition to find the player by
+	 * @param parameter The parameter of the condition
+	 * @param online If the record should be cached as an online player rather than in the offline LRU
+	 * @return The UUID of the player that was loaded, if one was found
+	 */
+	private Optional<UUID> loadRecord(String condition, String parameter, boolean online) {
 
 		SimpleConnection conn = null;
-		String name;
+		Optional<UUID> opId;
+
+		long start = System.nanoTime();
 
 		try {
 
 			conn = localDatabase.getConnection();
 
-			ResultSet results = conn.safeQuery(
-					"SELECT f_name, f_nick FROM name_data LEFT JOIN nick_data ON name_data.id = nick_data.id WHERE name_data.id = ?;"
-					, uuid.toString());
-			results.next();
+			ResultSet results = conn.safeQuery(SELECT_RECORD + condition + ";", parameter);
 
-			if (results.getString("f_nick") == null) {
-				name = results.getString("f_name");
-			} else {
-				name = results.getString("f_nick");
-				if (MultiChatLocal.getInstance().getConfigManager().getLocalConfig().isShowNicknamePrefix() && withPrefix) {
-					name = MultiChatLocal.getInstance().getConfigManager().getLocalConfig().getNicknamePrefix() + name;
+			if (results.next()) {
+
+				UUID id = UUID.fromString(results.getString("id"));
+				LocalNameRecord record = new LocalNameRecord(
+						results.getString("f_name"), results.getString("u_name"),
+						results.getString("f_nick"), results.getString("u_nick"));
+
+				if (online) {
+					cache.putOnline(id, record);
+				} else {
+					cache.putOffline(id, record);
 				}
-			}
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] CurrentName = " + name);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Loaded name record for %s into cache", id);
+
+				opId = Optional.of(id);
+
+			} else {
+				opId = Optional.empty();
+			}
 
 		} catch (SQLException e) {
 			e.printStackTrace();
-			name = "";
+			opId = Optional.empty();
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			loadRecordTime.recordSince(start);
 		}
 
-		return name;
+		return opId;
 
 	}
 
 	@Override
-	public String getName(UUID uuid) {
+	public String getCurrentName(UUID uuid, boolean withPrefix) {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
-		SimpleConnection conn = null;
+		Optional<LocalNameRecord> record = getRecord(uuid);
 		String name;
 
-		try {
-
-			conn = localDatabase.getConnection();
-
-			ResultSet results = conn.safeQuery("SELECT f_name FROM name_data WHERE id = ?;", uuid.toString());
-			results.next();
-			name = results.getString("f_name");
-
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Name = " + name);
-
-		} catch (SQLException e) {
-			e.printStackTrace();
+		if (!record.isPresent()) {
 			name = "";
-		} finally {
-			SimpleConnection.safelyCloseAll(conn);
+		} else if (!record.get().hasNickname()) {
+			name = record.get().getFormattedName();
+		} else {
+			name = record.get().getFormattedNick();
+			if (MultiChatLocal.getInstance().getConfigManager().getLocalConfig().isShowNicknamePrefix() && withPrefix) {
+				name = MultiChatLocal.getInstance().getConfigManager().getLocalConfig().getNicknamePrefix() + name;
+			}
 		}
 
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] CurrentName = %s", name);
+
 		return name;
 
 	}
 
 	@Override
-	protected Optional<UUID> getUUIDFromUnformattedNickname(String nickname) {
-
-		nickname = nickname.toLowerCase();
+	public String getName(UUID uuid) {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
-		Optional<UUID> opId;
-		SimpleConnection conn = null;
+		Optional<LocalNameRecord> record = getRecord(uuid);
+		String name = record.isPresent() ? record.get().getFormattedName() : "";
 
-		try {
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Name = %s", name);
 
-			conn = localDatabase.getConnection();
+		return name;
 
-			ResultSet results = conn.safeQuery("SELECT id FROM nick_data WHERE u_nick = ?;", nickname);
+	}
 
-			if (results.next()) {
-				UUID id = UUID.fromString(results.getString("id"));
-				opId = Optional.of(id);
-			} else {
-				opId = Optional.empty();
-			}
+	@Override
+	protected Optional<UUID> getUUIDFromUnformattedNickname(String nickname) {
 
-		} catch (SQLException e) {
-			e.printStackTrace();
-			opId = Optional.empty();
-		} finally {
-			SimpleConnection.safelyCloseAll(conn);
-		}
+		nickname = nickname.toLowerCase();
 
-		return opId;
+		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
+
+		Optional<UUID> opId = cache.getUUIDFromUnformattedNickname(nickname);
+		if (opId.isPresent()) return opId;
+
+		return loadRecord("nick_data.u_nick = ?", nickname, false);
 
 	}
 
@@ -154,30 +264,10 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
-		SimpleConnection conn = null;
-		Optional<UUID> opId;
-
-		try {
-
-			conn = localDatabase.getConnection();
-
-			ResultSet results = conn.safeQuery("SELECT id FROM name_data WHERE u_name = ?;", username);
-
-			if (results.next() ) {
-				UUID id = UUID.fromString(results.getString("id"));
-				opId = Optional.of(id);
-			} else {
-				opId = Optional.empty();
-			}
-
-		} catch (SQLException e) {
-			e.printStackTrace();
-			opId = Optional.empty();
-		} finally {
-			SimpleConnection.safelyCloseAll(conn);
-		}
+		Optional<UUID> opId = cache.getUUIDFromName(username);
+		if (opId.isPresent()) return opId;
 
-		return opId;
+		return loadRecord("name_data.u_name = ?", username, false);
 
 	}
 
@@ -186,63 +276,92 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Registering Player:" + uuid.toString() + ", " + username);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Registering Player:%s, %s", uuid, username);
 
-		String oldUsername;
+		// Any cached copy may be out of date if they have been on another server since
+		cache.invalidate(uuid);
 
-		if (existsUUID(uuid)) {
+		Optional<String> oldUsername = upsertPlayer(uuid, username);
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] UUID already exists in database...");
+		if (!oldUsername.isPresent()) {
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] UUID did not already exist in database...");
+		} else if (!oldUsername.get().equalsIgnoreCase(username)) {
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Player has a new username (%s), was previously (%s)", username, oldUsername.get());
+		}
 
-			oldUsername = getName(uuid);
+		online.add(uuid);
 
-			if (!oldUsername.equalsIgnoreCase(username)) {
+	}
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Player has a new username (" + username + "), was previously (" + oldUsername + ")");
+	/**
+	 * Insert or update a player's username, using a single connection and transaction
+	 * 
+	 * <p>Their existing record is read in the same transaction, so is also cached for while they are online
+	 * without going back to the database.</p>
+	 * 
+	 * @param uuid
+	 * @param username The formatted username of the player
+	 * @return The player's previous (formatted) username, if they already existed in the database
+	 */
+	private Optional<String> upsertPlayer(UUID uuid, String username) {
 
-				SimpleConnection conn = null;
+		SimpleConnection conn = null;
+		Optional<String> oldUsername = Optional.empty();
 
-				try {
+		long start = System.nanoTime();
 
-					conn = localDatabase.getConnection();
+		try {
 
-					MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Updating database...");
-					conn.safeUpdate("UPDATE name_data SET u_name = ?, f_name = ? WHERE id = ?;"
-							, username.toLowerCase(), username, uuid.toString());
-					MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Database updated!");
+			conn = localDatabase.getConnection();
+			conn.setAutoCommit(false);
 
-				} catch (SQLException e) {
-					e.printStackTrace();
-				} finally {
-					SimpleConnection.safelyCloseAll(conn);
-				}
+			ResultSet results = conn.safeQuery(SELECT_RECORD + "name_data.id = ?;", uuid.toString());
 
-			}
+			String formattedName = username;
+			String formattedNick = null;
+			String unformattedNick = null;
 
-		} else {
+			if (results.next()) {
+				oldUsername = Optional.of(results.getString("f_name"));
+				formattedNick = results.getString("f_nick");
+				unformattedNick = results.getString("u_nick");
+			}
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] UUID does not already exist in database...");
+			if (oldUsername.isPresent() && oldUsername.get().equalsIgnoreCase(username)) {
+				// Nothing has changed, so keep the name exactly as it is in the database
+				formattedName = oldUsername.get();
+			} else {
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Updating database...");
+				conn.safeUpdate(getUpsertName(), uuid.toString(), username, username.toLowerCase());
+			}
 
-			SimpleConnection conn = null;
+			conn.commit();
 
-			try {
+			// Keep their record in memory while they are online so chat never has to go to the database
+			cache.putOnline(uuid, new LocalNameRecord(formattedName, formattedName.toLowerCase(), formattedNick, unformattedNick));
 
-				conn = localDatabase.getConnection();
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Database updated!");
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Updating database...");
-				conn.safeUpdate("INSERT INTO name_data VALUES (?, ?, ?);", uuid.toString(), username, username.toLowerCase());
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Database updated!");
+		} catch (SQLException e) {
+			e.printStackTrace();
+			try {
+				if (conn != null) conn.rollback();
+			} catch (SQLException ignored) { /* EMPTY */ }
+		} finally {
+			SimpleConnection.safelyCloseAll(conn);
+			upsertPlayerTime.recordSince(start);
+		}
 
-			} catch (SQLException e) {
-				e.printStackTrace();
-			} finally {
-				SimpleConnection.safelyCloseAll(conn);
-			}
+		return oldUsername;
 
-		}
+	}
 
-		online.add(uuid);
+	private String getUpsertName() {
+		return localDatabase.getMode() == DatabaseMode.MySQL ? UPSERT_NAME_MYSQL : UPSERT_NAME_SQLITE;
+	}
 
+	private String getUpsertNick() {
+		return localDatabase.getMode() == DatabaseMode.MySQL ? UPSERT_NICK_MYSQL : UPSERT_NICK_SQLITE;
 	}
 
 	public void testRegisterFakePlayer(UUID uuid, String username) {
@@ -298,9 +417,14 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
+		// Records are only ever cached for players that exist
+		if (cache.get(uuid).isPresent()) return true;
+
 		SimpleConnection conn = null;
 		boolean exists;
 
+		long start = System.nanoTime();
+
 		try {
 
 			conn = localDatabase.getConnection();
@@ -317,6 +441,7 @@ public class LocalSQLNameManager extends LocalNameManager {
 			exists = false;
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			existsUUIDTime.recordSince(start);
 		}
 
 		return exists;
@@ -327,21 +452,23 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Checking if: " + uuid + " has a nickname...");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Checking if: %s has a nickname...", uuid);
 
 		SimpleConnection conn = null;
 		boolean exists;
 
+		long start = System.nanoTime();
+
 		try {
 
 			conn = localDatabase.getConnection();
 			ResultSet results = conn.safeQuery("SELECT id FROM nick_data WHERE id = ?;", uuid.toString());
 
 			if (results.next()) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] They do have a nickname!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] They do have a nickname!");
 				exists = true;
 			} else {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] They do not have a nickname!");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] They do not have a nickname!");
 				exists = false;
 			}
 
@@ -350,6 +477,7 @@ public class LocalSQLNameManager extends LocalNameManager {
 			exists = false;
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			hasNicknameTime.recordSince(start);
 		}
 
 		return exists;
@@ -362,6 +490,8 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 		boolean setNick = (nick != null);
 
+		cache.invalidate(uuid);
+
 		if (existsUUID(uuid)) {
 
 			SimpleConnection conn = null;
@@ -411,6 +541,67 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 	}
 
+	/**
+	 * Register many migrated players at once, using batched upserts in a single transaction
+	 * @param records The name records to migrate, where the nickname fields are null if they do not have a nickname
+	 * @return If the migration was committed
+	 */
+	public boolean registerMigratedPlayers(Map<UUID, LocalNameRecord> records) {
+
+		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
+
+		SimpleConnection conn = null;
+		boolean success;
+
+		long start = System.nanoTime();
+
+		try {
+
+			conn = localDatabase.getConnection();
+			conn.setAutoCommit(false);
+
+			int queued = 0;
+
+			for (Map.Entry<UUID, LocalNameRecord> entry : records.entrySet()) {
+
+				UUID uuid = entry.getKey();
+				LocalNameRecord record = entry.getValue();
+
+				conn.addBatch(getUpsertName(), uuid, record.getFormattedName(), record.getUnformattedName());
+
+				if (record.hasNickname()) {
+					conn.addBatch(getUpsertNick(), uuid, record.getUnformattedNick(), record.getFormattedNick());
+				}
+
+				if (++queued % MIGRATION_BATCH_SIZE == 0) {
+					conn.executeBatch();
+				}
+
+			}
+
+			conn.executeBatch();
+			conn.commit();
+			success = true;
+
+		} catch (SQLException e) {
+			e.printStackTrace();
+			try {
+				if (conn != null) conn.rollback();
+			} catch (SQLException ignored) { /* EMPTY */ }
+			success = false;
+		} finally {
+			SimpleConnection.safelyCloseAll(conn);
+			migratePlayersTime.recordSince(start);
+		}
+
+		for (UUID uuid : records.keySet()) {
+			cache.invalidate(uuid);
+		}
+
+		return success;
+
+	}
+
 	@Override
 	public void registerOfflinePlayerByUUID(UUID uuid, String username) {
 
@@ -424,6 +615,8 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 			SimpleConnection conn = null;
 
+			long start = System.nanoTime();
+
 			try {
 				conn = localDatabase.getConnection();
 				conn.safeUpdate("INSERT INTO name_data VALUES (?, ?, ?);", uuid.toString(), username, username.toLowerCase());
@@ -431,6 +624,7 @@ public class LocalSQLNameManager extends LocalNameManager {
 				e.printStackTrace();
 			} finally {
 				SimpleConnection.safelyCloseAll(conn);
+				registerOfflineTime.recordSince(start);
 			}
 
 		}
@@ -440,8 +634,9 @@ public class LocalSQLNameManager extends LocalNameManager {
 	@Override
 	public void unregisterPlayer(UUID uuid) {
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Unregistering player with UUID: " + uuid);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Unregistering player with UUID: %s", uuid);
 
+		cache.removeOnline(uuid);
 		online.remove(uuid);
 
 	}
@@ -451,42 +646,50 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Setting new nickname (" + nickname + ") for " + uuid);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Setting new nickname (%s) for %s", nickname, uuid);
 
 		if (!existsUUID(uuid)) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] This UUID does not exist! Abandoning...");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] This UUID does not exist! Abandoning...");
 			return;
 		}
 
 		String unformattedNickname = stripAllFormattingCodes(nickname.toLowerCase());
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Unformatted nickname = " + unformattedNickname);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Unformatted nickname = %s", unformattedNickname);
 
 		if (otherPlayerHasNickname(unformattedNickname, uuid)) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Someone else already has this nickname... Abandoning...");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Someone else already has this nickname... Abandoning...");
 			return;
 		}
 
 		SimpleConnection conn = null;
 
+		long start = System.nanoTime();
+
 		try {
 
 			conn = localDatabase.getConnection();
 
 			if (hasNickname(uuid)) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Player previously had a nickname already... updating database...");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Player previously had a nickname already... updating database...");
 				conn.safeUpdate("UPDATE nick_data SET u_nick = ?, f_nick = ? WHERE id = ?;", unformattedNickname, nickname, uuid.toString());
 			} else {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Player did not have a nickname before... inserting into database...");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Player did not have a nickname before... inserting into database...");
 				conn.safeUpdate("INSERT INTO nick_data VALUES (?, ?, ?);", uuid.toString(), unformattedNickname, nickname);
 			}
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Process completed. Nickname is set.");
+			Optional<LocalNameRecord> record = cache.get(uuid);
+			if (record.isPresent()) {
+				cache.update(uuid, record.get().withNickname(nickname, unformattedNickname));
+			}
+
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Process completed. Nickname is set.");
 
 		} catch (SQLException e) {
 			e.printStackTrace();
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			setNicknameTime.recordSince(start);
 		}
 
 	}
@@ -499,16 +702,18 @@ public class LocalSQLNameManager extends LocalNameManager {
 		SimpleConnection conn = null;
 		boolean exists;
 
+		long start = System.nanoTime();
+
 		try {
 
 			conn = localDatabase.getConnection();
 			ResultSet results = conn.safeQuery("SELECT u_name FROM name_data WHERE u_name = ?;", username.toLowerCase());
 
 			if (results.next()) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Player " + username + " exists");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Player %s exists", username);
 				exists = true;
 			} else {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Player " + username + " does not exist");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Player %s does not exist", username);
 				exists = false;
 			}
 
@@ -518,6 +723,7 @@ public class LocalSQLNameManager extends LocalNameManager {
 			exists = false;
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			existsPlayerTime.recordSince(start);
 		}
 
 		return exists;
@@ -532,16 +738,18 @@ public class LocalSQLNameManager extends LocalNameManager {
 		SimpleConnection conn = null;
 		boolean exists;
 
+		long start = System.nanoTime();
+
 		try {
 
 			conn = localDatabase.getConnection();
 			ResultSet results = conn.safeQuery("SELECT u_nick FROM nick_data WHERE u_nick = ?;", stripAllFormattingCodes(nickname.toLowerCase()));
 
 			if (results.next()) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Nickname " + nickname + " exists");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Nickname %s exists", nickname);
 				exists = true;
 			} else {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Nickname " + nickname + " does not exist");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Nickname %s does not exist", nickname);
 				exists = false;
 			}
 
@@ -550,6 +758,7 @@ public class LocalSQLNameManager extends LocalNameManager {
 			exists = false;
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			existsNicknameTime.recordSince(start);
 		}
 
 		return exists;
@@ -563,6 +772,8 @@ public class LocalSQLNameManager extends LocalNameManager {
 		SimpleConnection conn = null;
 		boolean exists;
 
+		long start = System.nanoTime();
+
 		try {
 
 			conn = localDatabase.getConnection();
@@ -584,6 +795,7 @@ public class LocalSQLNameManager extends LocalNameManager {
 			exists = false;
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			otherHasNicknameTime.recordSince(start);
 		}
 
 		return exists;
@@ -592,75 +804,68 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 	@Override
 	public Optional<Set<UUID>> getPartialNicknameMatches(String nickname) {
+		return getPartialNicknameMatches(nickname, Integer.MAX_VALUE);
+	}
 
-		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
-
-		SimpleConnection conn = null;
-		Optional<Set<UUID>> opUUIDs;
-
-		try {
-
-			conn = localDatabase.getConnection();
-			ResultSet results = conn.safeQuery("SELECT id FROM nick_data WHERE (u_nick LIKE ?);"
-					, "%" + stripAllFormattingCodes(nickname.toLowerCase()) + "%");
-
-			if (results.next()) {
-				Set<UUID> uuids = new HashSet<UUID>();
-				uuids.add(UUID.fromString(results.getString("id")));
-
-				while (results.next()) {
-					uuids.add(UUID.fromString(results.getString("id")));
-				}
-
-				opUUIDs = Optional.of(uuids);
-			} else {
-				opUUIDs = Optional.empty();
-			}
-
-
-		} catch (SQLException e) {
-			e.printStackTrace();
-			opUUIDs = Optional.empty();
-		} finally {
-			SimpleConnection.safelyCloseAll(conn);
-		}
-
-		return opUUIDs;
-
+	@Override
+	public Optional<Set<UUID>> getPartialNicknameMatches(String nickname, int limit) {
+		return findPartialMatches("nick_data", "u_nick", stripAllFormattingCodes(nickname.toLowerCase()), limit);
 	}
 
 	@Override
 	public Optional<Set<UUID>> getPartialNameMatches(String name) {
+		return getPartialNameMatches(name, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public Optional<Set<UUID>> getPartialNameMatches(String name, int limit) {
+		return findPartialMatches("name_data", "u_name", name.toLowerCase(), limit);
+	}
+
+	/**
+	 * Find names starting with the query, or if there are none, names containing it
+	 * <p>The prefix search comes first as it can use the column's index, where a search for names containing the query can not</p>
+	 */
+	private Optional<Set<UUID>> findPartialMatches(String table, String column, String query, int limit) {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
 		SimpleConnection conn = null;
 		Optional<Set<UUID>> opUUIDs;
 
+		// Underscores are common in names, so must not be treated as wildcards
+		// (A backslash is not used as the escape character, as MySQL and SQLite disagree on how to write it)
+		String escaped = query.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+		String sql = "SELECT id FROM " + table + " WHERE (" + column + " LIKE ? ESCAPE '!') LIMIT ?;";
+
+		long start = System.nanoTime();
+
 		try {
 
 			conn = localDatabase.getConnection();
-			ResultSet results = conn.safeQuery("SELECT id, f_name FROM name_data WHERE (u_name LIKE ?);", "%" + name.toLowerCase() + "%");
 
-			if (results.next()) {
-				Set<UUID> uuids = new HashSet<UUID>();
+			Set<UUID> uuids = new HashSet<UUID>();
+
+			ResultSet results = conn.safeQuery(sql, escaped + "%", limit);
+			while (results.next()) {
 				uuids.add(UUID.fromString(results.getString("id")));
+			}
 
+			if (uuids.isEmpty()) {
+				results = conn.safeQuery(sql, "%" + escaped + "%", limit);
 				while (results.next()) {
 					uuids.add(UUID.fromString(results.getString("id")));
 				}
-
-				opUUIDs = Optional.of(uuids);
-			} else {
-				opUUIDs = Optional.empty();
 			}
 
+			opUUIDs = uuids.isEmpty() ? Optional.empty() : Optional.of(uuids);
 
 		} catch (SQLException e) {
 			e.printStackTrace();
 			opUUIDs = Optional.empty();
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			partialMatchTime.recordSince(start);
 		}
 
 		return opUUIDs;
@@ -672,31 +877,39 @@ public class LocalSQLNameManager extends LocalNameManager {
 
 		if (!connected) throw new IllegalStateException("MultiChatLocal's Name Manager could not connect to specified database!");
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Removing nickname for " + uuid);
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Removing nickname for %s", uuid);
 
 		if (!existsUUID(uuid)) {
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] This UUID doesn't exist... Abandoning...");
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] This UUID doesn't exist... Abandoning...");
 			return;
 		}
 
 		SimpleConnection conn = null;
 
+		long start = System.nanoTime();
+
 		try {
 
 			if (!hasNickname(uuid)) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] This player does not have a nickname to remove... Abandoning...");
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] This player does not have a nickname to remove... Abandoning...");
 				return;
 			}
 
 			conn = localDatabase.getConnection();
 			conn.safeUpdate("DELETE FROM nick_data WHERE id  = ?;", uuid.toString());
 
-			MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSQLNameManager] Process complete, nickname removed.");
+			Optional<LocalNameRecord> record = cache.get(uuid);
+			if (record.isPresent()) {
+				cache.update(uuid, record.get().withoutNickname());
+			}
+
+			MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.STORAGE, "[LocalSQLNameManager] Process complete, nickname removed.");
 
 		} catch (SQLException e) {
 			e.printStackTrace();
 		} finally {
 			SimpleConnection.safelyCloseAll(conn);
+			removeNicknameTime.recordSince(start);
 		}
 
 	}
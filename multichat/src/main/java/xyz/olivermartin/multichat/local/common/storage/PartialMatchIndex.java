@@ -0,0 +1,212 @@
+package xyz.olivermartin.multichat.local.common.storage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * In memory index of (unformatted, lowercase) names or nicknames used for partial matching
+ * 
+ * <p>Prefix queries walk a trie, and substring queries only check the names sharing the query's
+ * rarest trigram, so neither has to look at every name known to the server. The index is kept up
+ * to date as names are added and removed rather than being rebuilt.</p>
+ */
+public class PartialMatchIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private static class TrieNode {
+
+		// Sorted, so matches come back in alphabetical order
+		private TreeMap<Character, TrieNode> children;
+		private UUID value;
+
+		private boolean isEmpty() {
+			return value == null && (children == null || children.isEmpty());
+		}
+
+	}
+
+	private TrieNode root;
+	private Map<String, UUID> entries;
+	private Map<String, Set<String>> trigrams;
+
+	public PartialMatchIndex() {
+		clear();
+	}
+
+	public synchronized void clear() {
+		root = new TrieNode();
+		entries = new HashMap<String, UUID>();
+		trigrams = new HashMap<String, Set<String>>();
+	}
+
+	/**
+	 * Replace the contents of the index
+	 * @param entries Map of name to UUID
+	 */
+	public synchronized void rebuild(Map<String, UUID> entries) {
+		clear();
+		for (Map.Entry<String, UUID> entry : entries.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public synchronized void put(String key, UUID uuid) {
+
+		if (entries.put(key, uuid) == null) {
+			for (String gram : getTrigrams(key)) {
+				trigrams.computeIfAbsent(gram, g -> new HashSet<String>()).add(key);
+			}
+		}
+
+		TrieNode node = root;
+		for (int i = 0; i < key.length(); i++) {
+			if (node.children == null) node.children = new TreeMap<Character, TrieNode>();
+			node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+		}
+		node.value = uuid;
+
+	}
+
+	public synchronized void remove(String key) {
+
+		if (entries.remove(key) == null) return;
+
+		for (String gram : getTrigrams(key)) {
+			Set<String> keys = trigrams.get(gram);
+			keys.remove(key);
+			if (keys.isEmpty()) trigrams.remove(gram);
+		}
+
+		// Walk down remembering the path, so nodes left empty can be pruned on the way back up
+		Deque<TrieNode> path = new ArrayDeque<TrieNode>();
+		TrieNode node = root;
+		for (int i = 0; i < key.length(); i++) {
+			path.push(node);
+			node = node.children.get(key.charAt(i));
+		}
+		node.value = null;
+
+		for (int i = key.length() - 1; i >= 0 && node.isEmpty(); i--) {
+			TrieNode parent = path.pop();
+			parent.children.remove(key.charAt(i));
+			node = parent;
+		}
+
+	}
+
+	/**
+	 * Find names starting with the query, or if there are none, names containing it
+	 * @param query
+	 * @param limit The maximum number of matches to return
+	 * @return The UUIDs of the matches, which may be empty
+	 */
+	public Set<UUID> find(String query, int limit) {
+		Set<UUID> matches = findByPrefix(query, limit);
+		if (!matches.isEmpty()) return matches;
+		return findBySubstring(query, limit);
+	}
+
+	public synchronized Set<UUID> findByPrefix(String prefix, int limit) {
+
+		Set<UUID> matches = new LinkedHashSet<UUID>();
+
+		TrieNode node = root;
+		for (int i = 0; i < prefix.length() && node != null; i++) {
+			node = node.children == null ? null : node.children.get(prefix.charAt(i));
+		}
+
+		if (node != null) collect(node, matches, limit);
+
+		return matches;
+
+	}
+
+	private void collect(TrieNode node, Set<UUID> matches, int limit) {
+
+		if (matches.size() >= limit) return;
+		if (node.value != null) matches.add(node.value);
+		if (node.children == null) return;
+
+		for (TrieNode child : node.children.values()) {
+			if (matches.size() >= limit) return;
+			collect(child, matches, limit);
+		}
+
+	}
+
+	public synchronized Set<UUID> findBySubstring(String substring, int limit) {
+
+		Set<UUID> matches = new LinkedHashSet<UUID>();
+		Iterable<String> candidates;
+
+		if (substring.length() < GRAM_LENGTH) {
+
+			// Too short to have any trigrams
+			candidates = entries.keySet();
+
+		} else {
+
+			Set<String> smallest = null;
+			for (String gram : getTrigrams(substring)) {
+				Set<String> keys = trigrams.get(gram);
+				if (keys == null) return matches;
+				if (smallest == null || keys.size() < smallest.size()) smallest = keys;
+			}
+			candidates = smallest;
+
+		}
+
+		for (String key : candidates) {
+			if (matches.size() >= limit) break;
+			if (key.contains(substring)) matches.add(entries.get(key));
+		}
+
+		return matches;
+
+	}
+
+	/**
+	 * Find names matching a regular expression, this has to check every name
+	 * @param regex
+	 * @param limit
+	 * @return The UUIDs of the matches, which is empty if the regex was not valid
+	 */
+	public synchronized Set<UUID> findByRegex(String regex, int limit) {
+
+		Set<UUID> matches = new LinkedHashSet<UUID>();
+		Pattern pattern;
+
+		try {
+			pattern = Pattern.compile(regex);
+		} catch (PatternSyntaxException e) {
+			return matches;
+		}
+
+		for (Map.Entry<String, UUID> entry : entries.entrySet()) {
+			if (matches.size() >= limit) break;
+			if (pattern.matcher(entry.getKey()).matches()) matches.add(entry.getValue());
+		}
+
+		return matches;
+
+	}
+
+	private static Set<String> getTrigrams(String text) {
+		Set<String> grams = new HashSet<String>();
+		for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+			grams.add(text.substring(i, i + GRAM_LENGTH));
+		}
+		return grams;
+	}
+
+}
@@ -8,6 +8,7 @@ import org.bukkit.entity.Player;
 
 import net.milkbowl.vault.chat.Chat;
 import xyz.olivermartin.multichat.bungee.MultiChatUtil;
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.LocalConsoleLogger;
 import xyz.olivermartin.multichat.local.common.LocalMetaManager;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
@@ -82,12 +83,12 @@ public class LocalSpigotMetaManager extends LocalMetaManager {
 		// If MultiChat is setting the display name...
 		if (MultiChatLocal.getInstance().getDataStore().isSetDisplayName()) {
 
-			logger.debug("[LocalSpigotMetaManager] We are setting the display name!");
+			logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] We are setting the display name!");
 
 			String displayNameFormat = MultiChatLocal.getInstance().getDataStore().getDisplayNameFormatLastVal();
 
-			logger.debug("[LocalSpigotMetaManager] Format = " + displayNameFormat);
-			logger.debug("[LocalSpigotMetaManager] Format (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
+			logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] Format = %s", displayNameFormat);
+			if (logger.isDebugEnabled(DebugCategory.PLACEHOLDERS)) logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] Format (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
 
 			// TODO This stuff could be refactored as it is duplicated between Spigot and Sponge
 			displayNameFormat = displayNameFormat.replaceAll("%NICK%", getNick(uuid));
@@ -95,18 +96,18 @@ public class LocalSpigotMetaManager extends LocalMetaManager {
 			displayNameFormat = displayNameFormat.replaceAll("%PREFIX%", getPrefix(uuid));
 			displayNameFormat = displayNameFormat.replaceAll("%SUFFIX%", getSuffix(uuid));
 
-			logger.debug("[LocalSpigotMetaManager] Format with placeholders = " + displayNameFormat);
-			logger.debug("[LocalSpigotMetaManager] Format with placeholders (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
+			logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] Format with placeholders = %s", displayNameFormat);
+			if (logger.isDebugEnabled(DebugCategory.PLACEHOLDERS)) logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] Format with placeholders (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
 
 			displayNameFormat = MultiChatUtil.reformatRGB(displayNameFormat);
 
-			logger.debug("[LocalSpigotMetaManager] Format after reformatting RGB = " + displayNameFormat);
-			logger.debug("[LocalSpigotMetaManager] Format after reformatting RGB (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
+			logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] Format after reformatting RGB = %s", displayNameFormat);
+			if (logger.isDebugEnabled(DebugCategory.PLACEHOLDERS)) logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] Format after reformatting RGB (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
 
 			displayNameFormat = displayNameFormat.replaceAll("(?i)&(?=[a-f,0-9,k-o,r,x])", "");
 
-			logger.debug("[LocalSpigotMetaManager] FINAL = " + displayNameFormat);
-			logger.debug("[LocalSpigotMetaManager] FINAL (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
+			logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] FINAL = %s", displayNameFormat);
+			if (logger.isDebugEnabled(DebugCategory.PLACEHOLDERS)) logger.debug(DebugCategory.PLACEHOLDERS, "[LocalSpigotMetaManager] FINAL (using & only) = " + displayNameFormat.replaceAll("(?i)(?=[a-f,0-9,k-o,r,x])", "&"));
 
 			// LEGACY HACK
 			if (MultiChatLocal.getInstance().getDataStore().isLegacy()) {
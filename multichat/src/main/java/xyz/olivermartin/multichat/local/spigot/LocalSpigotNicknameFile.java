@@ -2,26 +2,27 @@ package xyz.olivermartin.multichat.local.spigot;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.Map;
 import java.util.UUID;
 
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
 import xyz.olivermartin.multichat.local.common.storage.LocalFileNameManager;
-import xyz.olivermartin.multichat.local.common.storage.LocalNicknameFile;
+import xyz.olivermartin.multichat.local.common.storage.LocalJournaledNicknameFile;
 
-public class LocalSpigotNicknameFile extends LocalNicknameFile {
+public class LocalSpigotNicknameFile extends LocalJournaledNicknameFile {
 
 	public LocalSpigotNicknameFile(File configPath, String fileName, LocalFileNameManager lfnm) {
 		super(configPath, fileName, lfnm, MultiChatLocalPlatform.SPIGOT);
 	}
 
+	/**
+	 * Loads the Java serialised maps which namedata.dat used to contain
+	 */
 	@SuppressWarnings("unchecked")
 	@Override
-	protected boolean loadFile(File file) {
+	protected boolean loadLegacyFile(File file) {
 
 		FileInputStream fileInputStream;
 
@@ -58,34 +59,4 @@ public class LocalSpigotNicknameFile extends LocalNicknameFile {
 		}
 	}
 
-	@Override
-	protected boolean saveFile(File file) {
-
-		FileOutputStream fileOutputStream;
-
-		try {
-
-			fileOutputStream = new FileOutputStream(file);
-
-			ObjectOutputStream out = new ObjectOutputStream(fileOutputStream);
-
-			out.writeObject(lfnm.getMapUUIDNick());
-			out.writeObject(lfnm.getMapUUIDName());
-			out.writeObject(lfnm.getMapNickUUID());
-			out.writeObject(lfnm.getMapNameUUID());
-			out.writeObject(lfnm.getMapNickFormatted());
-			out.writeObject(lfnm.getMapNameFormatted());
-
-			out.close();
-
-			return true;
-
-		} catch (IOException e) {
-
-			return false;
-
-		}
-
-	}
-
 }
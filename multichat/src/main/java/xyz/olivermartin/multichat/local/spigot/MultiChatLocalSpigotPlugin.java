@@ -1,13 +1,16 @@
 package xyz.olivermartin.multichat.local.spigot;
 
 import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Optional;
 
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import net.milkbowl.vault.chat.Chat;
 import xyz.olivermartin.multichat.common.database.DatabaseManager;
+import xyz.olivermartin.multichat.common.metrics.PrometheusEndpoint;
 import xyz.olivermartin.multichat.local.common.LocalChatManager;
 import xyz.olivermartin.multichat.local.common.LocalConsoleLogger;
 import xyz.olivermartin.multichat.local.common.LocalMetaManager;
@@ -90,6 +93,12 @@ public class MultiChatLocalSpigotPlugin extends JavaPlugin {
 		LocalDataStore dataStore = new LocalDataStore();
 		api.registerDataStore(dataStore);
 
+		// Register main thread executor, so asynchronous results can be handed back to Bukkit
+		// (Results arriving once the plugin is disabled are dropped, as Bukkit will no longer schedule its tasks)
+		api.registerMainThreadExecutor(task -> {
+			if (isEnabled()) getServer().getScheduler().runTask(this, task);
+		});
+
 		// Register name manager...
 		LocalNameManager nameManager;
 
@@ -150,6 +159,20 @@ public class MultiChatLocalSpigotPlugin extends JavaPlugin {
 		getServer().getPluginManager().registerEvents(new LocalSpigotChatListenerHighest(), this);
 		getServer().getPluginManager().registerEvents(new LocalSpigotChatListenerMonitor(), this);
 
+		// Serve the metrics to Prometheus
+		if (configMan.getLocalConfig().isMetricsEndpoint()) {
+
+			try {
+				PrometheusEndpoint metricsEndpoint = new PrometheusEndpoint(PrometheusEndpoint.parseAddress(configMan.getLocalConfig().getMetricsEndpointBind(), PrometheusEndpoint.DEFAULT_PORT));
+				metricsEndpoint.start();
+				api.registerMetricsEndpoint(metricsEndpoint);
+				consoleLogger.log("Serving metrics at http://" + metricsEndpoint.getBindAddress().getHostString() + ":" + metricsEndpoint.getBindAddress().getPort() + "/metrics");
+			} catch (IOException | IllegalArgumentException e) {
+				consoleLogger.log("Could not start the metrics endpoint! " + e.getMessage());
+			}
+
+		}
+
 		// Register Commands
 		this.getCommand("multichatlocal").setExecutor(new MultiChatLocalSpigotCommand());
 		SpigotProxyExecuteCommand pxeCommand = new SpigotProxyExecuteCommand();
@@ -216,6 +239,14 @@ public class MultiChatLocalSpigotPlugin extends JavaPlugin {
 	@Override
 	public void onDisable() {
 
+		Optional<PrometheusEndpoint> metricsEndpoint = MultiChatLocal.getInstance().getMetricsEndpoint();
+		if (metricsEndpoint.isPresent()) {
+			metricsEndpoint.get().stop();
+		}
+
+		// Finish any name manager tasks still waiting to be run
+		MultiChatLocal.getInstance().getNameManager().shutdown();
+
 		if (MultiChatLocal.getInstance().getNameManager().getMode() == LocalNameManagerMode.SQL) {
 
 			try {
@@ -227,6 +258,7 @@ public class MultiChatLocalSpigotPlugin extends JavaPlugin {
 		} else {
 
 			MultiChatLocal.getInstance().getFileSystemManager().getNicknameFile().save();
+			MultiChatLocal.getInstance().getFileSystemManager().getNicknameFile().close();
 
 		}
 
@@ -8,6 +8,7 @@ import java.util.UUID;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.LocalPseudoChannel;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlayer;
@@ -64,12 +65,12 @@ public class MultiChatLocalSpigotPlayerChatEvent implements MultiChatLocalPlayer
 	@Override
 	public void removeIgnoredPlayersAndNonChannelMembersFromRecipients(LocalPseudoChannel channel) {
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[MultiChatLocalSpigotChatEvent] Removing Ignored Players and Non Channel Members from recipients!");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[MultiChatLocalSpigotChatEvent] Removing Ignored Players and Non Channel Members from recipients!");
 
 		Set<UUID> ignoredPlayers;
 		//LocalDataStore store = MultiChatLocal.getInstance().getDataStore();
 
-		MultiChatLocal.getInstance().getConsoleLogger().debug("[MultiChatLocalSpigotChatEvent] Starting with " + event.getRecipients().size() + " recipients");
+		MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[MultiChatLocalSpigotChatEvent] Starting with %s recipients", event.getRecipients().size());
 
 		Iterator<Player> it = event.getRecipients().iterator();
 
@@ -88,7 +89,7 @@ public class MultiChatLocalSpigotPlayerChatEvent implements MultiChatLocalPlayer
 
 						if (ignoredPlayers.contains(event.getPlayer().getUniqueId())) {
 
-							MultiChatLocal.getInstance().getConsoleLogger().debug("[MultiChatLocalSpigotChatEvent] Removed a recipient due to ignore...");
+							MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[MultiChatLocalSpigotChatEvent] Removed a recipient due to ignore...");
 							it.remove();
 
 						}
@@ -97,7 +98,7 @@ public class MultiChatLocalSpigotPlayerChatEvent implements MultiChatLocalPlayer
 
 				} else {
 
-					MultiChatLocal.getInstance().getConsoleLogger().debug("[MultiChatLocalSpigotChatEvent] Removed a recipient due to not being a channel member");
+					MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "[MultiChatLocalSpigotChatEvent] Removed a recipient due to not being a channel member");
 					it.remove();
 
 				}
@@ -8,6 +8,7 @@ import org.spongepowered.api.text.serializer.TextSerializers;
 
 import me.rojo8399.placeholderapi.PlaceholderService;
 import xyz.olivermartin.multichat.bungee.MultiChatUtil;
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.LocalChatManager;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlayer;
@@ -37,13 +38,13 @@ public class LocalSpongeChatManager extends LocalChatManager {
 			PlaceholderService papi = LocalSpongePAPIHook.getInstance().getHook().get();
 			Optional<Player> opPlayer = Sponge.getServer().getPlayer(player.getUniqueId());
 			if (opPlayer.isPresent()) {
-				MultiChatLocal.getInstance().getConsoleLogger().debug("Going into PAPI we have: " + message);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("Going into PAPI we have (visualised): " + message.replace("&", "(#d)").replace("", "(#e)"));
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "Going into PAPI we have: %s", message);
+				if (MultiChatLocal.getInstance().getConsoleLogger().isDebugEnabled(DebugCategory.CHAT)) MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "Going into PAPI we have (visualised): " + message.replace("&", "(#d)").replace("", "(#e)"));
 
 				message = TextSerializers.FORMATTING_CODE.serialize(papi.replaceSourcePlaceholders(message+"#", opPlayer.get()));
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("Serialised we have: " + message);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("Serialised we have (visualised): " + message.replace("&", "(#d)").replace("", "(#e)"));
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "Serialised we have: %s", message);
+				if (MultiChatLocal.getInstance().getConsoleLogger().isDebugEnabled(DebugCategory.CHAT)) MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "Serialised we have (visualised): " + message.replace("&", "(#d)").replace("", "(#e)"));
 
 				// PAPI replaces unknown placeholders with {key}, so change them back to %key%!!
 				message = message.substring(0,message.length()-1);
@@ -56,8 +57,8 @@ public class LocalSpongeChatManager extends LocalChatManager {
 				message = message.replace("{WORLD}", "%WORLD%");
 				message = message.replace("{MODE}", "%MODE%");
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("After PAPI we have: " + message);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("After PAPI we have (visualised): " + message.replace("&", "(#d)").replace("", "(#e)"));
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "After PAPI we have: %s", message);
+				if (MultiChatLocal.getInstance().getConsoleLogger().isDebugEnabled(DebugCategory.CHAT)) MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.CHAT, "After PAPI we have (visualised): " + message.replace("&", "(#d)").replace("", "(#e)"));
 			}
 		}
 
@@ -10,6 +10,7 @@ import java.util.Map;
 import ninja.leaping.configurate.ConfigurationNode;
 import ninja.leaping.configurate.loader.ConfigurationLoader;
 import ninja.leaping.configurate.yaml.YAMLConfigurationLoader;
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
 import xyz.olivermartin.multichat.local.common.config.LocalConfig;
@@ -99,9 +100,9 @@ public class LocalSpongeConfig extends LocalConfig {
 				boolean ignoreFormatCodes = configItem.getNode("ignore_format_codes").getBoolean();
 				String channel = configItem.getNode("channel").getString();
 
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSpongeConfig] REGEX = " + regex);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSpongeConfig] IGNORE_FORMAT_CODES = " + ignoreFormatCodes);
-				MultiChatLocal.getInstance().getConsoleLogger().debug("[LocalSpongeConfig] CHANNEL = " + channel);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.GENERAL, "[LocalSpongeConfig] REGEX = %s", regex);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.GENERAL, "[LocalSpongeConfig] IGNORE_FORMAT_CODES = %s", ignoreFormatCodes);
+				MultiChatLocal.getInstance().getConsoleLogger().debug(DebugCategory.GENERAL, "[LocalSpongeConfig] CHANNEL = %s", channel);
 
 				RegexChannelForcer regexChannelForcer = new RegexChannelForcer(regex, ignoreFormatCodes, channel);
 				regexChannelForcers.add(regexChannelForcer);
@@ -132,24 +132,30 @@ public class LocalSpongeFileNameManager extends LocalFileNameManager {
 			return;
 		}
 
-		if (mapUUIDNick.containsKey(uuid)) {
-			removeNickname(uuid);
-		}
+		synchronized (getChangeLock()) {
+
+			if (mapUUIDNick.containsKey(uuid)) {
+				removeNickname(uuid);
+			}
 
-		String unformattedNickname = stripAllFormattingCodes(nickname.toLowerCase());
+			String unformattedNickname = stripAllFormattingCodes(nickname.toLowerCase());
 
-		synchronized (mapNickUUID) {
+			synchronized (mapNickUUID) {
 
-			// Check for duplicates
-			if (mapNickUUID.containsKey(unformattedNickname)) {
-				if (mapNickUUID.get(unformattedNickname) != uuid) {
-					return;
+				// Check for duplicates
+				if (mapNickUUID.containsKey(unformattedNickname)) {
+					if (mapNickUUID.get(unformattedNickname) != uuid) {
+						return;
+					}
 				}
-			}
 
-			mapUUIDNick.put(uuid, unformattedNickname);
-			mapNickUUID.put(unformattedNickname, uuid);
-			mapNickFormatted.put(unformattedNickname, nickname);
+				mapUUIDNick.put(uuid, unformattedNickname);
+				mapNickUUID.put(unformattedNickname, uuid);
+				mapNickFormatted.put(unformattedNickname, nickname);
+				nickIndex.put(unformattedNickname, uuid);
+				if (journal != null) journal.appendNickname(uuid, nickname);
+
+			}
 
 		}
 
@@ -175,6 +181,14 @@ public class LocalSpongeFileNameManager extends LocalFileNameManager {
 	 */
 	@Override
 	public Optional<Set<UUID>> getPartialNameMatches(String name) {
+		return getPartialNameMatches(name, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Usernames are held by Sponge rather than in the name index, so these are still matched by checking every profile
+	 */
+	@Override
+	public Optional<Set<UUID>> getPartialNameMatches(String name, int limit) {
 
 		UserStorageService uss = Sponge.getServiceManager().provideUnchecked(UserStorageService.class);
 		Collection<GameProfile> profiles = uss.getAll();
@@ -185,6 +199,8 @@ public class LocalSpongeFileNameManager extends LocalFileNameManager {
 
 		for (GameProfile gp : profiles) {
 
+			if (uuidSet.size() >= limit) break;
+
 			Optional<String> opName = gp.getName();
 			if (!opName.isPresent()) {
 				continue;
@@ -200,6 +216,8 @@ public class LocalSpongeFileNameManager extends LocalFileNameManager {
 
 		for (GameProfile gp : profiles) {
 
+			if (uuidSet.size() >= limit) break;
+
 			Optional<String> opName = gp.getName();
 			if (!opName.isPresent()) {
 				continue;
@@ -13,17 +13,22 @@ import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
 import ninja.leaping.configurate.objectmapping.ObjectMappingException;
 import xyz.olivermartin.multichat.local.common.MultiChatLocalPlatform;
 import xyz.olivermartin.multichat.local.common.storage.LocalFileNameManager;
-import xyz.olivermartin.multichat.local.common.storage.LocalNicknameFile;
+import xyz.olivermartin.multichat.local.common.storage.LocalJournaledNicknameFile;
 
-public class LocalSpongeNicknameFile extends LocalNicknameFile {
+public class LocalSpongeNicknameFile extends LocalJournaledNicknameFile {
 
 	public LocalSpongeNicknameFile(File configPath, String fileName, LocalFileNameManager lfnm) {
 		super(configPath, fileName, lfnm, MultiChatLocalPlatform.SPONGE);
 	}
 
+	/**
+	 * Loads a nickname file saved as HOCON by older versions of MultiChat
+	 * 
+	 * <p>The file is only read, it is replaced by a snapshot once it has been backed up.</p>
+	 */
 	@SuppressWarnings("serial")
 	@Override
-	protected boolean loadFile(File file) {
+	protected boolean loadLegacyFile(File file) {
 
 		HoconConfigurationLoader configLoader = HoconConfigurationLoader.builder().setFile(file).build();
 		ConfigurationNode rootNode;
@@ -40,47 +45,15 @@ public class LocalSpongeNicknameFile extends LocalNicknameFile {
 			mapNickUUID = (Map<String, UUID>) rootNode.getNode("mapNickUUID").getValue(new TypeToken<Map<String, UUID>>() { /* EMPTY */ });
 			mapNickFormatted = (Map<String, String>) rootNode.getNode("mapNickFormatted").getValue(new TypeToken<Map<String,String>>() { /* EMPTY */ });
 
-			if (mapUUIDNick == null) {
+			if (mapUUIDNick == null || mapNickUUID == null || mapNickFormatted == null) {
 				mapUUIDNick = new HashMap<UUID,String>();
 				mapNickUUID = new HashMap<String, UUID>();
 				mapNickFormatted = new HashMap<String,String>();
 			}
 
-			lfnm.setMapUUIDNick(mapUUIDNick);
-			lfnm.setMapNickUUID(mapNickUUID);
-			lfnm.setMapNickFormatted(mapNickFormatted);
-
-			configLoader.save(rootNode);
-
-			return true;
-
-		} catch (ObjectMappingException | IOException e) {
-
-			return false;
-
-		}
-
-	}
-
-	@SuppressWarnings("serial")
-	@Override
-	protected boolean saveFile(File file) {
-
-		HoconConfigurationLoader configLoader = HoconConfigurationLoader.builder().setFile(file).build();
-		ConfigurationNode rootNode;
-
-		try {
-
-			rootNode = configLoader.createEmptyNode();
-
-			rootNode.getNode("mapUUIDNick").setValue(new TypeToken<Map<UUID,String>>() {}, 
-					(lfnm.getMapUUIDNick()));
-			rootNode.getNode("mapNickUUID").setValue(new TypeToken<Map<String,UUID>>() {}, 
-					(lfnm.getMapNickUUID()));
-			rootNode.getNode("mapNickFormatted").setValue(new TypeToken<Map<String,String>>() {}, 
-					(lfnm.getMapNickFormatted()));
-
-			configLoader.save(rootNode);
+			lfnm.setMapUUIDNick(new HashMap<UUID, String>(mapUUIDNick));
+			lfnm.setMapNickUUID(new HashMap<String, UUID>(mapNickUUID));
+			lfnm.setMapNickFormatted(new HashMap<String, String>(mapNickFormatted));
 
 			return true;
 
@@ -1,9 +1,11 @@
 package xyz.olivermartin.multichat.local.sponge;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import org.spongepowered.api.Platform;
 import org.spongepowered.api.Sponge;
@@ -23,6 +25,7 @@ import com.google.inject.Inject;
 
 import me.rojo8399.placeholderapi.PlaceholderService;
 import xyz.olivermartin.multichat.common.database.DatabaseManager;
+import xyz.olivermartin.multichat.common.metrics.PrometheusEndpoint;
 import xyz.olivermartin.multichat.local.common.LocalChatManager;
 import xyz.olivermartin.multichat.local.common.LocalConsoleLogger;
 import xyz.olivermartin.multichat.local.common.LocalMetaManager;
@@ -63,6 +66,8 @@ public class MultiChatLocalSpongePlugin {
 	@ConfigDir(sharedRoot = false)
 	private Path privateConfigDir;
 
+	private volatile boolean stopping;
+
 	@Listener
 	public void onServerStart(GameStartedServerEvent event) {
 
@@ -108,6 +113,13 @@ public class MultiChatLocalSpongePlugin {
 		LocalDataStore dataStore = new LocalDataStore();
 		api.registerDataStore(dataStore);
 
+		// Register main thread executor, so asynchronous results can be handed back to Sponge
+		// (Results arriving once the server is stopping are dropped)
+		Executor syncExecutor = Sponge.getScheduler().createSyncExecutor(this);
+		api.registerMainThreadExecutor(task -> {
+			if (!stopping) syncExecutor.execute(task);
+		});
+
 		// Register name manager...
 		LocalNameManager nameManager;
 
@@ -170,6 +182,20 @@ public class MultiChatLocalSpongePlugin {
 
 		Sponge.getEventManager().registerListeners(this, new SpongeGameReloadEvent());
 
+		// Serve the metrics to Prometheus
+		if (configMan.getLocalConfig().isMetricsEndpoint()) {
+
+			try {
+				PrometheusEndpoint metricsEndpoint = new PrometheusEndpoint(PrometheusEndpoint.parseAddress(configMan.getLocalConfig().getMetricsEndpointBind(), PrometheusEndpoint.DEFAULT_PORT));
+				metricsEndpoint.start();
+				api.registerMetricsEndpoint(metricsEndpoint);
+				consoleLogger.log("Serving metrics at http://" + metricsEndpoint.getBindAddress().getHostString() + ":" + metricsEndpoint.getBindAddress().getPort() + "/metrics");
+			} catch (IOException | IllegalArgumentException e) {
+				consoleLogger.log("Could not start the metrics endpoint! " + e.getMessage());
+			}
+
+		}
+
 		// Register Commands
 
 		CommandSpec nicknameCommandSpec = CommandSpec.builder()
@@ -183,7 +209,9 @@ public class MultiChatLocalSpongePlugin {
 
 		CommandSpec multichatlocalCommandSpec = CommandSpec.builder()
 				.description(Text.of("MultiChatLocal command"))
-				.arguments(GenericArguments.onlyOne(GenericArguments.string(Text.of("command"))))
+				.arguments(
+						GenericArguments.onlyOne(GenericArguments.string(Text.of("command"))),
+						GenericArguments.optional(GenericArguments.string(Text.of("category"))))
 				.permission("multichatlocal.admin")
 				.executor(new MultiChatLocalSpongeCommand())
 				.build();
@@ -273,6 +301,8 @@ public class MultiChatLocalSpongePlugin {
 	@Listener
 	public void onServerStop(GameStoppingServerEvent event) {
 
+		stopping = true;
+
 		SpongeBungeeCommunicationManager commManager = (SpongeBungeeCommunicationManager)MultiChatLocal.getInstance().getProxyCommunicationManager();
 
 		Sponge.getChannelRegistrar().unbindChannel(commManager.getChannel("multichat:comm"));
@@ -302,6 +332,14 @@ public class MultiChatLocalSpongePlugin {
 		Sponge.getChannelRegistrar().unbindChannel(commManager.getChannel("multichat:ppxe"));
 		commManager.unregisterChannel("multichat:ppxe");
 
+		Optional<PrometheusEndpoint> metricsEndpoint = MultiChatLocal.getInstance().getMetricsEndpoint();
+		if (metricsEndpoint.isPresent()) {
+			metricsEndpoint.get().stop();
+		}
+
+		// Finish any name manager tasks still waiting to be run
+		MultiChatLocal.getInstance().getNameManager().shutdown();
+
 		if (MultiChatLocal.getInstance().getNameManager().getMode() == LocalNameManagerMode.SQL) {
 
 			try {
@@ -313,6 +351,7 @@ public class MultiChatLocalSpongePlugin {
 		} else {
 
 			MultiChatLocal.getInstance().getFileSystemManager().getNicknameFile().save();
+			MultiChatLocal.getInstance().getFileSystemManager().getNicknameFile().close();
 
 		}
 
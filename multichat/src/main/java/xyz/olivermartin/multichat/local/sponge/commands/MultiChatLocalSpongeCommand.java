@@ -1,5 +1,7 @@
 package xyz.olivermartin.multichat.local.sponge.commands;
 
+import java.util.Optional;
+
 import org.spongepowered.api.command.CommandException;
 import org.spongepowered.api.command.CommandResult;
 import org.spongepowered.api.command.CommandSource;
@@ -16,15 +18,18 @@ public class MultiChatLocalSpongeCommand extends MultiChatLocalCommand implement
 
 		MultiChatLocalCommandSender mccs = new MultiChatLocalSpongeCommandSender(sender);
 
-		String[] strArgs = new String[1];
+		Optional<String> category = args.<String>getOne("category");
+
+		String[] strArgs = new String[category.isPresent() ? 2 : 1];
 		strArgs[0] = args.<String>getOne("command").get();
+		if (category.isPresent()) strArgs[1] = category.get();
 
 		boolean status = executeMultiChatLocalCommand(mccs, strArgs);
 
 		if (status) {
 			return CommandResult.success();
 		} else {
-			mccs.sendBadMessage("Usage: /multichatlocal <reload/debug/migratetosql>");
+			mccs.sendBadMessage("Usage: /multichatlocal <reload/debug [category]/migratetosql/stats>");
 			return CommandResult.empty();
 		}
 
@@ -13,6 +13,7 @@ import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.text.channel.MessageReceiver;
 import org.spongepowered.api.text.channel.impl.SimpleMutableMessageChannel;
 
+import xyz.olivermartin.multichat.common.DebugCategory;
 import xyz.olivermartin.multichat.local.common.LocalConsoleLogger;
 import xyz.olivermartin.multichat.local.common.LocalPseudoChannel;
 import xyz.olivermartin.multichat.local.common.MultiChatLocal;
@@ -32,24 +33,24 @@ public class MultiChatMessageChannel extends SimpleMutableMessageChannel {
 
 		LocalConsoleLogger logger = MultiChatLocal.getInstance().getConsoleLogger();
 
-		logger.debug("Creating new MultiChatMessageChannel for " + sender.getName());
+		logger.debug(DebugCategory.CHAT, "Creating new MultiChatMessageChannel for %s", sender.getName());
 
-		logger.debug("Before starting, this channel has " + getMembers().size() + " members!");
+		logger.debug(DebugCategory.CHAT, () -> "Before starting, this channel has " + getMembers().size() + " members!");
 
 		//Set<Player> onlinePlayers = new HashSet<Player>(Sponge.getServer().getOnlinePlayers());
 
-		logger.debug("How many recipients already? ... " + recipients.size());
+		logger.debug(DebugCategory.CHAT, "How many recipients already? ... %s", recipients.size());
 
 		Iterator<MessageReceiver> it = recipients.iterator();
 
 		this.channel = MultiChatLocal.getInstance().getChatManager().peekAtChatChannel(sender);
 		Optional<LocalPseudoChannel> opChannelObject = MultiChatLocal.getInstance().getChatManager().getChannelObject(channel);
 
-		logger.debug("Channel is : " + channel);
+		logger.debug(DebugCategory.CHAT, "Channel is : %s", channel);
 
 		if (opChannelObject.isPresent()) {
 
-			logger.debug("We have an object for that channel which is good!");
+			logger.debug(DebugCategory.CHAT, "We have an object for that channel which is good!");
 
 			Set<UUID> ignoredPlayers;
 			LocalPseudoChannel channelObject = opChannelObject.get();
@@ -67,19 +68,19 @@ public class MultiChatMessageChannel extends SimpleMutableMessageChannel {
 						ignoredPlayers = ignoreMap.get(p2.getUniqueId());
 
 						if (ignoredPlayers == null) {
-							logger.debug("...Their ignore map was null. They don't ignore anyone");
+							logger.debug(DebugCategory.CHAT, "...Their ignore map was null. They don't ignore anyone");
 						} else {
-							logger.debug("...They ignore " + ignoredPlayers.size() + " players.");
+							logger.debug(DebugCategory.CHAT, "...They ignore %s players.", ignoredPlayers.size());
 						}
 
 						if ( (channelObject.whitelistMembers && channelObject.members.contains(p2.getUniqueId()))
 								|| (!channelObject.whitelistMembers && !channelObject.members.contains(p2.getUniqueId()))) {
 
-							logger.debug("...They are part of this pseudochannel object!");
+							logger.debug(DebugCategory.CHAT, "...They are part of this pseudochannel object!");
 
 							if (ignoredPlayers != null) {
 								if (ignoredPlayers.contains(sender.getUniqueId())) {
-									logger.debug("...Do they ignore the sender (" + sender.getName() + ")? --> YES");
+									logger.debug(DebugCategory.CHAT, "...Do they ignore the sender (%s)? --> YES", sender.getName());
 									it.remove();
 								}
 							}
@@ -1,5 +1,13 @@
 package xyz.olivermartin.multichat.proxy.common;
 
+import java.util.Optional;
+
+import xyz.olivermartin.multichat.common.metrics.PrometheusEndpoint;
+import xyz.olivermartin.multichat.proxy.common.history.ChatHistory;
+import xyz.olivermartin.multichat.proxy.common.network.NetworkBus;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataStoreManager;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxySQLStoreManager;
+
 /**
  * This is MultiChat's API running on the network proxy server
  * 
@@ -20,10 +28,131 @@ public class MultiChatProxy {
 
 	/* END STATIC */
 
-	// TODO Add attributes
+	private final Object dataLock = new Object();
+
+	private ProxyDataStoreManager dataStoreManager;
+	private ProxySQLStoreManager sqlStoreManager;
+	private NetworkBus networkBus;
+	private PrometheusEndpoint metricsEndpoint;
+	private ChatHistory chatHistory;
 
 	/* END ATTRIBUTES */
 
 	private MultiChatProxy() { /* EMPTY */ }
 
+	/**
+	 * Get the lock which must be held while changing any data which is shared between proxies
+	 * 
+	 * <p>Mutes, ignores, group chats, spy lists and chat modes are only changed while holding this
+	 * lock, so the SQL store manager can read them and replace them without losing a change.</p>
+	 * 
+	 * @return The lock
+	 */
+	public Object getDataLock() {
+		return this.dataLock;
+	}
+
+	/**
+	 * Register the data store manager to be used by MultiChatProxy
+	 * 
+	 * <p>Should be registered in onEnable()</p>
+	 * 
+	 * @param dataStoreManager The data store manager to register to the API
+	 */
+	public void registerDataStoreManager(ProxyDataStoreManager dataStoreManager) {
+		this.dataStoreManager = dataStoreManager;
+	}
+
+	/**
+	 * Get the data store manager being used by MultiChatProxy
+	 * 
+	 * <p>Will throw Illegal State Exception if one has not been registered</p>
+	 * 
+	 * @return The data store manager
+	 */
+	public ProxyDataStoreManager getDataStoreManager() {
+		if (this.dataStoreManager == null) throw new IllegalStateException("No MultiChat proxy data store manager has been registered");
+		return this.dataStoreManager;
+	}
+
+	/**
+	 * Register the SQL store manager to be used by MultiChatProxy
+	 * 
+	 * <p>Only registered if data is shared between proxies using a database</p>
+	 * 
+	 * @param sqlStoreManager The SQL store manager to register to the API
+	 */
+	public void registerSQLStoreManager(ProxySQLStoreManager sqlStoreManager) {
+		this.sqlStoreManager = sqlStoreManager;
+	}
+
+	/**
+	 * Get the SQL store manager being used by MultiChatProxy
+	 * 
+	 * @return The SQL store manager, or empty if data is not being shared using a database
+	 */
+	public Optional<ProxySQLStoreManager> getSQLStoreManager() {
+		return Optional.ofNullable(this.sqlStoreManager);
+	}
+
+	/**
+	 * Register the network bus to be used by MultiChatProxy
+	 * 
+	 * <p>Only registered if chat is relayed to other proxies</p>
+	 * 
+	 * @param networkBus The network bus to register to the API
+	 */
+	public void registerNetworkBus(NetworkBus networkBus) {
+		this.networkBus = networkBus;
+	}
+
+	/**
+	 * Get the network bus being used by MultiChatProxy
+	 * 
+	 * @return The network bus, or empty if chat is not being relayed to other proxies
+	 */
+	public Optional<NetworkBus> getNetworkBus() {
+		return Optional.ofNullable(this.networkBus);
+	}
+
+	/**
+	 * Register the metrics endpoint to be used by MultiChatProxy
+	 * 
+	 * <p>Only registered if the metrics are being served</p>
+	 * 
+	 * @param metricsEndpoint The metrics endpoint to register to the API
+	 */
+	public void registerMetricsEndpoint(PrometheusEndpoint metricsEndpoint) {
+		this.metricsEndpoint = metricsEndpoint;
+	}
+
+	/**
+	 * Get the metrics endpoint being used by MultiChatProxy
+	 * 
+	 * @return The metrics endpoint, or empty if the metrics are not being served
+	 */
+	public Optional<PrometheusEndpoint> getMetricsEndpoint() {
+		return Optional.ofNullable(this.metricsEndpoint);
+	}
+
+	/**
+	 * Register the chat history to be used by MultiChatProxy
+	 * 
+	 * <p>Only registered if the chat history is enabled</p>
+	 * 
+	 * @param chatHistory The chat history to register to the API
+	 */
+	public void registerChatHistory(ChatHistory chatHistory) {
+		this.chatHistory = chatHistory;
+	}
+
+	/**
+	 * Get the chat history being used by MultiChatProxy
+	 * 
+	 * @return The chat history, or empty if the chat history is not enabled
+	 */
+	public Optional<ChatHistory> getChatHistory() {
+		return Optional.ofNullable(this.chatHistory);
+	}
+
 }
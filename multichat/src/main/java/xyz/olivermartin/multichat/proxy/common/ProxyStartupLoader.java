@@ -0,0 +1,165 @@
+package xyz.olivermartin.multichat.proxy.common;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the proxy's start-up routine in timed phases
+ *
+ * <p>The tasks within a phase do not depend on each other, so are run in parallel on a small
+ * executor. Each phase waits for all of its tasks to finish before the next phase starts.</p>
+ *
+ * <p>Tasks which are not needed before the plugin is usable can be deferred, they are run in the
+ * background after the other phases. Anything which uses their data must make sure it has been
+ * loaded first.</p>
+ */
+public class ProxyStartupLoader {
+
+	private final ExecutorService executor;
+	private final Map<String, Long> timings;
+	private final long started;
+
+	public ProxyStartupLoader() {
+
+		this.timings = new LinkedHashMap<String, Long>();
+		this.started = System.nanoTime();
+
+		int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+		final AtomicInteger count = new AtomicInteger();
+
+		this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "MultiChat-Startup-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+
+	}
+
+	/**
+	 * Run a phase on the calling thread
+	 * @param phase The name of the phase used in the timings
+	 * @param task
+	 */
+	public void run(String phase, Runnable task) {
+
+		long start = System.nanoTime();
+
+		try {
+			task.run();
+		} finally {
+			record(phase, start);
+		}
+
+	}
+
+	/**
+	 * Run the tasks of a phase in parallel, and wait for them all to finish
+	 *
+	 * <p>An error in one task is reported, but does not stop the other tasks.</p>
+	 *
+	 * @param phase The name of the phase used in the timings
+	 * @param tasks
+	 */
+	public void runParallel(String phase, List<Runnable> tasks) {
+
+		long start = System.nanoTime();
+
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (Runnable task : tasks) {
+			futures.add(executor.submit(task));
+		}
+
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				System.out.println("[MultiChat] [Load Error] An error has occured during the " + phase + " start-up phase!");
+				e.getCause().printStackTrace();
+			}
+		}
+
+		record(phase, start);
+
+	}
+
+	/**
+	 * Run a task in the background, after all the phases which have already been started
+	 *
+	 * <p>The time taken is printed once the task has finished.</p>
+	 *
+	 * @param name The description of the task used when printing its time
+	 * @param task
+	 */
+	public void defer(final String name, final Runnable task) {
+
+		executor.execute(new Runnable() {
+
+			public void run() {
+
+				long start = System.nanoTime();
+
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					System.out.println("[MultiChat] [Load Error] An error has occured loading the " + name + "!");
+					e.printStackTrace();
+					return;
+				}
+
+				System.out.println("[MultiChat] Loaded the " + name + " in the background in " + millis(start) + "ms");
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Print the time taken by each phase, and stop the executor once any deferred tasks have finished
+	 *
+	 * <p>Should be called at the end of onEnable()</p>
+	 */
+	public void finish() {
+
+		StringBuilder breakdown = new StringBuilder();
+
+		synchronized (timings) {
+			for (Map.Entry<String, Long> timing : timings.entrySet()) {
+				if (breakdown.length() > 0) breakdown.append(", ");
+				breakdown.append(timing.getKey()).append(" ").append(timing.getValue()).append("ms");
+			}
+		}
+
+		System.out.println("[MultiChat] Startup took " + millis(started) + "ms (" + breakdown + ")");
+
+		executor.shutdown();
+
+	}
+
+	private void record(String phase, long start) {
+		synchronized (timings) {
+			timings.put(phase, millis(start));
+		}
+	}
+
+	private static long millis(long start) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+}
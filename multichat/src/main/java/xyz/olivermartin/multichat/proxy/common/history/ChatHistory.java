@@ -0,0 +1,480 @@
+package xyz.olivermartin.multichat.proxy.common.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogRecord;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogSink;
+
+/**
+ * A searchable history of the chat logged on this proxy
+ *
+ * <p>Records are appended to the current segment, which is finished, and a new one started, once it reaches
+ * the segment size or is a day old. When a segment is finished its index (see {@link HistoryIndex}) is written
+ * next to it, so a search only reads the records which match rather than every file.</p>
+ *
+ * <p>Only the index of the current segment, and those of the few segments searched most recently, are kept in memory.
+ * Segments older than the retention period are deleted. When the history is opened, runs of small segments
+ * (i.e. those left by restarts) are compacted into one, and a segment left without an index by a crash is indexed again.</p>
+ *
+ * <p>Searches only lock the history while they find the segments to search and the matching records of the current
+ * segment, and read the files without it, so they never hold up the log writer thread while reading from disk.</p>
+ */
+public class ChatHistory implements ChatLogSink {
+
+	private static final int CACHED_INDEXES = 4;
+	private static final long MAX_SEGMENT_AGE = 86400000L;
+	private static final String TEMPORARY = ".tmp";
+
+	private final File directory;
+	private final long segmentBytes;
+	private final long retention;
+
+	private final List<HistorySegment> segments;
+	private final Map<HistorySegment, HistoryIndex> cachedIndexes;
+	private HistorySegment.Writer current;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * @param directory The folder to keep the history in
+	 * @param segmentBytes The size at which to start a new segment
+	 * @param retention How long to keep the history for, in milliseconds
+	 */
+	public ChatHistory(File directory, long segmentBytes, long retention) {
+
+		this.directory = directory;
+		this.segmentBytes = segmentBytes;
+		this.retention = retention;
+		this.segments = new ArrayList<HistorySegment>();
+
+		this.cachedIndexes = new LinkedHashMap<HistorySegment, HistoryIndex>(CACHED_INDEXES * 2, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			protected boolean removeEldestEntry(Map.Entry<HistorySegment, HistoryIndex> eldest) {
+				return size() > CACHED_INDEXES;
+			}
+		};
+
+	}
+
+	public String getName() {
+		return "chat history";
+	}
+
+	/**
+	 * Load the existing segments and start a new one
+	 * @throws IOException If the history folder could not be used
+	 */
+	public synchronized void open() throws IOException {
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create " + directory);
+		}
+
+		File[] files = directory.listFiles();
+		if (files == null) throw new IOException("Could not list " + directory);
+
+		for (File file : files) {
+
+			// Left behind if the proxy stopped during a compaction
+			if (file.getName().contains(TEMPORARY + ".")) {
+				file.delete();
+				continue;
+			}
+
+			if (!file.getName().endsWith(HistorySegment.DATA_SUFFIX)) continue;
+
+			HistorySegment segment = loadSegment(file);
+			if (segment != null) segments.add(segment);
+
+		}
+
+		sortSegments();
+		deleteExpired();
+		compact();
+		startSegment();
+
+	}
+
+	/**
+	 * @param data
+	 * @return The segment, or null if it has no records or could not be read
+	 */
+	private HistorySegment loadSegment(File data) {
+
+		File index = HistorySegment.getIndexFile(data);
+
+		if (index.isFile()) {
+			try {
+				long[] times = HistoryIndex.readTimes(index);
+				return new HistorySegment(data, times[0], times[1]);
+			} catch (IOException e) {
+				// Written again below
+			}
+		}
+
+		try {
+
+			final HistoryIndex rebuilt = new HistoryIndex();
+
+			HistorySegment.scan(data, new HistorySegment.RecordVisitor() {
+				public void visit(ChatLogRecord record, int offset) {
+					rebuilt.add(record, offset);
+				}
+			});
+
+			if (rebuilt.getRecords() == 0) {
+				data.delete();
+				index.delete();
+				return null;
+			}
+
+			rebuilt.write(index);
+			System.out.println("[MultiChat] Indexed chat history segment " + data.getName() + " again");
+
+			return new HistorySegment(data, rebuilt.getMinTime(), rebuilt.getMaxTime());
+
+		} catch (IOException e) {
+			System.out.println("[MultiChat] Could not read chat history segment " + data.getName() + ", it will be left out of searches");
+			return null;
+		}
+
+	}
+
+	private void sortSegments() {
+		Collections.sort(segments, new Comparator<HistorySegment>() {
+			public int compare(HistorySegment a, HistorySegment b) {
+				return Long.compare(a.getMinTime(), b.getMinTime());
+			}
+		});
+	}
+
+	private void deleteExpired() {
+
+		long cutoff = System.currentTimeMillis() - retention;
+		Iterator<HistorySegment> iterator = segments.iterator();
+
+		while (iterator.hasNext()) {
+			HistorySegment segment = iterator.next();
+			if (segment.getMaxTime() >= cutoff) continue;
+			iterator.remove();
+			cachedIndexes.remove(segment);
+			if (!segment.delete()) {
+				System.out.println("[MultiChat] Could not delete old chat history segment " + segment.getDataFile().getName());
+			}
+		}
+
+	}
+
+	/**
+	 * Merge each run of neighbouring small segments into a single segment
+	 */
+	private void compact() {
+
+		List<HistorySegment> compacted = new ArrayList<HistorySegment>();
+		List<HistorySegment> run = new ArrayList<HistorySegment>();
+		long runBytes = 0;
+
+		for (HistorySegment segment : segments) {
+
+			long bytes = segment.getDataFile().length();
+
+			if (bytes < segmentBytes / 2 && runBytes + bytes <= segmentBytes) {
+				run.add(segment);
+				runBytes += bytes;
+				continue;
+			}
+
+			compacted.addAll(merge(run));
+			run.clear();
+			runBytes = 0;
+
+			if (bytes < segmentBytes / 2) {
+				run.add(segment);
+				runBytes = bytes;
+			} else {
+				compacted.add(segment);
+			}
+
+		}
+
+		compacted.addAll(merge(run));
+
+		segments.clear();
+		segments.addAll(compacted);
+
+	}
+
+	/**
+	 * @param run Neighbouring segments, oldest first
+	 * @return The merged segment, or the segments as they were if they were not merged
+	 */
+	private List<HistorySegment> merge(List<HistorySegment> run) {
+
+		if (run.size() < 2) return new ArrayList<HistorySegment>(run);
+
+		String name = run.get(0).getMinTime() + "-" + run.get(run.size() - 1).getMaxTime();
+		File data = new File(directory, name + HistorySegment.DATA_SUFFIX);
+		File temporary = new File(directory, name + TEMPORARY + HistorySegment.DATA_SUFFIX);
+
+		try {
+
+			final HistorySegment.Writer writer = new HistorySegment.Writer(temporary);
+
+			for (HistorySegment segment : run) {
+				HistorySegment.scan(segment.getDataFile(), new HistorySegment.RecordVisitor() {
+					public void visit(ChatLogRecord record, int offset) throws IOException {
+						writer.append(record);
+					}
+				});
+			}
+
+			HistorySegment merged = writer.finish();
+
+			if (merged == null || !temporary.renameTo(data) || !merged.getIndexFile().renameTo(HistorySegment.getIndexFile(data))) {
+				throw new IOException("Could not rename " + temporary.getName());
+			}
+
+			for (HistorySegment segment : run) {
+				segment.delete();
+			}
+
+			return Collections.singletonList(new HistorySegment(data, merged.getMinTime(), merged.getMaxTime()));
+
+		} catch (IOException e) {
+			System.out.println("[MultiChat] Could not compact the chat history: " + e.getMessage());
+			temporary.delete();
+			HistorySegment.getIndexFile(temporary).delete();
+			return new ArrayList<HistorySegment>(run);
+		}
+
+	}
+
+	private void startSegment() throws IOException {
+
+		String name = String.valueOf(System.currentTimeMillis());
+		File data = new File(directory, name + HistorySegment.DATA_SUFFIX);
+
+		for (int i = 1; data.exists(); i++) {
+			data = new File(directory, name + "-" + i + HistorySegment.DATA_SUFFIX);
+		}
+
+		current = new HistorySegment.Writer(data);
+
+	}
+
+	private void finishSegment() throws IOException {
+
+		HistorySegment.Writer writer = current;
+		current = null;
+
+		HistorySegment finished = writer.finish();
+		if (finished != null) segments.add(finished);
+
+	}
+
+	public synchronized void write(ChatLogRecord record) throws IOException {
+		if (current == null) throw new IOException("The chat history is closed");
+		current.append(record);
+	}
+
+	/**
+	 * Write the records of the current segment to disk, then start a new segment if the current one is big or old enough
+	 */
+	public synchronized void flush() throws IOException {
+
+		if (current == null) return;
+
+		current.flush();
+
+		if (current.getPosition() >= segmentBytes || System.currentTimeMillis() - current.getCreated() >= MAX_SEGMENT_AGE) {
+			finishSegment();
+			deleteExpired();
+			startSegment();
+		}
+
+	}
+
+	public synchronized void close() throws IOException {
+		if (current == null) return;
+		finishSegment();
+	}
+
+	/**
+	 * Find the most recent messages sent by a player
+	 * @param sender
+	 * @param since Only find messages sent at or after this time
+	 * @param limit The most messages to find
+	 * @return The messages, most recent first
+	 * @throws IOException
+	 */
+	public List<ChatLogRecord> findBySender(final UUID sender, long since, int limit) throws IOException {
+
+		return find(new Matcher() {
+
+			public int[] getOffsets(HistoryIndex index) {
+				return index.getSenderOffsets(sender);
+			}
+
+			public boolean matches(ChatLogRecord record) {
+				return sender.equals(record.getSenderUUID());
+			}
+
+		}, since, limit);
+
+	}
+
+	/**
+	 * Find the most recent messages containing some text
+	 *
+	 * <p>The index is used to find the messages containing every word of the text, which are then
+	 * checked for the text as a whole, ignoring case.</p>
+	 *
+	 * @param text Which must contain at least one word of {@link HistoryIndex#MIN_WORD_LENGTH} or more letters
+	 * @param since Only find messages sent at or after this time
+	 * @param limit The most messages to find
+	 * @return The messages, most recent first
+	 * @throws IOException
+	 */
+	public List<ChatLogRecord> findByText(String text, long since, int limit) throws IOException {
+
+		final List<String> words = HistoryIndex.tokenise(text);
+		final String lowerText = text.toLowerCase(Locale.ROOT);
+
+		if (words.isEmpty()) throw new IllegalArgumentException("No words to search for in " + text);
+
+		return find(new Matcher() {
+
+			public int[] getOffsets(HistoryIndex index) {
+				int[] offsets = index.getWordOffsets(words.get(0));
+				for (int i = 1; i < words.size() && offsets.length > 0; i++) {
+					offsets = HistoryIndex.intersect(offsets, index.getWordOffsets(words.get(i)));
+				}
+				return offsets;
+			}
+
+			public boolean matches(ChatLogRecord record) {
+				return record.getMessage().toLowerCase(Locale.ROOT).contains(lowerText);
+			}
+
+		}, since, limit);
+
+	}
+
+	private List<ChatLogRecord> find(Matcher matcher, long since, int limit) throws IOException {
+
+		List<ChatLogRecord> results = new ArrayList<ChatLogRecord>();
+
+		File currentData = null;
+		int[] currentOffsets = null;
+		List<HistorySegment> searched;
+
+		synchronized (this) {
+
+			// The index of the current segment changes as records are written, so it is only read here
+			if (current != null) {
+				current.flush();
+				HistoryIndex index = current.getIndex();
+				if (index.getRecords() > 0 && index.getMaxTime() >= since) {
+					currentData = current.getDataFile();
+					currentOffsets = matcher.getOffsets(index);
+				}
+			}
+
+			searched = new ArrayList<HistorySegment>(segments);
+
+		}
+
+		// Records are only appended, so those already flushed can be read without the lock
+		if (currentOffsets != null) {
+			readMatches(currentData, currentOffsets, matcher, since, limit, results);
+		}
+
+		// Newest first
+		for (int i = searched.size() - 1; i >= 0 && results.size() < limit; i--) {
+
+			HistorySegment segment = searched.get(i);
+			if (segment.getMaxTime() < since) continue;
+
+			try {
+				findInSegment(segment.getDataFile(), getIndex(segment), matcher, since, limit, results);
+			} catch (IOException e) {
+				// Deleted since the search started, as it expired
+				if (segment.getDataFile().exists()) throw e;
+			}
+
+		}
+
+		return results;
+
+	}
+
+	private HistoryIndex getIndex(HistorySegment segment) throws IOException {
+
+		synchronized (this) {
+			HistoryIndex index = cachedIndexes.get(segment);
+			if (index != null) return index;
+		}
+
+		// Finished indexes are never changed, so can be shared once read
+		HistoryIndex index = HistoryIndex.read(segment.getIndexFile());
+
+		synchronized (this) {
+			cachedIndexes.put(segment, index);
+		}
+
+		return index;
+
+	}
+
+	private void findInSegment(File data, HistoryIndex index, Matcher matcher, long since, int limit, List<ChatLogRecord> results) throws IOException {
+
+		if (results.size() >= limit || index.getRecords() == 0 || index.getMaxTime() < since) return;
+
+		int[] offsets = matcher.getOffsets(index);
+		if (offsets.length == 0) return;
+
+		readMatches(data, offsets, matcher, since, limit, results);
+
+	}
+
+	private void readMatches(File data, int[] offsets, Matcher matcher, long since, int limit, List<ChatLogRecord> results) throws IOException {
+
+		if (results.size() >= limit) return;
+
+		try (RandomAccessFile file = new RandomAccessFile(data, "r")) {
+
+			// The records of a segment are in time order, so stop at the first which is too old
+			for (int i = offsets.length - 1; i >= 0 && results.size() < limit; i--) {
+				ChatLogRecord record = HistorySegment.readRecord(file, offsets[i]);
+				if (record.getTime() < since) return;
+				if (matcher.matches(record)) results.add(record);
+			}
+
+		}
+
+	}
+
+	private interface Matcher {
+
+		/**
+		 * @param index
+		 * @return The offsets of the records which might match, in the order they were written
+		 */
+		public int[] getOffsets(HistoryIndex index);
+
+		public boolean matches(ChatLogRecord record);
+
+	}
+
+}
@@ -0,0 +1,88 @@
+package xyz.olivermartin.multichat.proxy.common.history;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed number of the most recent messages of a chat, kept in memory
+ *
+ * <p>Adding a message never locks or waits: each writer claims the next sequence number, and writes
+ * the message to the slot it maps to, over the oldest message. A slot is only ever replaced by a message with a
+ * higher sequence number, so a writer which is overtaken never puts back an older message. Readers take whatever is
+ * in the slots, and skip any slot which has already been written over, or which has not been written yet, by checking
+ * its sequence number.</p>
+ * @param <T> The messages, which should not be changed once they are added
+ */
+public class ChatRingBuffer<T> {
+
+	private final AtomicReferenceArray<Slot<T>> slots;
+	private final AtomicLong next;
+	private final int mask;
+
+	/**
+	 * @param capacity The number of messages to keep, which is rounded up to a power of two
+	 */
+	public ChatRingBuffer(int capacity) {
+
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+
+		this.slots = new AtomicReferenceArray<Slot<T>>(size);
+		this.next = new AtomicLong(0);
+		this.mask = size - 1;
+
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	public void add(T message) {
+
+		long sequence = next.getAndIncrement();
+		int index = (int) (sequence & mask);
+		Slot<T> slot = new Slot<T>(sequence, message);
+		Slot<T> current;
+
+		do {
+			current = slots.get(index);
+			// Already written over by a writer which came round the buffer after this one
+			if (current != null && current.sequence > sequence) return;
+		} while (!slots.compareAndSet(index, current, slot));
+
+	}
+
+	/**
+	 * @param max The most messages to return
+	 * @return Up to max of the most recent messages, oldest first
+	 */
+	public List<T> getRecent(int max) {
+
+		long end = next.get();
+		long start = Math.max(0, end - Math.min(max, mask + 1));
+
+		List<T> recent = new ArrayList<T>((int) (end - start));
+
+		for (long sequence = start; sequence < end; sequence++) {
+			Slot<T> slot = slots.get((int) (sequence & mask));
+			if (slot != null && slot.sequence == sequence) recent.add(slot.message);
+		}
+
+		return recent;
+
+	}
+
+	private static class Slot<T> {
+
+		private final long sequence;
+		private final T message;
+
+		private Slot(long sequence, T message) {
+			this.sequence = sequence;
+			this.message = message;
+		}
+
+	}
+
+}
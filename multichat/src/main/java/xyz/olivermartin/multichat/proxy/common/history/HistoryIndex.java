@@ -0,0 +1,335 @@
+package xyz.olivermartin.multichat.proxy.common.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogRecord;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataFormat;
+
+/**
+ * The index of one segment of the chat history
+ *
+ * <p>Maps each word, and each sender, to the offsets of the records in the segment which contain it.
+ * The offsets of each are kept in the order the records were written, which is also the order of their times.
+ * The earliest and latest times in the segment are kept, so whole segments can be skipped when searching by time.</p>
+ *
+ * <p>The offsets are written to the index file as the differences between them, so each usually takes a single byte.</p>
+ */
+public class HistoryIndex {
+
+	static final String TYPE = "chat_history_index";
+	static final int VERSION = 1;
+
+	/**
+	 * Shorter words are too common to be worth indexing
+	 */
+	public static final int MIN_WORD_LENGTH = 2;
+	private static final int MAX_WORD_LENGTH = 32;
+
+	private static final int[] NONE = new int[0];
+
+	/**
+	 * Split text into the words which are indexed
+	 * @param text
+	 * @return The distinct words, in lower case, in the order they first appear
+	 */
+	public static List<String> tokenise(String text) {
+
+		Set<String> words = new LinkedHashSet<String>();
+		int start = -1;
+
+		for (int i = 0; i <= text.length(); i++) {
+
+			boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+
+			if (letter && start < 0) {
+				start = i;
+			} else if (!letter && start >= 0) {
+				if (i - start >= MIN_WORD_LENGTH && i - start <= MAX_WORD_LENGTH) {
+					words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				}
+				start = -1;
+			}
+
+		}
+
+		return new ArrayList<String>(words);
+
+	}
+
+	/**
+	 * Read only the earliest and latest times of an index file
+	 * @param file
+	 * @return The earliest and latest times, in that order
+	 * @throws IOException
+	 */
+	static long[] readTimes(File file) throws IOException {
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 256))) {
+			ProxyDataFormat.readHeader(in, TYPE);
+			return new long[] {in.readLong(), in.readLong()};
+		}
+
+	}
+
+	static HistoryIndex read(File file) throws IOException {
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536))) {
+
+			int version = ProxyDataFormat.readHeader(in, TYPE);
+			if (version > VERSION) throw new IOException("Unsupported chat history index version " + version);
+
+			HistoryIndex index = new HistoryIndex();
+
+			index.minTime = in.readLong();
+			index.maxTime = in.readLong();
+			index.records = ProxyDataFormat.readCount(in);
+
+			int words = ProxyDataFormat.readCount(in);
+			for (int i = 0; i < words; i++) {
+				String word = ProxyDataFormat.readString(in);
+				index.words.put(word, readOffsets(in));
+			}
+
+			int senders = ProxyDataFormat.readCount(in);
+			for (int i = 0; i < senders; i++) {
+				UUID sender = ProxyDataFormat.readUUID(in);
+				index.senders.put(sender, readOffsets(in));
+			}
+
+			return index;
+
+		}
+
+	}
+
+	private static Offsets readOffsets(DataInputStream in) throws IOException {
+
+		int count = ProxyDataFormat.readCount(in);
+		Offsets offsets = new Offsets(count);
+
+		int offset = 0;
+		for (int i = 0; i < count; i++) {
+			offset += readVarInt(in);
+			offsets.values[i] = offset;
+		}
+
+		offsets.size = count;
+		return offsets;
+
+	}
+
+	private static void writeOffsets(DataOutputStream out, Offsets offsets) throws IOException {
+
+		ProxyDataFormat.writeCount(out, offsets.size);
+
+		int previous = 0;
+		for (int i = 0; i < offsets.size; i++) {
+			writeVarInt(out, offsets.values[i] - previous);
+			previous = offsets.values[i];
+		}
+
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+
+		int value = 0;
+
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+
+		throw new IOException("Invalid offset in chat history index");
+
+	}
+
+	/**
+	 * @param a Sorted offsets
+	 * @param b Sorted offsets
+	 * @return The offsets in both
+	 */
+	static int[] intersect(int[] a, int[] b) {
+
+		int[] result = new int[Math.min(a.length, b.length)];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[count++] = a[i];
+				i++;
+				j++;
+			}
+		}
+
+		return Arrays.copyOf(result, count);
+
+	}
+
+	/* END STATIC */
+
+	private final Map<String, Offsets> words;
+	private final Map<UUID, Offsets> senders;
+	private long minTime;
+	private long maxTime;
+	private int records;
+
+	/* END ATTRIBUTES */
+
+	HistoryIndex() {
+		this.words = new HashMap<String, Offsets>();
+		this.senders = new HashMap<UUID, Offsets>();
+		this.minTime = Long.MAX_VALUE;
+		this.maxTime = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Index a record which has been written to the segment
+	 * @param record
+	 * @param offset Where the record starts in the segment
+	 */
+	void add(ChatLogRecord record, int offset) {
+
+		for (String word : tokenise(record.getMessage())) {
+			getOrCreate(words, word).add(offset);
+		}
+
+		if (record.getSenderUUID() != null) {
+			getOrCreate(senders, record.getSenderUUID()).add(offset);
+		}
+
+		minTime = Math.min(minTime, record.getTime());
+		maxTime = Math.max(maxTime, record.getTime());
+		records++;
+
+	}
+
+	private static <K> Offsets getOrCreate(Map<K, Offsets> map, K key) {
+		Offsets offsets = map.get(key);
+		if (offsets == null) {
+			offsets = new Offsets(4);
+			map.put(key, offsets);
+		}
+		return offsets;
+	}
+
+	/**
+	 * @param word A word in lower case
+	 * @return The offsets of the records containing the word, in the order they were written
+	 */
+	int[] getWordOffsets(String word) {
+		Offsets offsets = words.get(word);
+		return offsets == null ? NONE : offsets.toArray();
+	}
+
+	/**
+	 * @param sender
+	 * @return The offsets of the records sent by the player, in the order they were written
+	 */
+	int[] getSenderOffsets(UUID sender) {
+		Offsets offsets = senders.get(sender);
+		return offsets == null ? NONE : offsets.toArray();
+	}
+
+	long getMinTime() {
+		return minTime;
+	}
+
+	long getMaxTime() {
+		return maxTime;
+	}
+
+	int getRecords() {
+		return records;
+	}
+
+	void write(File file) throws IOException {
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536))) {
+
+			ProxyDataFormat.writeHeader(out, TYPE, VERSION);
+
+			out.writeLong(minTime);
+			out.writeLong(maxTime);
+			ProxyDataFormat.writeCount(out, records);
+
+			// Sorted, so the same history always gives the same file
+			List<String> sortedWords = new ArrayList<String>(words.keySet());
+			Collections.sort(sortedWords);
+
+			ProxyDataFormat.writeCount(out, sortedWords.size());
+			for (String word : sortedWords) {
+				ProxyDataFormat.writeString(out, word);
+				writeOffsets(out, words.get(word));
+			}
+
+			ProxyDataFormat.writeCount(out, senders.size());
+			for (Map.Entry<UUID, Offsets> entry : senders.entrySet()) {
+				ProxyDataFormat.writeUUID(out, entry.getKey());
+				writeOffsets(out, entry.getValue());
+			}
+
+		}
+
+	}
+
+	/**
+	 * A growing list of offsets, kept as an int array rather than boxed
+	 */
+	private static class Offsets {
+
+		private int[] values;
+		private int size;
+
+		private Offsets(int capacity) {
+			this.values = new int[Math.max(1, capacity)];
+		}
+
+		private void add(int offset) {
+
+			// A word may appear more than once in the same record
+			if (size > 0 && values[size - 1] == offset) return;
+
+			if (size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = offset;
+
+		}
+
+		private int[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+	}
+
+}
@@ -0,0 +1,290 @@
+package xyz.olivermartin.multichat.proxy.common.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogRecord;
+import xyz.olivermartin.multichat.proxy.common.logging.ChatLogType;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataFormat;
+
+/**
+ * One file of the chat history, and the index written next to it once it is finished
+ *
+ * <p>The data file is a header followed by the records, in the order they were logged.
+ * Each record is written as its length followed by its time, type, sender, server, target and message,
+ * so a single record can be read from its offset without reading the rest of the file.</p>
+ */
+class HistorySegment {
+
+	static final String TYPE = "chat_history";
+	static final int VERSION = 1;
+
+	static final String DATA_SUFFIX = ".seg";
+	static final String INDEX_SUFFIX = ".idx";
+
+	/**
+	 * Messages longer than this are cut short, to keep a corrupt length from being read as a huge record
+	 */
+	private static final int MAX_MESSAGE_LENGTH = 16384;
+	private static final int MAX_RECORD_BYTES = 1 << 20;
+
+	/**
+	 * @param data
+	 * @return The index file kept next to the data file
+	 */
+	static File getIndexFile(File data) {
+		String name = data.getName();
+		return new File(data.getParentFile(), name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+	}
+
+	/**
+	 * Read the record starting at an offset of a data file
+	 * @param file
+	 * @param offset
+	 * @return The record
+	 * @throws IOException
+	 */
+	static ChatLogRecord readRecord(RandomAccessFile file, int offset) throws IOException {
+
+		file.seek(offset);
+
+		int length = file.readInt();
+		if (length < 0 || length > MAX_RECORD_BYTES) throw new IOException("Invalid chat history record length " + length);
+
+		byte[] bytes = new byte[length];
+		file.readFully(bytes);
+
+		return decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+
+	}
+
+	private static ChatLogRecord decode(DataInputStream in) throws IOException {
+
+		long time = in.readLong();
+
+		int type = in.readUnsignedByte();
+		if (type >= ChatLogType.values().length) throw new IOException("Invalid chat history record type " + type);
+
+		boolean hasSender = in.readBoolean();
+
+		return new ChatLogRecord(time, ChatLogType.values()[type],
+				hasSender ? ProxyDataFormat.readUUID(in) : null,
+				ProxyDataFormat.readString(in),
+				ProxyDataFormat.readString(in),
+				ProxyDataFormat.readString(in));
+
+	}
+
+	private static byte[] encode(ChatLogRecord record) throws IOException {
+
+		String message = record.getMessage();
+		if (message.length() > MAX_MESSAGE_LENGTH) message = message.substring(0, MAX_MESSAGE_LENGTH);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + message.length());
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeLong(record.getTime());
+		out.writeByte(record.getType().ordinal());
+		out.writeBoolean(record.getSenderUUID() != null);
+		if (record.getSenderUUID() != null) ProxyDataFormat.writeUUID(out, record.getSenderUUID());
+		ProxyDataFormat.writeString(out, record.getServer());
+		ProxyDataFormat.writeString(out, record.getTarget());
+		ProxyDataFormat.writeString(out, message);
+
+		return bytes.toByteArray();
+
+	}
+
+	/**
+	 * Read every record of a data file, in order
+	 *
+	 * <p>Stops at the first record which was not completely written, i.e. if the proxy stopped while writing it.</p>
+	 *
+	 * @param data
+	 * @param visitor Given each record and its offset
+	 * @return The length of the file up to the end of the last complete record
+	 * @throws IOException If the file could not be read, or does not start with a valid header
+	 */
+	static long scan(File data, RecordVisitor visitor) throws IOException {
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(data), 65536))) {
+
+			int version = ProxyDataFormat.readHeader(in, TYPE);
+			if (version > VERSION) throw new IOException("Unsupported chat history version " + version);
+
+			long offset = headerLength();
+
+			while (true) {
+
+				int length;
+				byte[] bytes;
+
+				try {
+					length = in.readInt();
+					if (length < 0 || length > MAX_RECORD_BYTES) return offset;
+					bytes = new byte[length];
+					in.readFully(bytes);
+				} catch (EOFException e) {
+					return offset;
+				}
+
+				ChatLogRecord record;
+
+				try {
+					record = decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+				} catch (IOException e) {
+					return offset;
+				}
+
+				visitor.visit(record, (int) offset);
+				offset += 4 + length;
+
+			}
+
+		}
+
+	}
+
+	private static int headerLength() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ProxyDataFormat.writeHeader(new DataOutputStream(bytes), TYPE, VERSION);
+		return bytes.size();
+	}
+
+	/* END STATIC */
+
+	private final File data;
+	private final File index;
+	private final long minTime;
+	private final long maxTime;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * @param data The data file of a finished segment
+	 * @param minTime The earliest time of a record in the segment
+	 * @param maxTime The latest time of a record in the segment
+	 */
+	HistorySegment(File data, long minTime, long maxTime) {
+		this.data = data;
+		this.index = getIndexFile(data);
+		this.minTime = minTime;
+		this.maxTime = maxTime;
+	}
+
+	File getDataFile() {
+		return data;
+	}
+
+	File getIndexFile() {
+		return index;
+	}
+
+	long getMinTime() {
+		return minTime;
+	}
+
+	long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Delete the data and index files of the segment
+	 * @return True if both were deleted
+	 */
+	boolean delete() {
+		boolean deleted = !index.exists() || index.delete();
+		return (!data.exists() || data.delete()) && deleted;
+	}
+
+	interface RecordVisitor {
+		void visit(ChatLogRecord record, int offset) throws IOException;
+	}
+
+	/**
+	 * Writes the records of a new segment, and indexes them as they are written
+	 */
+	static class Writer {
+
+		private final File data;
+		private final DataOutputStream out;
+		private final HistoryIndex index;
+		private final long created;
+		private long position;
+
+		Writer(File data) throws IOException {
+			this.data = data;
+			this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(data), 65536));
+			this.index = new HistoryIndex();
+			this.created = System.currentTimeMillis();
+			ProxyDataFormat.writeHeader(out, TYPE, VERSION);
+			this.position = out.size();
+		}
+
+		File getDataFile() {
+			return data;
+		}
+
+		HistoryIndex getIndex() {
+			return index;
+		}
+
+		long getCreated() {
+			return created;
+		}
+
+		/**
+		 * @return The length of the data file once everything written has been flushed
+		 */
+		long getPosition() {
+			return position;
+		}
+
+		void append(ChatLogRecord record) throws IOException {
+
+			byte[] bytes = encode(record);
+
+			out.writeInt(bytes.length);
+			out.write(bytes);
+
+			index.add(record, (int) position);
+			position += 4 + bytes.length;
+
+		}
+
+		void flush() throws IOException {
+			out.flush();
+		}
+
+		/**
+		 * Finish the segment, and write its index
+		 * @return The finished segment, or null if nothing was written to it, in which case it is deleted
+		 * @throws IOException
+		 */
+		HistorySegment finish() throws IOException {
+
+			out.close();
+
+			if (index.getRecords() == 0) {
+				data.delete();
+				return null;
+			}
+
+			index.write(getIndexFile(data));
+			return new HistorySegment(data, index.getMinTime(), index.getMaxTime());
+
+		}
+
+	}
+
+}
@@ -0,0 +1,173 @@
+package xyz.olivermartin.multichat.proxy.common.logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A gzip compressed chat log, which starts a new file each day and whenever the current file gets too big
+ *
+ * <p>Files are named chat-yyyy-MM-dd-n.log.gz, and hold one {@link ChatLogRecord} per line.
+ * Once there are more than the maximum number of files, the oldest are deleted.</p>
+ *
+ * <p>The compressed stream is flushed after each batch of records, so a file can be read while it is being
+ * written, and everything up to the last flush can be read if the proxy stops without closing it.</p>
+ *
+ * <p>Not thread safe, as it is only written by a single thread.</p>
+ */
+public class ChatLogFile implements ChatLogSink {
+
+	private static final String PREFIX = "chat-";
+	private static final String SUFFIX = ".log.gz";
+
+	private final File directory;
+	private final long maxBytes;
+	private final int maxFiles;
+
+	private FileOutputStream fileOut;
+	private Writer writer;
+	private LocalDate day;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * @param directory The folder to keep the chat logs in
+	 * @param maxBytes The compressed size at which to start a new file, or 0 to only start a new file each day
+	 * @param maxFiles The number of files to keep, or 0 to keep every file
+	 */
+	public ChatLogFile(File directory, long maxBytes, int maxFiles) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.maxFiles = maxFiles;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public String getName() {
+		return "chat log";
+	}
+
+	/**
+	 * Open a new file to write to
+	 * @throws IOException
+	 */
+	public void open() throws IOException {
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create " + directory);
+		}
+
+		day = LocalDate.now();
+
+		String dayPrefix = PREFIX + day + "-";
+		int index = 1;
+
+		// Never write over a file from earlier in the day
+		for (File file : listLogs()) {
+			String name = file.getName();
+			if (!name.startsWith(dayPrefix)) continue;
+			try {
+				index = Math.max(index, Integer.parseInt(name.substring(dayPrefix.length(), name.length() - SUFFIX.length())) + 1);
+			} catch (NumberFormatException e) {
+				continue;
+			}
+		}
+
+		fileOut = new FileOutputStream(new File(directory, dayPrefix + index + SUFFIX));
+		writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(fileOut, 8192, true), StandardCharsets.UTF_8), 16384);
+
+		deleteOldLogs();
+
+	}
+
+	/**
+	 * Write a record, which is not compressed until the next {@link #flush()}
+	 * @param record
+	 * @throws IOException
+	 */
+	public void write(ChatLogRecord record) throws IOException {
+		writer.write(record.toJson());
+		writer.write('\n');
+	}
+
+	/**
+	 * Compress and write everything since the last flush, then start a new file if it is needed
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+
+		writer.flush();
+
+		if ((maxBytes > 0 && fileOut.getChannel().position() >= maxBytes) || !LocalDate.now().equals(day)) {
+			close();
+			open();
+		}
+
+	}
+
+	/**
+	 * Finish the current file
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+
+		if (writer != null) {
+			writer.close();
+			writer = null;
+			fileOut = null;
+		}
+
+	}
+
+	private List<File> listLogs() {
+
+		File[] files = directory.listFiles();
+		if (files == null) return Collections.emptyList();
+
+		List<File> logs = new ArrayList<File>();
+
+		for (File file : files) {
+			if (file.isFile() && file.getName().startsWith(PREFIX) && file.getName().endsWith(SUFFIX)) {
+				logs.add(file);
+			}
+		}
+
+		return logs;
+
+	}
+
+	private void deleteOldLogs() {
+
+		if (maxFiles <= 0) return;
+
+		List<File> logs = listLogs();
+		if (logs.size() <= maxFiles) return;
+
+		// Oldest first
+		Collections.sort(logs, new Comparator<File>() {
+			public int compare(File a, File b) {
+				return Long.compare(a.lastModified(), b.lastModified());
+			}
+		});
+
+		for (File file : logs.subList(0, logs.size() - maxFiles)) {
+			if (!file.delete()) {
+				System.out.println("[MultiChat] Could not delete old chat log " + file.getName());
+			}
+		}
+
+	}
+
+}
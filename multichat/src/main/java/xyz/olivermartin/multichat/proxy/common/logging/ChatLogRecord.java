@@ -0,0 +1,117 @@
+package xyz.olivermartin.multichat.proxy.common.logging;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One message written to the chat log
+ *
+ * <p>Each record is written as a single line of JSON, i.e.
+ * {"time":"2020-08-01T12:00:00.123Z","type":"chat","sender":"...","server":"lobby","target":"global","message":"Hello"}
+ * where the sender, server and target are left out if they are not known.</p>
+ */
+public class ChatLogRecord {
+
+	private final long time;
+	private final ChatLogType type;
+	private final UUID senderUUID;
+	private final String server;
+	private final String target;
+	private final String message;
+
+	/**
+	 * @param time When the message was sent, in milliseconds since the epoch
+	 * @param type
+	 * @param senderUUID The sender, or null if it was not sent by a player on this proxy
+	 * @param server The server of the sender, or null if it is not known
+	 * @param target The channel, group chat or player the message was sent to, or null if there is none
+	 * @param message The message as it was shown in the console, without colour codes
+	 */
+	public ChatLogRecord(long time, ChatLogType type, UUID senderUUID, String server, String target, String message) {
+		this.time = time;
+		this.type = type;
+		this.senderUUID = senderUUID;
+		this.server = server;
+		this.target = target;
+		this.message = message;
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	public ChatLogType getType() {
+		return type;
+	}
+
+	public UUID getSenderUUID() {
+		return senderUUID;
+	}
+
+	public String getServer() {
+		return server;
+	}
+
+	public String getTarget() {
+		return target;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return The record as a single line of JSON, without the line break
+	 */
+	public String toJson() {
+
+		StringBuilder out = new StringBuilder(96 + message.length());
+
+		out.append("{\"time\":\"").append(Instant.ofEpochMilli(time).toString()).append('"');
+		out.append(",\"type\":\"").append(type.getName()).append('"');
+		if (senderUUID != null) out.append(",\"sender\":\"").append(senderUUID.toString()).append('"');
+		if (server != null) appendField(out, "server", server);
+		if (target != null) appendField(out, "target", target);
+		appendField(out, "message", message);
+		out.append('}');
+
+		return out.toString();
+
+	}
+
+	private static void appendField(StringBuilder out, String name, String value) {
+
+		out.append(",\"").append(name).append("\":\"");
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				out.append("\\\"");
+				break;
+			case '\\':
+				out.append("\\\\");
+				break;
+			case '\n':
+				out.append("\\n");
+				break;
+			case '\r':
+				out.append("\\r");
+				break;
+			case '\t':
+				out.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					out.append(String.format("\\u%04x", (int) c));
+				} else {
+					out.append(c);
+				}
+			}
+		}
+
+		out.append('"');
+
+	}
+
+}
@@ -0,0 +1,24 @@
+package xyz.olivermartin.multichat.proxy.common.logging;
+
+import java.io.IOException;
+
+/**
+ * Somewhere chat is written to as it is logged, i.e. the chat log file
+ *
+ * <p>Sinks are only ever written by the log writer thread. Records are written in batches,
+ * and the sink is flushed after each batch.</p>
+ */
+public interface ChatLogSink {
+
+	/**
+	 * @return What the sink is called in warnings, i.e. "chat log"
+	 */
+	public String getName();
+
+	public void write(ChatLogRecord record) throws IOException;
+
+	public void flush() throws IOException;
+
+	public void close() throws IOException;
+
+}
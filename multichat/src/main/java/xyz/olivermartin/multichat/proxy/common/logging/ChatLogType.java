@@ -0,0 +1,26 @@
+package xyz.olivermartin.multichat.proxy.common.logging;
+
+/**
+ * The types of chat which are logged, with the name written to the chat log for each
+ */
+public enum ChatLogType {
+
+	CHAT("chat"),
+	DISPLAY("display"),
+	MOD_CHAT("modchat"),
+	ADMIN_CHAT("adminchat"),
+	GROUP_CHAT("groupchat"),
+	PRIVATE_MESSAGE("pm"),
+	HELP_ME("helpme");
+
+	private final String name;
+
+	private ChatLogType(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+}
@@ -0,0 +1,93 @@
+package xyz.olivermartin.multichat.proxy.common.network;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A network bus which connects several buses in the same process
+ *
+ * <p>Used to try out the network features without running several proxies. Envelopes are
+ * delivered to the other buses of the same hub immediately, on the publishing thread. A bus which
+ * has been shut down misses the envelopes published until it is started again, as if it had been
+ * disconnected.</p>
+ */
+public class MemoryNetworkBus extends NetworkBus {
+
+	/**
+	 * The buses which can see each other's envelopes
+	 */
+	public static class Hub {
+
+		private final CopyOnWriteArrayList<MemoryNetworkBus> buses = new CopyOnWriteArrayList<MemoryNetworkBus>();
+
+		// The sequence last sent from one bus to another
+		private final Map<List<MemoryNetworkBus>, Long> sent = new HashMap<List<MemoryNetworkBus>, Long>();
+
+		private void send(MemoryNetworkBus from, NetworkEnvelope envelope) {
+
+			for (MemoryNetworkBus bus : buses) {
+
+				if (bus == from) continue;
+
+				Long previous;
+				synchronized (sent) {
+					previous = sent.put(Arrays.asList(from, bus), envelope.getSequence());
+				}
+
+				bus.receive(envelope, previous == null ? -1 : previous);
+
+			}
+
+		}
+
+	}
+
+	private final Hub hub;
+
+	/**
+	 * @param name The name of this proxy
+	 * @param hub The hub to connect to when started
+	 */
+	public MemoryNetworkBus(String name, Hub hub) {
+		super(name);
+		this.hub = hub;
+	}
+
+	@Override
+	public void start() {
+		hub.buses.addIfAbsent(this);
+	}
+
+	@Override
+	public void shutdown() {
+		hub.buses.remove(this);
+	}
+
+	@Override
+	protected void send(NetworkEnvelope envelope) {
+		hub.send(this, envelope);
+	}
+
+	/**
+	 * Deliver an envelope as if it had been received from another proxy, i.e. to check that copies
+	 * and envelopes arriving out of order are handled
+	 * @param envelope
+	 */
+	public void inject(NetworkEnvelope envelope) {
+		inject(envelope, -1);
+	}
+
+	/**
+	 * Deliver an envelope as if it had been received from another proxy over a link which sent the previous envelope
+	 * @param envelope
+	 * @param previous The sequence of the envelope sent before this one, or -1 if not known
+	 */
+	public void inject(NetworkEnvelope envelope, long previous) {
+		receive(envelope, previous);
+		expireGaps();
+	}
+
+}
@@ -0,0 +1,280 @@
+package xyz.olivermartin.multichat.proxy.common.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes chat to the other proxies of a network, and delivers the chat they publish
+ *
+ * <p>Each envelope is delivered to the listeners of its channel exactly once, and the envelopes of each
+ * proxy are delivered in the order that proxy published them. Copies of an envelope (i.e. one sent
+ * again after a reconnect) are dropped by their ID. Envelopes which arrive early are held back until
+ * the ones before them arrive, or until {@link #GAP_TIMEOUT} has passed, after which the missing
+ * envelopes are skipped.</p>
+ *
+ * <p>An implementation can pass the sequence of the envelope it sent before each one over the same
+ * link. Envelopes between the two were never sent over that link (i.e. they were dropped because it
+ * could not keep up, or it was disconnected), so they are skipped straight away instead of being
+ * waited for.</p>
+ *
+ * <p>Envelopes are never delivered back to the proxy which published them.</p>
+ */
+public abstract class NetworkBus {
+
+	/**
+	 * How long to wait for a missing envelope before skipping it
+	 */
+	public static final long GAP_TIMEOUT = 2000L;
+
+	/**
+	 * How long to remember a proxy which has stopped publishing
+	 */
+	public static final long ORIGIN_TIMEOUT = 3600000L;
+
+	private static final int RECENT_IDS = 10000;
+	private static final int MAX_HELD_BACK = 1000;
+
+	private final String origin;
+	private final AtomicLong sequence;
+	private final Object publishLock;
+	private final Map<String, List<NetworkBusListener>> listeners;
+	private final Map<UUID, Boolean> recent;
+	private final Map<String, OriginState> origins;
+
+	/**
+	 * @param name The name of this proxy, which must be different for each proxy of the network
+	 */
+	protected NetworkBus(String name) {
+
+		// A restarted proxy starts its sequence again, so it must not be confused with its old self
+		this.origin = name + "/" + Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+		this.sequence = new AtomicLong(0);
+		this.publishLock = new Object();
+		this.listeners = new ConcurrentHashMap<String, List<NetworkBusListener>>();
+		this.origins = new ConcurrentHashMap<String, OriginState>();
+
+		this.recent = new LinkedHashMap<UUID, Boolean>(RECENT_IDS, 0.75f) {
+			private static final long serialVersionUID = 1L;
+			protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+				return size() > RECENT_IDS;
+			}
+		};
+
+	}
+
+	/**
+	 * @return The ID of this proxy on the network, which is different each time the proxy starts
+	 */
+	public String getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * Register a listener for the envelopes published to a channel by other proxies
+	 * @param channel
+	 * @param listener
+	 */
+	public void registerListener(String channel, NetworkBusListener listener) {
+		synchronized (listeners) {
+			if (!listeners.containsKey(channel)) listeners.put(channel, new CopyOnWriteArrayList<NetworkBusListener>());
+			listeners.get(channel).add(listener);
+		}
+	}
+
+	/**
+	 * Publish an envelope to every other proxy
+	 * @param channel
+	 * @param fields The contents of the envelope
+	 * @return The envelope which was published
+	 */
+	public NetworkEnvelope publish(String channel, Map<String, String> fields) {
+
+		// Sent in the order of their sequence, so each link carries them in order
+		synchronized (publishLock) {
+			NetworkEnvelope envelope = new NetworkEnvelope(UUID.randomUUID(), origin, sequence.getAndIncrement(), channel, fields);
+			send(envelope);
+			return envelope;
+		}
+
+	}
+
+	/**
+	 * Start sending and receiving envelopes
+	 * @throws IOException If the bus could not be started
+	 */
+	public abstract void start() throws IOException;
+
+	/**
+	 * Stop sending and receiving envelopes
+	 *
+	 * <p>Should be called in onDisable()</p>
+	 */
+	public abstract void shutdown();
+
+	/**
+	 * Send an envelope to the other proxies
+	 *
+	 * <p>Called in the order of the sequence of the envelopes, and must not block.</p>
+	 *
+	 * @param envelope
+	 */
+	protected abstract void send(NetworkEnvelope envelope);
+
+	/**
+	 * Deliver an envelope received from another proxy to the listeners of its channel
+	 *
+	 * <p>Copies are dropped and envelopes which arrive early are held back.</p>
+	 *
+	 * @param envelope
+	 */
+	protected void receive(NetworkEnvelope envelope) {
+		receive(envelope, -1);
+	}
+
+	/**
+	 * Deliver an envelope received from another proxy to the listeners of its channel
+	 *
+	 * <p>Copies are dropped and envelopes which arrive early are held back, unless the envelopes
+	 * before them are known to have not been sent.</p>
+	 *
+	 * @param envelope
+	 * @param previous The sequence of the envelope sent before this one over the same link, or -1 if not known
+	 */
+	protected void receive(NetworkEnvelope envelope, long previous) {
+
+		if (envelope.getOrigin().equals(origin)) return;
+
+		synchronized (recent) {
+			if (recent.put(envelope.getId(), Boolean.TRUE) != null) return;
+		}
+
+		OriginState state = origins.get(envelope.getOrigin());
+
+		if (state == null) {
+			// The first envelope seen from a proxy starts its sequence
+			origins.putIfAbsent(envelope.getOrigin(), new OriginState(envelope.getSequence()));
+			state = origins.get(envelope.getOrigin());
+		}
+
+		synchronized (state) {
+
+			long now = System.currentTimeMillis();
+			state.lastSeen = now;
+
+			// Arrived after its gap was skipped
+			if (envelope.getSequence() < state.next) return;
+
+			// Everything up to the previous envelope has arrived, and nothing after it was sent
+			if (previous >= 0 && previous < state.next && envelope.getSequence() > state.next) {
+				skipTo(state, envelope.getSequence());
+			}
+
+			if (envelope.getSequence() > state.next) {
+				if (state.heldBack.isEmpty()) state.gapSince = now;
+				state.heldBack.put(envelope.getSequence(), envelope);
+				if (state.heldBack.size() > MAX_HELD_BACK) skipGap(state);
+				return;
+			}
+
+			dispatch(envelope);
+			state.next++;
+			deliverHeldBack(state, now);
+
+		}
+
+	}
+
+	/**
+	 * Skip any missing envelopes which have been waited for longer than {@link #GAP_TIMEOUT}, and forget
+	 * proxies which have not been heard from for {@link #ORIGIN_TIMEOUT}
+	 *
+	 * <p>Should be called regularly by the implementation.</p>
+	 */
+	protected void expireGaps() {
+
+		long now = System.currentTimeMillis();
+
+		for (Map.Entry<String, OriginState> entry : new ArrayList<Map.Entry<String, OriginState>>(origins.entrySet())) {
+
+			OriginState state = entry.getValue();
+
+			synchronized (state) {
+				if (!state.heldBack.isEmpty() && now - state.gapSince > GAP_TIMEOUT) skipGap(state);
+				if (state.heldBack.isEmpty() && now - state.lastSeen > ORIGIN_TIMEOUT) origins.remove(entry.getKey(), state);
+			}
+
+		}
+
+	}
+
+	private void skipTo(OriginState state, long sequence) {
+
+		// Nothing should be held back before the envelope, but if it is it is not lost
+		while (!state.heldBack.isEmpty() && state.heldBack.firstKey() < sequence) {
+			dispatch(state.heldBack.pollFirstEntry().getValue());
+		}
+
+		state.next = sequence;
+
+	}
+
+	private void skipGap(OriginState state) {
+		state.next = state.heldBack.firstKey();
+		deliverHeldBack(state, System.currentTimeMillis());
+	}
+
+	private void deliverHeldBack(OriginState state, long now) {
+
+		NetworkEnvelope envelope;
+		boolean progress = false;
+
+		while ((envelope = state.heldBack.remove(state.next)) != null) {
+			dispatch(envelope);
+			state.next++;
+			progress = true;
+		}
+
+		if (progress) state.gapSince = now;
+
+	}
+
+	private void dispatch(NetworkEnvelope envelope) {
+
+		List<NetworkBusListener> channelListeners = listeners.get(envelope.getChannel());
+		if (channelListeners == null) return;
+
+		for (NetworkBusListener listener : channelListeners) {
+			try {
+				listener.onReceive(envelope);
+			} catch (RuntimeException e) {
+				System.out.println("[MultiChat] Error handling " + envelope.getChannel() + " message from " + envelope.getOrigin());
+				e.printStackTrace();
+			}
+		}
+
+	}
+
+	private static class OriginState {
+
+		private long next;
+		private long gapSince;
+		private long lastSeen;
+		private final TreeMap<Long, NetworkEnvelope> heldBack;
+
+		private OriginState(long first) {
+			this.next = first;
+			this.lastSeen = System.currentTimeMillis();
+			this.heldBack = new TreeMap<Long, NetworkEnvelope>();
+		}
+
+	}
+
+}
@@ -0,0 +1,17 @@
+package xyz.olivermartin.multichat.proxy.common.network;
+
+/**
+ * Receives the envelopes published to a channel of a {@link NetworkBus} by other proxies
+ */
+public interface NetworkBusListener {
+
+	/**
+	 * Called once for each envelope, in the order it was published by the proxy it came from
+	 *
+	 * <p>This is called on the thread of the bus, so should not block.</p>
+	 *
+	 * @param envelope
+	 */
+	public void onReceive(NetworkEnvelope envelope);
+
+}
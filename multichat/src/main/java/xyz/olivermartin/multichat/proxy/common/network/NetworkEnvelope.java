@@ -0,0 +1,112 @@
+package xyz.olivermartin.multichat.proxy.common.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataFormat;
+
+/**
+ * A message sent between proxies by a {@link NetworkBus}
+ *
+ * <p>Each envelope has a unique ID, used to drop any copies of it, and the sequence number given
+ * to it by the proxy it came from, used to deliver the envelopes of each proxy in order.
+ * The contents of the message are held as named string fields.</p>
+ */
+public final class NetworkEnvelope {
+
+	private final UUID id;
+	private final String origin;
+	private final long sequence;
+	private final String channel;
+	private final Map<String, String> fields;
+
+	NetworkEnvelope(UUID id, String origin, long sequence, String channel, Map<String, String> fields) {
+		this.id = id;
+		this.origin = origin;
+		this.sequence = sequence;
+		this.channel = channel;
+		this.fields = Collections.unmodifiableMap(new LinkedHashMap<String, String>(fields));
+	}
+
+	public UUID getId() {
+		return id;
+	}
+
+	/**
+	 * @return The ID of the proxy this envelope came from
+	 */
+	public String getOrigin() {
+		return origin;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * @return The channel the envelope was published to, i.e. "global_chat"
+	 */
+	public String getChannel() {
+		return channel;
+	}
+
+	public Map<String, String> getFields() {
+		return fields;
+	}
+
+	/**
+	 * @param name
+	 * @return The value of this field, or null if it was not set
+	 */
+	public String getField(String name) {
+		return fields.get(name);
+	}
+
+	/**
+	 * @param name
+	 * @return True if this field is set to "true"
+	 */
+	public boolean getFlag(String name) {
+		return "true".equals(fields.get(name));
+	}
+
+	byte[] toBytes() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		ProxyDataFormat.writeUUID(out, id);
+		ProxyDataFormat.writeString(out, origin);
+		out.writeLong(sequence);
+		ProxyDataFormat.writeString(out, channel);
+		ProxyDataFormat.writeStringMap(out, fields);
+
+		out.flush();
+		return bytes.toByteArray();
+
+	}
+
+	static NetworkEnvelope fromBytes(byte[] bytes) throws IOException {
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+		UUID id = ProxyDataFormat.readUUID(in);
+		String origin = ProxyDataFormat.readString(in);
+		long sequence = in.readLong();
+		String channel = ProxyDataFormat.readString(in);
+		Map<String, String> fields = ProxyDataFormat.readStringMap(in, new LinkedHashMap<String, String>());
+
+		if (origin == null || channel == null) throw new IOException("Invalid network envelope");
+
+		return new NetworkEnvelope(id, origin, sequence, channel, fields);
+
+	}
+
+}
@@ -0,0 +1,522 @@
+package xyz.olivermartin.multichat.proxy.common.network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataFormat;
+
+/**
+ * A network bus which connects directly to every other proxy over TCP
+ *
+ * <p>Each proxy listens for connections from the other proxies, and opens its own connection to each
+ * of them to send its envelopes, so every proxy must list every other proxy as a peer. Envelopes are
+ * not forwarded.</p>
+ *
+ * <p>Each peer has its own bounded queue and writer thread, so a slow peer can not hold up chat to the
+ * others. The writer sends everything waiting in the queue as one batch with a single flush. If the
+ * queue of a peer fills up, new envelopes for that peer are dropped and a warning is printed.
+ * If a connection is lost, the writer reconnects with a back off and sends the unfinished batch again;
+ * any copies are dropped by the receiving bus.</p>
+ *
+ * <p>Each connection proves that it knows the shared secret by answering a random challenge with an
+ * HMAC, so the secret itself is never sent. Connections are not encrypted though, so should only be
+ * used on a private network. Incoming connections are read by a bounded pool of threads, and are
+ * closed if they have not answered the challenge within a few seconds.</p>
+ *
+ * <p>Each frame carries the sequence of the envelope sent before it to the same peer, so the
+ * receiving bus does not wait for envelopes which were dropped. After a reconnect the last batch
+ * sent over the old connection is sent again, in case it was lost with the connection.</p>
+ */
+public class TcpNetworkBus extends NetworkBus {
+
+	public static final int DEFAULT_PORT = 25580;
+
+	private static final int MAGIC = 0x4D434E42;
+	private static final int PROTOCOL_VERSION = 2;
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+	private static final int CHALLENGE_BYTES = 32;
+
+	private static final int MAX_FRAME_BYTES = 1024 * 1024;
+	private static final int MAX_BATCH = 256;
+	private static final int BUFFER_BYTES = 64 * 1024;
+	private static final int CONNECT_TIMEOUT = 5000;
+	private static final long HANDSHAKE_TIMEOUT = 5000L;
+	private static final int SPARE_READERS = 4;
+	private static final long MIN_BACKOFF = 1000L;
+	private static final long MAX_BACKOFF = 30000L;
+	private static final long DROP_WARNING_INTERVAL = 30000L;
+
+	private final InetSocketAddress bindAddress;
+	private final byte[] secret;
+	private final List<Peer> peers;
+	private final Set<Socket> inbound;
+	private final Map<Socket, Long> handshakeDeadlines;
+	private final SecureRandom random;
+
+	private volatile boolean running;
+	private ServerSocket serverSocket;
+	private ThreadPoolExecutor readers;
+	private Thread timer;
+
+	/**
+	 * @param name The name of this proxy, which must be different for each proxy of the network
+	 * @param bindAddress The address to listen for other proxies on
+	 * @param peerAddresses The addresses of every other proxy
+	 * @param secret The secret shared by every proxy of the network
+	 * @param queueSize The number of envelopes which can wait to be sent to each peer
+	 */
+	public TcpNetworkBus(String name, InetSocketAddress bindAddress, List<InetSocketAddress> peerAddresses, String secret, int queueSize) {
+
+		super(name);
+
+		this.bindAddress = bindAddress;
+		this.secret = secret.getBytes(StandardCharsets.UTF_8);
+		this.peers = new ArrayList<Peer>();
+		this.inbound = ConcurrentHashMap.newKeySet();
+		this.handshakeDeadlines = new ConcurrentHashMap<Socket, Long>();
+		this.random = new SecureRandom();
+
+		for (InetSocketAddress address : peerAddresses) {
+			peers.add(new Peer(address, Math.max(queueSize, MAX_BATCH)));
+		}
+
+	}
+
+	/**
+	 * Parse an address of the form host:port
+	 * @param address
+	 * @param defaultPort The port to use if none is given
+	 * @return The address, which is not resolved yet
+	 */
+	public static InetSocketAddress parseAddress(String address, int defaultPort) {
+
+		address = address.trim();
+		int colon = address.lastIndexOf(':');
+
+		if (colon < 0) return InetSocketAddress.createUnresolved(address, defaultPort);
+
+		try {
+			return InetSocketAddress.createUnresolved(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid port in address " + address);
+		}
+
+	}
+
+	@Override
+	public void start() throws IOException {
+
+		serverSocket = new ServerSocket();
+		serverSocket.setReuseAddress(true);
+		serverSocket.bind(new InetSocketAddress(bindAddress.getHostString(), bindAddress.getPort()));
+
+		running = true;
+
+		// One reader for each peer, and a few spare for reconnects and connections which fail the handshake
+		readers = new ThreadPoolExecutor(0, peers.size() * 2 + SPARE_READERS, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "MultiChat-Bus-Reader");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		startThread("MultiChat-Bus-Accept", new Runnable() {
+			public void run() {
+				acceptConnections();
+			}
+		});
+
+		for (final Peer peer : peers) {
+			peer.writer = startThread("MultiChat-Bus-Writer-" + peer.address.getHostString() + ":" + peer.address.getPort(), new Runnable() {
+				public void run() {
+					peer.writeEnvelopes();
+				}
+			});
+		}
+
+		timer = startThread("MultiChat-Bus-Timer", new Runnable() {
+			public void run() {
+				while (running) {
+					try {
+						Thread.sleep(GAP_TIMEOUT / 4);
+					} catch (InterruptedException e) {
+						return;
+					}
+					expireGaps();
+					expireHandshakes();
+				}
+			}
+		});
+
+		System.out.println("[MultiChat] Network bus listening on " + bindAddress.getHostString() + ":" + bindAddress.getPort() + " with " + peers.size() + " peer(s)");
+
+	}
+
+	@Override
+	public void shutdown() {
+
+		running = false;
+
+		try {
+			if (serverSocket != null) serverSocket.close();
+		} catch (IOException e) { /* EMPTY */ }
+
+		for (Socket socket : inbound) {
+			closeQuietly(socket);
+		}
+
+		for (Peer peer : peers) {
+			if (peer.writer != null) peer.writer.interrupt();
+			closeQuietly(peer.socket);
+		}
+
+		if (timer != null) timer.interrupt();
+		if (readers != null) readers.shutdownNow();
+
+	}
+
+	@Override
+	protected void send(NetworkEnvelope envelope) {
+
+		byte[] frame;
+
+		try {
+			frame = envelope.toBytes();
+		} catch (IOException e) {
+			// Can not happen when writing to memory
+			throw new IllegalStateException(e);
+		}
+
+		if (frame.length > MAX_FRAME_BYTES) {
+			System.out.println("[MultiChat] Not sending a " + envelope.getChannel() + " message to other proxies as it is too large");
+			return;
+		}
+
+		for (Peer peer : peers) {
+			peer.offer(new Frame(envelope.getSequence(), frame));
+		}
+
+	}
+
+	private void acceptConnections() {
+
+		while (running) {
+
+			try {
+
+				final Socket socket = serverSocket.accept();
+				handshakeDeadlines.put(socket, System.currentTimeMillis() + HANDSHAKE_TIMEOUT);
+				inbound.add(socket);
+
+				try {
+					readers.execute(new Runnable() {
+						public void run() {
+							readEnvelopes(socket);
+						}
+					});
+				} catch (RejectedExecutionException e) {
+					handshakeDeadlines.remove(socket);
+					inbound.remove(socket);
+					closeQuietly(socket);
+					if (running) {
+						System.out.println("[MultiChat] Refused a network bus connection from " + socket.getInetAddress().getHostAddress() + " as there are too many open");
+					}
+				}
+
+			} catch (IOException e) {
+				if (running) {
+					System.out.println("[MultiChat] Error accepting a network bus connection: " + e.getMessage());
+				}
+			}
+
+		}
+
+	}
+
+	private void readEnvelopes(Socket socket) {
+
+		String peerName = socket.getInetAddress().getHostAddress();
+
+		try {
+
+			socket.setTcpNoDelay(true);
+			socket.setSoTimeout(CONNECT_TIMEOUT);
+
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+			if (in.readInt() != MAGIC) throw new IOException("Not a MultiChat network bus connection");
+			int version = in.readInt();
+			if (version != PROTOCOL_VERSION) throw new IOException("Unsupported network bus protocol version " + version);
+
+			String origin = ProxyDataFormat.readString(in);
+			if (origin == null) throw new IOException("No proxy name was sent");
+
+			byte[] challenge = new byte[CHALLENGE_BYTES];
+			random.nextBytes(challenge);
+			out.write(challenge);
+			out.flush();
+
+			byte[] response = new byte[CHALLENGE_BYTES];
+			in.readFully(response);
+
+			if (!MessageDigest.isEqual(sign(challenge, origin), response)) {
+				throw new IOException("Wrong network bus secret");
+			}
+
+			handshakeDeadlines.remove(socket);
+			peerName = origin + " (" + peerName + ")";
+			socket.setSoTimeout(0);
+			System.out.println("[MultiChat] Network bus connection from " + peerName);
+
+			while (running) {
+
+				int length = in.readInt();
+				if (length < 0 || length > MAX_FRAME_BYTES) throw new IOException("Invalid network bus frame length " + length);
+
+				long previous = in.readLong();
+				byte[] frame = new byte[length];
+				in.readFully(frame);
+				receive(NetworkEnvelope.fromBytes(frame), previous);
+
+			}
+
+		} catch (IOException e) {
+			if (running) {
+				System.out.println("[MultiChat] Network bus connection from " + peerName + " closed: " + e.getMessage());
+			}
+		} finally {
+			handshakeDeadlines.remove(socket);
+			inbound.remove(socket);
+			closeQuietly(socket);
+		}
+
+	}
+
+	/**
+	 * Close any incoming connections which have not answered the challenge in time
+	 */
+	private void expireHandshakes() {
+
+		long now = System.currentTimeMillis();
+
+		for (Map.Entry<Socket, Long> entry : handshakeDeadlines.entrySet()) {
+			if (now > entry.getValue() && handshakeDeadlines.remove(entry.getKey(), entry.getValue())) {
+				closeQuietly(entry.getKey());
+			}
+		}
+
+	}
+
+	/**
+	 * @param challenge
+	 * @param origin
+	 * @return The answer to a challenge, which can only be worked out by knowing the secret
+	 */
+	private byte[] sign(byte[] challenge, String origin) {
+
+		try {
+			Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+			mac.update(challenge);
+			mac.update(origin.getBytes(StandardCharsets.UTF_8));
+			return mac.doFinal();
+		} catch (GeneralSecurityException e) {
+			// Every Java runtime has to support HmacSHA256
+			throw new IllegalStateException(e);
+		}
+
+	}
+
+	private Thread startThread(String name, Runnable runnable) {
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private static void closeQuietly(Socket socket) {
+		try {
+			if (socket != null) socket.close();
+		} catch (IOException e) { /* EMPTY */ }
+	}
+
+	/**
+	 * An envelope waiting to be sent to a peer
+	 */
+	private static class Frame {
+
+		private final long sequence;
+		private final byte[] data;
+
+		// The sequence of the frame sent to the same peer before this one
+		private long previous;
+
+		private Frame(long sequence, byte[] data) {
+			this.sequence = sequence;
+			this.data = data;
+			this.previous = -1;
+		}
+
+	}
+
+	/**
+	 * Another proxy, which this proxy sends its envelopes to
+	 */
+	private class Peer {
+
+		private final InetSocketAddress address;
+		private final BlockingQueue<Frame> queue;
+		private final AtomicLong dropped;
+
+		private volatile Socket socket;
+		private Thread writer;
+		private long lastDropWarning;
+
+		private Peer(InetSocketAddress address, int queueSize) {
+			this.address = address;
+			this.queue = new ArrayBlockingQueue<Frame>(queueSize);
+			this.dropped = new AtomicLong(0);
+		}
+
+		private void offer(Frame frame) {
+
+			if (queue.offer(frame)) return;
+
+			long count = dropped.incrementAndGet();
+
+			synchronized (this) {
+				long now = System.currentTimeMillis();
+				if (now - lastDropWarning < DROP_WARNING_INTERVAL) return;
+				lastDropWarning = now;
+			}
+
+			System.out.println("[MultiChat] The network bus can not keep up with " + address.getHostString() + ":" + address.getPort()
+					+ "! " + count + " message(s) dropped so far");
+
+		}
+
+		private void writeEnvelopes() {
+
+			List<Frame> batch = new ArrayList<Frame>(MAX_BATCH);
+			List<Frame> sent = new ArrayList<Frame>(MAX_BATCH);
+			long lastSequence = -1;
+			long backoff = MIN_BACKOFF;
+			boolean reported = false;
+
+			while (running) {
+
+				try (Socket socket = new Socket()) {
+
+					this.socket = socket;
+					socket.connect(new InetSocketAddress(address.getHostString(), address.getPort()), CONNECT_TIMEOUT);
+					socket.setTcpNoDelay(true);
+					socket.setSoTimeout(CONNECT_TIMEOUT);
+
+					DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+					DataInputStream in = new DataInputStream(socket.getInputStream());
+
+					out.writeInt(MAGIC);
+					out.writeInt(PROTOCOL_VERSION);
+					ProxyDataFormat.writeString(out, getOrigin());
+					out.flush();
+
+					byte[] challenge = new byte[CHALLENGE_BYTES];
+					in.readFully(challenge);
+					out.write(sign(challenge, getOrigin()));
+					out.flush();
+
+					System.out.println("[MultiChat] Network bus connected to " + address.getHostString() + ":" + address.getPort());
+					backoff = MIN_BACKOFF;
+					reported = false;
+
+					// The last batch may have been lost with the old connection, any copies are dropped by the peer
+					write(out, sent);
+					out.flush();
+
+					while (running) {
+
+						// Anything left in the batch was not sent before the connection was lost
+						if (batch.isEmpty()) {
+
+							Frame first = queue.poll(1, TimeUnit.SECONDS);
+							if (first == null) continue;
+							batch.add(first);
+							queue.drainTo(batch, MAX_BATCH - 1);
+
+							for (Frame frame : batch) {
+								frame.previous = lastSequence;
+								lastSequence = frame.sequence;
+							}
+
+						}
+
+						write(out, batch);
+						out.flush();
+
+						sent.clear();
+						sent.addAll(batch);
+						batch.clear();
+
+					}
+
+				} catch (InterruptedException e) {
+					return;
+				} catch (IOException e) {
+					if (running && !reported) {
+						System.out.println("[MultiChat] Could not send to network bus peer " + address.getHostString() + ":" + address.getPort()
+								+ " (" + e.getMessage() + "), retrying in the background");
+						reported = true;
+					}
+				}
+
+				try {
+					Thread.sleep(backoff);
+				} catch (InterruptedException e) {
+					return;
+				}
+
+				backoff = Math.min(backoff * 2, MAX_BACKOFF);
+
+			}
+
+		}
+
+		private void write(DataOutputStream out, List<Frame> frames) throws IOException {
+			for (Frame frame : frames) {
+				out.writeInt(frame.data.length);
+				out.writeLong(frame.previous);
+				out.write(frame.data);
+			}
+		}
+
+	}
+
+}
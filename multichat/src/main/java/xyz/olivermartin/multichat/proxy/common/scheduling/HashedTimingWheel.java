@@ -0,0 +1,248 @@
+package xyz.olivermartin.multichat.proxy.common.scheduling;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs tasks after a delay, using a single thread which moves round a wheel of buckets once per tick
+ *
+ * <p>A task is put in the bucket for the tick it is due on, along with the number of times round the wheel to wait first.
+ * Scheduling or cancelling a task is cheap no matter how many are waiting, which suits many tasks which only need
+ * to run to the nearest tick, such as broadcasts repeated every few minutes.</p>
+ *
+ * <p>Tasks are run on the thread of the wheel, so must be quick. A task may schedule more tasks, which are
+ * added to the wheel on the next tick.</p>
+ */
+public class HashedTimingWheel {
+
+	private final String threadName;
+	private final long tickNanos;
+	private final int size;
+	private final int mask;
+
+	private final Queue<Timeout> added;
+
+	private volatile Thread thread;
+	private volatile boolean running;
+
+	/* END ATTRIBUTES */
+
+	/**
+	 * @param threadName The name of the thread which runs the tasks
+	 * @param tickDuration How often the wheel moves on, i.e. how precisely tasks are run
+	 * @param unit
+	 * @param wheelSize The number of buckets, which is rounded up to a power of two
+	 */
+	public HashedTimingWheel(String threadName, long tickDuration, TimeUnit unit, int wheelSize) {
+
+		int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+
+		this.threadName = threadName;
+		this.tickNanos = Math.max(1, unit.toNanos(tickDuration));
+		this.size = size;
+		this.mask = size - 1;
+		this.added = new ConcurrentLinkedQueue<Timeout>();
+
+	}
+
+	/**
+	 * Start the thread of the wheel, any tasks scheduled before now are run once they are due
+	 *
+	 * <p>Each start begins at tick zero with empty buckets, so a wheel which has been stopped can be started again.</p>
+	 */
+	public synchronized void start() {
+
+		if (thread != null) return;
+
+		final long startTime = System.nanoTime();
+		running = true;
+
+		thread = new Thread(new Runnable() {
+			public void run() {
+				runWheel(startTime);
+			}
+		}, threadName);
+
+		thread.setDaemon(true);
+		thread.start();
+
+	}
+
+	/**
+	 * Stop the thread of the wheel, waiting up to a second for it to finish. Tasks still waiting are cancelled.
+	 */
+	public synchronized void stop() {
+
+		if (thread == null) return;
+
+		running = false;
+		LockSupport.unpark(thread);
+
+		try {
+			thread.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		thread = null;
+
+		// Scheduled while the wheel was running, so they must not run once it is started again
+		Timeout timeout;
+		while ((timeout = added.poll()) != null) {
+			timeout.cancel();
+		}
+
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * @param task The task to run
+	 * @param delay How long to wait before running it, which is rounded up to the next tick
+	 * @param unit
+	 * @return The timeout, which can be used to cancel the task
+	 */
+	public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+		Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(0, unit.toNanos(delay)));
+		added.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * The buckets and tick belong to this run of the thread, so nothing is left over if the wheel is started again
+	 * @param startTime
+	 */
+	private void runWheel(long startTime) {
+
+		List<List<Timeout>> buckets = new ArrayList<List<Timeout>>(size);
+		long tick = 0;
+
+		for (int i = 0; i < size; i++) {
+			buckets.add(new ArrayList<Timeout>());
+		}
+
+		while (running) {
+
+			// Tasks in the bucket of a tick are due by the time it is reached, so it is not waited out before running them
+			long deadline = startTime + tickNanos * tick;
+			long wait;
+
+			while (running && (wait = deadline - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(this, wait);
+			}
+
+			if (!running) break;
+
+			addScheduled(buckets, startTime, tick);
+			expireBucket(buckets.get((int) (tick & mask)));
+			tick++;
+
+		}
+
+		for (List<Timeout> bucket : buckets) {
+			for (Timeout timeout : bucket) {
+				timeout.cancel();
+			}
+		}
+
+	}
+
+	private void addScheduled(List<List<Timeout>> buckets, long startTime, long tick) {
+
+		Timeout timeout;
+
+		while ((timeout = added.poll()) != null) {
+
+			if (timeout.isCancelled()) continue;
+
+			long due = (timeout.deadline - startTime + tickNanos - 1) / tickNanos;
+
+			// Anything already due runs on this tick
+			long dueTick = Math.max(due, tick);
+			timeout.rounds = (dueTick - tick) / size;
+
+			buckets.get((int) (dueTick & mask)).add(timeout);
+
+		}
+
+	}
+
+	private void expireBucket(List<Timeout> bucket) {
+
+		List<Timeout> expired = null;
+		Iterator<Timeout> it = bucket.iterator();
+
+		while (it.hasNext()) {
+
+			Timeout timeout = it.next();
+
+			if (timeout.isCancelled()) {
+				it.remove();
+			} else if (timeout.rounds <= 0) {
+				it.remove();
+				if (expired == null) expired = new ArrayList<Timeout>();
+				expired.add(timeout);
+			} else {
+				timeout.rounds--;
+			}
+
+		}
+
+		if (expired == null) return;
+
+		// Run after leaving the bucket, so tasks are free to schedule again
+		for (Timeout timeout : expired) {
+
+			if (timeout.isCancelled()) continue;
+
+			try {
+				timeout.task.run();
+			} catch (Exception e) {
+				System.out.println("[MultiChat] [" + threadName + "] A scheduled task failed: " + e);
+				e.printStackTrace();
+			}
+
+		}
+
+	}
+
+	/**
+	 * A task waiting on the wheel
+	 */
+	public static class Timeout {
+
+		private final Runnable task;
+		private final long deadline;
+		private volatile boolean cancelled;
+
+		/**
+		 * The number of times round the wheel left to wait, only used by the thread of the wheel
+		 */
+		private long rounds;
+
+		private Timeout(Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Stop the task from running, if it has not already run. It is removed from the wheel when its bucket is next reached.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+	}
+
+}
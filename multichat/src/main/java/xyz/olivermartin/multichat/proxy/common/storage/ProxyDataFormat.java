@@ -0,0 +1,218 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The binary format used for the proxy's data files
+ * 
+ * <p>Every file starts with a header of the magic number, the format version, the type of the file
+ * and the version of the data in it. Collections are written as a count followed by their elements,
+ * UUIDs as two longs and strings as a length followed by their UTF-8 bytes (or -1 for null).</p>
+ */
+public final class ProxyDataFormat {
+
+	/**
+	 * "MCPD"
+	 */
+	public static final int MAGIC = 0x4D435044;
+	public static final int FORMAT_VERSION = 1;
+
+	/**
+	 * The longest string which will be read, to stop a corrupt length from allocating a huge array
+	 */
+	private static final int MAX_STRING_BYTES = 1 << 20;
+
+	private ProxyDataFormat() { /* EMPTY */ }
+
+	/**
+	 * @param file
+	 * @return True if the file starts with the magic number of this format
+	 */
+	public static boolean isFormatted(File file) {
+
+		if (file.length() < 4) return false;
+
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+
+	}
+
+	public static void writeHeader(DataOutputStream out, String type, int version) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(FORMAT_VERSION);
+		writeString(out, type);
+		out.writeInt(version);
+	}
+
+	/**
+	 * Read the header of a file
+	 * @param in
+	 * @param type The type the file is expected to be
+	 * @return The version of the data in the file
+	 * @throws IOException If the header is not valid, or the file is of the wrong type
+	 */
+	public static int readHeader(DataInputStream in, String type) throws IOException {
+
+		if (in.readInt() != MAGIC) throw new IOException("Not a MultiChat data file");
+
+		int format = in.readUnsignedShort();
+		if (format > FORMAT_VERSION) throw new IOException("Unsupported data file format version " + format);
+
+		String fileType = readString(in);
+		if (!type.equals(fileType)) throw new IOException("Expected a " + type + " data file but found " + fileType);
+
+		return in.readInt();
+
+	}
+
+	public static void writeUUID(DataOutputStream out, UUID uuid) throws IOException {
+		out.writeLong(uuid.getMostSignificantBits());
+		out.writeLong(uuid.getLeastSignificantBits());
+	}
+
+	public static UUID readUUID(DataInputStream in) throws IOException {
+		long msb = in.readLong();
+		long lsb = in.readLong();
+		return new UUID(msb, lsb);
+	}
+
+	public static void writeString(DataOutputStream out, String string) throws IOException {
+
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+
+	}
+
+	public static String readString(DataInputStream in) throws IOException {
+
+		int length = in.readInt();
+
+		if (length == -1) return null;
+		if (length < 0 || length > MAX_STRING_BYTES) throw new IOException("Invalid string length " + length);
+
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+
+	}
+
+	public static void writeCount(DataOutputStream out, int count) throws IOException {
+		out.writeInt(count);
+	}
+
+	/**
+	 * Read a count written by {@link #writeCount(DataOutputStream, int)}
+	 * @param in
+	 * @return The count
+	 * @throws IOException If the count is negative
+	 */
+	public static int readCount(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) throw new IOException("Invalid record count " + count);
+		return count;
+	}
+
+	public static void writeUUIDs(DataOutputStream out, Collection<UUID> uuids) throws IOException {
+
+		if (uuids == null) {
+			writeCount(out, 0);
+			return;
+		}
+
+		writeCount(out, uuids.size());
+		for (UUID uuid : uuids) {
+			writeUUID(out, uuid);
+		}
+
+	}
+
+	/**
+	 * @param in
+	 * @param uuids The collection to add the UUIDs to
+	 * @return The collection
+	 * @throws IOException
+	 */
+	public static <C extends Collection<UUID>> C readUUIDs(DataInputStream in, C uuids) throws IOException {
+		int count = readCount(in);
+		for (int i = 0; i < count; i++) {
+			uuids.add(readUUID(in));
+		}
+		return uuids;
+	}
+
+	public static void writeStrings(DataOutputStream out, Collection<String> strings) throws IOException {
+
+		if (strings == null) {
+			writeCount(out, 0);
+			return;
+		}
+
+		writeCount(out, strings.size());
+		for (String string : strings) {
+			writeString(out, string);
+		}
+
+	}
+
+	/**
+	 * @param in
+	 * @param strings The collection to add the strings to
+	 * @return The collection
+	 * @throws IOException
+	 */
+	public static <C extends Collection<String>> C readStrings(DataInputStream in, C strings) throws IOException {
+		int count = readCount(in);
+		for (int i = 0; i < count; i++) {
+			strings.add(readString(in));
+		}
+		return strings;
+	}
+
+	public static void writeStringMap(DataOutputStream out, Map<String, String> map) throws IOException {
+
+		if (map == null) {
+			writeCount(out, 0);
+			return;
+		}
+
+		writeCount(out, map.size());
+		for (Map.Entry<String, String> entry : map.entrySet()) {
+			writeString(out, entry.getKey());
+			writeString(out, entry.getValue());
+		}
+
+	}
+
+	/**
+	 * @param in
+	 * @param map The map to put the entries in
+	 * @return The map
+	 * @throws IOException
+	 */
+	public static <M extends Map<String, String>> M readStringMap(DataInputStream in, M map) throws IOException {
+		int count = readCount(in);
+		for (int i = 0; i < count; i++) {
+			String key = readString(in);
+			map.put(key, readString(in));
+		}
+		return map;
+	}
+
+}
@@ -0,0 +1,216 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A data file stored by the proxy, which is written by a {@link ProxyDataStoreManager}
+ * 
+ * <p>The data is written into memory when a snapshot is taken, so the live data is never
+ * touched by the thread which writes the file. Anything which changes the data of a store must call
+ * {@link #markDirty()}, and a store which has not been marked dirty since its last snapshot is
+ * not serialised again.</p>
+ * 
+ * <p>Files are written in the {@link ProxyDataFormat}. Files saved by older versions of MultiChat
+ * using Java serialisation are read once using {@link #readLegacy(ObjectInputStream)}.</p>
+ */
+public abstract class ProxyDataStore {
+
+	public enum LoadResult {
+		/** The file does not exist yet */
+		MISSING,
+		/** The file was loaded */
+		LOADED,
+		/** The file was in the old format, and was loaded */
+		MIGRATED,
+		/** The file exists but could not be loaded */
+		FAILED,
+		/** The store is not enabled, so was not loaded */
+		DISABLED
+	}
+
+	private static final int READ_BUFFER_SIZE = 65536;
+
+	private final String fileName;
+	private final String description;
+	private final int version;
+
+	// Counts the changes to the data, the snapshot records the count it was taken at
+	private final AtomicLong changes = new AtomicLong();
+	private long savedChanges = -1L;
+
+	private volatile boolean loaded;
+
+	/**
+	 * @param fileName The name of the data file in the plugin directory
+	 * @param description The description of the data used in any error messages, i.e. "mute"
+	 * @param version The version of the data written by {@link #write(DataOutputStream)}
+	 */
+	public ProxyDataStore(String fileName, String description, int version) {
+		this.fileName = fileName;
+		this.description = description;
+		this.version = version;
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * A store is not saved until it has been loaded, so that a store which is loaded lazily never
+	 * overwrites its file with empty data
+	 * @return True if the data file of this store has been loaded (or found not to exist)
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	void setLoaded() {
+		loaded = true;
+	}
+
+	/**
+	 * Should this store currently be loaded and saved?
+	 * @return True by default
+	 */
+	public boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * Mark the data of this store as changed, so that it is written by the next save
+	 * 
+	 * <p>Must be called after every change to the data, other than by {@link #read(DataInputStream, int)}.</p>
+	 */
+	public void markDirty() {
+		changes.incrementAndGet();
+	}
+
+	/**
+	 * @return True if the data has been marked dirty since the last snapshot
+	 */
+	public synchronized boolean isDirty() {
+		return changes.get() != savedChanges;
+	}
+
+	/**
+	 * Write the current data of this store, the header has already been written
+	 * @param out The stream to write to
+	 * @throws IOException
+	 */
+	protected abstract void write(DataOutputStream out) throws IOException;
+
+	/**
+	 * Read the data of this store, replacing the current data
+	 * @param in The stream to read from, positioned after the header
+	 * @param version The version of the data in the file, which is never newer than {@link #getVersion()}
+	 * @throws IOException
+	 */
+	protected abstract void read(DataInputStream in, int version) throws IOException;
+
+	/**
+	 * Read the data of this store from a file saved by an older version of MultiChat, replacing the current data
+	 * @param in
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	protected abstract void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException;
+
+	/**
+	 * Load the data file of this store
+	 * @param file
+	 * @return The result of loading the file
+	 */
+	LoadResult load(File file) {
+
+		if (!file.exists() || file.isDirectory()) return LoadResult.MISSING;
+
+		boolean legacy = !ProxyDataFormat.isFormatted(file);
+
+		try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(file), READ_BUFFER_SIZE)) {
+
+			if (legacy) {
+				readLegacy(new ObjectInputStream(in));
+				return LoadResult.MIGRATED;
+			}
+
+			DataInputStream din = new DataInputStream(in);
+			int fileVersion = ProxyDataFormat.readHeader(din, fileName);
+
+			if (fileVersion > version) {
+				throw new IOException("The file was saved by a newer version of MultiChat (data version " + fileVersion + ")");
+			}
+
+			read(din, fileVersion);
+			return LoadResult.LOADED;
+
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			System.out.println("[MultiChat] [Load Error] An error has occured reading the " + description + " file!");
+			e.printStackTrace();
+			return LoadResult.FAILED;
+		}
+
+	}
+
+	/**
+	 * Take a snapshot of the current data of this store
+	 * @param force Should the snapshot be taken even if the data has not been marked dirty since the last one?
+	 * @return The snapshot, or empty if the data has not changed
+	 * @throws IOException
+	 */
+	synchronized Optional<byte[]> snapshot(boolean force) throws IOException {
+
+		// Read first, so a change made while serialising leaves the store dirty
+		long current = changes.get();
+		if (!force && current == savedChanges) {
+			return Optional.empty();
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DataOutputStream dout = new DataOutputStream(out);
+		ProxyDataFormat.writeHeader(dout, fileName, version);
+		write(dout);
+		dout.flush();
+		byte[] data = out.toByteArray();
+
+		savedChanges = current;
+
+		return Optional.of(data);
+
+	}
+
+	/**
+	 * Treat the current data as saved, without taking a snapshot
+	 * 
+	 * <p>Called once the data file has been loaded.</p>
+	 */
+	synchronized void markSaved() {
+		savedChanges = changes.get();
+	}
+
+	/**
+	 * Forget the last snapshot, so the next snapshot is always written
+	 * 
+	 * <p>Called if writing a snapshot failed.</p>
+	 */
+	synchronized void invalidate() {
+		savedChanges = -1L;
+	}
+
+}
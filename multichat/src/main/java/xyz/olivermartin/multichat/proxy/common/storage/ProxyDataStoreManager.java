@@ -0,0 +1,431 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataStore.LoadResult;
+
+/**
+ * Saves the proxy's data stores without blocking the thread which requested the save
+ * 
+ * <p>Snapshots of the stores are taken on the calling thread, but are written to disk by a single
+ * background thread. Each file is written to a temporary file first and then renamed over the old
+ * one, so a crash part way through a save can never leave a corrupt data file behind.</p>
+ * 
+ * <p>If a store is saved again before its previous snapshot has been written, only the newest
+ * snapshot is written.</p>
+ */
+public class ProxyDataStoreManager {
+
+	private final File directory;
+
+	private final Map<String, ProxyDataStore> stores;
+	private final Set<String> disabled;
+	private final Map<ProxyDataStore, byte[]> pending;
+
+	private final ExecutorService writer;
+
+	public ProxyDataStoreManager(File directory) {
+
+		this.directory = directory;
+		this.stores = new LinkedHashMap<String, ProxyDataStore>();
+		this.disabled = new HashSet<String>();
+		this.pending = new HashMap<ProxyDataStore, byte[]>();
+
+		this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "MultiChat-Persistence");
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Register a data store, replacing any store already registered with the same file name
+	 * @param store
+	 */
+	public void registerStore(ProxyDataStore store) {
+		synchronized (stores) {
+			stores.put(store.getFileName(), store);
+		}
+	}
+
+	/**
+	 * @param fileName
+	 * @return The store registered with this file name, if there is one
+	 */
+	public Optional<ProxyDataStore> getStore(String fileName) {
+		synchronized (stores) {
+			return Optional.ofNullable(stores.get(fileName));
+		}
+	}
+
+	/**
+	 * Stop a store from being loaded or saved, i.e. because its data is now stored elsewhere
+	 * @param fileName The file name of the store
+	 */
+	public void disableStore(String fileName) {
+		synchronized (stores) {
+			disabled.add(fileName);
+		}
+	}
+
+	private boolean isEnabled(ProxyDataStore store) {
+		synchronized (stores) {
+			if (disabled.contains(store.getFileName())) return false;
+		}
+		return store.isEnabled();
+	}
+
+	/**
+	 * Load the data file of a store, or create it if it does not exist yet
+	 * 
+	 * <p>A file in the old format is kept as <i>file</i>.old and saved again in the new format. A file
+	 * which cannot be read is kept as <i>file</i>.broken, so it is not lost when the store is next saved.</p>
+	 * 
+	 * <p>Stores can be loaded in parallel, as long as each store is only loaded by one thread.</p>
+	 * 
+	 * @param fileName The file name of the store
+	 * @return The result of loading the file
+	 */
+	public LoadResult load(String fileName) {
+
+		Optional<ProxyDataStore> store = getStore(fileName);
+		if (!store.isPresent()) throw new IllegalArgumentException("No data store has been registered for " + fileName);
+
+		synchronized (store.get()) {
+			return load(store.get());
+		}
+
+	}
+
+	/**
+	 * Load the data file of a store, unless it has already been loaded
+	 * 
+	 * <p>Used by stores which are loaded lazily, the first time their data is needed. If another thread
+	 * is already loading the store, this waits for it to finish.</p>
+	 * 
+	 * @param fileName The file name of the store
+	 */
+	public void ensureLoaded(String fileName) {
+
+		Optional<ProxyDataStore> store = getStore(fileName);
+		if (!store.isPresent()) throw new IllegalArgumentException("No data store has been registered for " + fileName);
+
+		if (store.get().isLoaded()) return;
+
+		synchronized (store.get()) {
+			if (!store.get().isLoaded()) load(store.get());
+		}
+
+	}
+
+	private LoadResult load(ProxyDataStore store) {
+
+		if (!isEnabled(store)) return LoadResult.DISABLED;
+
+		String fileName = store.getFileName();
+		File file = new File(directory, fileName);
+		LoadResult result = store.load(file);
+		store.setLoaded();
+
+		switch (result) {
+
+		case MISSING:
+
+			System.out.println("[MultiChat] " + fileName + " does not exist to load. Must be first startup!");
+			System.out.println("[MultiChat] Attempting to create the file!");
+			save(fileName);
+			break;
+
+		case LOADED:
+
+			// Nothing needs to be written until the loaded data is changed
+			store.markSaved();
+			break;
+
+		case MIGRATED:
+
+			System.out.println("[MultiChat] Converting " + fileName + " to the new data format, the old file will be kept as " + fileName + ".old");
+			if (copy(file, new File(directory, fileName + ".old"))) {
+				save(fileName);
+			}
+			break;
+
+		case FAILED:
+
+			System.out.println("[MultiChat] [Load Error] The unreadable file will be kept as " + fileName + ".broken");
+			copy(file, new File(directory, fileName + ".broken"));
+			break;
+
+		default:
+			break;
+
+		}
+
+		return result;
+
+	}
+
+	private boolean copy(File from, File to) {
+		try {
+			Files.copy(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} catch (IOException e) {
+			System.out.println("[MultiChat] [Save Error] Could not copy " + from.getName() + " to " + to.getName() + "!");
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Save every store whose data has changed since it was last saved
+	 * @return The number of stores which will be written
+	 */
+	public int saveChanged() {
+		return save(getStores(), false);
+	}
+
+	/**
+	 * Save every store, even if its data has not changed
+	 * @return The number of stores which will be written
+	 */
+	public int saveAll() {
+		return save(getStores(), true);
+	}
+
+	/**
+	 * Save a single store, even if its data has not changed
+	 * @param fileName The file name of the store
+	 * @return True if the store exists and will be written
+	 */
+	public boolean save(String fileName) {
+
+		Optional<ProxyDataStore> store = getStore(fileName);
+		if (!store.isPresent()) return false;
+
+		List<ProxyDataStore> list = new ArrayList<ProxyDataStore>();
+		list.add(store.get());
+		return save(list, true) == 1;
+
+	}
+
+	/**
+	 * Mark the data of a store as changed, so that it is written by the next {@link #saveChanged()}
+	 * @param fileName The file name of the store
+	 */
+	public void markDirty(String fileName) {
+		Optional<ProxyDataStore> store = getStore(fileName);
+		if (store.isPresent()) store.get().markDirty();
+	}
+
+	/**
+	 * Treat the current data of every loaded store as saved, so that each store is only written once its data changes
+	 */
+	public void markAllSaved() {
+		for (ProxyDataStore store : getStores()) {
+			if (store.isLoaded()) store.markSaved();
+		}
+	}
+
+	/**
+	 * Run a task on the writer thread, after any saves which have already been requested
+	 * 
+	 * <p>If the writer has been shut down, the task is run on the calling thread instead.</p>
+	 * 
+	 * @param task
+	 */
+	public void execute(Runnable task) {
+		try {
+			writer.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
+	}
+
+	/**
+	 * Wait for all saves which have been requested so far to be written
+	 * @param timeout
+	 * @param unit
+	 * @return True if they were all written before the timeout
+	 */
+	public boolean flush(long timeout, TimeUnit unit) {
+
+		try {
+
+			Future<?> barrier = writer.submit(new Runnable() {
+				public void run() {
+					/* EMPTY */
+				}
+			});
+
+			barrier.get(timeout, unit);
+			return true;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Save any changed stores, then wait for everything to be written and stop the writer thread
+	 * 
+	 * <p>Should be called in onDisable()</p>
+	 * 
+	 * @param timeout
+	 * @param unit
+	 */
+	public void shutdown(long timeout, TimeUnit unit) {
+
+		saveChanged();
+		writer.shutdown();
+
+		try {
+			if (!writer.awaitTermination(timeout, unit)) {
+				System.out.println("[MultiChat] [Save Error] Timed out waiting for data files to be written!");
+				writer.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			writer.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+	}
+
+	private List<ProxyDataStore> getStores() {
+		synchronized (stores) {
+			return new ArrayList<ProxyDataStore>(stores.values());
+		}
+	}
+
+	private int save(List<ProxyDataStore> toSave, boolean force) {
+
+		int queued = 0;
+
+		for (final ProxyDataStore store : toSave) {
+
+			if (!isEnabled(store) || !store.isLoaded()) continue;
+
+			Optional<byte[]> snapshot;
+			long start = System.nanoTime();
+
+			try {
+				snapshot = store.snapshot(force);
+			} catch (IOException | RuntimeException e) {
+				System.out.println("[MultiChat] [Save Error] An error has occured saving the " + store.getDescription() + " file!");
+				e.printStackTrace();
+				continue;
+			}
+
+			// Snapshots are taken on the thread which asked for the save, so this is the time it was held up for
+			MetricsRegistry.getInstance().histogram("persistence_snapshot", "store", store.getFileName()).recordSince(start);
+
+			if (!snapshot.isPresent()) continue;
+
+			boolean alreadyQueued;
+			synchronized (pending) {
+				alreadyQueued = pending.put(store, snapshot.get()) != null;
+			}
+
+			queued++;
+
+			// The queued write will pick up the newer snapshot
+			if (alreadyQueued) continue;
+
+			try {
+
+				writer.execute(new Runnable() {
+					public void run() {
+						byte[] data;
+						synchronized (pending) {
+							data = pending.remove(store);
+						}
+						if (data != null) write(store, data);
+					}
+				});
+
+			} catch (RejectedExecutionException e) {
+
+				// Already shut down, so write it on this thread instead
+				synchronized (pending) {
+					pending.remove(store);
+				}
+				write(store, snapshot.get());
+
+			}
+
+		}
+
+		return queued;
+
+	}
+
+	private void write(ProxyDataStore store, byte[] data) {
+
+		File file = new File(directory, store.getFileName());
+		File temp = new File(directory, store.getFileName() + ".tmp");
+
+		long start = System.nanoTime();
+
+		try {
+
+			FileOutputStream out = new FileOutputStream(temp);
+
+			try {
+				out.write(data);
+				out.getFD().sync();
+			} finally {
+				out.close();
+			}
+
+			try {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			MetricsRegistry.getInstance().histogram("persistence_write", "store", store.getFileName()).recordSince(start);
+			MetricsRegistry.getInstance().counter("persistence_write_bytes", "store", store.getFileName()).add(data.length);
+
+		} catch (IOException e) {
+			store.invalidate();
+			System.out.println("[MultiChat] [Save Error] An error has occured writing the " + store.getDescription() + " file!");
+			e.printStackTrace();
+		}
+
+	}
+
+}
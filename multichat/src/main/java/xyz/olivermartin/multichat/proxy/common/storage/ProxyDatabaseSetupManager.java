@@ -0,0 +1,88 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import xyz.olivermartin.multichat.common.database.DatabaseManager;
+import xyz.olivermartin.multichat.common.database.DatabaseMode;
+import xyz.olivermartin.multichat.common.database.GenericPooledDatabase;
+
+/**
+ * Connects the proxy to the database used to share data between proxies
+ */
+public class ProxyDatabaseSetupManager {
+
+	private String databaseName;
+	private boolean connected;
+
+	/**
+	 * Connect to a SQLite database in the plugin directory
+	 * @param databaseName
+	 * @param directory
+	 */
+	public ProxyDatabaseSetupManager(String databaseName, File directory) {
+
+		this.databaseName = databaseName;
+
+		DatabaseManager.getInstance().setMode(DatabaseMode.SQLite);
+		DatabaseManager.getInstance().setPathSQLite(directory);
+
+		connected = setupDatabase(databaseName);
+
+	}
+
+	/**
+	 * Connect to a MySQL database
+	 * @param databaseName
+	 * @param url i.e. localhost:3306
+	 * @param database The name of the MySQL database
+	 * @param user
+	 * @param password
+	 * @param flags
+	 */
+	public ProxyDatabaseSetupManager(String databaseName, String url, String database, String user, String password, List<String> flags) {
+
+		this.databaseName = databaseName;
+
+		DatabaseManager.getInstance().setMode(DatabaseMode.MySQL);
+		DatabaseManager.getInstance().setURLMySQL(url);
+		DatabaseManager.getInstance().setUsernameMySQL(user);
+		DatabaseManager.getInstance().setPasswordMySQL(password);
+		DatabaseManager.getInstance().setFlagsMySQL(flags);
+
+		connected = setupDatabase(database);
+
+	}
+
+	public boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * @return The connected database, if the connection succeeded
+	 */
+	public Optional<GenericPooledDatabase> getDatabase() {
+		if (!connected) return Optional.empty();
+		return DatabaseManager.getInstance().getDatabase(databaseName);
+	}
+
+	private boolean setupDatabase(String fileName) {
+
+		try {
+
+			DatabaseManager.getInstance().createDatabase(databaseName, fileName);
+			return DatabaseManager.getInstance().getDatabase(databaseName).get().isReady();
+
+		} catch (SQLException | RuntimeException e) {
+
+			System.out.println("[MultiChat] [Load Error] Could not connect to the database!");
+			e.printStackTrace();
+			return false;
+
+		}
+
+	}
+
+}
@@ -0,0 +1,896 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * A UUID to name store which keeps the names on disk, so they do not all need to be held in memory
+ *
+ * <p>The index file holds a fixed size record for every player sorted by UUID, followed by a table of
+ * name hashes sorted so that names can be looked up as well. Lookups are read straight from the file,
+ * and recently used names are kept in a bounded cache.</p>
+ *
+ * <p>New names are appended to a log file and held in memory until there are enough of them to be worth
+ * merging into a new index file. This is written in the background and then renamed over the old one.</p>
+ */
+public class ProxyIndexedUUIDNameStore extends ProxyUUIDNameStore {
+
+	public static final String INDEX_FILE_NAME = "MultiChatUUIDName.idx";
+	public static final String LOG_FILE_NAME = "MultiChatUUIDName.log";
+
+	private static final int INDEX_VERSION = 1;
+
+	/*
+	 * Record layout: uuid msb (8), uuid lsb (8), last seen (8), name length (1), name (up to 39)
+	 */
+	private static final int RECORD_SIZE = 64;
+	private static final int MAX_NAME_BYTES = RECORD_SIZE - 25;
+	private static final int HASH_ENTRY_SIZE = 8;
+
+	private static final byte LOG_NAME = 1;
+	private static final byte LOG_REMOVE = 2;
+
+	/**
+	 * The number of names held in memory before they are merged into the index
+	 */
+	private static final int COMPACT_THRESHOLD = 50000;
+
+	/**
+	 * The number of names held in memory, or of log records which have been replaced by newer ones,
+	 * before a save merges them into the index. Below this the log is cheap enough to replay at start-up.
+	 */
+	private static final int SAVE_COMPACT_THRESHOLD = 1000;
+
+	/**
+	 * A name which has not been merged into the index yet, the name is null if the player was removed
+	 */
+	private static class PendingName {
+
+		private final String name;
+		private final long lastSeen;
+
+		private PendingName(String name, long lastSeen) {
+			this.name = name;
+			this.lastSeen = lastSeen;
+		}
+
+	}
+
+	/**
+	 * An open index file
+	 */
+	private static class IndexFile {
+
+		private final FileChannel channel;
+		private final int count;
+		private final long dataOffset;
+		private final long hashOffset;
+
+		private IndexFile(File file) throws IOException {
+
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+				ProxyDataFormat.readHeader(in, INDEX_FILE_NAME);
+				this.count = ProxyDataFormat.readCount(in);
+				this.dataOffset = getHeaderSize();
+				this.hashOffset = dataOffset + (long) count * RECORD_SIZE;
+
+				if (channel.size() != hashOffset + (long) count * HASH_ENTRY_SIZE) {
+					throw new IOException("The index file is the wrong size for " + count + " records");
+				}
+
+			} catch (IOException e) {
+				channel.close();
+				throw e;
+			}
+
+			this.channel = channel;
+
+		}
+
+		private ByteBuffer readRecord(int index) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+			readFully(buffer, dataOffset + (long) index * RECORD_SIZE);
+			return buffer;
+		}
+
+		private long readHashEntry(int index) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(HASH_ENTRY_SIZE);
+			readFully(buffer, hashOffset + (long) index * HASH_ENTRY_SIZE);
+			return buffer.getLong(0);
+		}
+
+		private void readFully(ByteBuffer buffer, long position) throws IOException {
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, position + buffer.position());
+				if (read < 0) throw new EOFException();
+			}
+		}
+
+		/**
+		 * @param uuid
+		 * @return The index of the record for this UUID, or -1 if there is not one
+		 */
+		private int find(UUID uuid) throws IOException {
+
+			int low = 0;
+			int high = count - 1;
+
+			while (low <= high) {
+
+				int mid = (low + high) >>> 1;
+				ByteBuffer record = readRecord(mid);
+				int compare = compare(record.getLong(0), record.getLong(8), uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+
+				if (compare < 0) {
+					low = mid + 1;
+				} else if (compare > 0) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+
+			}
+
+			return -1;
+
+		}
+
+		/**
+		 * @param hash
+		 * @return The index of the first entry in the hash table with this hash, or the index it would be at
+		 */
+		private int findHash(int hash) throws IOException {
+
+			int low = 0;
+			int high = count;
+
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if ((int) (readHashEntry(mid) >> 32) < hash) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			return low;
+
+		}
+
+		private void close() {
+			try {
+				channel.close();
+			} catch (IOException e) { /* EMPTY */ }
+		}
+
+	}
+
+	private final File directory;
+	private final File indexFile;
+	private final File logFile;
+	private final File compactingLogFile;
+
+	private final ProxyDataStoreManager dataStoreManager;
+
+	private final Object compactLock = new Object();
+
+	// All of the following are guarded by this
+	private final Map<UUID, PendingName> pending;
+	private final Map<String, UUID> pendingNames;
+	private final LinkedHashMap<UUID, String> cache;
+	private IndexFile index;
+	private DataOutputStream log;
+	private int logRecords;
+	private boolean compactionQueued;
+
+	/**
+	 * @param directory The directory to store the files in
+	 * @param dataStoreManager The data store manager, whose writer thread is used to merge names into the index
+	 * @param cacheSize The number of recently used names to keep in memory
+	 */
+	public ProxyIndexedUUIDNameStore(File directory, ProxyDataStoreManager dataStoreManager, final int cacheSize) {
+
+		this.directory = directory;
+		this.indexFile = new File(directory, INDEX_FILE_NAME);
+		this.logFile = new File(directory, LOG_FILE_NAME);
+		this.compactingLogFile = new File(directory, LOG_FILE_NAME + ".compacting");
+		this.dataStoreManager = dataStoreManager;
+
+		this.pending = new HashMap<UUID, PendingName>();
+		this.pendingNames = new HashMap<String, UUID>();
+
+		// Access ordered, so the eldest entry is always the least recently used
+		this.cache = new LinkedHashMap<UUID, String>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<UUID, String> eldest) {
+				return size() > cacheSize;
+			}
+
+		};
+
+	}
+
+	private static int getHeaderSize() {
+		// Magic, format version, type, data version and record count
+		return 4 + 2 + 4 + INDEX_FILE_NAME.getBytes(StandardCharsets.UTF_8).length + 4 + 4;
+	}
+
+	private static int compare(long msb1, long lsb1, long msb2, long lsb2) {
+		int compare = Long.compare(msb1, msb2);
+		return compare != 0 ? compare : Long.compare(lsb1, lsb2);
+	}
+
+	private static int hashName(String name) {
+		return name.toLowerCase(Locale.ROOT).hashCode();
+	}
+
+	private static String readName(ByteBuffer record) {
+		int length = record.get(24) & 0xFF;
+		return new String(record.array(), 25, Math.min(length, MAX_NAME_BYTES), StandardCharsets.UTF_8);
+	}
+
+	private static boolean fitsInRecord(String name) {
+		return name.getBytes(StandardCharsets.UTF_8).length <= MAX_NAME_BYTES;
+	}
+
+	@Override
+	public void load() {
+
+		synchronized (this) {
+
+			try {
+
+				if (indexFile.exists() || importNames()) {
+
+					try {
+						index = new IndexFile(indexFile);
+					} catch (IOException e) {
+						System.out.println("[MultiChat] [Load Error] An error has occured reading the uuid-name index! It will be kept as " + INDEX_FILE_NAME + ".broken");
+						e.printStackTrace();
+						Files.move(indexFile.toPath(), new File(directory, INDEX_FILE_NAME + ".broken").toPath(), StandardCopyOption.REPLACE_EXISTING);
+						writeIndex(null, new ArrayList<Map.Entry<UUID, PendingName>>());
+						index = new IndexFile(indexFile);
+					}
+
+				} else {
+
+					// New names are kept in the log until the index can be built at the next start
+					System.out.println("[MultiChat] [Load Error] Could not read " + ProxyMemoryUUIDNameStore.FILE_NAME + ", the uuid-name index will be built from it at the next start instead");
+
+				}
+
+				replayLog(compactingLogFile, false);
+				replayLog(logFile, true);
+
+				log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+
+			} catch (IOException e) {
+				System.out.println("[MultiChat] [Load Error] An error has occured loading the uuid-name index!");
+				e.printStackTrace();
+			}
+
+		}
+
+		// Finish merging the names from a compaction which did not complete
+		if (compactingLogFile.exists()) {
+			compact();
+		}
+
+	}
+
+	/**
+	 * Build the first index file from MultiChatUUIDName.dat, if it exists
+	 * 
+	 * <p>MultiChatUUIDName.dat is left in place, so nothing is lost if the index can not be built.</p>
+	 * 
+	 * @return True if the index was written, false if MultiChatUUIDName.dat could not be read
+	 */
+	private boolean importNames() throws IOException {
+
+		ProxyMemoryUUIDNameStore.NameDataStore dataStore = new ProxyMemoryUUIDNameStore.NameDataStore();
+		File dataFile = new File(directory, ProxyMemoryUUIDNameStore.FILE_NAME);
+
+		List<Map.Entry<UUID, PendingName>> entries = new ArrayList<Map.Entry<UUID, PendingName>>();
+		List<Map.Entry<UUID, PendingName>> oversized = new ArrayList<Map.Entry<UUID, PendingName>>();
+
+		ProxyDataStore.LoadResult result = dataStore.load(dataFile);
+		if (result == ProxyDataStore.LoadResult.FAILED) return false;
+
+		if (result != ProxyDataStore.LoadResult.MISSING) {
+
+			System.out.println("[MultiChat] Building the uuid-name index from " + ProxyMemoryUUIDNameStore.FILE_NAME + "...");
+
+			for (Map.Entry<UUID, String> entry : dataStore.getMap().entrySet()) {
+				if (entry.getValue() == null) continue;
+				if (fitsInRecord(entry.getValue())) {
+					entries.add(new AbstractMap.SimpleEntry<UUID, PendingName>(entry.getKey(), new PendingName(entry.getValue(), 0L)));
+				} else {
+					// Too long for a record, so it will be kept in the log
+					oversized.add(new AbstractMap.SimpleEntry<UUID, PendingName>(entry.getKey(), new PendingName(entry.getValue(), 0L)));
+				}
+			}
+
+			dataStore.getMap().clear();
+
+		}
+
+		// Any log was written while the index could not be built, so is newer than the imported names
+		if (!oversized.isEmpty()) {
+			writeLog(logFile, oversized, logFile.exists());
+		}
+
+		sortByUUID(entries);
+		writeIndex(null, entries);
+
+		System.out.println("[MultiChat] The uuid-name index has been created with " + entries.size() + " names");
+
+		return true;
+
+	}
+
+	private void replayLog(File file, boolean truncate) throws IOException {
+
+		if (!file.exists()) return;
+
+		long validLength = 0;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+			while (true) {
+
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+
+				if (length <= 0 || length > 1024) break;
+
+				byte[] payload = new byte[length];
+				int crcValue;
+
+				try {
+					in.readFully(payload);
+					crcValue = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+
+				CRC32 crc = new CRC32();
+				crc.update(payload);
+				if ((int) crc.getValue() != crcValue) break;
+
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+				byte type = record.readByte();
+				UUID uuid = ProxyDataFormat.readUUID(record);
+				long lastSeen = record.readLong();
+
+				if (type == LOG_NAME) {
+					putPending(uuid, new PendingName(ProxyDataFormat.readString(record), lastSeen));
+				} else if (type == LOG_REMOVE) {
+					putPending(uuid, new PendingName(null, lastSeen));
+				} else {
+					break;
+				}
+
+				validLength += 4 + length + 4;
+				if (truncate) logRecords++;
+
+			}
+
+		}
+
+		if (truncate && validLength < file.length()) {
+			System.out.println("[MultiChat] Discarding incomplete or corrupt records at the end of " + file.getName());
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.setLength(validLength);
+			}
+		}
+
+	}
+
+	private void putPending(UUID uuid, PendingName name) {
+
+		PendingName old = pending.put(uuid, name);
+
+		if (old != null && old.name != null) {
+			pendingNames.remove(old.name.toLowerCase(Locale.ROOT), uuid);
+		}
+
+		if (name.name != null) {
+			pendingNames.put(name.name.toLowerCase(Locale.ROOT), uuid);
+		}
+
+	}
+
+	private void appendLog(UUID uuid, PendingName name) {
+
+		if (log == null) return;
+
+		try {
+			writeLogRecord(log, uuid, name);
+			log.flush();
+			logRecords++;
+		} catch (IOException e) {
+			System.out.println("[MultiChat] [Save Error] An error has occured writing the uuid-name log!");
+			e.printStackTrace();
+		}
+
+	}
+
+	private static void writeLogRecord(DataOutputStream out, UUID uuid, PendingName name) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		DataOutputStream record = new DataOutputStream(bytes);
+
+		record.writeByte(name.name == null ? LOG_REMOVE : LOG_NAME);
+		ProxyDataFormat.writeUUID(record, uuid);
+		record.writeLong(name.lastSeen);
+		if (name.name != null) ProxyDataFormat.writeString(record, name.name);
+		record.flush();
+
+		byte[] payload = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+
+		out.writeInt(payload.length);
+		out.write(payload);
+		out.writeInt((int) crc.getValue());
+
+	}
+
+	/**
+	 * Write a complete log file, replacing any existing one
+	 */
+	private void writeLog(File file, List<Map.Entry<UUID, PendingName>> entries) throws IOException {
+		writeLog(file, entries, false);
+	}
+
+	/**
+	 * Write a complete log file
+	 * @param file
+	 * @param entries The records to write
+	 * @param keepExisting Should the records of the existing file be kept after the new ones, so they replace them?
+	 */
+	private void writeLog(File file, List<Map.Entry<UUID, PendingName>> entries, boolean keepExisting) throws IOException {
+
+		File temp = new File(directory, file.getName() + ".tmp");
+
+		FileOutputStream fileOut = new FileOutputStream(temp);
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+			for (Map.Entry<UUID, PendingName> entry : entries) {
+				writeLogRecord(out, entry.getKey(), entry.getValue());
+			}
+			if (keepExisting) Files.copy(file.toPath(), out);
+			out.flush();
+			fileOut.getFD().sync();
+		} finally {
+			fileOut.close();
+		}
+
+		move(temp, file);
+
+	}
+
+	/**
+	 * Write a new index file from the current index and a sorted list of changes
+	 * @param current The current index, or null if there is not one
+	 * @param changes The changes sorted by UUID, where a null name removes the player
+	 */
+	private void writeIndex(IndexFile current, List<Map.Entry<UUID, PendingName>> changes) throws IOException {
+
+		File temp = new File(directory, INDEX_FILE_NAME + ".tmp");
+
+		long[] hashes = new long[(current == null ? 0 : current.count) + changes.size()];
+		int count = 0;
+
+		FileOutputStream fileOut = new FileOutputStream(temp);
+
+		try {
+
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 65536));
+			ProxyDataFormat.writeHeader(out, INDEX_FILE_NAME, INDEX_VERSION);
+			ProxyDataFormat.writeCount(out, 0);
+
+			DataInputStream in = null;
+			int remaining = 0;
+
+			if (current != null && current.count > 0) {
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile), 65536));
+				in.readFully(new byte[(int) current.dataOffset]);
+				remaining = current.count;
+			}
+
+			try {
+
+				byte[] record = new byte[RECORD_SIZE];
+				boolean haveRecord = false;
+				int change = 0;
+
+				while (true) {
+
+					if (!haveRecord && remaining > 0) {
+						in.readFully(record);
+						remaining--;
+						haveRecord = true;
+					}
+
+					if (!haveRecord && change >= changes.size()) break;
+
+					ByteBuffer existing = haveRecord ? ByteBuffer.wrap(record) : null;
+					Map.Entry<UUID, PendingName> next = change < changes.size() ? changes.get(change) : null;
+
+					int compare;
+					if (existing == null) {
+						compare = 1;
+					} else if (next == null) {
+						compare = -1;
+					} else {
+						compare = compare(existing.getLong(0), existing.getLong(8), next.getKey().getMostSignificantBits(), next.getKey().getLeastSignificantBits());
+					}
+
+					if (compare < 0) {
+						out.write(record);
+						hashes[count] = ((long) hashName(readName(existing)) << 32) | count;
+						count++;
+						haveRecord = false;
+						continue;
+					}
+
+					// The change replaces the existing record
+					if (compare == 0) haveRecord = false;
+					change++;
+
+					if (next.getValue().name == null) continue;
+
+					byte[] name = next.getValue().name.getBytes(StandardCharsets.UTF_8);
+					ProxyDataFormat.writeUUID(out, next.getKey());
+					out.writeLong(next.getValue().lastSeen);
+					out.writeByte(name.length);
+					out.write(name);
+					out.write(new byte[MAX_NAME_BYTES - name.length]);
+
+					hashes[count] = ((long) hashName(next.getValue().name) << 32) | count;
+					count++;
+
+				}
+
+			} finally {
+				if (in != null) in.close();
+			}
+
+			// Sorted by name hash and then by record, which is why the record index is in the low bits
+			Arrays.sort(hashes, 0, count);
+			for (int i = 0; i < count; i++) {
+				out.writeLong(hashes[i]);
+			}
+
+			out.flush();
+
+		} finally {
+			fileOut.close();
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(temp, "rw")) {
+			raf.seek(getHeaderSize() - 4);
+			raf.writeInt(count);
+			raf.getFD().sync();
+		}
+
+		move(temp, indexFile);
+
+	}
+
+	private static void move(File from, File to) throws IOException {
+		try {
+			Files.move(from.toPath(), to.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void sortByUUID(List<Map.Entry<UUID, PendingName>> entries) {
+		entries.sort(new Comparator<Map.Entry<UUID, PendingName>>() {
+			public int compare(Map.Entry<UUID, PendingName> a, Map.Entry<UUID, PendingName> b) {
+				return ProxyIndexedUUIDNameStore.compare(
+						a.getKey().getMostSignificantBits(), a.getKey().getLeastSignificantBits(),
+						b.getKey().getMostSignificantBits(), b.getKey().getLeastSignificantBits());
+			}
+		});
+	}
+
+	/**
+	 * Merge the names held in memory into a new index file
+	 *
+	 * <p>The names are first written to a separate log file, so that they are not lost if the server stops
+	 * before the new index has been written. They are only removed from memory once it has been.</p>
+	 */
+	public void compact() {
+
+		synchronized (compactLock) {
+
+			List<Map.Entry<UUID, PendingName>> changes = new ArrayList<Map.Entry<UUID, PendingName>>();
+			IndexFile current;
+
+			synchronized (this) {
+
+				compactionQueued = false;
+
+				if (index == null || pending.isEmpty()) return;
+				current = index;
+
+				List<Map.Entry<UUID, PendingName>> oversized = new ArrayList<Map.Entry<UUID, PendingName>>();
+
+				for (Map.Entry<UUID, PendingName> entry : pending.entrySet()) {
+					Map.Entry<UUID, PendingName> copy = new AbstractMap.SimpleEntry<UUID, PendingName>(entry);
+					if (entry.getValue().name == null || fitsInRecord(entry.getValue().name)) {
+						changes.add(copy);
+					} else {
+						oversized.add(copy);
+					}
+				}
+
+				try {
+
+					// Everything held in memory is in the compacting log, so the current log can be started again
+					writeLog(compactingLogFile, new ArrayList<Map.Entry<UUID, PendingName>>(pending.entrySet()));
+
+					if (log != null) log.close();
+					writeLog(logFile, oversized);
+					log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+					logRecords = oversized.size();
+
+				} catch (IOException e) {
+					System.out.println("[MultiChat] [Save Error] An error has occured writing the uuid-name log!");
+					e.printStackTrace();
+					reopenLog();
+					return;
+				}
+
+			}
+
+			sortByUUID(changes);
+
+			try {
+				writeIndex(current, changes);
+			} catch (IOException e) {
+				System.out.println("[MultiChat] [Save Error] An error has occured writing the uuid-name index!");
+				e.printStackTrace();
+				return;
+			}
+
+			synchronized (this) {
+
+				try {
+					index = new IndexFile(indexFile);
+				} catch (IOException e) {
+					System.out.println("[MultiChat] [Load Error] An error has occured reading the new uuid-name index!");
+					e.printStackTrace();
+					return;
+				}
+
+				current.close();
+
+				// Only forget the names which have not changed again since the merge started
+				for (Map.Entry<UUID, PendingName> change : changes) {
+					if (pending.get(change.getKey()) == change.getValue()) {
+						pending.remove(change.getKey());
+						if (change.getValue().name != null) {
+							pendingNames.remove(change.getValue().name.toLowerCase(Locale.ROOT), change.getKey());
+						}
+					}
+				}
+
+				compactingLogFile.delete();
+
+			}
+
+		}
+
+	}
+
+	private void reopenLog() {
+		try {
+			log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+		} catch (IOException e) {
+			log = null;
+			System.out.println("[MultiChat] [Save Error] Could not open the uuid-name log!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Merge the names held in memory into the index, if there are enough of them or enough replaced records in the log
+	 * 
+	 * <p>Otherwise the names are already safe in the log, which is replayed at the next start.</p>
+	 */
+	@Override
+	public void save() {
+
+		synchronized (this) {
+			if (pending.size() < SAVE_COMPACT_THRESHOLD && logRecords - pending.size() < SAVE_COMPACT_THRESHOLD) return;
+		}
+
+		compact();
+
+	}
+
+	@Override
+	public void shutdown() {
+
+		save();
+
+		synchronized (this) {
+
+			if (log != null) {
+				try {
+					log.close();
+				} catch (IOException e) { /* EMPTY */ }
+				log = null;
+			}
+
+			if (index != null) {
+				index.close();
+				index = null;
+			}
+
+		}
+
+	}
+
+	@Override
+	public synchronized void addNew(UUID uuid, String name) {
+
+		// Most players join with the same name every time, so there is nothing to write
+		if (name.equals(getName(uuid))) return;
+
+		PendingName pendingName = new PendingName(name, System.currentTimeMillis());
+		putPending(uuid, pendingName);
+		appendLog(uuid, pendingName);
+		cache.put(uuid, name);
+
+		if (pending.size() >= COMPACT_THRESHOLD && index != null && !compactionQueued) {
+
+			compactionQueued = true;
+
+			dataStoreManager.execute(new Runnable() {
+				public void run() {
+					compact();
+				}
+			});
+
+		}
+
+	}
+
+	@Override
+	public synchronized void removeUUID(UUID uuid) {
+
+		if (!existsUUID(uuid)) return;
+
+		PendingName pendingName = new PendingName(null, System.currentTimeMillis());
+		putPending(uuid, pendingName);
+		appendLog(uuid, pendingName);
+		cache.remove(uuid);
+
+	}
+
+	@Override
+	public synchronized String getName(UUID uuid) {
+
+		String name = cache.get(uuid);
+		if (name != null) return name;
+
+		PendingName pendingName = pending.get(uuid);
+		if (pendingName != null) return pendingName.name;
+
+		if (index == null) return null;
+
+		try {
+
+			int found = index.find(uuid);
+			if (found < 0) return null;
+
+			name = readName(index.readRecord(found));
+			cache.put(uuid, name);
+			return name;
+
+		} catch (IOException e) {
+			System.out.println("[MultiChat] [Load Error] An error has occured reading the uuid-name index!");
+			e.printStackTrace();
+			return null;
+		}
+
+	}
+
+	@Override
+	public synchronized boolean existsUUID(UUID uuid) {
+		return getName(uuid) != null;
+	}
+
+	@Override
+	public synchronized Optional<UUID> getUUID(String name) {
+
+		String lowerName = name.toLowerCase(Locale.ROOT);
+
+		// Anything held in memory is newer than the index
+		UUID uuid = pendingNames.get(lowerName);
+		if (uuid != null) return Optional.of(uuid);
+
+		if (index == null) return Optional.empty();
+
+		try {
+
+			int hash = hashName(lowerName);
+			UUID best = null;
+			long bestLastSeen = Long.MIN_VALUE;
+
+			for (int i = index.findHash(hash); i < index.count; i++) {
+
+				long entry = index.readHashEntry(i);
+				if ((int) (entry >> 32) != hash) break;
+
+				ByteBuffer record = index.readRecord((int) entry);
+				if (!readName(record).toLowerCase(Locale.ROOT).equals(lowerName)) continue;
+
+				UUID candidate = new UUID(record.getLong(0), record.getLong(8));
+
+				// The player may have changed their name since the index was written
+				if (pending.containsKey(candidate)) continue;
+
+				long lastSeen = record.getLong(16);
+				if (best == null || lastSeen > bestLastSeen) {
+					best = candidate;
+					bestLastSeen = lastSeen;
+				}
+
+			}
+
+			return Optional.ofNullable(best);
+
+		} catch (IOException e) {
+			System.out.println("[MultiChat] [Load Error] An error has occured reading the uuid-name index!");
+			e.printStackTrace();
+			return Optional.empty();
+		}
+
+	}
+
+}
@@ -0,0 +1,158 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A UUID to name store which keeps every name in memory, and is saved as MultiChatUUIDName.dat
+ * 
+ * <p>Names are kept in the order they were stored, so the newest holder of a name can be found.
+ * Names read from a file saved by an older version of MultiChat are in no particular order.</p>
+ */
+public class ProxyMemoryUUIDNameStore extends ProxyUUIDNameStore {
+
+	public static final String FILE_NAME = "MultiChatUUIDName.dat";
+
+	/**
+	 * The data store for MultiChatUUIDName.dat, which holds the map of names
+	 */
+	static class NameDataStore extends ProxyDataStore {
+
+		private Map<UUID, String> uuidname = new LinkedHashMap<UUID, String>();
+
+		NameDataStore() {
+			super(FILE_NAME, "uuid-name", 1);
+		}
+
+		Map<UUID, String> getMap() {
+			return uuidname;
+		}
+
+		protected void write(DataOutputStream out) throws IOException {
+
+			ProxyDataFormat.writeCount(out, uuidname.size());
+
+			for (Map.Entry<UUID, String> entry : uuidname.entrySet()) {
+				ProxyDataFormat.writeUUID(out, entry.getKey());
+				ProxyDataFormat.writeString(out, entry.getValue());
+			}
+
+		}
+
+		protected void read(DataInputStream in, int version) throws IOException {
+
+			int count = ProxyDataFormat.readCount(in);
+			Map<UUID, String> result = new LinkedHashMap<UUID, String>(Math.max(16, (int) (count / 0.75f) + 1));
+
+			for (int i = 0; i < count; i++) {
+				UUID uuid = ProxyDataFormat.readUUID(in);
+				result.put(uuid, ProxyDataFormat.readString(in));
+			}
+
+			uuidname = result;
+
+		}
+
+		@SuppressWarnings("unchecked")
+		protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			uuidname = new LinkedHashMap<UUID, String>((HashMap<UUID, String>)in.readObject());
+		}
+
+	}
+
+	private final ProxyDataStoreManager dataStoreManager;
+	private final NameDataStore dataStore;
+
+	// Only built if a name is looked up, as it is not needed otherwise
+	private Map<String, UUID> nameuuid;
+
+	public ProxyMemoryUUIDNameStore(ProxyDataStoreManager dataStoreManager) {
+		this.dataStoreManager = dataStoreManager;
+		this.dataStore = new NameDataStore();
+		dataStoreManager.registerStore(dataStore);
+	}
+
+	@Override
+	public void load() {
+
+		dataStoreManager.load(FILE_NAME);
+
+		synchronized (dataStore) {
+			nameuuid = null;
+		}
+
+	}
+
+	@Override
+	public void save() {
+		dataStoreManager.save(FILE_NAME);
+	}
+
+	@Override
+	public void addNew(UUID uuid, String name) {
+		synchronized (dataStore) {
+
+			String old = dataStore.getMap().get(uuid);
+			if (name.equals(old)) return;
+
+			// Removed first, so the new name is moved to the end
+			dataStore.getMap().remove(uuid);
+			dataStore.getMap().put(uuid, name);
+			dataStore.markDirty();
+
+			if (nameuuid != null) {
+				if (old != null) nameuuid.remove(old.toLowerCase(Locale.ROOT), uuid);
+				nameuuid.put(name.toLowerCase(Locale.ROOT), uuid);
+			}
+
+		}
+	}
+
+	@Override
+	public void removeUUID(UUID uuid) {
+		synchronized (dataStore) {
+			String old = dataStore.getMap().remove(uuid);
+			if (old == null) return;
+			dataStore.markDirty();
+			if (nameuuid != null) nameuuid.remove(old.toLowerCase(Locale.ROOT), uuid);
+		}
+	}
+
+	@Override
+	public String getName(UUID uuid) {
+		synchronized (dataStore) {
+			return dataStore.getMap().get(uuid);
+		}
+	}
+
+	@Override
+	public boolean existsUUID(UUID uuid) {
+		synchronized (dataStore) {
+			return dataStore.getMap().containsKey(uuid);
+		}
+	}
+
+	@Override
+	public Optional<UUID> getUUID(String name) {
+		synchronized (dataStore) {
+			if (nameuuid == null) {
+				// In the order the names were stored, so the newest holder of each name is kept
+				nameuuid = new HashMap<String, UUID>();
+				for (Map.Entry<UUID, String> entry : dataStore.getMap().entrySet()) {
+					if (entry.getValue() != null) nameuuid.put(entry.getValue().toLowerCase(Locale.ROOT), entry.getKey());
+				}
+			}
+
+			return Optional.ofNullable(nameuuid.get(name.toLowerCase(Locale.ROOT)));
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The rows of each table of a {@link ProxySQLStore}
+ *
+ * <p>Two sets of rows are equal if every table holds the same rows, so they can be compared to
+ * find out if the data has changed.</p>
+ */
+public class ProxySQLRows {
+
+	private final Map<String, Set<List<Object>>> tables;
+
+	public ProxySQLRows() {
+		this.tables = new HashMap<String, Set<List<Object>>>();
+	}
+
+	/**
+	 * Add a row to a table
+	 * @param table
+	 * @param values The value of each column, which must be a string, an integer or null
+	 */
+	public void add(ProxySQLTable table, Object... values) {
+
+		if (values.length != table.getColumnCount()) throw new IllegalArgumentException("Wrong number of values for table " + table.getName());
+
+		add(table, Arrays.asList(values));
+
+	}
+
+	void add(ProxySQLTable table, List<Object> row) {
+
+		Set<List<Object>> rows = tables.get(table.getName());
+
+		if (rows == null) {
+			rows = new HashSet<List<Object>>();
+			tables.put(table.getName(), rows);
+		}
+
+		rows.add(row);
+
+	}
+
+	/**
+	 * @param table
+	 * @return The rows of this table
+	 */
+	public Set<List<Object>> get(ProxySQLTable table) {
+		Set<List<Object>> rows = tables.get(table.getName());
+		if (rows == null) return Collections.emptySet();
+		return Collections.unmodifiableSet(rows);
+	}
+
+	/**
+	 * @return True if there are no rows in any table
+	 */
+	public boolean isEmpty() {
+		for (Set<List<Object>> rows : tables.values()) {
+			if (!rows.isEmpty()) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+
+		if (this == other) return true;
+		if (!(other instanceof ProxySQLRows)) return false;
+
+		ProxySQLRows otherRows = (ProxySQLRows) other;
+
+		Set<String> names = new HashSet<String>(tables.keySet());
+		names.addAll(otherRows.tables.keySet());
+
+		for (String name : names) {
+			if (!getRows(name).equals(otherRows.getRows(name))) return false;
+		}
+
+		return true;
+
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (Map.Entry<String, Set<List<Object>>> entry : tables.entrySet()) {
+			if (!entry.getValue().isEmpty()) hash += entry.getKey().hashCode() ^ entry.getValue().hashCode();
+		}
+		return hash;
+	}
+
+	private Set<List<Object>> getRows(String name) {
+		Set<List<Object>> rows = tables.get(name);
+		if (rows == null) return Collections.emptySet();
+		return rows;
+	}
+
+}
@@ -0,0 +1,69 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Data shared between proxies using a database, which is written by a {@link ProxySQLStoreManager}
+ *
+ * <p>The data is kept in memory in the same place as when it is stored in a data file, and the
+ * store replaces that data file. The manager takes the rows of the in-memory data and writes any
+ * rows which have changed to the database. Rows changed by other proxies are read back into memory.</p>
+ */
+public abstract class ProxySQLStore {
+
+	private final String fileName;
+	private final String description;
+	private final List<ProxySQLTable> tables;
+
+	/**
+	 * @param fileName The name of the data file which this store replaces
+	 * @param description The description of the data used in any error messages, i.e. "mute"
+	 * @param tables The tables used to store the data
+	 */
+	public ProxySQLStore(String fileName, String description, ProxySQLTable... tables) {
+		this.fileName = fileName;
+		this.description = description;
+		this.tables = Collections.unmodifiableList(Arrays.asList(tables));
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public List<ProxySQLTable> getTables() {
+		return tables;
+	}
+
+	/**
+	 * Should this store currently be used?
+	 * @return True by default
+	 */
+	public boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * Add the rows of the current in-memory data
+	 * 
+	 * <p>Called while holding the data lock of the manager, so the data can not change while it is read.</p>
+	 * 
+	 * @param rows The rows to add to
+	 */
+	protected abstract void write(ProxySQLRows rows);
+
+	/**
+	 * Replace the current in-memory data with these rows
+	 * 
+	 * <p>Called while holding the data lock of the manager.</p>
+	 * 
+	 * @param rows
+	 */
+	protected abstract void read(ProxySQLRows rows);
+
+}
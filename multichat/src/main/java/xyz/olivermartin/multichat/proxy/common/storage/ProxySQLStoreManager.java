@@ -0,0 +1,456 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import xyz.olivermartin.multichat.common.database.GenericPooledDatabase;
+import xyz.olivermartin.multichat.common.database.SimpleConnection;
+import xyz.olivermartin.multichat.common.metrics.LatencyHistogram;
+import xyz.olivermartin.multichat.common.metrics.MetricsRegistry;
+
+/**
+ * Keeps the proxy's {@link ProxySQLStore}s in step with a database shared by several proxies
+ *
+ * <p>The in-memory data acts as a cache. Changes are written behind by a single background thread:
+ * each sync compares the rows of every store with the rows last written, sends only the rows which
+ * have changed in one transaction, and then reads back any rows changed by other proxies.</p>
+ *
+ * <p>Everything which changes the in-memory data must hold the data lock given to the manager. The
+ * rows of a store are only taken while holding it, so they are always consistent. Rows from the
+ * database only replace the in-memory data if, checked under the same lock, it has not changed
+ * locally since it was last written, so a local change is never lost. It is written by the next
+ * sync instead, and the changes of other proxies are picked up by the sync after that.</p>
+ *
+ * <p>Each sync reads every row of every table to find the changes of other proxies, so this is
+ * meant for the moderate amounts of data held by the stores, not for per-message data.</p>
+ */
+public class ProxySQLStoreManager {
+
+	private static final LatencyHistogram syncTime = MetricsRegistry.getInstance().histogram("persistence_sql_sync");
+
+	private final GenericPooledDatabase database;
+	private final ProxyDataStoreManager dataStoreManager;
+	private final Object dataLock;
+
+	private final Map<String, ProxySQLStore> stores;
+	private final Map<ProxySQLStore, ProxySQLRows> written;
+
+	private final ExecutorService writer;
+	private final AtomicBoolean syncQueued;
+
+	private volatile boolean failing;
+
+	/**
+	 * @param database The database to use, which must already be connected
+	 * @param dataStoreManager The data store manager, whose data files are replaced by the stores of this manager
+	 * @param dataLock The lock held by everything which changes the data of the stores
+	 */
+	public ProxySQLStoreManager(GenericPooledDatabase database, ProxyDataStoreManager dataStoreManager, Object dataLock) {
+
+		this.database = database;
+		this.dataStoreManager = dataStoreManager;
+		this.dataLock = dataLock;
+		this.stores = new LinkedHashMap<String, ProxySQLStore>();
+		this.written = new ConcurrentHashMap<ProxySQLStore, ProxySQLRows>();
+		this.syncQueued = new AtomicBoolean(false);
+
+		this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "MultiChat-SQL");
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+
+	}
+
+	/**
+	 * Register a store, replacing any store already registered for the same data file
+	 * @param store
+	 */
+	public void registerStore(ProxySQLStore store) {
+		synchronized (stores) {
+			stores.put(store.getFileName(), store);
+		}
+	}
+
+	/**
+	 * @param fileName
+	 * @return True if the data in this file is stored in the database instead
+	 */
+	public boolean handles(String fileName) {
+		synchronized (stores) {
+			ProxySQLStore store = stores.get(fileName);
+			return store != null && written.containsKey(store);
+		}
+	}
+
+	/**
+	 * Create the tables of every registered store, if they do not exist yet
+	 * @return True if the tables are ready to use
+	 */
+	public boolean setupTables() {
+
+		SimpleConnection conn = null;
+
+		try {
+
+			conn = database.getConnection();
+
+			for (ProxySQLStore store : getStores()) {
+				for (ProxySQLTable table : store.getTables()) {
+					conn.safeUpdate(table.getCreateStatement());
+				}
+			}
+
+			return true;
+
+		} catch (SQLException e) {
+			System.out.println("[MultiChat] [Load Error] Could not create the database tables!");
+			e.printStackTrace();
+			return false;
+		} finally {
+			SimpleConnection.safelyCloseAll(conn);
+		}
+
+	}
+
+	/**
+	 * Load a store from the database, and stop its data file from being loaded or saved
+	 *
+	 * <p>If the database does not hold any data for the store yet, its data file is loaded instead
+	 * and copied into the database by the next sync. If the database can not be read, the data file
+	 * is used as normal.</p>
+	 *
+	 * @param fileName The data file of the store
+	 * @return True if the store will be kept in the database, false if the data file should be loaded as normal
+	 */
+	public boolean load(String fileName) {
+
+		ProxySQLStore store;
+		synchronized (stores) {
+			store = stores.get(fileName);
+		}
+
+		if (store == null || !store.isEnabled()) return false;
+
+		SimpleConnection conn = null;
+		ProxySQLRows rows;
+
+		try {
+			conn = database.getConnection();
+			rows = query(conn, store);
+		} catch (SQLException e) {
+			System.out.println("[MultiChat] [Load Error] Could not read the " + store.getDescription() + " data from the database! " + fileName + " will be used instead");
+			e.printStackTrace();
+			return false;
+		} finally {
+			SimpleConnection.safelyCloseAll(conn);
+		}
+
+		if (rows.isEmpty() && new File(dataStoreManager.getDirectory(), fileName).exists()) {
+			System.out.println("[MultiChat] Copying " + fileName + " into the database");
+			dataStoreManager.load(fileName);
+		} else {
+			synchronized (dataLock) {
+				store.read(rows);
+			}
+		}
+
+		dataStoreManager.disableStore(fileName);
+
+		synchronized (stores) {
+			written.put(store, rows);
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Write any changed data to the database and read back changes made by other proxies, in the background
+	 *
+	 * <p>If a sync is already waiting to run, this does nothing.</p>
+	 */
+	public void sync() {
+
+		if (!syncQueued.compareAndSet(false, true)) return;
+
+		try {
+
+			writer.execute(new Runnable() {
+				public void run() {
+					syncQueued.set(false);
+					syncNow();
+				}
+			});
+
+		} catch (RejectedExecutionException e) {
+			syncQueued.set(false);
+		}
+
+	}
+
+	/**
+	 * Wait for any sync which has already been requested to finish
+	 * @param timeout
+	 * @param unit
+	 * @return True if it finished before the timeout
+	 */
+	public boolean flush(long timeout, TimeUnit unit) {
+
+		try {
+
+			Future<?> barrier = writer.submit(new Runnable() {
+				public void run() {
+					/* EMPTY */
+				}
+			});
+
+			barrier.get(timeout, unit);
+			return true;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException | TimeoutException | RejectedExecutionException e) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Write any changed data, then stop the writer thread and disconnect from the database
+	 *
+	 * <p>Should be called in onDisable()</p>
+	 *
+	 * @param timeout
+	 * @param unit
+	 */
+	public void shutdown(long timeout, TimeUnit unit) {
+
+		writer.execute(new Runnable() {
+			public void run() {
+				writeChanged();
+			}
+		});
+
+		writer.shutdown();
+
+		try {
+			if (!writer.awaitTermination(timeout, unit)) {
+				System.out.println("[MultiChat] [Save Error] Timed out waiting for data to be written to the database!");
+				writer.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			writer.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		try {
+			database.disconnectFromDatabase();
+		} catch (SQLException e) { /* EMPTY */ }
+
+	}
+
+	private List<ProxySQLStore> getStores() {
+		synchronized (stores) {
+			return new ArrayList<ProxySQLStore>(stores.values());
+		}
+	}
+
+	private void syncNow() {
+
+		SimpleConnection conn = null;
+		long start = System.nanoTime();
+
+		try {
+
+			conn = database.getConnection();
+
+			for (ProxySQLStore store : getStores()) {
+
+				ProxySQLRows last = written.get(store);
+				if (last == null || !store.isEnabled()) continue;
+
+				ProxySQLRows local = snapshot(store);
+				if (local == null) continue;
+
+				if (!local.equals(last)) {
+					write(conn, store, last, local);
+					written.put(store, local);
+					last = local;
+				}
+
+				// Pick up any changes made by other proxies
+				ProxySQLRows remote = query(conn, store);
+				if (remote.equals(last)) continue;
+
+				synchronized (dataLock) {
+
+					// Nothing can change the data between this check and the read
+					ProxySQLRows current = snapshot(store);
+
+					if (last.equals(current)) {
+						store.read(remote);
+						written.put(store, remote);
+					}
+
+				}
+
+			}
+
+			if (failing) {
+				System.out.println("[MultiChat] The database can be reached again");
+				failing = false;
+			}
+
+			syncTime.recordSince(start);
+
+		} catch (SQLException e) {
+
+			// Only report the first failure, as this runs every few seconds
+			if (!failing) {
+				System.out.println("[MultiChat] [Save Error] Could not sync data with the database! Changes will be kept in memory and retried");
+				e.printStackTrace();
+				failing = true;
+			}
+
+		} finally {
+			SimpleConnection.safelyCloseAll(conn);
+		}
+
+	}
+
+	private void writeChanged() {
+
+		SimpleConnection conn = null;
+
+		try {
+
+			conn = database.getConnection();
+
+			for (ProxySQLStore store : getStores()) {
+
+				ProxySQLRows last = written.get(store);
+				if (last == null || !store.isEnabled()) continue;
+
+				ProxySQLRows local = snapshot(store);
+
+				if (local != null && !local.equals(last)) {
+					write(conn, store, last, local);
+					written.put(store, local);
+				}
+
+			}
+
+		} catch (SQLException e) {
+			System.out.println("[MultiChat] [Save Error] Could not write changed data to the database!");
+			e.printStackTrace();
+		} finally {
+			SimpleConnection.safelyCloseAll(conn);
+		}
+
+	}
+
+	/**
+	 * @param store
+	 * @return The rows of the in-memory data, or null if they could not be read
+	 */
+	private ProxySQLRows snapshot(ProxySQLStore store) {
+
+		ProxySQLRows rows = new ProxySQLRows();
+
+		synchronized (dataLock) {
+
+			try {
+				store.write(rows);
+				return rows;
+			} catch (RuntimeException e) {
+				// Nothing is written, as the rows may be missing data which would then be deleted
+				System.out.println("[MultiChat] [Save Error] Could not read the " + store.getDescription() + " data to write to the database!");
+				e.printStackTrace();
+				return null;
+			}
+
+		}
+
+	}
+
+	private ProxySQLRows query(SimpleConnection conn, ProxySQLStore store) throws SQLException {
+
+		ProxySQLRows rows = new ProxySQLRows();
+
+		for (ProxySQLTable table : store.getTables()) {
+			ResultSet results = conn.safeQuery(table.getSelectStatement());
+			while (results.next()) {
+				rows.add(table, table.readRow(results));
+			}
+		}
+
+		return rows;
+
+	}
+
+	/**
+	 * Write the rows which differ between two sets of rows in a single transaction
+	 */
+	private void write(SimpleConnection conn, ProxySQLStore store, ProxySQLRows from, ProxySQLRows to) throws SQLException {
+
+		conn.setAutoCommit(false);
+
+		try {
+
+			for (ProxySQLTable table : store.getTables()) {
+
+				Set<List<Object>> removed = new HashSet<List<Object>>(from.get(table));
+				removed.removeAll(to.get(table));
+
+				Set<List<Object>> added = new HashSet<List<Object>>(to.get(table));
+				added.removeAll(from.get(table));
+
+				// Changed rows are in both, the upsert replaces the deleted row
+				for (List<Object> row : removed) {
+					conn.addBatch(table.getDeleteStatement(), table.getKey(row));
+				}
+
+				for (List<Object> row : added) {
+					conn.addBatch(table.getUpsertStatement(database.getMode()), row.toArray());
+				}
+
+			}
+
+			conn.executeBatch();
+			conn.commit();
+
+		} catch (SQLException e) {
+			try {
+				conn.rollback();
+			} catch (SQLException ignored) { /* EMPTY */ }
+			throw new SQLException("Could not write the " + store.getDescription() + " data to the database", e);
+		} finally {
+			conn.setAutoCommit(true);
+		}
+
+	}
+
+}
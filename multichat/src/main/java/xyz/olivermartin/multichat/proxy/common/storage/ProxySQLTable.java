@@ -0,0 +1,153 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import xyz.olivermartin.multichat.common.database.DatabaseMode;
+
+/**
+ * A table used by a {@link ProxySQLStore}
+ *
+ * <p>Each row of the table is held as a list of its column values, which are either strings or
+ * (for INT columns) integers. The first columns of the table make up its primary key.</p>
+ */
+public class ProxySQLTable {
+
+	private final String name;
+	private final int keyColumns;
+	private final List<String> columnNames;
+	private final List<String> columnTypes;
+
+	/**
+	 * @param name The name of the table
+	 * @param keyColumns The number of columns, from the first, which make up the primary key
+	 * @param columns The column definitions, i.e. "id VARCHAR(128)"
+	 */
+	public ProxySQLTable(String name, int keyColumns, String... columns) {
+
+		if (keyColumns < 1 || keyColumns > columns.length) throw new IllegalArgumentException("Invalid number of key columns for table " + name);
+
+		this.name = name;
+		this.keyColumns = keyColumns;
+		this.columnNames = new ArrayList<String>();
+		this.columnTypes = new ArrayList<String>();
+
+		for (String column : columns) {
+			String[] parts = column.trim().split(" ", 2);
+			columnNames.add(parts[0]);
+			columnTypes.add(parts[1].trim().toUpperCase());
+		}
+
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(columnNames);
+	}
+
+	public int getColumnCount() {
+		return columnNames.size();
+	}
+
+	public String getCreateStatement() {
+
+		StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(name).append("(");
+
+		for (int i = 0; i < columnNames.size(); i++) {
+			sql.append(columnNames.get(i)).append(" ").append(columnTypes.get(i)).append(", ");
+		}
+
+		sql.append("PRIMARY KEY (").append(String.join(", ", columnNames.subList(0, keyColumns))).append("));");
+
+		return sql.toString();
+
+	}
+
+	public String getSelectStatement() {
+		return "SELECT " + String.join(", ", columnNames) + " FROM " + name + ";";
+	}
+
+	public String getDeleteStatement() {
+
+		List<String> conditions = new ArrayList<String>();
+		for (String column : columnNames.subList(0, keyColumns)) {
+			conditions.add(column + " = ?");
+		}
+
+		return "DELETE FROM " + name + " WHERE " + String.join(" AND ", conditions) + ";";
+
+	}
+
+	/**
+	 * Insert a row, replacing any existing row with the same key
+	 * @param mode The SQL dialect of the database
+	 * @return The SQL template, with a parameter for each column
+	 */
+	public String getUpsertStatement(DatabaseMode mode) {
+
+		String insert = "INSERT INTO " + name + " VALUES (" + String.join(", ", Collections.nCopies(columnNames.size(), "?")) + ")";
+
+		List<String> keys = columnNames.subList(0, keyColumns);
+		List<String> values = columnNames.subList(keyColumns, columnNames.size());
+		List<String> updates = new ArrayList<String>();
+
+		switch (mode) {
+
+		case MySQL:
+
+			if (values.isEmpty()) return "INSERT IGNORE INTO " + name + " VALUES (" + String.join(", ", Collections.nCopies(columnNames.size(), "?")) + ");";
+			for (String column : values) {
+				updates.add(column + " = VALUES(" + column + ")");
+			}
+			return insert + " ON DUPLICATE KEY UPDATE " + String.join(", ", updates) + ";";
+
+		case SQLite:
+		default:
+
+			if (values.isEmpty()) return insert + " ON CONFLICT(" + String.join(", ", keys) + ") DO NOTHING;";
+			for (String column : values) {
+				updates.add(column + " = excluded." + column);
+			}
+			return insert + " ON CONFLICT(" + String.join(", ", keys) + ") DO UPDATE SET " + String.join(", ", updates) + ";";
+
+		}
+
+	}
+
+	/**
+	 * @param row
+	 * @return The values of the key columns of this row
+	 */
+	public Object[] getKey(List<Object> row) {
+		return row.subList(0, keyColumns).toArray();
+	}
+
+	/**
+	 * Read the current row of a result set from {@link #getSelectStatement()}
+	 * @param results
+	 * @return The row
+	 * @throws SQLException
+	 */
+	public List<Object> readRow(ResultSet results) throws SQLException {
+
+		List<Object> row = new ArrayList<Object>(columnNames.size());
+
+		for (int i = 0; i < columnNames.size(); i++) {
+			if (columnTypes.get(i).startsWith("INT")) {
+				row.add(results.getInt(i + 1));
+			} else {
+				row.add(results.getString(i + 1));
+			}
+		}
+
+		return row;
+
+	}
+
+}
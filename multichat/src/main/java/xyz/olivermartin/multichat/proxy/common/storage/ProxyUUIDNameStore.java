@@ -0,0 +1,52 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stores the username last used by every player who has joined the network
+ */
+public abstract class ProxyUUIDNameStore {
+
+	/**
+	 * Load the stored names, should be called once before the store is used
+	 */
+	public abstract void load();
+
+	/**
+	 * Save the stored names
+	 */
+	public abstract void save();
+
+	/**
+	 * Save the stored names and release any resources held by the store
+	 */
+	public void shutdown() {
+		/* EMPTY */
+	}
+
+	/**
+	 * Store the current username of a player, replacing any name already stored
+	 * @param uuid
+	 * @param name
+	 */
+	public abstract void addNew(UUID uuid, String name);
+
+	public abstract void removeUUID(UUID uuid);
+
+	/**
+	 * @param uuid
+	 * @return The stored username of this player, or null if there is not one
+	 */
+	public abstract String getName(UUID uuid);
+
+	public abstract boolean existsUUID(UUID uuid);
+
+	/**
+	 * Find the player who most recently took a username, if it is stored for more than one player
+	 * @param name The username, which is not case sensitive
+	 * @return The UUID of the player, if one has used this name
+	 */
+	public abstract Optional<UUID> getUUID(String name);
+
+}
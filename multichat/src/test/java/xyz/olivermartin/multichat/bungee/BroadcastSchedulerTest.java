@@ -0,0 +1,95 @@
+package xyz.olivermartin.multichat.bungee;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BroadcastSchedulerTest {
+
+	private final BroadcastScheduler scheduler = BroadcastScheduler.getInstance();
+
+	@Before
+	public void start() {
+		scheduler.start();
+	}
+
+	@After
+	public void stop() {
+		scheduler.stop();
+	}
+
+	@Test(timeout = 20000)
+	public void pausedBroadcastIsNotSent() throws Exception {
+
+		CountingBroadcast broadcast = new CountingBroadcast();
+
+		scheduler.schedule(broadcast, 0);
+		assertTrue(scheduler.pause(broadcast));
+
+		// The wheel ticks once a second
+		Thread.sleep(2500);
+		assertEquals(0, broadcast.sent.get());
+
+		assertTrue(scheduler.resume(broadcast));
+		Thread.sleep(2500);
+		assertTrue(broadcast.sent.get() >= 1);
+
+	}
+
+	@Test(timeout = 20000)
+	public void pausingAndResumingKeepsOneSchedule() throws Exception {
+
+		CountingBroadcast broadcast = new CountingBroadcast();
+
+		scheduler.schedule(broadcast, 0);
+
+		// Each resume starts a new generation, and the runs left from older ones do nothing
+		for (int i = 0; i < 3; i++) {
+			assertTrue(scheduler.pause(broadcast));
+			assertTrue(scheduler.resume(broadcast));
+		}
+
+		Thread.sleep(4500);
+
+		// Each send is rounded up to the next one second tick, so it is sent about every two seconds,
+		// it would be sent three times as often if the old schedules were still running
+		int sent = broadcast.sent.get();
+		assertTrue("Sent " + sent + " times", sent >= 1 && sent <= 3);
+
+	}
+
+	@Test(timeout = 20000)
+	public void cancelledBroadcastIsNotSent() throws Exception {
+
+		CountingBroadcast broadcast = new CountingBroadcast();
+
+		scheduler.schedule(broadcast, 0);
+		scheduler.cancel(broadcast);
+
+		Thread.sleep(2500);
+		assertEquals(0, broadcast.sent.get());
+
+	}
+
+	private static class CountingBroadcast extends ScheduledBroadcast {
+
+		private final AtomicInteger sent = new AtomicInteger();
+
+		CountingBroadcast() {
+			super("test", TimeUnit.SECONDS.toMillis(1), 0, Collections.<String>emptyList(), false);
+		}
+
+		protected void broadcast() {
+			sent.incrementAndGet();
+		}
+
+	}
+
+}
@@ -0,0 +1,128 @@
+package xyz.olivermartin.multichat.common.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void bucketsStayWithinThreePercent() {
+
+		long value = 0;
+		while (value < 1L << 42) {
+
+			long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+			assertTrue("Bucket of " + value + " ends below it at " + upper, upper >= value);
+			assertTrue("Bucket of " + value + " ends too far above it at " + upper, upper - value <= value / 32);
+
+			value = value < 1000 ? value + 1 : value + value / 7;
+
+		}
+
+	}
+
+	@Test
+	public void bucketsAreInOrder() {
+
+		int last = -1;
+		for (long value = 0; value < 100000; value++) {
+			int index = LatencyHistogram.bucketIndex(value);
+			assertTrue(index == last || index == last + 1);
+			last = index;
+		}
+
+	}
+
+	@Test
+	public void emptyHistogram() {
+
+		LatencyHistogram histogram = new LatencyHistogram("test");
+
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMean());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+		assertEquals("0 recorded", histogram.describe());
+
+	}
+
+	@Test
+	public void percentiles() {
+
+		LatencyHistogram histogram = new LatencyHistogram("test");
+
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(500500000L, histogram.getSum());
+		assertEquals(500500L, histogram.getMean());
+		assertEquals(1000000L, histogram.getMax());
+
+		assertWithin(500000L, histogram.getValueAtPercentile(50));
+		assertWithin(990000L, histogram.getValueAtPercentile(99));
+		assertEquals(1000000L, histogram.getValueAtPercentile(100));
+
+	}
+
+	@Test
+	public void valuesOutOfRange() {
+
+		LatencyHistogram histogram = new LatencyHistogram("test");
+
+		histogram.record(-5);
+		assertEquals(0, histogram.getValueAtPercentile(100));
+
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, histogram.getMax());
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+
+	}
+
+	@Test
+	public void concurrentRecording() throws InterruptedException {
+
+		final LatencyHistogram histogram = new LatencyHistogram("test");
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int t = 0; t < 4; t++) {
+			final long base = t * 1000L;
+			Thread thread = new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < 10000; i++) {
+						histogram.record(base + i % 1000);
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(40000, histogram.getCount());
+		assertEquals(3999L, histogram.getMax());
+		assertEquals(3999L, histogram.getValueAtPercentile(100));
+
+	}
+
+	@Test
+	public void formatNanos() {
+		assertEquals("999ns", LatencyHistogram.formatNanos(999));
+		assertEquals("1.5us", LatencyHistogram.formatNanos(1500));
+		assertEquals("1.25ms", LatencyHistogram.formatNanos(1250000));
+		assertEquals("2.00s", LatencyHistogram.formatNanos(2000000000L));
+	}
+
+	private static void assertWithin(long expected, long actual) {
+		assertTrue("Expected about " + expected + " but was " + actual, Math.abs(actual - expected) <= expected / 32);
+	}
+
+}
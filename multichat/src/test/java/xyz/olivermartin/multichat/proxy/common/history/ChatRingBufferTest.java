@@ -0,0 +1,85 @@
+package xyz.olivermartin.multichat.proxy.common.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ChatRingBufferTest {
+
+	@Test
+	public void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(2, new ChatRingBuffer<String>(1).getCapacity());
+		assertEquals(16, new ChatRingBuffer<String>(16).getCapacity());
+		assertEquals(32, new ChatRingBuffer<String>(17).getCapacity());
+	}
+
+	@Test
+	public void recentMessagesAreOldestFirst() {
+
+		ChatRingBuffer<String> buffer = new ChatRingBuffer<String>(4);
+
+		assertTrue(buffer.getRecent(10).isEmpty());
+
+		buffer.add("a");
+		buffer.add("b");
+		buffer.add("c");
+
+		assertEquals(Arrays.asList("a", "b", "c"), buffer.getRecent(10));
+		assertEquals(Arrays.asList("b", "c"), buffer.getRecent(2));
+
+	}
+
+	@Test
+	public void oldestMessagesAreWrittenOver() {
+
+		ChatRingBuffer<Integer> buffer = new ChatRingBuffer<Integer>(4);
+
+		for (int i = 0; i < 10; i++) {
+			buffer.add(i);
+		}
+
+		assertEquals(Arrays.asList(6, 7, 8, 9), buffer.getRecent(10));
+
+	}
+
+	@Test(timeout = 30000)
+	public void concurrentWritersLeaveTheNewestMessages() throws Exception {
+
+		final ChatRingBuffer<Integer> buffer = new ChatRingBuffer<Integer>(64);
+		final int writers = 8;
+		final int perWriter = 20000;
+
+		Thread[] threads = new Thread[writers];
+
+		for (int t = 0; t < writers; t++) {
+			final int base = t * perWriter;
+			threads[t] = new Thread(new Runnable() {
+				public void run() {
+					for (int i = 0; i < perWriter; i++) {
+						buffer.add(base + i);
+					}
+				}
+			});
+			threads[t].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// A writer which was overtaken must not put an older message back over a newer one
+		List<Integer> recent = buffer.getRecent(buffer.getCapacity());
+		assertEquals(buffer.getCapacity(), recent.size());
+
+		Set<Integer> unique = new HashSet<Integer>(recent);
+		assertEquals(recent.size(), unique.size());
+
+	}
+
+}
@@ -0,0 +1,137 @@
+package xyz.olivermartin.multichat.proxy.common.network;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NetworkBusTest {
+
+	private static final String CHANNEL = "test";
+
+	private MemoryNetworkBus.Hub hub;
+	private MemoryNetworkBus bus;
+	private List<String> received;
+
+	@Before
+	public void setup() {
+		hub = new MemoryNetworkBus.Hub();
+		bus = new MemoryNetworkBus("receiver", hub);
+		received = Collections.synchronizedList(new ArrayList<String>());
+		listen(bus, received);
+		bus.start();
+	}
+
+	private static void listen(NetworkBus bus, final List<String> received) {
+		bus.registerListener(CHANNEL, new NetworkBusListener() {
+			public void onReceive(NetworkEnvelope envelope) {
+				received.add(envelope.getField("text"));
+			}
+		});
+	}
+
+	private static NetworkEnvelope envelope(String origin, long sequence) {
+		return new NetworkEnvelope(UUID.randomUUID(), origin, sequence, CHANNEL, Collections.singletonMap("text", String.valueOf(sequence)));
+	}
+
+	@Test
+	public void envelopesArrivingOutOfOrderAreReordered() {
+
+		bus.inject(envelope("other", 0));
+		bus.inject(envelope("other", 2));
+		bus.inject(envelope("other", 3));
+		assertEquals(Arrays.asList("0"), received);
+
+		bus.inject(envelope("other", 1));
+		assertEquals(Arrays.asList("0", "1", "2", "3"), received);
+
+	}
+
+	@Test
+	public void copiesAreDroppedByID() {
+
+		NetworkEnvelope envelope = envelope("other", 0);
+		bus.inject(envelope);
+		bus.inject(envelope);
+
+		assertEquals(Arrays.asList("0"), received);
+
+	}
+
+	@Test
+	public void unsentEnvelopesAreNotWaitedFor() {
+
+		bus.inject(envelope("other", 0), -1);
+
+		// 1 and 2 were dropped by the sender, which says so by sending 0 as the previous envelope
+		bus.inject(envelope("other", 3), 0);
+		assertEquals(Arrays.asList("0", "3"), received);
+
+		// 4 was sent, so is waited for
+		bus.inject(envelope("other", 5), 4);
+		assertEquals(Arrays.asList("0", "3"), received);
+
+		bus.inject(envelope("other", 4), 3);
+		assertEquals(Arrays.asList("0", "3", "4", "5"), received);
+
+	}
+
+	@Test
+	public void droppedEnvelopeIsSkippedAfterTheGapTimeout() throws InterruptedException {
+
+		bus.inject(envelope("other", 0));
+		bus.inject(envelope("other", 2));
+		assertEquals(Arrays.asList("0"), received);
+
+		Thread.sleep(NetworkBus.GAP_TIMEOUT + 200L);
+		bus.inject(envelope("other", 3));
+
+		assertEquals(Arrays.asList("0", "2", "3"), received);
+
+		// Arrives too late, after it was skipped
+		bus.inject(envelope("other", 1));
+		assertEquals(Arrays.asList("0", "2", "3"), received);
+
+	}
+
+	@Test
+	public void reconnectedBusIsNotHeldUpByMissedEnvelopes() {
+
+		MemoryNetworkBus sender = new MemoryNetworkBus("sender", hub);
+		sender.start();
+
+		sender.publish(CHANNEL, Collections.singletonMap("text", "before"));
+
+		bus.shutdown();
+		sender.publish(CHANNEL, Collections.singletonMap("text", "missed 1"));
+		sender.publish(CHANNEL, Collections.singletonMap("text", "missed 2"));
+		bus.start();
+
+		sender.publish(CHANNEL, Collections.singletonMap("text", "after"));
+
+		assertEquals(Arrays.asList("before", "after"), received);
+
+	}
+
+	@Test
+	public void envelopesAreNotDeliveredToTheirOrigin() {
+
+		List<String> own = Collections.synchronizedList(new ArrayList<String>());
+		MemoryNetworkBus sender = new MemoryNetworkBus("sender", hub);
+		listen(sender, own);
+		sender.start();
+
+		sender.publish(CHANNEL, Collections.singletonMap("text", "hello"));
+
+		assertEquals(Arrays.asList("hello"), received);
+		assertEquals(Collections.emptyList(), own);
+
+	}
+
+}
@@ -0,0 +1,140 @@
+package xyz.olivermartin.multichat.proxy.common.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import xyz.olivermartin.multichat.proxy.common.storage.ProxyDataFormat;
+
+public class TcpNetworkBusTest {
+
+	private final List<TcpNetworkBus> buses = new ArrayList<TcpNetworkBus>();
+
+	@After
+	public void shutdown() {
+		for (TcpNetworkBus bus : buses) {
+			bus.shutdown();
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private TcpNetworkBus start(String name, int port, int peerPort, String secret, final BlockingQueue<String> received) throws IOException {
+
+		TcpNetworkBus bus = new TcpNetworkBus(name, new InetSocketAddress("127.0.0.1", port),
+				Arrays.asList(new InetSocketAddress("127.0.0.1", peerPort)), secret, 100);
+
+		bus.registerListener("test", new NetworkBusListener() {
+			public void onReceive(NetworkEnvelope envelope) {
+				received.add(envelope.getField("text"));
+			}
+		});
+
+		bus.start();
+		buses.add(bus);
+		return bus;
+
+	}
+
+	@Test
+	public void envelopesAreRelayedInOrder() throws Exception {
+
+		int firstPort = freePort();
+		int secondPort = freePort();
+
+		BlockingQueue<String> received = new LinkedBlockingQueue<String>();
+		TcpNetworkBus first = start("first", firstPort, secondPort, "secret", new LinkedBlockingQueue<String>());
+		start("second", secondPort, firstPort, "secret", received);
+
+		for (int i = 0; i < 100; i++) {
+			first.publish("test", Collections.singletonMap("text", String.valueOf(i)));
+		}
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(String.valueOf(i), received.poll(10L, TimeUnit.SECONDS));
+		}
+
+	}
+
+	@Test
+	public void wrongSecretIsRefused() throws Exception {
+
+		int firstPort = freePort();
+		int secondPort = freePort();
+
+		BlockingQueue<String> received = new LinkedBlockingQueue<String>();
+		TcpNetworkBus first = start("first", firstPort, secondPort, "wrong", new LinkedBlockingQueue<String>());
+		start("second", secondPort, firstPort, "secret", received);
+
+		first.publish("test", Collections.singletonMap("text", "hello"));
+
+		assertEquals(null, received.poll(2L, TimeUnit.SECONDS));
+
+	}
+
+	@Test
+	public void secretIsNotSentAndBadResponseIsClosed() throws Exception {
+
+		int port = freePort();
+		start("second", port, freePort(), "secret", new LinkedBlockingQueue<String>());
+
+		try (Socket socket = new Socket("127.0.0.1", port)) {
+
+			socket.setSoTimeout(5000);
+
+			DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+			DataInputStream in = new DataInputStream(socket.getInputStream());
+
+			out.writeInt(0x4D434E42);
+			out.writeInt(2);
+			ProxyDataFormat.writeString(out, "intruder");
+			out.flush();
+
+			byte[] challenge = new byte[32];
+			in.readFully(challenge);
+
+			out.write(new byte[32]);
+			out.flush();
+
+			assertEquals(-1, in.read());
+
+		}
+
+	}
+
+	@Test
+	public void silentConnectionIsClosedAfterTheHandshakeTimeout() throws Exception {
+
+		int port = freePort();
+		start("second", port, freePort(), "secret", new LinkedBlockingQueue<String>());
+
+		try (Socket socket = new Socket("127.0.0.1", port)) {
+			socket.setSoTimeout(15000);
+			long start = System.currentTimeMillis();
+			assertEquals(-1, socket.getInputStream().read());
+			assertTrue(System.currentTimeMillis() - start < 12000L);
+		}
+
+	}
+
+}
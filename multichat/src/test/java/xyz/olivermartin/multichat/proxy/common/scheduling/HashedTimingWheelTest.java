@@ -0,0 +1,136 @@
+package xyz.olivermartin.multichat.proxy.common.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import xyz.olivermartin.multichat.proxy.common.scheduling.HashedTimingWheel.Timeout;
+
+public class HashedTimingWheelTest {
+
+	private HashedTimingWheel wheel;
+
+	@After
+	public void stop() {
+		if (wheel != null) wheel.stop();
+	}
+
+	@Test(timeout = 10000)
+	public void taskWaitsMoreThanOneTimeRound() throws Exception {
+
+		// 512 ticks of a millisecond, so the task waits until the wheel has gone round once
+		wheel = new HashedTimingWheel("test-wheel", 1, TimeUnit.MILLISECONDS, 512);
+		wheel.start();
+
+		final CountDownLatch ran = new CountDownLatch(1);
+		final AtomicLong ranAt = new AtomicLong();
+
+		long start = System.nanoTime();
+
+		wheel.schedule(new Runnable() {
+			public void run() {
+				ranAt.set(System.nanoTime());
+				ran.countDown();
+			}
+		}, 700, TimeUnit.MILLISECONDS);
+
+		assertTrue(ran.await(5, TimeUnit.SECONDS));
+		assertTrue("Ran too early", ranAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(700));
+
+	}
+
+	@Test(timeout = 10000)
+	public void cancelledTaskIsNotRun() throws Exception {
+
+		wheel = new HashedTimingWheel("test-wheel", 1, TimeUnit.MILLISECONDS, 8);
+		wheel.start();
+
+		final AtomicInteger cancelledRuns = new AtomicInteger();
+		final CountDownLatch later = new CountDownLatch(1);
+
+		Timeout timeout = wheel.schedule(new Runnable() {
+			public void run() {
+				cancelledRuns.incrementAndGet();
+			}
+		}, 20, TimeUnit.MILLISECONDS);
+
+		wheel.schedule(new Runnable() {
+			public void run() {
+				later.countDown();
+			}
+		}, 60, TimeUnit.MILLISECONDS);
+
+		timeout.cancel();
+
+		assertTrue(later.await(5, TimeUnit.SECONDS));
+		assertEquals(0, cancelledRuns.get());
+
+	}
+
+	@Test(timeout = 10000)
+	public void taskScheduledBeforeStartIsRun() throws Exception {
+
+		wheel = new HashedTimingWheel("test-wheel", 1, TimeUnit.MILLISECONDS, 8);
+
+		final CountDownLatch ran = new CountDownLatch(1);
+
+		wheel.schedule(new Runnable() {
+			public void run() {
+				ran.countDown();
+			}
+		}, 0, TimeUnit.MILLISECONDS);
+
+		wheel.start();
+		assertTrue(ran.await(5, TimeUnit.SECONDS));
+
+	}
+
+	@Test(timeout = 10000)
+	public void restartedWheelDropsOldTasksAndStartsAgain() throws Exception {
+
+		wheel = new HashedTimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 8);
+		wheel.start();
+
+		final AtomicInteger oldRuns = new AtomicInteger();
+
+		Timeout old = wheel.schedule(new Runnable() {
+			public void run() {
+				oldRuns.incrementAndGet();
+			}
+		}, 400, TimeUnit.MILLISECONDS);
+
+		// Long enough for the wheel to have moved on many ticks
+		Thread.sleep(300);
+
+		wheel.stop();
+		assertTrue(old.isCancelled());
+		assertFalse(wheel.isRunning());
+
+		wheel.start();
+
+		final CountDownLatch ran = new CountDownLatch(1);
+		long start = System.nanoTime();
+
+		wheel.schedule(new Runnable() {
+			public void run() {
+				ran.countDown();
+			}
+		}, 0, TimeUnit.MILLISECONDS);
+
+		assertTrue(ran.await(5, TimeUnit.SECONDS));
+		assertTrue("The tick was not reset", System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+
+		Thread.sleep(300);
+		assertEquals(0, oldRuns.get());
+
+	}
+
+}
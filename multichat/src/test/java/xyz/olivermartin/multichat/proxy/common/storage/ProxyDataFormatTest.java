@@ -0,0 +1,149 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProxyDataFormatTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void roundTrip() throws IOException {
+
+		Set<UUID> uuids = new HashSet<UUID>(Arrays.asList(UUID.randomUUID(), UUID.randomUUID()));
+		List<String> strings = Arrays.asList("first", "\u00e9t\u00e9 \u00a7a\u2764", "", null);
+		Map<String, String> map = new HashMap<String, String>();
+		map.put("global", "&f%DISPLAYNAME%: ");
+		map.put("empty", null);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			ProxyDataFormat.writeHeader(out, "test", 3);
+			ProxyDataFormat.writeUUIDs(out, uuids);
+			ProxyDataFormat.writeStrings(out, strings);
+			ProxyDataFormat.writeStringMap(out, map);
+			ProxyDataFormat.writeStrings(out, null);
+		}
+
+		try (DataInputStream in = input(bytes)) {
+			assertEquals(3, ProxyDataFormat.readHeader(in, "test"));
+			assertEquals(uuids, ProxyDataFormat.readUUIDs(in, new HashSet<UUID>()));
+			assertEquals(strings, ProxyDataFormat.readStrings(in, new ArrayList<String>()));
+			assertEquals(map, ProxyDataFormat.readStringMap(in, new HashMap<String, String>()));
+			assertTrue(ProxyDataFormat.readStrings(in, new ArrayList<String>()).isEmpty());
+			assertEquals(-1, in.read());
+		}
+
+	}
+
+	@Test(expected = IOException.class)
+	public void wrongTypeIsRejected() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			ProxyDataFormat.writeHeader(out, "mute", 1);
+		}
+
+		ProxyDataFormat.readHeader(input(bytes), "ignore");
+
+	}
+
+	@Test(expected = IOException.class)
+	public void newerFormatIsRejected() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(ProxyDataFormat.MAGIC);
+			out.writeShort(ProxyDataFormat.FORMAT_VERSION + 1);
+			ProxyDataFormat.writeString(out, "test");
+			out.writeInt(1);
+		}
+
+		ProxyDataFormat.readHeader(input(bytes), "test");
+
+	}
+
+	@Test(expected = IOException.class)
+	public void corruptStringLengthIsRejected() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(Integer.MAX_VALUE);
+		}
+
+		ProxyDataFormat.readString(input(bytes));
+
+	}
+
+	@Test(expected = IOException.class)
+	public void negativeCountIsRejected() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			ProxyDataFormat.writeCount(out, -2);
+		}
+
+		ProxyDataFormat.readUUIDs(input(bytes), new HashSet<UUID>());
+
+	}
+
+	@Test
+	public void nullStringRoundTrip() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			ProxyDataFormat.writeString(out, null);
+		}
+
+		assertNull(ProxyDataFormat.readString(input(bytes)));
+
+	}
+
+	@Test
+	public void legacyFilesAreNotFormatted() throws IOException {
+
+		File formatted = folder.newFile("Formatted.dat");
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(formatted))) {
+			ProxyDataFormat.writeHeader(out, "test", 1);
+		}
+
+		File legacy = folder.newFile("Legacy.dat");
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(legacy))) {
+			out.writeObject(new HashMap<String, String>());
+		}
+
+		assertTrue(ProxyDataFormat.isFormatted(formatted));
+		assertFalse(ProxyDataFormat.isFormatted(legacy));
+		assertFalse(ProxyDataFormat.isFormatted(folder.newFile("Empty.dat")));
+
+	}
+
+	private static DataInputStream input(ByteArrayOutputStream bytes) {
+		return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+}
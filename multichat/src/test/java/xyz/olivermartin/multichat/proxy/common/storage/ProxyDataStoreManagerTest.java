@@ -0,0 +1,120 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProxyDataStoreManagerTest {
+
+	private static final String FILE_NAME = "Counter.dat";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ProxyDataStoreManager dataStoreManager;
+
+	@Before
+	public void setup() {
+		dataStoreManager = new ProxyDataStoreManager(folder.getRoot());
+	}
+
+	@After
+	public void shutdown() {
+		dataStoreManager.shutdown(5L, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void onlyDirtyStoresAreSerialised() {
+
+		CounterStore store = new CounterStore();
+		dataStoreManager.registerStore(store);
+
+		// Missing, so it is written straight away
+		dataStoreManager.load(FILE_NAME);
+		assertEquals(1, store.writes);
+
+		assertEquals(0, dataStoreManager.saveChanged());
+		assertEquals(1, store.writes);
+
+		store.value = 5;
+		dataStoreManager.markDirty(FILE_NAME);
+		assertEquals(1, dataStoreManager.saveChanged());
+		assertEquals(2, store.writes);
+
+		assertEquals(0, dataStoreManager.saveChanged());
+		assertEquals(2, store.writes);
+
+		assertEquals(1, dataStoreManager.saveAll());
+		assertEquals(3, store.writes);
+
+	}
+
+	@Test
+	public void loadedStoreIsNotSerialisedUntilChanged() {
+
+		CounterStore first = new CounterStore();
+		first.value = 7;
+		dataStoreManager.registerStore(first);
+		dataStoreManager.load(FILE_NAME);
+		assertTrue(dataStoreManager.flush(5L, TimeUnit.SECONDS));
+
+		ProxyDataStoreManager reloadedManager = new ProxyDataStoreManager(folder.getRoot());
+		CounterStore reloaded = new CounterStore();
+		reloadedManager.registerStore(reloaded);
+
+		try {
+
+			reloadedManager.load(FILE_NAME);
+			assertEquals(7, reloaded.value);
+			assertEquals(0, reloadedManager.saveChanged());
+			assertEquals(0, reloaded.writes);
+
+			reloaded.value = 8;
+			reloaded.markDirty();
+			assertEquals(1, reloadedManager.saveChanged());
+
+		} finally {
+			reloadedManager.shutdown(5L, TimeUnit.SECONDS);
+		}
+
+		assertTrue(new File(folder.getRoot(), FILE_NAME).exists());
+
+	}
+
+	private static class CounterStore extends ProxyDataStore {
+
+		private volatile int value;
+		private int writes;
+
+		CounterStore() {
+			super(FILE_NAME, "counter", 1);
+		}
+
+		protected void write(DataOutputStream out) throws IOException {
+			writes++;
+			out.writeInt(value);
+		}
+
+		protected void read(DataInputStream in, int version) throws IOException {
+			value = in.readInt();
+		}
+
+		protected void readLegacy(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			throw new IOException("No legacy format");
+		}
+
+	}
+
+}
@@ -0,0 +1,187 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProxyIndexedUUIDNameStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ProxyDataStoreManager dataStoreManager;
+	private ProxyIndexedUUIDNameStore store;
+
+	@Before
+	public void setup() {
+		dataStoreManager = new ProxyDataStoreManager(folder.getRoot());
+	}
+
+	@After
+	public void shutdown() {
+		if (store != null) store.shutdown();
+		dataStoreManager.shutdown(5L, TimeUnit.SECONDS);
+	}
+
+	private void restart() {
+		if (store != null) store.shutdown();
+		store = new ProxyIndexedUUIDNameStore(folder.getRoot(), dataStoreManager, 100);
+		store.load();
+	}
+
+	@Test
+	public void namesSurviveRestart() {
+
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+
+		restart();
+		store.addNew(first, "Alice");
+		store.addNew(second, "Bob");
+
+		restart();
+		assertEquals("Alice", store.getName(first));
+		assertEquals(Optional.of(second), store.getUUID("bob"));
+
+		store.addNew(second, "Robert");
+		store.removeUUID(first);
+
+		restart();
+		assertNull(store.getName(first));
+		assertFalse(store.existsUUID(first));
+		assertEquals("Robert", store.getName(second));
+		assertFalse(store.getUUID("bob").isPresent());
+
+	}
+
+	@Test
+	public void namesSurviveCompaction() {
+
+		UUID uuid = UUID.randomUUID();
+
+		restart();
+		store.addNew(uuid, "Alice");
+		store.compact();
+
+		restart();
+		assertEquals("Alice", store.getName(uuid));
+		assertEquals(Optional.of(uuid), store.getUUID("ALICE"));
+
+	}
+
+	@Test
+	public void newestHolderOfANameIsFound() {
+
+		UUID older = UUID.randomUUID();
+		UUID newer = UUID.randomUUID();
+
+		restart();
+		store.addNew(older, "Steve");
+		store.compact();
+		store.addNew(newer, "Steve");
+
+		assertEquals(Optional.of(newer), store.getUUID("steve"));
+
+		restart();
+		assertEquals(Optional.of(newer), store.getUUID("steve"));
+
+	}
+
+	@Test
+	public void unchangedNameIsNotLogged() {
+
+		UUID uuid = UUID.randomUUID();
+		File log = new File(folder.getRoot(), ProxyIndexedUUIDNameStore.LOG_FILE_NAME);
+
+		restart();
+		store.addNew(uuid, "Alice");
+		long length = log.length();
+
+		store.addNew(uuid, "Alice");
+		assertEquals(length, log.length());
+
+	}
+
+	@Test
+	public void smallLogIsNotCompactedOnShutdown() {
+
+		restart();
+		store.addNew(UUID.randomUUID(), "Alice");
+
+		File index = new File(folder.getRoot(), ProxyIndexedUUIDNameStore.INDEX_FILE_NAME);
+		long modified = index.lastModified();
+		long length = index.length();
+
+		restart();
+		assertEquals(length, index.length());
+		assertEquals(modified, index.lastModified());
+
+	}
+
+	@Test
+	public void unreadableNameFileIsKept() throws IOException {
+
+		File dataFile = new File(folder.getRoot(), ProxyMemoryUUIDNameStore.FILE_NAME);
+		try (FileOutputStream out = new FileOutputStream(dataFile)) {
+			out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		}
+
+		UUID uuid = UUID.randomUUID();
+
+		restart();
+		store.addNew(uuid, "Alice");
+		store.shutdown();
+		store = null;
+
+		assertTrue(dataFile.exists());
+		assertFalse(new File(folder.getRoot(), ProxyIndexedUUIDNameStore.INDEX_FILE_NAME).exists());
+
+		// Once the old file can be read, the index is built and the names from the log are kept
+		assertTrue(dataFile.delete());
+
+		restart();
+		assertEquals("Alice", store.getName(uuid));
+		assertTrue(new File(folder.getRoot(), ProxyIndexedUUIDNameStore.INDEX_FILE_NAME).exists());
+
+	}
+
+	@Test
+	public void importedNamesAreOlderThanTheLog() {
+
+		UUID renamed = UUID.randomUUID();
+		UUID kept = UUID.randomUUID();
+
+		ProxyMemoryUUIDNameStore memoryStore = new ProxyMemoryUUIDNameStore(dataStoreManager);
+		memoryStore.load();
+		memoryStore.addNew(renamed, "Alice");
+		memoryStore.addNew(kept, "Bob");
+		memoryStore.save();
+		assertTrue(dataStoreManager.flush(5L, TimeUnit.SECONDS));
+
+		restart();
+		assertEquals("Alice", store.getName(renamed));
+		assertEquals("Bob", store.getName(kept));
+
+		store.addNew(renamed, "Alicia");
+
+		restart();
+		assertEquals("Alicia", store.getName(renamed));
+		assertEquals("Bob", store.getName(kept));
+
+	}
+
+}
@@ -0,0 +1,61 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProxyMemoryUUIDNameStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ProxyDataStoreManager dataStoreManager;
+
+	@Before
+	public void setup() {
+		dataStoreManager = new ProxyDataStoreManager(folder.getRoot());
+	}
+
+	@After
+	public void shutdown() {
+		dataStoreManager.shutdown(5L, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void newestHolderOfANameIsFound() {
+
+		UUID[] uuids = new UUID[50];
+
+		ProxyMemoryUUIDNameStore store = new ProxyMemoryUUIDNameStore(dataStoreManager);
+		store.load();
+
+		// Enough players that the order of a hash map would not match by chance
+		for (int i = 0; i < uuids.length; i++) {
+			uuids[i] = UUID.randomUUID();
+			store.addNew(uuids[i], "Steve");
+		}
+
+		assertEquals(Optional.of(uuids[uuids.length - 1]), store.getUUID("steve"));
+
+		store.addNew(uuids[0], "Alex");
+		store.addNew(uuids[0], "Steve");
+		assertEquals(Optional.of(uuids[0]), store.getUUID("STEVE"));
+
+		store.save();
+		dataStoreManager.flush(5L, TimeUnit.SECONDS);
+
+		ProxyMemoryUUIDNameStore reloaded = new ProxyMemoryUUIDNameStore(dataStoreManager);
+		reloaded.load();
+		assertEquals(Optional.of(uuids[0]), reloaded.getUUID("steve"));
+
+	}
+
+}
@@ -0,0 +1,218 @@
+package xyz.olivermartin.multichat.proxy.common.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import xyz.olivermartin.multichat.common.database.SQLitePooledDatabase;
+
+/**
+ * Runs two proxies against one SQLite database file
+ */
+public class ProxySQLStoreManagerTest {
+
+	private static final String FILE_NAME = "Values.dat";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<TestProxy> proxies = new ArrayList<TestProxy>();
+
+	@After
+	public void shutdown() {
+		for (TestProxy proxy : proxies) {
+			proxy.manager.shutdown(5L, TimeUnit.SECONDS);
+			proxy.dataStoreManager.shutdown(5L, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void twoProxiesConverge() throws Exception {
+
+		TestProxy first = start("first");
+		TestProxy second = start("second");
+
+		first.add("a");
+		first.add("b");
+		first.sync();
+
+		second.add("c");
+		second.sync();
+		first.sync();
+
+		assertEquals(set("a", "b", "c"), first.values());
+		assertEquals(set("a", "b", "c"), second.values());
+
+		second.remove("a");
+		second.sync();
+		first.sync();
+
+		assertEquals(set("b", "c"), first.values());
+		assertEquals(set("b", "c"), second.values());
+
+	}
+
+	@Test
+	public void localChangeIsNotReplacedByRemoteRows() throws Exception {
+
+		TestProxy first = start("first");
+		TestProxy second = start("second");
+
+		first.add("remote");
+		first.sync();
+
+		// Changed locally before the sync which finds the remote row
+		second.add("local");
+		second.sync();
+
+		assertEquals(set("local", "remote"), second.values());
+
+		first.sync();
+		assertEquals(set("local", "remote"), first.values());
+
+	}
+
+	@Test
+	public void localChangesSurviveConcurrentRemoteSyncs() throws Exception {
+
+		final TestProxy first = start("first");
+		TestProxy second = start("second");
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final Set<String> added = new HashSet<String>();
+
+		Thread changer = new Thread(new Runnable() {
+			public void run() {
+				int i = 0;
+				while (running.get()) {
+					String value = "local-" + i++;
+					first.add(value);
+					added.add(value);
+					try {
+						Thread.sleep(1L);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		});
+
+		changer.start();
+
+		for (int i = 0; i < 50; i++) {
+			second.add("remote-" + i);
+			second.sync();
+			first.sync();
+		}
+
+		running.set(false);
+		changer.join();
+
+		first.sync();
+		second.sync();
+
+		Set<String> values = first.values();
+
+		assertTrue("A local change was lost", values.containsAll(added));
+		for (int i = 0; i < 50; i++) {
+			assertTrue("A remote change was lost", values.contains("remote-" + i));
+		}
+
+		assertEquals(values, second.values());
+
+	}
+
+	private TestProxy start(String name) throws SQLException {
+		TestProxy proxy = new TestProxy(folder.getRoot(), new File(folder.getRoot(), name));
+		proxies.add(proxy);
+		return proxy;
+	}
+
+	private static Set<String> set(String... values) {
+		Set<String> set = new HashSet<String>();
+		for (String value : values) set.add(value);
+		return set;
+	}
+
+	/**
+	 * The data of one proxy, which is only changed while holding its data lock
+	 */
+	private static class TestProxy {
+
+		private final Object dataLock = new Object();
+		private final Set<String> data = new HashSet<String>();
+
+		private final ProxyDataStoreManager dataStoreManager;
+		private final ProxySQLStoreManager manager;
+
+		TestProxy(File databaseDirectory, File dataDirectory) throws SQLException {
+
+			dataDirectory.mkdirs();
+
+			final ProxySQLTable table = new ProxySQLTable("test_values", 1, "value VARCHAR(128)");
+
+			dataStoreManager = new ProxyDataStoreManager(dataDirectory);
+			manager = new ProxySQLStoreManager(new SQLitePooledDatabase(databaseDirectory, "test.db", 2, new HashMap<String, String>()), dataStoreManager, dataLock);
+
+			manager.registerStore(new ProxySQLStore(FILE_NAME, "test", table) {
+
+				protected void write(ProxySQLRows rows) {
+					for (String value : data) {
+						rows.add(table, value);
+					}
+				}
+
+				protected void read(ProxySQLRows rows) {
+					data.clear();
+					for (List<Object> row : rows.get(table)) {
+						data.add((String)row.get(0));
+					}
+				}
+
+			});
+
+			assertTrue(manager.setupTables());
+			assertTrue(manager.load(FILE_NAME));
+
+		}
+
+		void add(String value) {
+			synchronized (dataLock) {
+				data.add(value);
+			}
+		}
+
+		void remove(String value) {
+			synchronized (dataLock) {
+				data.remove(value);
+			}
+		}
+
+		Set<String> values() {
+			synchronized (dataLock) {
+				return new HashSet<String>(data);
+			}
+		}
+
+		void sync() {
+			manager.sync();
+			assertTrue(manager.flush(10L, TimeUnit.SECONDS));
+		}
+
+	}
+
+}